@@ -0,0 +1,92 @@
+package dev.ase.teamproject;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A closed-loop HTTP load generator for comparing request execution modes.
+ *
+ * <p>It keeps a fixed number of GET requests to one URL in flight for a fixed
+ * time and prints the throughput, the error count and latency percentiles. Run
+ * the application once with {@code spring.threads.virtual.enabled=false} and once
+ * with {@code true}, against the same database, and compare the two reports.
+ */
+public final class RequestLoadTest {
+  private static final int MAX_SAMPLES = 10_000_000;
+
+  private RequestLoadTest() {
+  }
+
+  /**
+   * Runs the load test.
+   *
+   * @param args The URL, the number of requests in flight (default 512) and the
+   *             duration in seconds (default 30).
+   * @throws InterruptedException if interrupted while waiting for requests.
+   */
+  public static void main(final String[] args) throws InterruptedException {
+    if (args.length < 1) {
+      System.err.println("Usage: RequestLoadTest <url> [concurrency] [seconds]");
+      return;
+    }
+    final URI uri = URI.create(args[0]);
+    final int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 512;
+    final int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+    final HttpClient client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+    final HttpRequest request = HttpRequest.newBuilder(uri)
+        .timeout(Duration.ofSeconds(30))
+        .GET()
+        .build();
+
+    final long[] latencies = new long[MAX_SAMPLES];
+    final AtomicLong samples = new AtomicLong();
+    final AtomicLong errors = new AtomicLong();
+    final Semaphore inFlight = new Semaphore(concurrency);
+    final long start = System.nanoTime();
+    final long end = start + TimeUnit.SECONDS.toNanos(seconds);
+    while (System.nanoTime() < end) {
+      inFlight.acquire();
+      final long sent = System.nanoTime();
+      client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+          .whenComplete((response, failure) -> {
+            final long index = samples.getAndIncrement();
+            if (index < MAX_SAMPLES) {
+              latencies[(int) index] = System.nanoTime() - sent;
+            }
+            if (failure != null || response.statusCode() >= 400) {
+              errors.incrementAndGet();
+            }
+            inFlight.release();
+          });
+    }
+    inFlight.acquire(concurrency);
+    final double elapsed = (System.nanoTime() - start) / 1e9;
+
+    final int count = (int) Math.min(samples.get(), MAX_SAMPLES);
+    final long[] sorted = Arrays.copyOf(latencies, count);
+    Arrays.sort(sorted);
+    System.out.printf("%s with %d in flight for %.1f s%n", uri, concurrency, elapsed);
+    System.out.printf("requests %,d  errors %,d  throughput %,.0f req/s%n",
+        samples.get(), errors.get(), samples.get() / elapsed);
+    System.out.printf("latency ms  p50 %.1f  p90 %.1f  p99 %.1f  max %.1f%n",
+        percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+        percentile(sorted, 1.0));
+  }
+
+  private static double percentile(final long[] sorted, final double fraction) {
+    if (sorted.length == 0) {
+      return Double.NaN;
+    }
+    final int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+    return sorted[Math.max(0, index)] / 1e6;
+  }
+}
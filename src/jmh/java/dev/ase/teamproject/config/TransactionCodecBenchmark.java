@@ -0,0 +1,106 @@
+package dev.ase.teamproject.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.TransactionCategory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares serializing a user's transaction list as JSON, with the
+ * application's settings, and as CBOR from {@link CborConfig}. The payload
+ * sizes, raw and gzipped, are printed when the trial starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionCodecBenchmark {
+
+  @Param({"1000"})
+  private int transactions;
+
+  private List<Transaction> list;
+  private ObjectMapper json;
+  private ObjectMapper cbor;
+  private byte[] jsonBytes;
+  private byte[] cborBytes;
+
+  /**
+   * Builds the transactions and prints the payload sizes.
+   */
+  @Setup
+  public void fill() throws IOException {
+    final SplittableRandom random = new SplittableRandom(42);
+    final UUID userId = UUID.randomUUID();
+    final LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+    list = new ArrayList<>(transactions);
+    for (int i = 0; i < transactions; i++) {
+      final Transaction transaction = new Transaction(userId, random.nextInt(100_000) / 100.0,
+          TransactionCategory.of(random.nextInt(TransactionCategory.COUNT)).name(),
+          "Purchase " + i);
+      transaction.setTransactionId(UUID.randomUUID());
+      transaction.setTimestamp(start.plusSeconds(random.nextInt(30_000_000)));
+      transaction.setDate(transaction.getTimestamp().toLocalDate());
+      list.add(transaction);
+    }
+    json = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    cbor = CborConfig.cborMapper(new Jackson2ObjectMapperBuilder());
+    jsonBytes = json.writeValueAsBytes(list);
+    cborBytes = cbor.writeValueAsBytes(list);
+    System.out.printf("%n%d transactions: JSON %d bytes (%d gzipped), CBOR %d bytes (%d gzipped)%n",
+        transactions, jsonBytes.length, gzipped(jsonBytes), cborBytes.length, gzipped(cborBytes));
+  }
+
+  @Benchmark
+  public byte[] writeJson() throws JsonProcessingException {
+    return json.writeValueAsBytes(list);
+  }
+
+  @Benchmark
+  public byte[] writeCbor() throws JsonProcessingException {
+    return cbor.writeValueAsBytes(list);
+  }
+
+  @Benchmark
+  public Object readJson() throws IOException {
+    return json.readValue(jsonBytes, Transaction[].class);
+  }
+
+  @Benchmark
+  public Object readCbor() throws IOException {
+    return cbor.readValue(cborBytes, Transaction[].class);
+  }
+
+  private static int gzipped(final byte[] bytes) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.size();
+  }
+}
@@ -0,0 +1,124 @@
+package dev.ase.teamproject.controller;
+
+import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.repository.InMemoryLedgerRepository;
+import dev.ase.teamproject.service.MockApiService;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+/**
+ * Compares rendering the index page by building it as a string with
+ * {@code String.format} per user, as the controller used to, with streaming it
+ * through {@link HtmlPageConverter}. Both write UTF-8 to a discarding stream,
+ * as the response would; {@code listing} is the cost of fetching the users that both
+ * share. Run with {@code -prof gc} to see the allocation per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexPageBenchmark {
+
+  @Param({"10000"})
+  private int users;
+
+  private final HtmlPageConverter converter = new HtmlPageConverter();
+  private RouteController controller;
+  private MockApiService service;
+
+  /**
+   * Creates the users in an in-memory store, with request logging off.
+   */
+  @Setup
+  public void fill() {
+    Logger.getLogger("").setLevel(Level.OFF);
+    final InMemoryLedgerRepository repository = new InMemoryLedgerRepository();
+    final SplittableRandom random = new SplittableRandom(42);
+    for (int i = 0; i < users; i++) {
+      repository.insertUser(new User("user" + i, "user" + i + "@example.com",
+          random.nextInt(1_000_000) / 100.0));
+    }
+    service = new MockApiService(repository);
+    controller = new RouteController(service);
+  }
+
+  @Benchmark
+  public List<User> listing() {
+    return service.viewAllUsers();
+  }
+
+  @Benchmark
+  public long formatted() throws IOException {
+    final List<User> all = service.viewAllUsers();
+    final StringBuilder userList = new StringBuilder(Math.max(64, all.size() * 48));
+    userList.append("Existing Users:<br>");
+    for (final User user : all) {
+      userList.append(String.format(
+          "- <a href='/users/%s'>%s</a> | %s | Budget: $%.2f<br>",
+          user.getUserId(), user.getUsername(), user.getEmail(), user.getBudget()));
+    }
+    final String html = "<html><body>"
+        + "<h1>Welcome to the Personal Finance Tracker</h1>"
+        + "<p>" + userList + "</p>"
+        + "</body></html>";
+    final CountingStream body = new CountingStream();
+    body.write(html.getBytes(StandardCharsets.UTF_8));
+    return body.count;
+  }
+
+  @Benchmark
+  public long streamed() throws IOException {
+    final CountingStream body = new CountingStream();
+    converter.write(controller.index().getBody(), MediaType.TEXT_HTML, new HttpOutputMessage() {
+      @Override
+      public OutputStream getBody() {
+        return body;
+      }
+
+      @Override
+      public HttpHeaders getHeaders() {
+        return new HttpHeaders();
+      }
+    });
+    return body.count;
+  }
+
+  /**
+   * Discards what is written, counting the bytes.
+   */
+  private static final class CountingStream extends OutputStream {
+    private long count;
+
+    @Override
+    public void write(final int b) {
+      count++;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+      count += len;
+    }
+  }
+}
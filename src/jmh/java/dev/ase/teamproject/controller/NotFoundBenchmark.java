@@ -0,0 +1,128 @@
+package dev.ase.teamproject.controller;
+
+import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.repository.InMemoryLedgerRepository;
+import dev.ase.teamproject.service.MockApiService;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Measures the throughput of {@code GET /users/{userId}} through Spring MVC's
+ * dispatcher, for a user that exists ({@code found}) and one that does not
+ * ({@code notFound}), which the controller now answers with a 404 directly.
+ * {@code notFoundThrown} is the way it used to answer: the JDBC store caught an
+ * {@code EmptyResultDataAccessException} and the controller threw a
+ * {@code NoSuchElementException} that an exception handler turned into the
+ * 404. Run with {@code -prof gc} to see the allocation per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotFoundBenchmark {
+
+  private MockMvc mvc;
+  private String existing;
+  private String missing;
+  private String missingThrown;
+
+  /**
+   * Sets up the controllers over an in-memory store holding one user, with
+   * request logging off.
+   */
+  @Setup
+  public void setUp() {
+    Logger.getLogger("").setLevel(Level.OFF);
+    final InMemoryLedgerRepository repository = new InMemoryLedgerRepository();
+    final User user = repository.insertUser(new User("alice", "alice@example.com", 100.0));
+    final MockApiService service = new MockApiService(repository);
+    mvc = MockMvcBuilders
+        .standaloneSetup(new RouteController(service), new ThrowingLookup(service))
+        .build();
+    existing = "/users/" + user.getUserId();
+    final UUID absent = UUID.randomUUID();
+    missing = "/users/" + absent;
+    missingThrown = "/thrown/users/" + absent;
+  }
+
+  @Benchmark
+  public int found() throws Exception {
+    return get(existing).getStatus();
+  }
+
+  @Benchmark
+  public int notFound() throws Exception {
+    return get(missing).getStatus();
+  }
+
+  @Benchmark
+  public int notFoundThrown() throws Exception {
+    return get(missingThrown).getStatus();
+  }
+
+  private MockHttpServletResponse get(final String path) throws Exception {
+    return mvc.perform(MockMvcRequestBuilders.get(path)).andReturn().getResponse();
+  }
+
+  /**
+   * The user lookup as it was, signalling a missing user with exceptions.
+   */
+  @RestController
+  public static class ThrowingLookup {
+    private final MockApiService service;
+
+    ThrowingLookup(final MockApiService service) {
+      this.service = service;
+    }
+
+    @GetMapping("/thrown/users/{userId}")
+    public ResponseEntity<User> getUser(@PathVariable final UUID userId) {
+      return find(userId).map(ResponseEntity::ok)
+          .orElseThrow(() -> new NoSuchElementException("User " + userId + " not found"));
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<Map<String, String>> handleNotFound(
+        final NoSuchElementException exception) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND)
+          .body(Map.of("error", exception.getMessage()));
+    }
+
+    private Optional<User> find(final UUID userId) {
+      try {
+        return Optional.of(service.getUser(userId)
+            .orElseThrow(() -> new EmptyResultDataAccessException(1)));
+      } catch (EmptyResultDataAccessException e) {
+        return Optional.empty();
+      }
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package dev.ase.teamproject.filter;
+
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Measures the cost the rate limit adds to a request: classifying its path,
+ * finding its client's bucket and taking a token, with clients spread over the
+ * stripes. The limits are high enough that no request is rejected.
+ * {@code requestReads} is the part of that spent reading the mock request's
+ * path and headers, which a real container serves from parsed buffers. Run with
+ * {@code -t 4} on a multi-core machine to see contention between threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+  private static final int CLIENTS = 1024;
+
+  private final RateLimitFilter filter =
+      new RateLimitFilter(1e9, 1_000_000, 1e9, 1_000_000, 1e9, 1_000_000, "ip", 100_000, 600);
+  private final MockHttpServletResponse response = new MockHttpServletResponse();
+  private final MockFilterChain chain = new MockFilterChain() {
+    @Override
+    public void doFilter(final jakarta.servlet.ServletRequest request,
+                         final jakarta.servlet.ServletResponse response) {
+      // The rest of the chain is not measured
+    }
+  };
+  private MockHttpServletRequest[] requests;
+
+  /**
+   * Builds requests from {@value #CLIENTS} clients to a transactions path.
+   */
+  @Setup
+  public void requests() {
+    requests = new MockHttpServletRequest[CLIENTS];
+    final String path = "/users/" + UUID.randomUUID() + "/transactions";
+    for (int i = 0; i < CLIENTS; i++) {
+      requests[i] = new MockHttpServletRequest("GET", path);
+      requests[i].setRemoteAddr("10.0." + (i >> 8) + "." + (i & 255));
+    }
+  }
+
+  /**
+   * Per-thread position in the request array, starting at a random client so
+   * that threads do not walk the stripes in lockstep.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int next;
+
+    /**
+     * Picks the starting client.
+     */
+    @Setup
+    public void start() {
+      next = ThreadLocalRandom.current().nextInt(CLIENTS);
+    }
+  }
+
+  @Benchmark
+  public int requestReads(final Cursor cursor) {
+    final MockHttpServletRequest request = requests[cursor.next++ & (CLIENTS - 1)];
+    return request.getMethod().length() + request.getRequestURI().length()
+        + request.getRemoteAddr().length();
+  }
+
+  @Benchmark
+  public void filter(final Cursor cursor) throws IOException, ServletException {
+    filter.doFilter(requests[cursor.next++ & (CLIENTS - 1)], response, chain);
+  }
+}
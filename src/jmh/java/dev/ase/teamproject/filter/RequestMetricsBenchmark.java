@@ -0,0 +1,46 @@
+package dev.ase.teamproject.filter;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures what recording one request in {@link RequestMetrics} costs: the
+ * in-flight count going up and down, finding the endpoint among a dozen routes
+ * with a few statuses each, and recording the latency. Run with {@code -t 4} on
+ * a multi-core machine to see threads recording into the same endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestMetricsBenchmark {
+
+  private static final String[] ROUTES = {
+      "/users", "/users/{userId}", "/users/{userId}/transactions",
+      "/users/{userId}/transactions/{transactionId}", "/users/{userId}/budget",
+      "/users/{userId}/budget-report", "/users/{userId}/weekly-summary",
+      "/users/{userId}/monthly-summary", "/users/{userId}/spending",
+      "/users/{userId}/percentiles", "/transactions/lookup", "/dashboard/budget-reports"};
+  private static final int[] STATUSES = {200, 201, 404, 503};
+
+  private final RequestMetrics metrics = new RequestMetrics();
+  private int next;
+
+  @Benchmark
+  public void record() {
+    final int i = next++;
+    metrics.started(RouteGroup.DEFAULT);
+    metrics.finished(RouteGroup.DEFAULT, "GET", ROUTES[i % ROUTES.length],
+        STATUSES[(i >>> 4) & 3], 250_000 + (i & 0xFFFF));
+  }
+}
@@ -0,0 +1,105 @@
+package dev.ase.teamproject.util;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares lookups and replacing writes on a {@link UuidMap} and a
+ * {@code ConcurrentHashMap<UUID, Object>} holding the same random keys.
+ *
+ * <p>Lookups use fresh {@code UUID} instances equal to the stored keys, as a
+ * request handler would after parsing an ID from a path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidMapBenchmark {
+
+  @Param({"10000", "1000000"})
+  private int size;
+
+  private UUID[] probes;
+  private UuidMap<Object> uuidMap;
+  private Map<UUID, Object> concurrentHashMap;
+
+  /**
+   * Fills both maps with the same keys.
+   */
+  @Setup(Level.Trial)
+  public void fill() {
+    final SplittableRandom random = new SplittableRandom(42);
+    probes = new UUID[size];
+    uuidMap = new UuidMap<>();
+    concurrentHashMap = new ConcurrentHashMap<>();
+    for (int i = 0; i < size; i++) {
+      final UUID key = new UUID(random.nextLong(), random.nextLong());
+      final Object value = new Object();
+      uuidMap.put(key, value);
+      concurrentHashMap.put(key, value);
+      probes[i] = new UUID(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+  }
+
+  /**
+   * Per-thread position in the probe keys.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private final SplittableRandom random = new SplittableRandom();
+
+    int next(final int bound) {
+      return random.nextInt(bound);
+    }
+  }
+
+  @Benchmark
+  public Object getUuidMap(final Cursor cursor) {
+    return uuidMap.get(probes[cursor.next(size)]);
+  }
+
+  @Benchmark
+  public Object getConcurrentHashMap(final Cursor cursor) {
+    return concurrentHashMap.get(probes[cursor.next(size)]);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Object getUuidMapContended(final Cursor cursor) {
+    return uuidMap.get(probes[cursor.next(size)]);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Object getConcurrentHashMapContended(final Cursor cursor) {
+    return concurrentHashMap.get(probes[cursor.next(size)]);
+  }
+
+  @Benchmark
+  public Object putUuidMap(final Cursor cursor) {
+    return uuidMap.put(probes[cursor.next(size)], cursor);
+  }
+
+  @Benchmark
+  public Object putConcurrentHashMap(final Cursor cursor) {
+    return concurrentHashMap.put(probes[cursor.next(size)], cursor);
+  }
+}
@@ -0,0 +1,49 @@
+package dev.ase.teamproject.util;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Prints the retained heap of a {@link UuidMap} and a
+ * {@code ConcurrentHashMap<UUID, Object>} holding the same entries, excluding
+ * the values, which both maps share.
+ */
+public final class UuidMapFootprint {
+
+  private UuidMapFootprint() {
+  }
+
+  /**
+   * Runs the comparison.
+   *
+   * @param args Optionally, the entry counts to measure.
+   */
+  public static void main(final String[] args) {
+    final String[] sizes = args.length > 0 ? args : new String[] {"10000", "1000000"};
+    for (final String arg : sizes) {
+      final int size = Integer.parseInt(arg);
+      final SplittableRandom random = new SplittableRandom(42);
+      final Object[] values = new Object[size];
+      final UuidMap<Object> uuidMap = new UuidMap<>();
+      final Map<UUID, Object> concurrentHashMap = new ConcurrentHashMap<>();
+      for (int i = 0; i < size; i++) {
+        final UUID key = new UUID(random.nextLong(), random.nextLong());
+        values[i] = new Object();
+        uuidMap.put(key, values[i]);
+        concurrentHashMap.put(key, values[i]);
+      }
+      final long shared = GraphLayout.parseInstance(values).totalSize();
+      report(size, "UuidMap", GraphLayout.parseInstance(uuidMap, values).totalSize() - shared);
+      report(size, "ConcurrentHashMap",
+          GraphLayout.parseInstance(concurrentHashMap, values).totalSize() - shared);
+    }
+  }
+
+  private static void report(final int size, final String name, final long bytes) {
+    System.out.printf("%,10d entries  %-18s %,14d bytes  %6.1f bytes/entry%n",
+        size, name, bytes, (double) bytes / size);
+  }
+}
@@ -0,0 +1,93 @@
+package dev.ase.teamproject.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * This class lets the JSON endpoints also answer in CBOR, a binary encoding of
+ * the same structure, when the client sends {@code Accept: application/cbor}.
+ * Clients that ask for nothing in particular still get JSON.
+ *
+ * <p>The CBOR mapper is built with the application's Jackson settings. UUIDs
+ * are written as 16 raw bytes, which Jackson does for any binary format.
+ * Timestamps are written as epoch milliseconds and dates as epoch days instead
+ * of ISO strings. Timestamps have no zone, so their wall-clock time is read as
+ * UTC; a client decodes them back to the same local time.
+ */
+@Configuration
+public class CborConfig {
+
+  /**
+   * Builds the CBOR message converter. Spring Boot uses it in place of the
+   * default one, whose mapper writes timestamps as arrays.
+   *
+   * @param builder The application's Jackson settings.
+   * @return The converter.
+   */
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      final Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(cborMapper(builder));
+  }
+
+  /**
+   * Builds a CBOR mapper with compact timestamps and dates.
+   *
+   * @param builder The Jackson settings to start from.
+   * @return The mapper.
+   */
+  public static ObjectMapper cborMapper(final Jackson2ObjectMapperBuilder builder) {
+    final SimpleModule compactTime = new SimpleModule("CompactTime")
+        .addSerializer(LocalDateTime.class, new JsonSerializer<>() {
+          @Override
+          public void serialize(final LocalDateTime value, final JsonGenerator gen,
+                                final SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.toInstant(ZoneOffset.UTC).toEpochMilli());
+          }
+        })
+        .addDeserializer(LocalDateTime.class, new JsonDeserializer<>() {
+          @Override
+          public LocalDateTime deserialize(final JsonParser parser,
+                                           final DeserializationContext context)
+              throws IOException {
+            return LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(parser.getLongValue()), ZoneOffset.UTC);
+          }
+        })
+        .addSerializer(LocalDate.class, new JsonSerializer<>() {
+          @Override
+          public void serialize(final LocalDate value, final JsonGenerator gen,
+                                final SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.toEpochDay());
+          }
+        })
+        .addDeserializer(LocalDate.class, new JsonDeserializer<>() {
+          @Override
+          public LocalDate deserialize(final JsonParser parser,
+                                       final DeserializationContext context)
+              throws IOException {
+            return LocalDate.ofEpochDay(parser.getLongValue());
+          }
+        });
+    final ObjectMapper mapper = builder.createXmlMapper(false).factory(new CBORFactory()).build();
+    // Registered after the builder's JavaTimeModule, so these take precedence
+    mapper.registerModule(compactTime);
+    return mapper;
+  }
+}
@@ -0,0 +1,77 @@
+package dev.ase.teamproject.config;
+
+import dev.ase.teamproject.util.AsyncLog;
+import dev.ase.teamproject.util.AsyncLogHandler;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class sets up the {@link AsyncLog} that the request log and, with
+ * {@code ledger.log.app-logs=true}, the application's own {@code java.util.logging}
+ * output are written through.
+ *
+ * <p>{@code ledger.log.output} is {@code stdout} or the path of a file to append
+ * to. {@code ledger.log.capacity} records may wait to be written; beyond that
+ * they are dropped and counted, which {@code GET /metrics} reports. The
+ * application's loggers stop passing records to the root logger's handlers while
+ * they are routed here, so each line is written once.
+ */
+@Configuration
+public class LoggingConfig implements DisposableBean {
+  private static final String APPLICATION_LOGGER = "dev.ase.teamproject";
+
+  // Held so that the logger, and with it the handler, is not garbage collected.
+  private Logger applicationLogger;
+  private AsyncLogHandler handler;
+
+  /**
+   * Builds the log and its writer thread.
+   *
+   * @param output {@code stdout}, or the path of a file to append to.
+   * @param capacity How many records may wait to be written.
+   * @param idleMillis How long the writer sleeps when there is nothing to write.
+   * @param appLogs Whether the application's log records go through the log too.
+   * @return The log, closed with the application context.
+   * @throws IOException if the log file cannot be opened.
+   */
+  @Bean
+  public AsyncLog asyncLog(@Value("${ledger.log.output:stdout}") final String output,
+                           @Value("${ledger.log.capacity:8192}") final int capacity,
+                           @Value("${ledger.log.idle-millis:50}") final long idleMillis,
+                           @Value("${ledger.log.app-logs:true}") final boolean appLogs)
+      throws IOException {
+    final AsyncLog log;
+    if ("stdout".equals(output)) {
+      log = new AsyncLog(System.out, false, capacity, idleMillis);
+    } else {
+      final Path file = Path.of(output).toAbsolutePath();
+      Files.createDirectories(file.getParent());
+      log = new AsyncLog(new FileOutputStream(file.toFile(), true), true, capacity, idleMillis);
+    }
+    if (appLogs) {
+      applicationLogger = Logger.getLogger(APPLICATION_LOGGER);
+      handler = new AsyncLogHandler(log);
+      applicationLogger.addHandler(handler);
+      applicationLogger.setUseParentHandlers(false);
+    }
+    return log;
+  }
+
+  /**
+   * Gives the application's log records back to the root logger's handlers.
+   */
+  @Override
+  public void destroy() {
+    if (applicationLogger != null) {
+      applicationLogger.removeHandler(handler);
+      applicationLogger.setUseParentHandlers(true);
+    }
+  }
+}
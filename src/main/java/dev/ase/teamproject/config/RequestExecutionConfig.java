@@ -0,0 +1,120 @@
+package dev.ase.teamproject.config;
+
+import dev.ase.teamproject.repository.AdaptiveLimit;
+import dev.ase.teamproject.repository.GatedDataSource;
+import dev.ase.teamproject.repository.LimitedDataSource;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * This class configures how requests are executed and how many of them may use
+ * the database at once.
+ *
+ * <p>Requests run on Tomcat's fixed pool of platform threads by default. Setting
+ * {@code spring.threads.virtual.enabled=true} makes Spring Boot run each request
+ * on its own virtual thread instead. Because virtual threads no longer bound how many
+ * requests reach JDBC, the data source is then wrapped in a
+ * {@link GatedDataSource} sized to the connection pool
+ * ({@code ledger.jdbc.gate.*}, enabled by default together with virtual threads).
+ *
+ * <p>Independently, the data source can be wrapped in a {@link LimitedDataSource}
+ * ({@code ledger.jdbc.adaptive-limit.*}), which lets only as many connections be
+ * checked out at once as the database's current latency supports and rejects
+ * the rest at once, rather than letting them queue in the pool.
+ */
+@Configuration
+public class RequestExecutionConfig {
+  private static final Logger LOGGER = Logger.getLogger(RequestExecutionConfig.class.getName());
+
+  /**
+   * Constructs a new {@code RequestExecutionConfig} and logs the execution mode.
+   *
+   * @param environment The application environment.
+   */
+  public RequestExecutionConfig(final Environment environment) {
+    final boolean virtual =
+        environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("Handling requests on " + (virtual ? "virtual threads" : "platform threads"));
+    }
+  }
+
+  /**
+   * Wraps the application's data source in a {@link GatedDataSource}.
+   *
+   * @param environment The application environment, read for the gate's limits.
+   * @return A post-processor that wraps every {@link DataSource} bean.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "ledger.jdbc.gate.enabled", havingValue = "true")
+  public static BeanPostProcessor dataSourceGate(final Environment environment) {
+    final int maxConcurrency = environment.getProperty("ledger.jdbc.gate.max-concurrency",
+        Integer.class, environment.getProperty("spring.datasource.hikari.maximum-pool-size",
+            Integer.class, 10));
+    final int maxWaiting =
+        environment.getProperty("ledger.jdbc.gate.max-waiting", Integer.class, 200);
+    final long waitMillis =
+        environment.getProperty("ledger.jdbc.gate.wait-millis", Long.class, 2000L);
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof GatedDataSource)) {
+          if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("Gating data source '" + beanName + "' to " + maxConcurrency
+                + " connections and " + maxWaiting + " waiting requests");
+          }
+          return new GatedDataSource((DataSource) bean, maxConcurrency, maxWaiting, waitMillis);
+        }
+        return bean;
+      }
+    };
+  }
+
+  /**
+   * Wraps the application's data source in a {@link LimitedDataSource}. The
+   * limit never grows past the pool's size, since callers admitted beyond it
+   * would only queue inside the pool.
+   *
+   * @param environment The application environment, read for the limits.
+   * @return A post-processor that wraps every {@link DataSource} bean.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "ledger.jdbc.adaptive-limit.enabled", havingValue = "true")
+  public static BeanPostProcessor dataSourceAdaptiveLimit(final Environment environment) {
+    final int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size",
+        Integer.class, 10);
+    final int initialLimit = environment.getProperty("ledger.jdbc.adaptive-limit.initial",
+        Integer.class, poolSize);
+    final int minLimit =
+        environment.getProperty("ledger.jdbc.adaptive-limit.min", Integer.class, 1);
+    final int configuredMax =
+        environment.getProperty("ledger.jdbc.adaptive-limit.max", Integer.class, poolSize);
+    if (configuredMax > poolSize && LOGGER.isLoggable(Level.WARNING)) {
+      LOGGER.warning("ledger.jdbc.adaptive-limit.max of " + configuredMax
+          + " is above the pool size; capping it at " + poolSize);
+    }
+    final int maxLimit = Math.min(configuredMax, poolSize);
+    final int probeSamples =
+        environment.getProperty("ledger.jdbc.adaptive-limit.probe-samples", Integer.class, 1000);
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof LimitedDataSource)) {
+          if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("Limiting data source '" + beanName + "' adaptively, starting at "
+                + initialLimit + " connections (" + minLimit + " to " + maxLimit + ")");
+          }
+          return new LimitedDataSource((DataSource) bean,
+              new AdaptiveLimit(initialLimit, minLimit, maxLimit, probeSamples));
+        }
+        return bean;
+      }
+    };
+  }
+}
@@ -0,0 +1,98 @@
+package dev.ase.teamproject.config;
+
+import dev.ase.teamproject.repository.GatedDataSource;
+import dev.ase.teamproject.repository.LimitedDataSource;
+import dev.ase.teamproject.repository.SlowQueryLog;
+import dev.ase.teamproject.repository.SqlMetrics;
+import dev.ase.teamproject.repository.TimedDataSource;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * This class times the application's SQL statements, with
+ * {@code ledger.jdbc.metrics.enabled=true} (the default).
+ *
+ * <p>The {@code JdbcTemplate} the repository uses takes its connections through
+ * a {@link TimedDataSource}, which records each named query's durations and rows
+ * and the wait for connections into {@link SqlMetrics}, shown by
+ * {@code GET /metrics}. With {@code ledger.jdbc.metrics.summary-header=true},
+ * each response also says what its request's statements added up to.
+ *
+ * <p>With {@code ledger.jdbc.slow-query.enabled=true} (the default), statements
+ * slower than {@code ledger.jdbc.slow-query.threshold-millis} are kept in a
+ * {@link SlowQueryLog}, with the plan of a {@code ledger.jdbc.slow-query.sample-rate}
+ * fraction of them. The plans are captured on the pool itself, outside the
+ * adaptive limit and the gate, so that they never take a place meant for a
+ * request; the log's single explaining thread is their budget. The log is
+ * served by {@code GET /debug/slow-queries} only with
+ * {@code ledger.jdbc.slow-query.debug.enabled=true}.
+ *
+ * <p>The reactive variant has no JDBC data source, so none of this applies to it.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "ledger.jdbc.metrics.enabled", havingValue = "true",
+    matchIfMissing = true)
+public class SqlMetricsConfig {
+
+  /**
+   * Builds the statement metrics.
+   *
+   * @param summaries Whether to add up each request's statements.
+   * @return The metrics.
+   */
+  @Bean
+  public SqlMetrics sqlMetrics(
+      @Value("${ledger.jdbc.metrics.summary-header:false}") final boolean summaries) {
+    return new SqlMetrics(summaries);
+  }
+
+  /**
+   * Builds the log of slow statements, closed with the application context.
+   * Its plans are captured on the pool beneath the adaptive limit and the gate,
+   * so EXPLAIN connections are not counted against either.
+   *
+   * @param dataSource The application's data source.
+   * @param thresholdMillis How long a statement must take to be kept.
+   * @param sampleRate The fraction of kept statements whose plan is captured.
+   * @param capacity How many statements are kept.
+   * @return The log.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "ledger.jdbc.slow-query.enabled", havingValue = "true",
+      matchIfMissing = true)
+  public SlowQueryLog slowQueryLog(
+      final DataSource dataSource,
+      @Value("${ledger.jdbc.slow-query.threshold-millis:200}") final long thresholdMillis,
+      @Value("${ledger.jdbc.slow-query.sample-rate:0.1}") final double sampleRate,
+      @Value("${ledger.jdbc.slow-query.capacity:64}") final int capacity) {
+    DataSource pool = dataSource;
+    while (pool instanceof LimitedDataSource || pool instanceof GatedDataSource) {
+      pool = ((DelegatingDataSource) pool).getTargetDataSource();
+    }
+    return new SlowQueryLog(pool, thresholdMillis, sampleRate, capacity);
+  }
+
+  /**
+   * Builds the {@code JdbcTemplate} in place of Spring Boot's, over a timed view
+   * of the data source.
+   *
+   * @param dataSource The application's data source.
+   * @param sqlMetrics Where the statements are recorded.
+   * @param slowQueryLog Where slow statements are kept, if enabled.
+   * @return The template.
+   */
+  @Bean
+  public JdbcTemplate jdbcTemplate(final DataSource dataSource, final SqlMetrics sqlMetrics,
+                                   final ObjectProvider<SlowQueryLog> slowQueryLog) {
+    return new JdbcTemplate(
+        new TimedDataSource(dataSource, sqlMetrics, slowQueryLog.getIfAvailable()));
+  }
+}
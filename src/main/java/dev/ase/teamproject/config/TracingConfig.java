@@ -0,0 +1,87 @@
+package dev.ase.teamproject.config;
+
+import dev.ase.teamproject.repository.LedgerRepository;
+import dev.ase.teamproject.service.MockApiService;
+import dev.ase.teamproject.util.Tracer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class sets up request tracing, with {@code ledger.trace.enabled=true}
+ * (the default).
+ *
+ * <p>The {@code LoggerFilter} gives every request a trace identifier and traces
+ * a {@code ledger.trace.sample-rate} fraction of them. In a traced request,
+ * every call to the service and to the repository is a span, named after the
+ * class and method, and every SQL statement is a span inside the repository call
+ * that ran it, so a redundant lookup or a slow statement stands out.
+ *
+ * <p>Traces show paths and timings that should not be public, so only with
+ * {@code ledger.trace.debug.enabled=true} (off by default) may a request force
+ * its own trace with {@code X-Trace: true}, and are the last
+ * {@code ledger.trace.capacity} traces served by {@code GET /debug/traces}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ledger.trace.enabled", havingValue = "true",
+    matchIfMissing = true)
+public class TracingConfig {
+
+  /**
+   * Builds the tracer.
+   *
+   * @param sampleRate The fraction of requests traced.
+   * @param debug Whether requests may force their own trace.
+   * @param capacity How many traces are kept.
+   * @param maxSpans How many spans a trace keeps.
+   * @return The tracer.
+   */
+  @Bean
+  public Tracer tracer(@Value("${ledger.trace.sample-rate:0.01}") final double sampleRate,
+                       @Value("${ledger.trace.debug.enabled:false}") final boolean debug,
+                       @Value("${ledger.trace.capacity:256}") final int capacity,
+                       @Value("${ledger.trace.max-spans:512}") final int maxSpans) {
+    return new Tracer(sampleRate, debug, capacity, maxSpans);
+  }
+
+  /**
+   * Wraps the service and the repository so that their calls are spans.
+   *
+   * @return A post-processor that proxies the {@link MockApiService} and
+   *         {@link LedgerRepository} beans.
+   */
+  @Bean
+  public static BeanPostProcessor tracingProxies() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (bean instanceof MockApiService) {
+          return traced(bean, "MockApiService.", true);
+        }
+        if (bean instanceof LedgerRepository) {
+          return traced(bean, "LedgerRepository.", false);
+        }
+        return bean;
+      }
+    };
+  }
+
+  private static Object traced(final Object bean, final String prefix,
+                               final boolean targetClass) {
+    final ProxyFactory factory = new ProxyFactory(bean);
+    factory.setProxyTargetClass(targetClass);
+    factory.addAdvice((MethodInterceptor) invocation -> {
+      if (!Tracer.isTracing()) {
+        return invocation.proceed();
+      }
+      try (Tracer.Span span = Tracer.span(prefix + invocation.getMethod().getName())) {
+        return invocation.proceed();
+      }
+    });
+    return factory.getProxy(bean.getClass().getClassLoader());
+  }
+}
@@ -0,0 +1,30 @@
+package dev.ase.teamproject.controller;
+
+import java.io.StringWriter;
+
+/**
+ * An HTML page that renders itself to an {@link HtmlWriter}. Controller methods
+ * return one to have {@link HtmlPageConverter} write it straight to the
+ * response as the client reads it, instead of building the page as a string.
+ */
+@FunctionalInterface
+public interface HtmlPage {
+
+  /**
+   * Writes the page.
+   *
+   * @param out Where to write.
+   */
+  void render(HtmlWriter out);
+
+  /**
+   * Renders the page into a string, for small pages and tests.
+   *
+   * @return The page's HTML.
+   */
+  default String asString() {
+    final StringWriter html = new StringWriter(256);
+    render(new HtmlWriter(html));
+    return html.toString();
+  }
+}
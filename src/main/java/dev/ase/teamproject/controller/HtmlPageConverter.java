@@ -0,0 +1,76 @@
+package dev.ase.teamproject.controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes an {@link HtmlPage} response body by rendering it straight to the
+ * response stream as UTF-8 HTML. Spring Boot adds converter beans ahead of its
+ * defaults, so controller methods can return pages like any other body.
+ */
+@Component
+public class HtmlPageConverter extends AbstractHttpMessageConverter<HtmlPage> {
+  private static final int BUFFER_CHARS = 8192;
+
+  /**
+   * Constructs a new {@code HtmlPageConverter} for {@code text/html}.
+   */
+  public HtmlPageConverter() {
+    super(StandardCharsets.UTF_8, MediaType.TEXT_HTML);
+  }
+
+  @Override
+  protected boolean supports(final Class<?> clazz) {
+    return HtmlPage.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  public boolean canRead(final Class<?> clazz, final MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected HtmlPage readInternal(final Class<? extends HtmlPage> clazz,
+                                  final HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("HTML pages are not read", inputMessage);
+  }
+
+  /**
+   * Adds the charset to a content type set by the controller without one, since
+   * the page is always written as UTF-8.
+   */
+  @Override
+  protected void addDefaultHeaders(final HttpHeaders headers, final HtmlPage page,
+                                   final MediaType contentType) throws IOException {
+    super.addDefaultHeaders(headers, page, contentType);
+    final MediaType type = headers.getContentType();
+    if (type != null && type.getCharset() == null) {
+      headers.setContentType(new MediaType(type, StandardCharsets.UTF_8));
+    }
+  }
+
+  @Override
+  protected void writeInternal(final HtmlPage page, final HttpOutputMessage outputMessage)
+      throws IOException {
+    // Buffered so that each small write is not encoded on its own
+    final Writer out = new BufferedWriter(
+        new OutputStreamWriter(outputMessage.getBody(), StandardCharsets.UTF_8), BUFFER_CHARS);
+    try {
+      page.render(new HtmlWriter(out));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    out.flush();
+  }
+}
@@ -0,0 +1,53 @@
+package dev.ase.teamproject.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fragment of HTML with {@code {}} slots, split into its literal parts once
+ * when the controller class is loaded. An {@link HtmlWriter} renders it by
+ * writing the parts in turn, with one value between each pair, so rendering
+ * copies the literals straight to the output and builds no intermediate string.
+ *
+ * <p>For example, {@code HtmlTemplate.compile("<p>{} spent ${}</p>")} is
+ * rendered with {@code out.begin(template).text(name).money(total)}.
+ */
+public final class HtmlTemplate {
+  private static final String SLOT = "{}";
+
+  private final String[] parts;
+
+  private HtmlTemplate(final String[] parts) {
+    this.parts = parts;
+  }
+
+  /**
+   * Splits a template into its literal parts.
+   *
+   * @param template The HTML, with {@code {}} where values go.
+   * @return The compiled template.
+   */
+  public static HtmlTemplate compile(final String template) {
+    final List<String> parts = new ArrayList<>();
+    int from = 0;
+    for (int slot = template.indexOf(SLOT); slot >= 0; slot = template.indexOf(SLOT, from)) {
+      parts.add(template.substring(from, slot));
+      from = slot + SLOT.length();
+    }
+    parts.add(template.substring(from));
+    return new HtmlTemplate(parts.toArray(new String[0]));
+  }
+
+  /**
+   * Returns how many values the template takes.
+   *
+   * @return The number of slots.
+   */
+  public int slots() {
+    return parts.length - 1;
+  }
+
+  String part(final int index) {
+    return parts[index];
+  }
+}
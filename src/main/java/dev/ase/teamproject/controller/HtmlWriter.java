@@ -0,0 +1,248 @@
+package dev.ase.teamproject.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Writes HTML to a {@link Writer} without building intermediate strings. Values
+ * are written with the typed methods below, either on their own or, after
+ * {@link #begin(HtmlTemplate)}, into the template's slots in order; the literal
+ * following each slot is written as soon as its value is.
+ *
+ * <p>Amounts are formatted by {@link #money(double)}, which writes the same
+ * text as {@code String.format("%.2f", value)} from a reused buffer. Text is
+ * escaped so that user input cannot change the page.
+ *
+ * <p>A writer is used by one request at a time. I/O failures are rethrown as
+ * {@link UncheckedIOException}.
+ */
+public final class HtmlWriter {
+
+  /** Beyond this, cents no longer fit the fast path's precision and amounts use the JDK. */
+  private static final double MAX_FAST_MONEY = 1e9;
+  /** How close to a half cent an amount must be to be rounded from its decimal form. */
+  private static final double HALF_CENT_TOLERANCE = 1e-4;
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final Writer out;
+  private final char[] scratch = new char[36];
+  private HtmlTemplate template;
+  private int part;
+
+  /**
+   * Constructs a new {@code HtmlWriter}.
+   *
+   * @param out Where the HTML is written; not flushed or closed by this writer.
+   */
+  public HtmlWriter(final Writer out) {
+    this.out = out;
+  }
+
+  /**
+   * Starts a template, writing its text up to the first slot.
+   *
+   * @param next The template.
+   * @return This writer.
+   * @throws IllegalStateException if the previous template still has empty slots.
+   */
+  public HtmlWriter begin(final HtmlTemplate next) {
+    if (template != null) {
+      throw new IllegalStateException("Template has " + (template.slots() - part + 1)
+          + " unfilled slot(s)");
+    }
+    write(next.part(0));
+    if (next.slots() > 0) {
+      template = next;
+      part = 1;
+    }
+    return this;
+  }
+
+  /**
+   * Writes HTML as is.
+   *
+   * @param html The markup.
+   * @return This writer.
+   */
+  public HtmlWriter raw(final String html) {
+    write(html);
+    return filled();
+  }
+
+  /**
+   * Writes text, escaping the characters that are special in HTML and in
+   * quoted attribute values.
+   *
+   * @param text The text, written as {@code "null"} if {@code null}.
+   * @return This writer.
+   */
+  public HtmlWriter text(final String text) {
+    final String value = String.valueOf(text);
+    int from = 0;
+    for (int i = 0; i < value.length(); i++) {
+      final String entity = entity(value.charAt(i));
+      if (entity != null) {
+        write(value, from, i - from);
+        write(entity);
+        from = i + 1;
+      }
+    }
+    write(value, from, value.length() - from);
+    return filled();
+  }
+
+  /**
+   * Writes a value's string form as escaped text.
+   *
+   * @param value The value.
+   * @return This writer.
+   */
+  public HtmlWriter text(final Object value) {
+    return text(String.valueOf(value));
+  }
+
+  /**
+   * Writes a UUID in its canonical form.
+   *
+   * @param id The UUID.
+   * @return This writer.
+   */
+  public HtmlWriter uuid(final UUID id) {
+    if (id == null) {
+      return raw("null");
+    }
+    final long high = id.getMostSignificantBits();
+    final long low = id.getLeastSignificantBits();
+    hex(high, 64, 0, 8);
+    scratch[8] = '-';
+    hex(high, 32, 9, 4);
+    scratch[13] = '-';
+    hex(high, 16, 14, 4);
+    scratch[18] = '-';
+    hex(low, 64, 19, 4);
+    scratch[23] = '-';
+    hex(low, 48, 24, 12);
+    write(scratch, 0, 36);
+    return filled();
+  }
+
+  /**
+   * Writes a number as {@link Double#toString(double)} does.
+   *
+   * @param value The number.
+   * @return This writer.
+   */
+  public HtmlWriter number(final double value) {
+    return raw(Double.toString(value));
+  }
+
+  /**
+   * Writes an amount with two decimals, as {@code String.format("%.2f", value)}
+   * does but with a {@code '.'} separator in every locale: rounded half up from
+   * the amount's shortest decimal form.
+   *
+   * @param value The amount.
+   * @return This writer.
+   */
+  public HtmlWriter money(final double value) {
+    final double magnitude = Math.abs(value);
+    if (!(magnitude < MAX_FAST_MONEY)) {
+      return raw(String.format(Locale.ROOT, "%.2f", value));
+    }
+    long cents = cents(magnitude);
+    int at = scratch.length;
+    scratch[--at] = (char) ('0' + cents % 10);
+    cents /= 10;
+    scratch[--at] = (char) ('0' + cents % 10);
+    cents /= 10;
+    scratch[--at] = '.';
+    do {
+      scratch[--at] = (char) ('0' + cents % 10);
+      cents /= 10;
+    } while (cents != 0);
+    if (Double.doubleToRawLongBits(value) < 0) {
+      scratch[--at] = '-';
+    }
+    write(scratch, at, scratch.length - at);
+    return filled();
+  }
+
+  /**
+   * Rounds a non-negative amount to cents. Only amounts within a rounding error
+   * of a half cent, such as {@code 1.005}, need their decimal form to decide.
+   */
+  private static long cents(final double magnitude) {
+    final double scaled = magnitude * 100;
+    final double whole = Math.floor(scaled);
+    final double fraction = scaled - whole;
+    if (Math.abs(fraction - 0.5) > HALF_CENT_TOLERANCE) {
+      return (long) whole + (fraction > 0.5 ? 1 : 0);
+    }
+    return new BigDecimal(Double.toString(magnitude))
+        .setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+  }
+
+  /**
+   * Writes {@code digits} hex digits of {@code bits}, starting below bit {@code shift}.
+   */
+  private void hex(final long bits, final int shift, final int at, final int digits) {
+    for (int i = 0; i < digits; i++) {
+      scratch[at + i] = HEX[(int) (bits >>> (shift - 4 * (i + 1))) & 0xF];
+    }
+  }
+
+  private static String entity(final char c) {
+    switch (c) {
+      case '&':
+        return "&amp;";
+      case '<':
+        return "&lt;";
+      case '>':
+        return "&gt;";
+      case '"':
+        return "&quot;";
+      case '\'':
+        return "&#39;";
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Moves past the slot a value was just written to, writing the literal after it.
+   */
+  private HtmlWriter filled() {
+    if (template != null) {
+      write(template.part(part));
+      if (++part > template.slots()) {
+        template = null;
+      }
+    }
+    return this;
+  }
+
+  private void write(final String text) {
+    write(text, 0, text.length());
+  }
+
+  private void write(final String text, final int from, final int length) {
+    try {
+      out.write(text, from, length);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void write(final char[] chars, final int from, final int length) {
+    try {
+      out.write(chars, from, length);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
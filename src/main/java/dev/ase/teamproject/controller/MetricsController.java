@@ -0,0 +1,246 @@
+package dev.ase.teamproject.controller;
+
+import dev.ase.teamproject.filter.Bulkhead;
+import dev.ase.teamproject.filter.BulkheadFilter;
+import dev.ase.teamproject.filter.RequestMetrics;
+import dev.ase.teamproject.filter.RouteGroup;
+import dev.ase.teamproject.repository.AdaptiveLimit;
+import dev.ase.teamproject.repository.LimitedDataSource;
+import dev.ase.teamproject.repository.SqlMetrics;
+import dev.ase.teamproject.service.MockApiService;
+import dev.ase.teamproject.util.AsyncLog;
+import dev.ase.teamproject.util.LatencyHistogram;
+import dev.ase.teamproject.util.SingleFlight;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller exposing the application's in-process metrics in the
+ * Prometheus text exposition format, for a local scraper.
+ *
+ * <p>With {@link RequestMetrics}, they include a latency histogram per method,
+ * route template and status, {@code ledger_http_request_duration_seconds},
+ * whose {@code _count} is the number of requests, and the requests in flight
+ * per route group.
+ *
+ * <p>They also include the request coalescing counters of the analytics operations:
+ * {@code ledger_singleflight_calls_total} counts calls and
+ * {@code ledger_singleflight_shared_total} the calls answered by another
+ * caller's in-flight computation, so their ratio is the coalescing rate. With
+ * the {@link BulkheadFilter}, they also include each request class's running
+ * and waiting requests and how many were turned away, and with a
+ * {@link LimitedDataSource}, its current limit, the connections in flight and
+ * how many were rejected. With an {@link AsyncLog}, they include how many log
+ * lines it has written and dropped, and with {@link SqlMetrics}, a histogram of
+ * each named query's statement durations, the rows they read or changed and a
+ * histogram of the wait for connections.
+ */
+@RestController
+@Profile("!reactive")
+public class MetricsController {
+
+  /** The content type of the Prometheus text format. */
+  public static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+  private static final String[] BOUNDS_SECONDS = {
+      "0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05", "0.1", "0.25", "0.5",
+      "1", "2.5", "5", "10"};
+  private static final long[] BOUNDS_NANOS = new long[BOUNDS_SECONDS.length];
+
+  static {
+    for (int i = 0; i < BOUNDS_SECONDS.length; i++) {
+      BOUNDS_NANOS[i] = Math.round(Double.parseDouble(BOUNDS_SECONDS[i]) * 1e9);
+    }
+  }
+
+  private final MockApiService mockApiService;
+  private final BulkheadFilter bulkheadFilter;
+  private final AdaptiveLimit databaseLimit;
+  private final AsyncLog log;
+  private final RequestMetrics requestMetrics;
+  private final SqlMetrics sqlMetrics;
+
+  /**
+   * Constructs a new {@code MetricsController}.
+   *
+   * @param mockApiService The service whose operations are measured.
+   * @param bulkheadFilter The filter whose bulkheads are measured, or {@code null}
+   *                       if it is disabled.
+   * @param dataSource The application's data source, measured if it is or wraps
+   *                   a {@link LimitedDataSource}, or {@code null}.
+   * @param log The log whose written and dropped lines are counted, or
+   *            {@code null}.
+   * @param requestMetrics The latencies of the requests, or {@code null}.
+   * @param sqlMetrics The statements' durations and rows, or {@code null}.
+   */
+  @Autowired
+  public MetricsController(final MockApiService mockApiService,
+                           @Autowired(required = false) final BulkheadFilter bulkheadFilter,
+                           @Autowired(required = false) final DataSource dataSource,
+                           @Autowired(required = false) final AsyncLog log,
+                           @Autowired(required = false) final RequestMetrics requestMetrics,
+                           @Autowired(required = false) final SqlMetrics sqlMetrics) {
+    this.mockApiService = mockApiService;
+    this.bulkheadFilter = bulkheadFilter;
+    this.databaseLimit = databaseLimit(dataSource);
+    this.log = log;
+    this.requestMetrics = requestMetrics;
+    this.sqlMetrics = sqlMetrics;
+  }
+
+  /**
+   * Returns the current metric values.
+   *
+   * @return The metrics in the Prometheus text format.
+   */
+  @GetMapping(value = "/metrics", produces = PROMETHEUS_TEXT)
+  public String metrics() {
+    final List<SingleFlight<?, ?>> flights = mockApiService.singleFlights();
+    final StringBuilder out = new StringBuilder(512);
+    if (requestMetrics != null) {
+      requests(out);
+    }
+    out.append("# HELP ledger_singleflight_calls_total Calls to coalesced operations.\n")
+        .append("# TYPE ledger_singleflight_calls_total counter\n");
+    for (final SingleFlight<?, ?> flight : flights) {
+      sample(out, "ledger_singleflight_calls_total", "operation", flight.getName(),
+          flight.calls());
+    }
+    out.append("# HELP ledger_singleflight_shared_total Calls that received the result of "
+            + "a computation already in flight.\n")
+        .append("# TYPE ledger_singleflight_shared_total counter\n");
+    for (final SingleFlight<?, ?> flight : flights) {
+      sample(out, "ledger_singleflight_shared_total", "operation", flight.getName(),
+          flight.shared());
+    }
+    if (bulkheadFilter != null) {
+      final List<Bulkhead> bulkheads = bulkheadFilter.bulkheads();
+      out.append("# HELP ledger_bulkhead_active Requests running in each request class.\n")
+          .append("# TYPE ledger_bulkhead_active gauge\n");
+      for (final Bulkhead bulkhead : bulkheads) {
+        sample(out, "ledger_bulkhead_active", "class", bulkhead.getName(), bulkhead.getActive());
+      }
+      out.append("# HELP ledger_bulkhead_waiting Requests waiting in each request class.\n")
+          .append("# TYPE ledger_bulkhead_waiting gauge\n");
+      for (final Bulkhead bulkhead : bulkheads) {
+        sample(out, "ledger_bulkhead_waiting", "class", bulkhead.getName(),
+            bulkhead.getWaiting());
+      }
+      out.append("# HELP ledger_bulkhead_rejected_total Requests shed or rejected with 503.\n")
+          .append("# TYPE ledger_bulkhead_rejected_total counter\n");
+      for (final Bulkhead bulkhead : bulkheads) {
+        sample(out, "ledger_bulkhead_rejected_total", "class", bulkhead.getName(),
+            bulkhead.getRejected());
+      }
+    }
+    if (databaseLimit != null) {
+      out.append("# HELP ledger_db_concurrency_limit Connections that may be checked out "
+              + "at once.\n")
+          .append("# TYPE ledger_db_concurrency_limit gauge\n")
+          .append("ledger_db_concurrency_limit ").append(databaseLimit.getLimit()).append('\n')
+          .append("# HELP ledger_db_in_flight Connections checked out.\n")
+          .append("# TYPE ledger_db_in_flight gauge\n")
+          .append("ledger_db_in_flight ").append(databaseLimit.getInFlight()).append('\n')
+          .append("# HELP ledger_db_rejected_total Checkouts rejected by the limit.\n")
+          .append("# TYPE ledger_db_rejected_total counter\n")
+          .append("ledger_db_rejected_total ").append(databaseLimit.getRejected()).append('\n');
+    }
+    if (sqlMetrics != null) {
+      statements(out);
+    }
+    if (log != null) {
+      out.append("# HELP ledger_log_written_total Log lines written.\n")
+          .append("# TYPE ledger_log_written_total counter\n")
+          .append("ledger_log_written_total ").append(log.written()).append('\n')
+          .append("# HELP ledger_log_dropped_total Log lines dropped because the log was "
+              + "behind.\n")
+          .append("# TYPE ledger_log_dropped_total counter\n")
+          .append("ledger_log_dropped_total ").append(log.dropped()).append('\n')
+          .append("# HELP ledger_log_failed_total Log lines lost because they could not be "
+              + "formatted or written.\n")
+          .append("# TYPE ledger_log_failed_total counter\n")
+          .append("ledger_log_failed_total ").append(log.failed()).append('\n');
+    }
+    return out.toString();
+  }
+
+  private void requests(final StringBuilder out) {
+    out.append("# HELP ledger_http_requests_in_flight Requests being handled in each route "
+            + "group.\n")
+        .append("# TYPE ledger_http_requests_in_flight gauge\n");
+    for (final RouteGroup group : RouteGroup.values()) {
+      sample(out, "ledger_http_requests_in_flight", "group",
+          group.name().toLowerCase(Locale.ROOT), requestMetrics.inFlight(group));
+    }
+    out.append("# HELP ledger_http_request_duration_seconds Request latency by method, route "
+            + "and status.\n")
+        .append("# TYPE ledger_http_request_duration_seconds histogram\n");
+    for (final RequestMetrics.Endpoint endpoint : requestMetrics.endpoints()) {
+      histogram(out, "ledger_http_request_duration_seconds",
+          "method=\"" + endpoint.method() + "\",route=\"" + endpoint.route()
+              + "\",status=\"" + endpoint.status() + '"', endpoint.histogram());
+    }
+  }
+
+  private void statements(final StringBuilder out) {
+    final List<SqlMetrics.Query> queries = sqlMetrics.queries();
+    out.append("# HELP ledger_db_query_duration_seconds Statement time by query, including "
+            + "reading the results.\n")
+        .append("# TYPE ledger_db_query_duration_seconds histogram\n");
+    for (final SqlMetrics.Query query : queries) {
+      histogram(out, "ledger_db_query_duration_seconds", "query=\"" + query.getName() + '"',
+          query.getLatency());
+    }
+    out.append("# HELP ledger_db_query_rows_total Rows read or changed by query.\n")
+        .append("# TYPE ledger_db_query_rows_total counter\n");
+    for (final SqlMetrics.Query query : queries) {
+      sample(out, "ledger_db_query_rows_total", "query", query.getName(), query.getRows());
+    }
+    out.append("# HELP ledger_db_connection_acquire_seconds Wait for a database "
+            + "connection.\n")
+        .append("# TYPE ledger_db_connection_acquire_seconds histogram\n");
+    histogram(out, "ledger_db_connection_acquire_seconds", "", sqlMetrics.acquireWait());
+  }
+
+  /**
+   * Writes a histogram's buckets, sum and count, in seconds, with the given
+   * labels, if any, on every line.
+   */
+  private static void histogram(final StringBuilder out, final String metric,
+                                final String labels, final LatencyHistogram histogram) {
+    final long[] counts = histogram.cumulativeCounts(BOUNDS_NANOS);
+    final String bucket = metric + "_bucket{" + labels + (labels.isEmpty() ? "le=\"" : ",le=\"");
+    for (int i = 0; i < BOUNDS_NANOS.length; i++) {
+      out.append(bucket).append(BOUNDS_SECONDS[i]).append("\"} ").append(counts[i]).append('\n');
+    }
+    final long count = counts[BOUNDS_NANOS.length];
+    final String suffix = labels.isEmpty() ? " " : "{" + labels + "} ";
+    out.append(bucket).append("+Inf\"} ").append(count).append('\n')
+        .append(metric).append("_sum").append(suffix)
+        .append(histogram.sumNanos() / 1e9).append('\n')
+        .append(metric).append("_count").append(suffix).append(count).append('\n');
+  }
+
+  private static AdaptiveLimit databaseLimit(final DataSource dataSource) {
+    try {
+      if (dataSource != null && dataSource.isWrapperFor(LimitedDataSource.class)) {
+        return dataSource.unwrap(LimitedDataSource.class).getLimit();
+      }
+    } catch (SQLException e) {
+      // A pool that cannot be unwrapped has no limit to report.
+    }
+    return null;
+  }
+
+  private static void sample(final StringBuilder out, final String metric, final String label,
+                             final String value, final long sample) {
+    out.append(metric).append('{').append(label).append("=\"").append(value).append("\"} ")
+        .append(sample).append('\n');
+  }
+}
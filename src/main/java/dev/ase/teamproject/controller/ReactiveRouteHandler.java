@@ -0,0 +1,257 @@
+package dev.ase.teamproject.controller;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.service.ReactiveApiService;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive handlers for the JSON endpoints of {@link RouteController}, mapped by
+ * {@link ReactiveRoutes}. Each handler validates and responds like the matching
+ * controller method, so clients see the same paths, bodies and status codes.
+ * Failures are signalled as the same exceptions and turned into responses by
+ * {@link ReactiveRoutes}. Only created with the {@code reactive} Spring profile.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveRouteHandler {
+  private static final Logger LOGGER = Logger.getLogger(ReactiveRouteHandler.class.getName());
+  private static final String USER_ID = "userId";
+  private static final String TRANSACTION_ID = "transactionId";
+  private static final String USER_NF_PREFIX = "User ";
+  private static final String TX_NF_PREFIX = "Transaction ";
+  private static final String NF_SUFFIX = " not found";
+  private static final String NF_FOR_USER = " not found for user ";
+
+  private final ReactiveApiService service;
+
+  /**
+   * Constructs a new {@code ReactiveRouteHandler}.
+   *
+   * @param service The reactive service layer.
+   */
+  public ReactiveRouteHandler(final ReactiveApiService service) {
+    this.service = service;
+  }
+
+  /**
+   * Handles {@code GET /users}.
+   *
+   * @param request The request.
+   * @return A JSON array of all users.
+   */
+  public Mono<ServerResponse> getAllUsers(final ServerRequest request) {
+    log("GET /users called - Streaming all users.");
+    return ServerResponse.ok().contentType(listingType(request))
+        .body(service.viewAllUsers(), User.class);
+  }
+
+  /**
+   * Handles {@code GET /users/{userId}}.
+   *
+   * @param request The request.
+   * @return The user as JSON.
+   */
+  public Mono<ServerResponse> getUser(final ServerRequest request) {
+    final UUID userId = uuid(request, USER_ID);
+    log("GET /users/" + userId + " called - Fetching user details.");
+    return existingUser(userId)
+        .flatMap(user -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(user));
+  }
+
+  /**
+   * Handles {@code POST /users} with a JSON body.
+   *
+   * @param request The request.
+   * @return The created user as JSON, with status 201.
+   */
+  public Mono<ServerResponse> createUser(final ServerRequest request) {
+    log("POST /users called - Creating new user via JSON.");
+    return request.bodyToMono(User.class)
+        .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Request body is required")))
+        .flatMap(service::addUser)
+        .flatMap(saved -> ServerResponse.status(HttpStatus.CREATED)
+            .contentType(MediaType.APPLICATION_JSON).bodyValue(saved));
+  }
+
+  /**
+   * Handles {@code DELETE /users/{userId}}.
+   *
+   * @param request The request.
+   * @return A JSON confirmation.
+   */
+  public Mono<ServerResponse> deleteUser(final ServerRequest request) {
+    final UUID userId = uuid(request, USER_ID);
+    log("DELETE /users/" + userId + " called - Deleting user.");
+    return service.deleteUser(userId)
+        .filter(Boolean::booleanValue)
+        .switchIfEmpty(Mono.error(() -> userNotFound(userId)))
+        .flatMap(deleted -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("deleted", true, USER_ID, userId)));
+  }
+
+  /**
+   * Handles {@code GET /users/{userId}/transactions}. The listing is streamed as
+   * the database returns it, as a JSON array or, if the client accepts
+   * {@code application/x-ndjson}, as one JSON object per line.
+   *
+   * @param request The request.
+   * @return The user's transactions, most recent first.
+   */
+  public Mono<ServerResponse> getUserTransactions(final ServerRequest request) {
+    final UUID userId = uuid(request, USER_ID);
+    log("GET /users/" + userId + "/transactions called - Streaming all transactions.");
+    return existingUser(userId)
+        .flatMap(user -> ServerResponse.ok().contentType(listingType(request))
+            .body(service.getTransactionsByUser(userId), Transaction.class));
+  }
+
+  /**
+   * Handles {@code GET /users/{userId}/transactions/{transactionId}}.
+   *
+   * @param request The request.
+   * @return The transaction as JSON.
+   */
+  public Mono<ServerResponse> getTransaction(final ServerRequest request) {
+    final UUID userId = uuid(request, USER_ID);
+    final UUID transactionId = uuid(request, TRANSACTION_ID);
+    log("GET /users/" + userId + "/transactions/" + transactionId + " called.");
+    return existingUser(userId)
+        .then(ownedTransaction(userId, transactionId))
+        .flatMap(transaction -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(transaction));
+  }
+
+  /**
+   * Handles {@code POST /users/{userId}/transactions} with a JSON body.
+   *
+   * @param request The request.
+   * @return The created transaction as JSON, with status 201.
+   */
+  public Mono<ServerResponse> createTransaction(final ServerRequest request) {
+    final UUID userId = uuid(request, USER_ID);
+    log("POST /users/" + userId + "/transactions called - Creating new transaction via JSON.");
+    return existingUser(userId)
+        .then(request.bodyToMono(Transaction.class))
+        .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Request body is required")))
+        .flatMap(transaction -> {
+          transaction.setUserId(userId);
+          return service.addTransaction(transaction);
+        })
+        .flatMap(saved -> ServerResponse.status(HttpStatus.CREATED)
+            .contentType(MediaType.APPLICATION_JSON).bodyValue(saved));
+  }
+
+  /**
+   * Handles {@code DELETE /users/{userId}/transactions/{transactionId}}.
+   *
+   * @param request The request.
+   * @return A JSON confirmation.
+   */
+  public Mono<ServerResponse> deleteTransaction(final ServerRequest request) {
+    final UUID userId = uuid(request, USER_ID);
+    final UUID transactionId = uuid(request, TRANSACTION_ID);
+    log("DELETE /users/" + userId + "/transactions/" + transactionId + " called.");
+    return existingUser(userId)
+        .then(ownedTransaction(userId, transactionId))
+        .flatMap(transaction -> service.deleteTransaction(transactionId))
+        .filter(Boolean::booleanValue)
+        .switchIfEmpty(Mono.error(() -> new NoSuchElementException(
+            TX_NF_PREFIX + transactionId + NF_SUFFIX)))
+        .flatMap(deleted -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("deleted", true, USER_ID, userId, TRANSACTION_ID, transactionId)));
+  }
+
+  /**
+   * Handles {@code GET /users/{userId}/weekly-summary}.
+   *
+   * @param request The request.
+   * @return The weekly summary as JSON.
+   */
+  public Mono<ServerResponse> weeklySummary(final ServerRequest request) {
+    final UUID userId = uuid(request, USER_ID);
+    log("GET /users/" + userId + "/weekly-summary called - Generating weekly summary.");
+    return existingUser(userId)
+        .flatMap(service::weeklySummary)
+        .flatMap(summary -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(summary));
+  }
+
+  /**
+   * Handles {@code GET /users/{userId}/spending?from=...&to=...}.
+   *
+   * @param request The request.
+   * @return The spending summary as JSON.
+   */
+  public Mono<ServerResponse> spendingBetween(final ServerRequest request) {
+    final UUID userId = uuid(request, USER_ID);
+    final LocalDate from = date(request, "from");
+    final LocalDate to = date(request, "to");
+    log("GET /users/" + userId + "/spending called - Summarizing " + from + " to " + to);
+    return existingUser(userId)
+        .then(service.getSpendingBetween(userId, from, to))
+        .flatMap(summary -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(summary));
+  }
+
+  private Mono<User> existingUser(final UUID userId) {
+    return service.getUser(userId)
+        .switchIfEmpty(Mono.error(() -> userNotFound(userId)));
+  }
+
+  private Mono<Transaction> ownedTransaction(final UUID userId, final UUID transactionId) {
+    return service.getTransaction(transactionId)
+        .filter(transaction -> userId.equals(transaction.getUserId()))
+        .switchIfEmpty(Mono.error(() -> new NoSuchElementException(
+            TX_NF_PREFIX + transactionId + NF_FOR_USER + userId)));
+  }
+
+  private static NoSuchElementException userNotFound(final UUID userId) {
+    if (LOGGER.isLoggable(Level.WARNING)) {
+      LOGGER.warning("User not found with ID: " + userId);
+    }
+    return new NoSuchElementException(USER_NF_PREFIX + userId + NF_SUFFIX);
+  }
+
+  /**
+   * Streams listings as NDJSON to clients that ask for it, and as a JSON array otherwise.
+   */
+  private static MediaType listingType(final ServerRequest request) {
+    return request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+        ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+  }
+
+  private static UUID uuid(final ServerRequest request, final String name) {
+    return UUID.fromString(request.pathVariable(name));
+  }
+
+  private static LocalDate date(final ServerRequest request, final String name) {
+    final String value = request.queryParam(name)
+        .orElseThrow(() -> new IllegalArgumentException("'" + name + "' is required"));
+    try {
+      return LocalDate.parse(value);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("'" + name + "' must be an ISO date", e);
+    }
+  }
+
+  private static void log(final String message) {
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info(message);
+    }
+  }
+}
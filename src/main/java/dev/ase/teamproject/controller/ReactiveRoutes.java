@@ -0,0 +1,96 @@
+package dev.ase.teamproject.controller;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes of the reactive variant of the API, active with the {@code reactive}
+ * Spring profile. The profile also sets {@code spring.main.web-application-type}
+ * to {@code reactive}, which replaces {@link RouteController} and the servlet
+ * container with these routes on Netty.
+ *
+ * <p>Only the JSON endpoints are served; the HTML pages and forms, budget
+ * reports and percentiles remain on the servlet stack. Errors map to the same
+ * statuses and bodies as the controller's exception handlers.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveRoutes {
+
+  /**
+   * Maps the JSON endpoints to their handlers.
+   *
+   * @param handler The handlers.
+   * @return The router function.
+   */
+  @Bean
+  public RouterFunction<ServerResponse> reactiveRouterFunction(
+      final ReactiveRouteHandler handler) {
+    return RouterFunctions.route()
+        .GET("/users", handler::getAllUsers)
+        .GET("/users/{userId}", handler::getUser)
+        .POST("/users", RequestPredicates.contentType(MediaType.APPLICATION_JSON),
+            handler::createUser)
+        .DELETE("/users/{userId}", handler::deleteUser)
+        .GET("/users/{userId}/transactions", handler::getUserTransactions)
+        .GET("/users/{userId}/transactions/{transactionId}", handler::getTransaction)
+        .POST("/users/{userId}/transactions",
+            RequestPredicates.contentType(MediaType.APPLICATION_JSON),
+            handler::createTransaction)
+        .DELETE("/users/{userId}/transactions/{transactionId}", handler::deleteTransaction)
+        .GET("/users/{userId}/weekly-summary", handler::weeklySummary)
+        .GET("/users/{userId}/spending", handler::spendingBetween)
+        .filter(ReactiveRoutes::handleErrors)
+        .build();
+  }
+
+  /**
+   * Serves the reactive variant on Netty. Tomcat is also on the classpath for the
+   * servlet stack and would otherwise be chosen.
+   *
+   * @return The server factory.
+   */
+  @Bean
+  public NettyReactiveWebServerFactory reactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+
+  /**
+   * Maps failures to the same statuses and bodies as the controller's exception
+   * handlers. Handlers parse path variables before returning their {@link Mono},
+   * so they are deferred to have those failures signalled too.
+   */
+  private static Mono<ServerResponse> handleErrors(final ServerRequest request,
+                                                   final HandlerFunction<ServerResponse> next) {
+    return Mono.defer(() -> next.handle(request))
+        .onErrorResume(NoSuchElementException.class,
+            e -> error(HttpStatus.NOT_FOUND, e.getMessage()))
+        .onErrorResume(IllegalArgumentException.class,
+            e -> error(HttpStatus.BAD_REQUEST, e.getMessage()))
+        .onErrorResume(DataAccessResourceFailureException.class,
+            e -> ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("error", "Service temporarily unavailable, please retry")));
+  }
+
+  private static Mono<ServerResponse> error(final HttpStatus status, final String message) {
+    return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Map.of("error", String.valueOf(message)));
+  }
+}
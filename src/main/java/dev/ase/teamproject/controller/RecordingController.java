@@ -0,0 +1,175 @@
+package dev.ase.teamproject.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller that starts and stops a Java Flight Recorder recording of
+ * the running server and dumps it to a file, with
+ * {@code ledger.jfr.admin.enabled=true}.
+ *
+ * <p>The recording uses the {@code ledger.jfr.settings} configuration
+ * ({@code default} or {@code profile}) and keeps the last
+ * {@code ledger.jfr.max-age-minutes} of events, including the ledger's own
+ * operation and SQL events. Dumps are written to {@code ledger.jfr.directory}
+ * under a name made from the time of the dump; the caller cannot choose the
+ * path. Only one recording is kept at a time.
+ */
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "ledger.jfr.admin.enabled", havingValue = "true")
+public class RecordingController implements DisposableBean {
+  private static final Logger LOGGER = Logger.getLogger(RecordingController.class.getName());
+
+  private static final DateTimeFormatter FILE_TIME =
+      DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+  private final Path directory;
+  private final String settings;
+  private final Duration maxAge;
+  private Recording recording;
+
+  /**
+   * Constructs a new {@code RecordingController}.
+   *
+   * @param directory The directory dumps are written to.
+   * @param settings The name of the recording configuration.
+   * @param maxAgeMinutes How many minutes of events a recording keeps.
+   */
+  public RecordingController(
+      @Value("${ledger.jfr.directory:recordings}") final String directory,
+      @Value("${ledger.jfr.settings:default}") final String settings,
+      @Value("${ledger.jfr.max-age-minutes:30}") final long maxAgeMinutes) {
+    this.directory = Path.of(directory);
+    this.settings = settings;
+    this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+  }
+
+  /**
+   * Returns the state of the recording.
+   *
+   * @return The recording's state, start time and settings.
+   */
+  @GetMapping(value = "/admin/recording", produces = MediaType.APPLICATION_JSON_VALUE)
+  public synchronized Map<String, Object> status() {
+    final Map<String, Object> status = new LinkedHashMap<>();
+    status.put("state", recording == null ? "NONE" : recording.getState().name());
+    status.put("settings", settings);
+    if (recording != null) {
+      status.put("startTime", recording.getStartTime());
+      status.put("stopTime", recording.getStopTime());
+    }
+    return status;
+  }
+
+  /**
+   * Starts a new recording, discarding the previous one if it was stopped.
+   *
+   * @return The new recording's state, or {@code 409 Conflict} if one is
+   *         already running.
+   */
+  @PostMapping(value = "/admin/recording/start", produces = MediaType.APPLICATION_JSON_VALUE)
+  public synchronized ResponseEntity<Map<String, Object>> start() {
+    if (recording != null && recording.getState() == RecordingState.RUNNING) {
+      return conflict("A recording is already running");
+    }
+    final Configuration configuration;
+    try {
+      configuration = Configuration.getConfiguration(settings);
+    } catch (IOException | ParseException e) {
+      throw new IllegalStateException("Cannot read recording settings " + settings, e);
+    }
+    if (recording != null) {
+      recording.close();
+    }
+    recording = new Recording(configuration);
+    recording.setName("ledger");
+    recording.setToDisk(true);
+    recording.setMaxAge(maxAge);
+    recording.start();
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("Flight recording started with settings " + settings);
+    }
+    return ResponseEntity.ok(status());
+  }
+
+  /**
+   * Stops the running recording. Its events can still be dumped until the next
+   * one is started.
+   *
+   * @return The recording's state, or {@code 409 Conflict} if none is running.
+   */
+  @PostMapping(value = "/admin/recording/stop", produces = MediaType.APPLICATION_JSON_VALUE)
+  public synchronized ResponseEntity<Map<String, Object>> stop() {
+    if (recording == null || recording.getState() != RecordingState.RUNNING) {
+      return conflict("No recording is running");
+    }
+    recording.stop();
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("Flight recording stopped");
+    }
+    return ResponseEntity.ok(status());
+  }
+
+  /**
+   * Writes the events recorded so far to a new file.
+   *
+   * @return The path of the file, or {@code 409 Conflict} if there is no
+   *         recording.
+   * @throws IOException if the file cannot be written.
+   */
+  @PostMapping(value = "/admin/recording/dump", produces = MediaType.APPLICATION_JSON_VALUE)
+  public synchronized ResponseEntity<Map<String, Object>> dump() throws IOException {
+    if (recording == null) {
+      return conflict("No recording has been started");
+    }
+    Files.createDirectories(directory);
+    final Path file = directory.resolve(
+        "ledger-" + LocalDateTime.now().format(FILE_TIME) + ".jfr").toAbsolutePath();
+    recording.dump(file);
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("Flight recording dumped to " + file);
+    }
+    final Map<String, Object> result = status();
+    result.put("file", file.toString());
+    result.put("bytes", Files.size(file));
+    return ResponseEntity.ok(result);
+  }
+
+  /**
+   * Discards the recording when the server stops.
+   */
+  @Override
+  public synchronized void destroy() {
+    if (recording != null) {
+      recording.close();
+      recording = null;
+    }
+  }
+
+  private static ResponseEntity<Map<String, Object>> conflict(final String message) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", message));
+  }
+}
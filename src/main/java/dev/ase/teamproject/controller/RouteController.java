@@ -2,16 +2,26 @@ package dev.ase.teamproject.controller;
 
 import dev.ase.teamproject.model.Transaction;
 import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.service.BudgetDashboard;
 import dev.ase.teamproject.service.MockApiService;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -29,8 +39,11 @@ import org.springframework.web.bind.annotation.RestController;
  * REST controller providing API endpoints for user and transaction management.
  * Supports both JSON and HTML form-based interactions for creating, reading,
  * updating, and deleting users and transactions, as well as budget analytics.
+ * Clients that send {@code Accept: application/cbor} get the JSON responses
+ * in CBOR instead (see {@link dev.ase.teamproject.config.CborConfig}).
  */
 @RestController
+@Profile("!reactive")
 public class RouteController {
   private static final Logger LOGGER = Logger.getLogger(RouteController.class.getName());
   private static final String HTML_OPEN = "<html><body>";
@@ -39,7 +52,6 @@ public class RouteController {
   private static final String P_CLOSE = "</p>";
   private static final String H2_OPEN = "<h2>";
   private static final String H2_CLOSE = "</h2>";
-  private static final String FMT_2F = "%.2f";
   private static final String USER_NF_PREFIX = "User ";
   private static final String TX_NF_PREFIX = "Transaction ";
   private static final String NF_SUFFIX = " not found";
@@ -49,55 +61,139 @@ public class RouteController {
   private static final String GET_USERS = "GET /users/";
   private static final String POST_USERS = "POST /users/";
   private static final String USER_CR_FAIL = "User Creation Failed";
+  private static final String INDEX_OPEN = HTML_OPEN
+      + "<h1>Welcome to the Personal Finance Tracker</h1>" + P_OPEN;
+  private static final HtmlTemplate USER_ROW =
+      HtmlTemplate.compile("- <a href='/users/{}'>{}</a> | {} | Budget: ${}<br>");
+  private static final HtmlTemplate USER_SAVED = HtmlTemplate.compile(HTML_OPEN
+      + H2_OPEN + "{}" + H2_CLOSE
+      + "<p><strong>User ID:</strong> {}" + P_CLOSE
+      + "<p><strong>Username:</strong> {}" + P_CLOSE
+      + "<p><strong>Email:</strong> {}" + P_CLOSE
+      + "<p><strong>Budget:</strong> ${}" + P_CLOSE
+      + HTML_CLOSE);
+  private static final HtmlTemplate EDIT_USER_FORM = HtmlTemplate.compile(HTML_OPEN
+      + "<h2>Edit User</h2>"
+      + "<form action='/users/{}/update-form' method='post'>"
+      + "Username: <input type='text' name='username' value='{}'" + REQUIRED
+      + "Email: <input type='email' name='email' value='{}'" + REQUIRED
+      + "Budget: <input type='number' name='budget' step='0.01' value='{}'" + REQUIRED
+      + "<input type='submit' value='Update User'>"
+      + FORM_CLOSE
+      + HTML_CLOSE);
+  private static final HtmlTemplate TRANSACTION_SAVED = HtmlTemplate.compile(HTML_OPEN
+      + "<h2>Transaction Created Successfully!</h2>"
+      + "<p><strong>Description:</strong> {}" + P_CLOSE
+      + "<p><strong>Amount:</strong> ${}" + P_CLOSE
+      + "<p><strong>Category:</strong> {}" + P_CLOSE
+      + "<br>"
+      + HTML_CLOSE);
+  private static final HtmlTemplate TRANSACTION_FORM = HtmlTemplate.compile(HTML_OPEN
+      + "<h2>Create New Transaction</h2>"
+      + "<form action='/users/{}/transactions/form' method='post'>"
+      + "Description: <input type='text' name='description'" + REQUIRED
+      + "Amount: <input type='number' name='amount' step='0.01'" + REQUIRED
+      + "Category: <select name='category' required>"
+      + "<option value='FOOD'>Food</option>"
+      + "<option value='TRANSPORTATION'>Transportation</option>"
+      + "<option value='ENTERTAINMENT'>Entertainment</option>"
+      + "<option value='UTILITIES'>Utilities</option>"
+      + "<option value='SHOPPING'>Shopping</option>"
+      + "<option value='HEALTHCARE'>Healthcare</option>"
+      + "<option value='TRAVEL'>Travel</option>"
+      + "<option value='EDUCATION'>Education</option>"
+      + "<option value='OTHER'>Other</option>"
+      + "</select><br><br>"
+      + "<input type='submit' value='Create Transaction'>"
+      + FORM_CLOSE
+      + HTML_CLOSE);
+  private static final HtmlTemplate BUDGET_PAGE = HtmlTemplate.compile(HTML_OPEN
+      + "<h1>Budget Management - {}</h1>"
+      + "<h2>Current Budget</h2>"
+      + "<p><strong>Total Budget:</strong> ${}" + P_CLOSE
+      + "<p><strong>Total Spent:</strong> ${}" + P_CLOSE
+      + "<p><strong>Remaining:</strong> ${}" + P_CLOSE
+      + "<p><strong>Weekly Spending:</strong> ${}" + P_CLOSE
+      + "<h2>Update Budget</h2>"
+      + "<form action='/users/{}/update-budget' method='post'>"
+      + "New Budget: <input type='number' name='budget' step='0.01' value='{}'" + REQUIRED
+      + "<input type='submit' value='Update Budget'>"
+      + FORM_CLOSE
+      + "<h2>Quick Reports</h2>"
+      + "<ul>"
+      + "<li><a href='/users/{}/weekly-summary'>Weekly Summary</a></li>"
+      + "<li><a href='/users/{}/monthly-summary'>Monthly Summary</a></li>"
+      + "<li><a href='/users/{}/budget-report'>Budget Report (JSON)</a></li>"
+      + "</ul>"
+      + HTML_CLOSE);
+  private static final HtmlTemplate BUDGET_UPDATED = HtmlTemplate.compile(HTML_OPEN
+      + H2_OPEN + "Budget Updated Successfully!" + H2_CLOSE
+      + "<p><strong>New Budget:</strong> ${}" + P_CLOSE
+      + HTML_CLOSE);
 
   private final MockApiService mockApiService;
+  private final BudgetDashboard budgetDashboard;
 
   /**
-   * Constructs a new {@code RouteController} with the specified service dependency.
+   * Constructs a new {@code RouteController} with the specified service dependency
+   * and no budget dashboard.
    *
    * @param mockApiService The service layer handling business logic and data access.
    */
   public RouteController(final MockApiService mockApiService) {
+    this(mockApiService, null);
+  }
+
+  /**
+   * Constructs a new {@code RouteController} with the specified service dependencies.
+   *
+   * @param mockApiService The service layer handling business logic and data access.
+   * @param budgetDashboard The service computing many budget reports at once, or
+   *                        {@code null} to leave the dashboard endpoint unavailable.
+   */
+  @Autowired
+  public RouteController(final MockApiService mockApiService,
+                         final BudgetDashboard budgetDashboard) {
     this.mockApiService = mockApiService;
+    this.budgetDashboard = budgetDashboard;
   }
 
   /**
    * Displays the home page with a list of all users in the system.
-   * Provides links to individual user detail pages.
+   * Provides links to individual user detail pages. The page is written to the
+   * response as it is rendered, so its size does not add to the request's memory.
    *
    * @return An HTML response containing the user list or a message if no users exist.
    */
   @GetMapping({"/", "/index"})
-  public ResponseEntity<String> index() {
+  public ResponseEntity<HtmlPage> index() {
     if (LOGGER.isLoggable(Level.INFO)) {
       LOGGER.info("GET /index called - Fetching home page with user list.");
     }
     final List<User> users = mockApiService.viewAllUsers();
-    final StringBuilder userList = new StringBuilder(Math.max(64, users.size() * 48));
 
     if (users.isEmpty()) {
       if (LOGGER.isLoggable(Level.INFO)) {
         LOGGER.info("No users found in database.");
       }
-      userList.append("No users found.");
-    } else {
-      if (LOGGER.isLoggable(Level.INFO)) {
-        LOGGER.info("Fetched " + users.size() + " user(s) for index page.");
-      }
-      userList.append("Existing Users:<br>");
-      for (final User user : users) {
-        userList.append(String.format(
-            "- <a href='/users/%s'>%s</a> | %s | Budget: $%.2f<br>",
-            user.getUserId(), user.getUsername(), user.getEmail(), user.getBudget()));
-      }
+    } else if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("Fetched " + users.size() + " user(s) for index page.");
     }
 
-    final String html = HTML_OPEN
-        + "<h1>Welcome to the Personal Finance Tracker</h1>"
-        + P_OPEN + userList + P_CLOSE
-        + HTML_CLOSE;
-
-    return ResponseEntity.ok().contentType(MediaType.TEXT_HTML).body(html);
+    final HtmlPage page = out -> {
+      out.raw(INDEX_OPEN);
+      if (users.isEmpty()) {
+        out.raw("No users found.");
+      } else {
+        out.raw("Existing Users:<br>");
+        for (final User user : users) {
+          out.begin(USER_ROW).uuid(user.getUserId()).text(user.getUsername())
+              .text(user.getEmail()).money(user.getBudget());
+        }
+      }
+      out.raw(P_CLOSE + HTML_CLOSE);
+    };
+    return ResponseEntity.ok().contentType(MediaType.TEXT_HTML).body(page);
   }
 
   // ---------------------------------------------------------------------------
@@ -117,31 +213,51 @@ public class RouteController {
     return mockApiService.viewAllUsers();
   }
 
+  /**
+   * Retrieves several users in one request, for clients that would otherwise
+   * fetch them one at a time. Unknown identifiers are reported, not treated as
+   * errors.
+   *
+   * @param ids The comma-separated identifiers of the users, at most
+   *            {@link MockApiService#MAX_BATCH_IDS}.
+   * @return A map with keys "users", from identifier to {@code User} in request
+   *         order, and "missing", the identifiers that match no user.
+   * @throws IllegalArgumentException if too many identifiers are given.
+   */
+  @GetMapping(
+      value = "/users",
+      params = "ids",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+  public Map<String, Object> getUsers(@RequestParam final List<UUID> ids) {
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("GET /users?ids called - Fetching " + ids.size() + " user(s).");
+    }
+    return batchResult("users", ids, mockApiService.getUsers(ids));
+  }
+
   /**
    * Retrieves detailed information about a specific user.
    *
    * @param userId The unique identifier of the user.
-   * @return A JSON response containing the {@code User} object.
-   * @throws NoSuchElementException if the user is not found.
+   * @return A JSON response containing the {@code User} object, or
+   *         {@code 404 Not Found} with an error if the user is not found.
    */
   @GetMapping("/users/{userId}")
-  public ResponseEntity<User> getUser(@PathVariable final UUID userId) {
+  public ResponseEntity<?> getUser(@PathVariable final UUID userId) {
     if (LOGGER.isLoggable(Level.INFO)) {
       LOGGER.info(GET_USERS + userId + " called - Fetching user details.");
     }
-    return mockApiService.getUser(userId)
-        .map(u -> {
-          if (LOGGER.isLoggable(Level.INFO)) {
-            LOGGER.info("User found: " + u.getUsername());
-          }
-          return ResponseEntity.ok(u);
-        })
-        .orElseThrow(() -> {
-          if (LOGGER.isLoggable(Level.WARNING)) {
-            LOGGER.warning("User not found with ID: " + userId);
-          }
-          return new NoSuchElementException(USER_NF_PREFIX + userId + NF_SUFFIX);
-        });
+    final Optional<User> user = mockApiService.getUser(userId);
+    if (user.isEmpty()) {
+      if (LOGGER.isLoggable(Level.WARNING)) {
+        LOGGER.warning("User not found with ID: " + userId);
+      }
+      return notFound(USER_NF_PREFIX + userId + NF_SUFFIX);
+    }
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("User found: " + user.get().getUsername());
+    }
+    return ResponseEntity.ok(user.get());
   }
 
   /**
@@ -157,7 +273,7 @@ public class RouteController {
   @PostMapping(
       value = "/users",
       consumes = MediaType.APPLICATION_JSON_VALUE,
-      produces = MediaType.APPLICATION_JSON_VALUE)
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
   public ResponseEntity<User> createUserJson(@RequestBody final User user) {
     if (LOGGER.isLoggable(Level.INFO)) {
       LOGGER.info("POST /users called - Creating new user via JSON: " + user.getUsername());
@@ -197,6 +313,9 @@ public class RouteController {
         }
         throw new IllegalArgumentException("Data integrity violation", e);
       }
+    } catch (DataAccessResourceFailureException e) {
+      // Answered with 503 by handleUnavailable
+      throw e;
     } catch (Exception e) {
       throw new IllegalStateException("Failed to create user", e);
     }
@@ -247,14 +366,8 @@ public class RouteController {
         LOGGER.info("User created successfully via form. ID: " + saved.getUserId());
       }
 
-      final String html = HTML_OPEN
-          + H2_OPEN + "User Created Successfully!" + H2_CLOSE
-          + "<p><strong>User ID:</strong> " + saved.getUserId() + P_CLOSE
-          + "<p><strong>Username:</strong> " + saved.getUsername() + P_CLOSE
-          + "<p><strong>Email:</strong> " + saved.getEmail() + P_CLOSE
-          + "<p><strong>Budget:</strong> $" + String.format(FMT_2F, saved.getBudget()) + P_CLOSE
-          + HTML_CLOSE;
-      return ResponseEntity.status(HttpStatus.CREATED).body(html);
+      return ResponseEntity.status(HttpStatus.CREATED)
+          .body(render(userSaved("User Created Successfully!", saved)));
     }
   }
 
@@ -262,18 +375,18 @@ public class RouteController {
    * Updates an existing user with new information from a JSON request body.
    * Validates uniqueness of username and email if they are being changed.
    * Fields that are not provided or are empty retain their existing values.
+   * Answers {@code 404 Not Found} if the user is not found.
    *
    * @param userId The unique identifier of the user to update.
    * @param userUpdates A {@code User} object containing the fields to update.
    * @return A JSON response with the updated {@code User} object.
-   * @throws NoSuchElementException if the user is not found.
    * @throws IllegalArgumentException if the new username or email already exists.
    */
   @PutMapping(
       value = "/users/{userId}",
       consumes = MediaType.APPLICATION_JSON_VALUE,
-      produces = MediaType.APPLICATION_JSON_VALUE)
-  public ResponseEntity<User> updateUserJson(
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+  public ResponseEntity<?> updateUserJson(
       @PathVariable final UUID userId,
       @RequestBody final User userUpdates) {
 
@@ -286,7 +399,7 @@ public class RouteController {
       if (LOGGER.isLoggable(Level.WARNING)) {
         LOGGER.warning("Cannot update user - not found: " + userId);
       }
-      throw new NoSuchElementException(USER_NF_PREFIX + userId + NF_SUFFIX);
+      return notFound(USER_NF_PREFIX + userId + NF_SUFFIX);
     }
 
     // Check if username and email already exist
@@ -382,14 +495,7 @@ public class RouteController {
         LOGGER.info("User updated successfully via form. ID: " + userId);
       }
 
-      final String html = HTML_OPEN
-          + H2_OPEN + "User Updated Successfully!" + H2_CLOSE
-          + "<p><strong>User ID:</strong> " + saved.getUserId() + P_CLOSE
-          + "<p><strong>Username:</strong> " + saved.getUsername() + P_CLOSE
-          + "<p><strong>Email:</strong> " + saved.getEmail() + P_CLOSE
-          + "<p><strong>Budget:</strong> $" + String.format(FMT_2F, saved.getBudget()) + P_CLOSE
-          + HTML_CLOSE;
-      return ResponseEntity.ok(html);
+      return ResponseEntity.ok(render(userSaved("User Updated Successfully!", saved)));
     }
   }
   /**
@@ -488,26 +594,16 @@ public class RouteController {
     if (LOGGER.isLoggable(Level.INFO)) {
       LOGGER.info("Edit form displayed for user: " + user.getUsername());
     }
-    return HTML_OPEN
-        + "<h2>Edit User</h2>"
-        + "<form action='/users/" + userId + "/update-form' method='post'>"
-        + "Username: <input type='text' name='username' value='" + user.getUsername()
-        + "'" + REQUIRED
-        + "Email: <input type='email' name='email' value='" + user.getEmail()
-        + "'" + REQUIRED
-        + "Budget: <input type='number' name='budget' step='0.01' value='"
-        + user.getBudget() + "'" + REQUIRED
-        + "<input type='submit' value='Update User'>"
-        + FORM_CLOSE
-        + HTML_CLOSE;
+    return render(out -> out.begin(EDIT_USER_FORM).uuid(userId).text(user.getUsername())
+        .text(user.getEmail()).number(user.getBudget()));
   }
 
   /**
    * Deletes a user by their unique identifier via a DELETE request.
+   * Answers {@code 404 Not Found} if the user is not found or already deleted.
    *
    * @param userId The unique identifier of the user to delete.
    * @return A JSON response confirming the deletion.
-   * @throws NoSuchElementException if the user is not found or already deleted.
    */
   @DeleteMapping("/users/{userId}")
   public ResponseEntity<Map<String, Object>> deleteUser(@PathVariable final UUID userId) {
@@ -519,7 +615,7 @@ public class RouteController {
       if (LOGGER.isLoggable(Level.WARNING)) {
         LOGGER.warning("User not found or already deleted: " + userId);
       }
-      throw new NoSuchElementException(USER_NF_PREFIX + userId + NF_SUFFIX);
+      return notFound(USER_NF_PREFIX + userId + NF_SUFFIX);
     }
     if (LOGGER.isLoggable(Level.INFO)) {
       LOGGER.info("User deleted successfully: " + userId);
@@ -584,6 +680,9 @@ public class RouteController {
         LOGGER.info("Retrieved " + transactions.size() + " transactions for user " + userId);
       }
       return ResponseEntity.ok(transactions);
+    } catch (DataAccessResourceFailureException e) {
+      // Answered with 503 by handleUnavailable
+      throw e;
     } catch (RuntimeException e) {
       if (LOGGER.isLoggable(Level.SEVERE)) {
         LOGGER.severe("Error retrieving transactions for user " + userId + ": " + e.getMessage());
@@ -599,12 +698,12 @@ public class RouteController {
    *
    * @param userId The unique identifier of the user.
    * @param transactionId The unique identifier of the transaction to retrieve.
-   * @return The requested Transaction object.
-   * @throws NoSuchElementException if the user is not found, or if the transaction
-   *         does not exist or does not belong to the specified user.
+   * @return The requested Transaction object, or {@code 404 Not Found} with an
+   *         error if the user is not found, or if the transaction does not exist
+   *         or does not belong to the specified user.
    */
   @GetMapping("/users/{userId}/transactions/{transactionId}")
-  public ResponseEntity<Transaction> getTransaction(
+  public ResponseEntity<?> getTransaction(
       @PathVariable final UUID userId,
       @PathVariable final UUID transactionId) {
 
@@ -616,31 +715,58 @@ public class RouteController {
       if (LOGGER.isLoggable(Level.WARNING)) {
         LOGGER.warning("Cannot fetch transaction - user not found: " + userId);
       }
-      throw new NoSuchElementException(USER_NF_PREFIX + userId + NF_SUFFIX);
+      return notFound(USER_NF_PREFIX + userId + NF_SUFFIX);
+    }
+    final Optional<Transaction> transaction = mockApiService.getTransaction(transactionId)
+        .filter(found -> found.getUserId().equals(userId));
+    if (transaction.isEmpty()) {
+      return notFound(TX_NF_PREFIX + transactionId + NF_FOR_USER + userId);
+    }
+    return ResponseEntity.ok(transaction.get());
+  }
+
+  /**
+   * Retrieves several transactions in one request, whichever users they belong
+   * to. The identifiers are sent in the body so that a long list does not
+   * overflow the request line. Unknown identifiers are reported, not treated as
+   * errors.
+   *
+   * @param lookup The body, {@code {"ids": [...]}}, with at most
+   *               {@link MockApiService#MAX_BATCH_IDS} identifiers.
+   * @return A map with keys "transactions", from identifier to {@code Transaction}
+   *         in request order, and "missing", the identifiers that match no
+   *         transaction.
+   * @throws IllegalArgumentException if the identifiers are missing or too many.
+   */
+  @PostMapping(
+      value = "/transactions/lookup",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+  public Map<String, Object> lookupTransactions(@RequestBody final IdLookup lookup) {
+    final List<UUID> ids = lookup.ids();
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("POST /transactions/lookup called - Fetching "
+          + (ids == null ? 0 : ids.size()) + " transaction(s).");
     }
-    return mockApiService.getTransaction(transactionId)
-        .filter(transaction -> transaction.getUserId().equals(userId))
-        .map(ResponseEntity::ok)
-        .orElseThrow(() -> new NoSuchElementException(
-            TX_NF_PREFIX + transactionId + NF_FOR_USER + userId));
+    return batchResult("transactions", ids, mockApiService.getTransactions(ids));
   }
 
   /**
    * Creates a new transaction for a user using JSON input.
    * The transaction is automatically associated with the specified user,
    * overriding any userId present in the request body.
+   * Answers {@code 404 Not Found} if the user is not found.
    *
    * @param userId The unique identifier of the user for whom to create the transaction.
    * @param transaction The transaction object containing details (description, amount, category).
    *        The userId field will be overwritten with the path parameter value.
    * @return The created Transaction object with HTTP status 201 (CREATED).
-   * @throws NoSuchElementException if the user is not found.
    */
   @PostMapping(
       value = "/users/{userId}/transactions",
       consumes = MediaType.APPLICATION_JSON_VALUE,
-      produces = MediaType.APPLICATION_JSON_VALUE)
-  public ResponseEntity<Transaction> createTransactionJson(
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+  public ResponseEntity<?> createTransactionJson(
       @PathVariable final UUID userId,
       @RequestBody final Transaction transaction) {
     if (LOGGER.isLoggable(Level.INFO)) {
@@ -651,7 +777,7 @@ public class RouteController {
       if (LOGGER.isLoggable(Level.WARNING)) {
         LOGGER.warning("Cannot create transaction - user not found: " + userId);
       }
-      throw new NoSuchElementException(USER_NF_PREFIX + userId + NF_SUFFIX);
+      return notFound(USER_NF_PREFIX + userId + NF_SUFFIX);
     }
     try {
       transaction.setUserId(userId);
@@ -710,15 +836,12 @@ public class RouteController {
             + ": " + saved.getTransactionId());
       }
 
-      final String html = "<html><body>"
-          + "<h2>Transaction Created Successfully!</h2>"
-          + "<p><strong>Description:</strong> " + saved.getDescription() + P_CLOSE
-          + "<p><strong>Amount:</strong> $" + String.format("%.2f", saved.getAmount()) + P_CLOSE
-          + "<p><strong>Category:</strong> " + saved.getCategory() + P_CLOSE
-          + "<br>"
-          + "</body></html>";
-
-      return ResponseEntity.status(HttpStatus.CREATED).body(html);
+      return ResponseEntity.status(HttpStatus.CREATED)
+          .body(render(out -> out.begin(TRANSACTION_SAVED).text(saved.getDescription())
+              .money(saved.getAmount()).text(saved.getCategory())));
+    } catch (DataAccessResourceFailureException e) {
+      // Answered with 503 by handleUnavailable
+      throw e;
     } catch (RuntimeException e) {
       if (LOGGER.isLoggable(Level.SEVERE)) {
         LOGGER.severe("Error creating transaction via form for user "
@@ -733,20 +856,20 @@ public class RouteController {
    * Updates an existing transaction for a user with partial data.
    * Only the fields present in the updates map will be modified; other fields remain unchanged.
    * Validates that the transaction belongs to the specified user before updating.
+   * Answers {@code 404 Not Found} if the user is not found, or if the transaction does not exist or
+   * does not belong to the specified user.
    *
    * @param userId The unique identifier of the user who owns the transaction.
    * @param transactionId The unique identifier of the transaction to update.
    * @param updates A map containing the fields to update (e.g., "description", "amount",
    *                "category").
    * @return The updated Transaction object.
-   * @throws NoSuchElementException if the user is not found, or if the transaction
-   *         does not exist or does not belong to the specified user.
    */
   @PutMapping(
       value = "/users/{userId}/transactions/{transactionId}",
       consumes = MediaType.APPLICATION_JSON_VALUE,
-      produces = MediaType.APPLICATION_JSON_VALUE)
-  public ResponseEntity<Transaction> updateTransactionJson(
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+  public ResponseEntity<?> updateTransactionJson(
       @PathVariable final UUID userId,
       @PathVariable final UUID transactionId,
       @RequestBody final Map<String, Object> updates) {
@@ -759,7 +882,7 @@ public class RouteController {
       if (LOGGER.isLoggable(Level.WARNING)) {
         LOGGER.warning("Cannot update transaction - user not found: " + userId);
       }
-      throw new NoSuchElementException(USER_NF_PREFIX + userId + NF_SUFFIX);
+      return notFound(USER_NF_PREFIX + userId + NF_SUFFIX);
     }
 
     final Optional<Transaction> existing = mockApiService.getTransaction(transactionId);
@@ -768,8 +891,7 @@ public class RouteController {
         LOGGER.warning("Cannot update - transaction not found: "
             + transactionId + " for user " + userId);
       }
-      throw new NoSuchElementException(
-          TX_NF_PREFIX + transactionId + NF_FOR_USER + userId);
+      return notFound(TX_NF_PREFIX + transactionId + NF_FOR_USER + userId);
     }
     try {
       final Optional<Transaction> updated =
@@ -812,37 +934,19 @@ public class RouteController {
     if (LOGGER.isLoggable(Level.INFO)) {
       LOGGER.info("Transaction form displayed successfully for user " + userId);
     }
-    return HTML_OPEN
-        + "<h2>Create New Transaction</h2>"
-        + "<form action='/users/" + userId + "/transactions/form' method='post'>"
-        + "Description: <input type='text' name='description'" + REQUIRED
-        + "Amount: <input type='number' name='amount' step='0.01'" + REQUIRED
-        + "Category: <select name='category' required>"
-        + "<option value='FOOD'>Food</option>"
-        + "<option value='TRANSPORTATION'>Transportation</option>"
-        + "<option value='ENTERTAINMENT'>Entertainment</option>"
-        + "<option value='UTILITIES'>Utilities</option>"
-        + "<option value='SHOPPING'>Shopping</option>"
-        + "<option value='HEALTHCARE'>Healthcare</option>"
-        + "<option value='TRAVEL'>Travel</option>"
-        + "<option value='EDUCATION'>Education</option>"
-        + "<option value='OTHER'>Other</option>"
-        + "</select><br><br>"
-        + "<input type='submit' value='Create Transaction'>"
-        + FORM_CLOSE
-        + HTML_CLOSE;
+    return render(out -> out.begin(TRANSACTION_FORM).uuid(userId));
   }
 
   /**
    * Deletes a specific transaction for a user.
    * Validates that the transaction belongs to the specified user before deletion.
+   * Answers {@code 404 Not Found} if the user is not found, or if the transaction does not exist or
+   * does not belong to the specified user.
    *
    * @param userId The unique identifier of the user who owns the transaction.
    * @param transactionId The unique identifier of the transaction to delete.
    * @return A map containing deletion confirmation with keys: "deleted" (boolean),
    *         "userId" (UUID), and "transactionId" (UUID).
-   * @throws NoSuchElementException if the user is not found, or if the transaction
-   *         does not exist or does not belong to the specified user.
    */
   @DeleteMapping("/users/{userId}/transactions/{transactionId}")
   public ResponseEntity<Map<String, Object>> deleteTransaction(
@@ -857,7 +961,7 @@ public class RouteController {
       if (LOGGER.isLoggable(Level.WARNING)) {
         LOGGER.warning("Cannot delete transaction - user not found: " + userId);
       }
-      throw new NoSuchElementException(USER_NF_PREFIX + userId + NF_SUFFIX);
+      return notFound(USER_NF_PREFIX + userId + NF_SUFFIX);
     }
 
     final Optional<Transaction> existing = mockApiService.getTransaction(transactionId);
@@ -866,8 +970,7 @@ public class RouteController {
         LOGGER.warning("Cannot delete transaction - not found or mismatched user. ID: "
             + transactionId);
       }
-      throw new NoSuchElementException(
-          TX_NF_PREFIX + transactionId + NF_FOR_USER + userId);
+      return notFound(TX_NF_PREFIX + transactionId + NF_FOR_USER + userId);
     }
 
     final boolean deleted = mockApiService.deleteTransaction(transactionId);
@@ -875,7 +978,7 @@ public class RouteController {
       if (LOGGER.isLoggable(Level.WARNING)) {
         LOGGER.warning("Transaction deletion failed for ID: " + transactionId);
       }
-      throw new NoSuchElementException(TX_NF_PREFIX + transactionId + NF_SUFFIX);
+      return notFound(TX_NF_PREFIX + transactionId + NF_SUFFIX);
     }
     if (LOGGER.isLoggable(Level.INFO)) {
       LOGGER.info("Transaction deleted successfully for user " + userId + ": " + transactionId);
@@ -912,47 +1015,61 @@ public class RouteController {
 
     final User user = mockApiService.getUser(userId).get();
     final Map<String, Object> budgetReport = mockApiService.getBudgetReport(userId);
-    final String weeklyTotal = String.format(FMT_2F, mockApiService.totalLast7Days(userId));
+    final double weeklyTotal = mockApiService.totalLast7Days(userId);
 
     if (LOGGER.isLoggable(Level.INFO)) {
       LOGGER.info("Budget page loaded successfully for user: " + user.getUsername());
     }
-    return HTML_OPEN
-        + "<h1>Budget Management - " + user.getUsername() + "</h1>"
-        + "<h2>Current Budget</h2>"
-        + "<p><strong>Total Budget:</strong> $" + String.format(FMT_2F, user.getBudget()) + P_CLOSE
-        + "<p><strong>Total Spent:</strong> $" + budgetReport.get("totalSpent") + P_CLOSE
-        + "<p><strong>Remaining:</strong> $" + budgetReport.get("remaining") + P_CLOSE
-        + "<p><strong>Weekly Spending:</strong> $" + weeklyTotal + P_CLOSE
-        + "<h2>Update Budget</h2>"
-        + "<form action='/users/" + userId + "/update-budget' method='post'>"
-        + "New Budget: <input type='number' name='budget' step='0.01' value='"
-        + user.getBudget() + "'" + REQUIRED
-        + "<input type='submit' value='Update Budget'>"
-        + FORM_CLOSE
-        + "<h2>Quick Reports</h2>"
-        + "<ul>"
-        + "<li><a href='/users/" + userId + "/weekly-summary'>Weekly Summary</a></li>"
-        + "<li><a href='/users/" + userId + "/monthly-summary'>Monthly Summary</a></li>"
-        + "<li><a href='/users/" + userId + "/budget-report'>Budget Report (JSON)</a></li>"
-        + "</ul>"
-        + HTML_CLOSE;
+    return render(out -> out.begin(BUDGET_PAGE).text(user.getUsername())
+        .money(user.getBudget()).text(budgetReport.get("totalSpent"))
+        .text(budgetReport.get("remaining")).money(weeklyTotal)
+        .uuid(userId).number(user.getBudget())
+        .uuid(userId).uuid(userId).uuid(userId));
+  }
+
+  /**
+   * Retrieves the budget reports of many users at once, for dashboards. The
+   * reports are computed concurrently and the request waits for them only up to
+   * a deadline, returning the ones that are ready. The identifiers are sent in
+   * the body, since hundreds of them would overflow the request line.
+   *
+   * @param lookup The body, {@code {"ids": [...]}}, with at most
+   *               {@link MockApiService#MAX_BATCH_IDS} identifiers.
+   * @return A map with keys "reports" (identifier to budget report, as returned by
+   *         {@code /users/{userId}/budget-report}), "missing", "pending", "failed"
+   *         and "complete"; see {@link BudgetDashboard#reports}.
+   * @throws IllegalArgumentException if the identifiers are missing or too many.
+   * @throws IllegalStateException if no dashboard is configured.
+   */
+  @PostMapping(
+      value = "/dashboard/budget-reports",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+  public Map<String, Object> budgetDashboard(@RequestBody final IdLookup lookup) {
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("POST /dashboard/budget-reports called - Reporting on "
+          + (lookup.ids() == null ? 0 : lookup.ids().size()) + " user(s).");
+    }
+    if (budgetDashboard == null) {
+      throw new IllegalStateException("Budget dashboard is not configured");
+    }
+    return budgetDashboard.reports(lookup.ids());
   }
 
   /**
    * Updates a user's budget using JSON input.
    * Accepts a map that may contain budget-related fields such as "budget" (total budget amount).
+   * Answers {@code 404 Not Found} if the user is not found.
    *
    * @param userId The unique identifier of the user whose budget to update.
    * @param budgetUpdate A map containing budget fields to update.
    * @return A map containing the updated budget report with keys such as "totalSpent",
    *         "remaining", and other budget statistics.
-   * @throws NoSuchElementException if the user is not found.
    */
   @PutMapping(
       value = "/users/{userId}/budget",
       consumes = MediaType.APPLICATION_JSON_VALUE,
-      produces = MediaType.APPLICATION_JSON_VALUE)
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
   public ResponseEntity<Map<String, Object>> updateBudgetJson(
       @PathVariable final UUID userId,
       @RequestBody final Map<String, Object> budgetUpdate) {
@@ -964,7 +1081,7 @@ public class RouteController {
       if (LOGGER.isLoggable(Level.WARNING)) {
         LOGGER.warning("Cannot update budget - user not found: " + userId);
       }
-      throw new NoSuchElementException(USER_NF_PREFIX + userId + NF_SUFFIX);
+      return notFound(USER_NF_PREFIX + userId + NF_SUFFIX);
     }
 
     mockApiService.setBudgets(userId, budgetUpdate);
@@ -1006,38 +1123,38 @@ public class RouteController {
       LOGGER.info("Budget successfully updated via form for user " + userId + " to $" + budget);
     }
 
-    final String html = HTML_OPEN
-        + H2_OPEN + "Budget Updated Successfully!" + H2_CLOSE
-        + "<p><strong>New Budget:</strong> $" + String.format(FMT_2F, budget) + P_CLOSE
-        + HTML_CLOSE;
-
-    return ResponseEntity.ok(html);
+    return ResponseEntity.ok(render(out -> out.begin(BUDGET_UPDATED).money(budget)));
   }
 
   /**
    * Generates a weekly summary of transactions for a user.
    * Includes transactions from the last 7 days and calculates the weekly spending total.
+   * Answers {@code 404 Not Found} if the user is not found.
    *
    * @param userId The unique identifier of the user whose weekly summary to generate.
    * @return A map containing keys: "username", "weeklyTotal" (double), "transactionCount" (int),
-   *         and "transactions" (list of Transaction objects).
-   * @throws NoSuchElementException if the user is not found.
+   *         "transactions" (list of Transaction objects) and "dailyTotals" (amount spent per
+   *         day, oldest first).
    */
-  @GetMapping(value = "/users/{userId}/weekly-summary", produces = MediaType.APPLICATION_JSON_VALUE)
-  public Map<String, Object> weeklySummary(@PathVariable final UUID userId) {
+  @GetMapping(
+      value = "/users/{userId}/weekly-summary",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+  public ResponseEntity<Map<String, Object>> weeklySummary(@PathVariable final UUID userId) {
     if (LOGGER.isLoggable(Level.INFO)) {
       LOGGER.info(GET_USERS + userId + "/weekly-summary called - Generating weekly summary.");
     }
-    if (!mockApiService.getUser(userId).isPresent()) {
+    final Optional<User> found = mockApiService.getUser(userId);
+    if (found.isEmpty()) {
       if (LOGGER.isLoggable(Level.WARNING)) {
         LOGGER.warning("Cannot generate weekly summary - user not found: " + userId);
       }
-      throw new NoSuchElementException(USER_NF_PREFIX + userId + NF_SUFFIX);
+      return notFound(USER_NF_PREFIX + userId + NF_SUFFIX);
     }
 
-    final User user = mockApiService.getUser(userId).get();
+    final User user = found.get();
     final List<Transaction> wkTransactions = mockApiService.weeklySummary(userId);
     final double weeklyTotal = mockApiService.totalLast7Days(userId);
+    final Map<LocalDate, Double> dailyTotals = mockApiService.dailySpendLast7Days(userId);
 
     if (LOGGER.isLoggable(Level.INFO)) {
       LOGGER.info("Weekly summary generated for user " + user.getUsername()
@@ -1049,24 +1166,25 @@ public class RouteController {
     response.put("weeklyTotal", weeklyTotal);
     response.put("transactionCount", wkTransactions.size());
     response.put("transactions", wkTransactions);
+    response.put("dailyTotals", dailyTotals);
 
-    return response;
+    return ResponseEntity.ok(response);
   }
 
   /**
    * Generates a monthly summary of transactions for a user.
    * Provides aggregated spending data for the current month.
+   * Answers {@code 404 Not Found} if the user is not found.
    *
    * @param userId The unique identifier of the user whose monthly summary to generate.
    * @return A map containing a "summary" key with monthly transaction data,
    *         or an empty map if no summary is available.
-   * @throws NoSuchElementException if the user is not found.
    */
   @GetMapping(
       value = "/users/{userId}/monthly-summary",
-      produces = MediaType.APPLICATION_JSON_VALUE
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE}
   )
-  public Map<String, Object> monthlySummary(@PathVariable final UUID userId) {
+  public ResponseEntity<Map<String, Object>> monthlySummary(@PathVariable final UUID userId) {
     if (LOGGER.isLoggable(Level.INFO)) {
       LOGGER.info(GET_USERS + userId + "/monthly-summary called - Generating monthly summary.");
     }
@@ -1074,7 +1192,7 @@ public class RouteController {
       if (LOGGER.isLoggable(Level.WARNING)) {
         LOGGER.warning("Cannot generate monthly summary - user not found: " + userId);
       }
-      throw new NoSuchElementException(USER_NF_PREFIX + userId + NF_SUFFIX);
+      return notFound(USER_NF_PREFIX + userId + NF_SUFFIX);
     }
 
     final String summary = mockApiService.getMonthlySummary(userId);
@@ -1087,21 +1205,21 @@ public class RouteController {
       response.put("summary", summary);
     }
 
-    return response;
+    return ResponseEntity.ok(response);
   }
 
   /**
    * Retrieves a detailed budget report for a user in JSON format.
    * Includes total budget, total spent, remaining budget, and other financial metrics.
+   * Answers {@code 404 Not Found} if the user is not found.
    *
    * @param userId The unique identifier of the user whose budget report to retrieve.
    * @return A map containing budget statistics with keys such as "totalSpent", "remaining",
    *         and other relevant financial data.
-   * @throws NoSuchElementException if the user is not found.
    */
   @GetMapping(
       value = "/users/{userId}/budget-report",
-      produces = MediaType.APPLICATION_JSON_VALUE)
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
   public ResponseEntity<Map<String, Object>> budgetReport(@PathVariable final UUID userId) {
     if (LOGGER.isLoggable(Level.INFO)) {
       LOGGER.info(GET_USERS + userId + "/budget-report called - Retrieving budget report (JSON).");
@@ -1110,7 +1228,7 @@ public class RouteController {
       if (LOGGER.isLoggable(Level.WARNING)) {
         LOGGER.warning("Cannot retrieve budget report - user not found: " + userId);
       }
-      throw new NoSuchElementException(USER_NF_PREFIX + userId + NF_SUFFIX);
+      return notFound(USER_NF_PREFIX + userId + NF_SUFFIX);
     }
 
     if (LOGGER.isLoggable(Level.INFO)) {
@@ -1119,12 +1237,116 @@ public class RouteController {
     return ResponseEntity.ok(mockApiService.getBudgetReport(userId));
   }
 
+  /**
+   * Retrieves how much a user spent over a custom period, in total and per category.
+   * Answers {@code 404 Not Found} if the user is not found.
+   *
+   * @param userId The unique identifier of the user.
+   * @param from The first date of the period (ISO format, e.g. 2025-01-31).
+   * @param to The last date of the period, inclusive.
+   * @return A map with keys "userId", "from", "to", "totalSpent" and "categories".
+   * @throws IllegalArgumentException if {@code from} is after {@code to}.
+   */
+  @GetMapping(
+      value = "/users/{userId}/spending",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+  public ResponseEntity<Map<String, Object>> spendingBetween(
+      @PathVariable final UUID userId,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate to) {
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info(GET_USERS + userId + "/spending called - Summarizing " + from + " to " + to);
+    }
+    if (!mockApiService.getUser(userId).isPresent()) {
+      if (LOGGER.isLoggable(Level.WARNING)) {
+        LOGGER.warning("Cannot summarize spending - user not found: " + userId);
+      }
+      return notFound(USER_NF_PREFIX + userId + NF_SUFFIX);
+    }
+    return ResponseEntity.ok(mockApiService.getSpendingBetween(userId, from, to));
+  }
+
+  /**
+   * Ranks a user's monthly spending in each category against all users, for
+   * example to show that they spend more on FOOD than 80% of users.
+   * Answers {@code 404 Not Found} if the user is not found.
+   *
+   * @param userId The unique identifier of the user.
+   * @param months The number of calendar months to compare over, counting the
+   *               current one (default 1).
+   * @return A map with keys "userId", "months", "from", "to" and
+   *         "categories" (each with "monthlySpend" and "percentile").
+   * @throws IllegalArgumentException if {@code months} is out of range.
+   */
+  @GetMapping(
+      value = "/users/{userId}/percentiles",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+  public ResponseEntity<Map<String, Object>> spendingPercentiles(
+      @PathVariable final UUID userId,
+      @RequestParam(defaultValue = "1") final int months) {
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info(GET_USERS + userId + "/percentiles called - Ranking " + months + " month(s)");
+    }
+    if (!mockApiService.getUser(userId).isPresent()) {
+      if (LOGGER.isLoggable(Level.WARNING)) {
+        LOGGER.warning("Cannot rank spending - user not found: " + userId);
+      }
+      return notFound(USER_NF_PREFIX + userId + NF_SUFFIX);
+    }
+    return ResponseEntity.ok(mockApiService.getSpendingPercentiles(userId, months));
+  }
+
   // ---------------------------------------------------------------------------
   // Exception handlers & helper functions
   // ---------------------------------------------------------------------------
 
   /**
-   * Exception handler for resource not found errors.
+   * Builds a {@code 404 Not Found} response with the same body as
+   * {@link #handleNotFound}. The JSON endpoints return it instead of throwing,
+   * since scrapers and stale clients make missing users and transactions a
+   * common case, and an exception per miss costs a stack trace and a trip
+   * through the exception resolvers.
+   */
+  private static ResponseEntity<Map<String, Object>> notFound(final String message) {
+    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", message));
+  }
+
+  /**
+   * Builds the confirmation page for a created or updated user.
+   */
+  private static HtmlPage userSaved(final String heading, final User saved) {
+    return out -> out.begin(USER_SAVED).raw(heading).uuid(saved.getUserId())
+        .text(saved.getUsername()).text(saved.getEmail()).money(saved.getBudget());
+  }
+
+  /**
+   * Builds the response of a batch lookup: the found rows under {@code key} and
+   * the requested identifiers that were not found under "missing".
+   */
+  private static Map<String, Object> batchResult(final String key, final List<UUID> ids,
+                                                 final Map<UUID, ?> found) {
+    final Set<UUID> missing = new LinkedHashSet<>();
+    for (final UUID id : ids) {
+      if (!found.containsKey(id)) {
+        missing.add(id);
+      }
+    }
+    final Map<String, Object> result = new LinkedHashMap<>();
+    result.put(key, found);
+    result.put("missing", missing);
+    return result;
+  }
+
+  /**
+   * Renders a small page into a string, for the endpoints that return one.
+   */
+  private static String render(final HtmlPage page) {
+    return page.asString();
+  }
+
+  /**
+   * Exception handler for resource not found errors raised by the HTML pages
+   * and forms; the JSON endpoints answer {@link #notFound} directly.
    * Returns a JSON error response with HTTP status 404 (NOT_FOUND).
    *
    * @param exception The NoSuchElementException containing the error message.
@@ -1150,4 +1372,32 @@ public class RouteController {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST)
         .body(Map.of("error", exception.getMessage()));
   }
+
+  /**
+   * Exception handler for a database that cannot take more work right now, such
+   * as when no connection could be obtained in time.
+   * Returns a JSON error response with HTTP status 503 (SERVICE_UNAVAILABLE)
+   * and a {@code Retry-After} header.
+   *
+   * @param exception The DataAccessResourceFailureException raised by the store.
+   * @return ResponseEntity containing a map with an "error" key.
+   */
+  @ExceptionHandler(DataAccessResourceFailureException.class)
+  public ResponseEntity<Map<String, String>> handleUnavailable(
+      final DataAccessResourceFailureException exception) {
+    if (LOGGER.isLoggable(Level.WARNING)) {
+      LOGGER.warning("Database unavailable: " + exception.getMessage());
+    }
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(Map.of("error", "Service temporarily unavailable, please retry"));
+  }
+
+  /**
+   * The body of a batch lookup.
+   *
+   * @param ids The identifiers to look up.
+   */
+  public record IdLookup(List<UUID> ids) {
+  }
 }
@@ -0,0 +1,52 @@
+package dev.ase.teamproject.controller;
+
+import dev.ase.teamproject.repository.SlowQueryLog;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller serving the recent slow SQL statements, for finding out why
+ * a query that is usually fast was not.
+ *
+ * <p>Each entry has the query's name, its text, the types of its parameters,
+ * its duration and rows, and, for a sample of entries, the plan the database
+ * used. Served only with {@code ledger.jdbc.slow-query.debug.enabled=true}.
+ */
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = {"ledger.jdbc.metrics.enabled", "ledger.jdbc.slow-query.enabled"},
+    havingValue = "true", matchIfMissing = true)
+@ConditionalOnExpression("${ledger.jdbc.slow-query.debug.enabled:false}")
+public class SlowQueryController {
+
+  private final SlowQueryLog slowQueryLog;
+
+  /**
+   * Constructs a new {@code SlowQueryController}.
+   *
+   * @param slowQueryLog The log whose statements are served.
+   */
+  public SlowQueryController(final SlowQueryLog slowQueryLog) {
+    this.slowQueryLog = slowQueryLog;
+  }
+
+  /**
+   * Returns the kept slow statements, newest first.
+   *
+   * @param query Only the statements of the query with this name, if given.
+   * @return The statements.
+   */
+  @GetMapping(value = "/debug/slow-queries", produces = MediaType.APPLICATION_JSON_VALUE)
+  public List<SlowQueryLog.Entry> slowQueries(
+      @RequestParam(required = false) final String query) {
+    return slowQueryLog.entries().stream()
+        .filter(entry -> query == null || entry.getQuery().equals(query))
+        .toList();
+  }
+}
@@ -0,0 +1,59 @@
+package dev.ase.teamproject.controller;
+
+import dev.ase.teamproject.repository.SqlMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds an {@code X-Sql-Summary} header to each response, with the number of
+ * statements its request ran on its own thread, their time, their rows and the
+ * wait for connections: for example
+ * {@code statements=2; time=3.10ms; rows=41; acquire=0.05ms}. It is meant for
+ * debugging and is enabled with {@code ledger.jdbc.metrics.summary-header=true}.
+ *
+ * <p>The header is added just before the body is written, once the controller
+ * has returned and its statements have run.
+ */
+@ControllerAdvice
+@Profile("!reactive")
+@ConditionalOnProperty(name = {"ledger.jdbc.metrics.enabled", "ledger.jdbc.metrics.summary-header"},
+    havingValue = "true")
+public class SqlSummaryAdvice implements ResponseBodyAdvice<Object> {
+
+  /** The response header holding the summary. */
+  public static final String HEADER = "X-Sql-Summary";
+
+  private final SqlMetrics sqlMetrics;
+
+  /**
+   * Constructs a new {@code SqlSummaryAdvice}.
+   *
+   * @param sqlMetrics The metrics the summaries are kept by.
+   */
+  public SqlSummaryAdvice(final SqlMetrics sqlMetrics) {
+    this.sqlMetrics = sqlMetrics;
+  }
+
+  @Override
+  public boolean supports(final MethodParameter returnType,
+                          final Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(
+      final Object body, final MethodParameter returnType, final MediaType selectedContentType,
+      final Class<? extends HttpMessageConverter<?>> selectedConverterType,
+      final ServerHttpRequest request, final ServerHttpResponse response) {
+    sqlMetrics.summary().ifPresent(summary ->
+        response.getHeaders().set(HEADER, summary.toString()));
+    return body;
+  }
+}
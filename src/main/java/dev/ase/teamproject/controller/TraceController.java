@@ -0,0 +1,57 @@
+package dev.ase.teamproject.controller;
+
+import dev.ase.teamproject.util.Tracer;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller serving the traces of recently sampled requests, for
+ * debugging where a slow request's time went.
+ *
+ * <p>Each trace has the request's method, path, status, start and duration,
+ * and its spans in the order they started, each with its nesting depth, its
+ * offset from the start of the request and its duration, in microseconds.
+ * Served only with {@code ledger.trace.debug.enabled=true}.
+ */
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = {"ledger.trace.enabled", "ledger.trace.debug.enabled"},
+    havingValue = "true")
+public class TraceController {
+
+  private final Tracer tracer;
+
+  /**
+   * Constructs a new {@code TraceController}.
+   *
+   * @param tracer The tracer whose traces are served.
+   */
+  public TraceController(final Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  /**
+   * Returns the most recent traces, newest first.
+   *
+   * @param limit The most traces to return.
+   * @param traceId Only the trace with this identifier, if given.
+   * @param minMillis Only traces of requests that took at least this long.
+   * @return The traces.
+   */
+  @GetMapping(value = "/debug/traces", produces = MediaType.APPLICATION_JSON_VALUE)
+  public List<Tracer.Trace> traces(
+      @RequestParam(defaultValue = "50") final int limit,
+      @RequestParam(required = false) final String traceId,
+      @RequestParam(defaultValue = "0") final long minMillis) {
+    return tracer.recent(Integer.MAX_VALUE).stream()
+        .filter(trace -> traceId == null || trace.getTraceId().equalsIgnoreCase(traceId))
+        .filter(trace -> trace.getDurationMicros() >= minMillis * 1000)
+        .limit(Math.max(0, limit))
+        .toList();
+  }
+}
@@ -0,0 +1,160 @@
+package dev.ase.teamproject.filter;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how many requests of one class run at once and how long others wait
+ * for them, and tells when its queue has been slow for too long.
+ *
+ * <p>Requests queue fairly on a semaphore, and a new arrival does not take a
+ * place ahead of requests already waiting; a request is rejected when too many
+ * are already waiting or its wait runs out. The queue counts as overloaded, in
+ * the manner of CoDel, when requests have been waiting for a while and none has
+ * got through within {@code targetNanos} of arriving for the last
+ * {@code intervalNanos}: a queue that only briefly holds a burst is not
+ * overloaded, one that stays slow is. An arrival that finds a free place only
+ * counts as fast when nobody is waiting, so that arrivals slipping in between
+ * waiters do not hide a queue that stays slow.
+ */
+public final class Bulkhead {
+
+  private final String name;
+  private final Semaphore permits;
+  private final int maxConcurrency;
+  private final int maxWaiting;
+  private final long waitNanos;
+  private final long targetNanos;
+  private final long intervalNanos;
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final LongAdder rejected = new LongAdder();
+  private volatile long lastFast = System.nanoTime();
+
+  /**
+   * Constructs a new {@code Bulkhead}.
+   *
+   * @param name The name of the request class, used to label its metrics.
+   * @param maxConcurrency How many requests may run at once.
+   * @param maxWaiting How many requests may wait at once.
+   * @param waitNanos How long a request waits before it is rejected.
+   * @param targetNanos The longest wait that still counts as fast.
+   * @param intervalNanos How long waits must stay over the target before the
+   *                      queue counts as overloaded.
+   */
+  public Bulkhead(final String name, final int maxConcurrency, final int maxWaiting,
+                  final long waitNanos, final long targetNanos, final long intervalNanos) {
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("maxConcurrency must be at least 1");
+    }
+    this.name = name;
+    this.permits = new Semaphore(maxConcurrency, true);
+    this.maxConcurrency = maxConcurrency;
+    this.maxWaiting = maxWaiting;
+    this.waitNanos = waitNanos;
+    this.targetNanos = targetNanos;
+    this.intervalNanos = intervalNanos;
+  }
+
+  /**
+   * Waits for a place to run. A caller that gets one must {@link #release()} it.
+   *
+   * @return {@code true} if the caller may run, or {@code false} if it was rejected.
+   */
+  public boolean acquire() {
+    try {
+      if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+        if (waiting.get() == 0) {
+          lastFast = System.nanoTime();
+        }
+        return true;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      rejected.increment();
+      return false;
+    }
+    if (waiting.incrementAndGet() > maxWaiting) {
+      waiting.decrementAndGet();
+      rejected.increment();
+      return false;
+    }
+    final long start = System.nanoTime();
+    try {
+      if (permits.tryAcquire(waitNanos, TimeUnit.NANOSECONDS)) {
+        final long now = System.nanoTime();
+        if (now - start <= targetNanos) {
+          lastFast = now;
+        }
+        return true;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      waiting.decrementAndGet();
+    }
+    rejected.increment();
+    return false;
+  }
+
+  /**
+   * Returns the place taken by a successful {@link #acquire()}.
+   */
+  public void release() {
+    permits.release();
+  }
+
+  /**
+   * Counts a request that was turned away without trying to acquire a place.
+   */
+  public void shed() {
+    rejected.increment();
+  }
+
+  /**
+   * Returns whether requests are waiting and none has got through within the
+   * target wait for longer than the interval.
+   *
+   * @return {@code true} if the queue is overloaded.
+   */
+  public boolean overloaded() {
+    return waiting.get() > 0 && System.nanoTime() - lastFast > intervalNanos;
+  }
+
+  /**
+   * Returns the name of the request class.
+   *
+   * @return The name given at construction.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns how many requests are running.
+   *
+   * @return The number of places in use.
+   */
+  public int getActive() {
+    return maxConcurrency - permits.availablePermits();
+  }
+
+  /**
+   * Returns how many requests are waiting.
+   *
+   * @return The number of waiting requests.
+   */
+  public int getWaiting() {
+    return waiting.get();
+  }
+
+  /**
+   * Returns how many requests have been rejected or shed so far.
+   *
+   * @return The number of requests turned away.
+   */
+  public long getRejected() {
+    return rejected.sum();
+  }
+}
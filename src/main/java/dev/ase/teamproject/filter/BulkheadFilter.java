@@ -0,0 +1,150 @@
+package dev.ase.teamproject.filter;
+
+import dev.ase.teamproject.util.Tracer;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps expensive analytics requests from starving the cheap ones when the
+ * database slows down, by running each class of request behind its own
+ * {@link Bulkhead}.
+ *
+ * <p>Analytics requests ({@link RouteGroup#ANALYTICS}: budget reports and pages,
+ * summaries, spending and the dashboard) may run at most
+ * {@code ledger.bulkhead.analytics.max-concurrency} at once, and everything else
+ * at most {@code ledger.bulkhead.core.max-concurrency}, so analytics can never
+ * take all the threads and connections. Analytics is also shed first: while
+ * either queue has stayed slower than {@code ledger.bulkhead.target-millis} for
+ * {@code ledger.bulkhead.interval-millis}, analytics requests are turned away at
+ * once instead of queueing, leaving the capacity to inserts and lookups. Turned
+ * away requests get {@code 503 Service Unavailable} with {@code Retry-After}.
+ *
+ * <p>In a traced request, the wait for a place and the rest of the request
+ * after this filter are separate spans.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(name = "ledger.bulkhead.enabled", havingValue = "true",
+    matchIfMissing = true)
+public class BulkheadFilter implements Filter {
+  private static final Logger LOGGER = Logger.getLogger(BulkheadFilter.class.getName());
+
+  private static final byte[] UNAVAILABLE =
+      "{\"error\":\"Service temporarily unavailable, please retry\"}"
+          .getBytes(StandardCharsets.UTF_8);
+
+  private final Bulkhead core;
+  private final Bulkhead analytics;
+
+  /**
+   * Constructs a new {@code BulkheadFilter}.
+   *
+   * @param coreConcurrency How many core requests may run at once.
+   * @param coreWaiting How many core requests may wait at once.
+   * @param coreWaitMillis How long a core request waits before it is rejected.
+   * @param analyticsConcurrency How many analytics requests may run at once.
+   * @param analyticsWaiting How many analytics requests may wait at once.
+   * @param analyticsWaitMillis How long an analytics request waits before it is
+   *                            rejected.
+   * @param targetMillis The longest queue wait that counts as fast.
+   * @param intervalMillis How long waits must stay over the target before
+   *                       analytics is shed.
+   */
+  @Autowired
+  public BulkheadFilter(
+      @Value("${ledger.bulkhead.core.max-concurrency:40}") final int coreConcurrency,
+      @Value("${ledger.bulkhead.core.max-waiting:200}") final int coreWaiting,
+      @Value("${ledger.bulkhead.core.wait-millis:2000}") final long coreWaitMillis,
+      @Value("${ledger.bulkhead.analytics.max-concurrency:4}") final int analyticsConcurrency,
+      @Value("${ledger.bulkhead.analytics.max-waiting:20}") final int analyticsWaiting,
+      @Value("${ledger.bulkhead.analytics.wait-millis:500}") final long analyticsWaitMillis,
+      @Value("${ledger.bulkhead.target-millis:50}") final long targetMillis,
+      @Value("${ledger.bulkhead.interval-millis:100}") final long intervalMillis) {
+    final long target = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+    final long interval = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+    this.core = new Bulkhead("core", coreConcurrency, coreWaiting,
+        TimeUnit.MILLISECONDS.toNanos(coreWaitMillis), target, interval);
+    this.analytics = new Bulkhead("analytics", analyticsConcurrency, analyticsWaiting,
+        TimeUnit.MILLISECONDS.toNanos(analyticsWaitMillis), target, interval);
+  }
+
+  /**
+   * Runs the request within its class's bulkhead, or answers it with 503 if it
+   * is shed or cannot get a place in time.
+   *
+   * @param request The incoming servlet request.
+   * @param response The servlet response.
+   * @param chain The filter chain to continue processing the request.
+   * @throws IOException if an I/O error occurs during filtering.
+   * @throws ServletException if a servlet error occurs during filtering.
+   */
+  @Override
+  public void doFilter(final ServletRequest request, final ServletResponse response,
+                       final FilterChain chain)
+      throws IOException, ServletException {
+    final HttpServletRequest httpRequest = (HttpServletRequest) request;
+    final boolean isAnalytics = RouteGroup.of(httpRequest.getMethod(),
+        httpRequest.getRequestURI()) == RouteGroup.ANALYTICS;
+    final Bulkhead bulkhead = isAnalytics ? analytics : core;
+    if (isAnalytics && (core.overloaded() || analytics.overloaded())) {
+      analytics.shed();
+      reject(httpRequest, (HttpServletResponse) response, "shed");
+      return;
+    }
+    final boolean acquired;
+    try (Tracer.Span span = Tracer.span("BulkheadFilter.acquire")) {
+      acquired = bulkhead.acquire();
+    }
+    if (!acquired) {
+      reject(httpRequest, (HttpServletResponse) response, "rejected by " + bulkhead.getName());
+      return;
+    }
+    try (Tracer.Span span = Tracer.span("dispatch")) {
+      chain.doFilter(request, response);
+    } finally {
+      bulkhead.release();
+    }
+  }
+
+  /**
+   * Returns the bulkheads, for their metrics.
+   *
+   * @return The core and analytics bulkheads.
+   */
+  public List<Bulkhead> bulkheads() {
+    return List.of(core, analytics);
+  }
+
+  private static void reject(final HttpServletRequest request,
+                             final HttpServletResponse response, final String reason)
+      throws IOException {
+    if (LOGGER.isLoggable(Level.FINE)) {
+      LOGGER.fine(request.getMethod() + " " + request.getRequestURI() + " " + reason);
+    }
+    response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setContentLength(UNAVAILABLE.length);
+    response.getOutputStream().write(UNAVAILABLE);
+  }
+}
@@ -1,27 +1,74 @@
 package dev.ase.teamproject.filter;
 
+import dev.ase.teamproject.util.AsyncLog;
+import dev.ase.teamproject.util.Tracer;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.time.Instant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
 
 /**
- * Logs all incoming API requests with client IP, method, endpoint, and timestamp.
- * The client IP is determined from the X-Forwarded-For header if available, otherwise
- * from the remote address.
+ * Logs all incoming API requests with client IP, method, endpoint, timestamp,
+ * status and duration. The client IP is determined from the X-Forwarded-For
+ * header if available, otherwise from the remote address.
+ *
+ * <p>The line is not written by the request thread: the filter hands its fields
+ * to an {@link AsyncLog}, whose writer thread formats and writes them in
+ * batches. If the log falls behind, lines are dropped rather than delaying
+ * requests.
+ *
+ * <p>The same duration is recorded in {@link RequestMetrics} under the route
+ * template that handled the request, so {@code GET /metrics} shows each
+ * endpoint's latency.
+ *
+ * <p>Each request also gets a trace identifier, returned in the
+ * {@code X-Trace-Id} header and written on its log line. With a {@link Tracer},
+ * sampled requests, and those that send {@code X-Trace: true}, are traced while
+ * they run through the rest of the chain.
  */
 @Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
 public class LoggerFilter implements Filter {
 
+  /** The response header holding the request's trace identifier. */
+  public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+  /** The request header that asks for the request to be traced. */
+  public static final String TRACE_HEADER = "X-Trace";
+
+  private final AsyncLog log;
+  private final RequestMetrics metrics;
+  private final Tracer tracer;
+
   /**
-   * Logs the details of an incoming HTTP request and passes it along the filter chain.
-   * Extracts client IP from X-Forwarded-For header or falls back to remote address,
-   * then logs the IP, HTTP method, request URI, and current timestamp to standard output.
+   * Constructs a new {@code LoggerFilter}.
+   *
+   * @param log The log the request lines are written to.
+   * @param metrics The metrics the requests are recorded in, or {@code null}.
+   * @param tracer The tracer sampled requests are traced by, or {@code null}.
+   */
+  @Autowired
+  public LoggerFilter(final AsyncLog log,
+                      @Autowired(required = false) final RequestMetrics metrics,
+                      @Autowired(required = false) final Tracer tracer) {
+    this.log = log;
+    this.metrics = metrics;
+    this.tracer = tracer;
+  }
+
+  /**
+   * Passes the request along the filter chain, then queues its log line:
+   * the client IP, HTTP method, request URI, the time it arrived, the response
+   * status, how long it took and its trace identifier.
    *
    * @param request The incoming servlet request.
    * @param response The servlet response.
@@ -40,12 +87,33 @@ public class LoggerFilter implements Filter {
       clientIp = request.getRemoteAddr();
     }
 
-    // Simple log format: IP | METHOD | ENDPOINT | TIMESTAMP
-    System.out.println("CLIENT_LOG: " + clientIp + " | "
-        + httpRequest.getMethod() + " "
-        + httpRequest.getRequestURI() + " | "
-        + Instant.now());
-
-    chain.doFilter(request, response);
+    final String uri = httpRequest.getRequestURI();
+    final RouteGroup group = RouteGroup.of(httpRequest.getMethod(), uri);
+    if (metrics != null) {
+      metrics.started(group);
+    }
+    final long traceId = Tracer.newTraceId();
+    ((HttpServletResponse) response).setHeader(TRACE_ID_HEADER, Tracer.hex(traceId));
+    final Tracer.Trace trace = tracer == null ? null : tracer.start(traceId,
+        httpRequest.getMethod(), uri, "true".equals(httpRequest.getHeader(TRACE_HEADER)));
+    final long arrived = System.currentTimeMillis();
+    final long start = System.nanoTime();
+    int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+    try {
+      chain.doFilter(request, response);
+      status = ((HttpServletResponse) response).getStatus();
+    } finally {
+      final long nanos = System.nanoTime() - start;
+      if (tracer != null) {
+        tracer.finish(trace, status);
+      }
+      if (metrics != null) {
+        metrics.finished(group, httpRequest.getMethod(),
+            (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+            status, nanos);
+      }
+      // Log format: IP | METHOD ENDPOINT | TIMESTAMP | STATUS | DURATION | TRACE
+      log.access(clientIp, httpRequest.getMethod(), uri, arrived, status, nanos, traceId);
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package dev.ase.teamproject.filter;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits how fast each client may send requests, so that a single runaway client
+ * cannot monopolize the database. Requests over the limit get
+ * {@code 429 Too Many Requests} with a {@code Retry-After} header.
+ *
+ * <p>Each client has a {@link TokenBuckets token bucket} per {@link RouteGroup},
+ * so a client hammering one group is not limited on the others:
+ * <ul>
+ *   <li>{@code transactions}: the transaction endpoints, such as
+ *       {@code /users/{userId}/transactions} and {@code /transactions/lookup}</li>
+ *   <li>{@code analytics}: reads of the budget, summary, spending and
+ *       percentile endpoints, and the dashboard</li>
+ *   <li>{@code default}: everything else</li>
+ * </ul>
+ * Each group's rate and burst are set by
+ * {@code ledger.rate-limit.<group>.per-second} and
+ * {@code ledger.rate-limit.<group>.burst}. Clients are identified by their IP
+ * address, as resolved from the proxy's headers by
+ * {@code server.forward-headers-strategy}, or with
+ * {@code ledger.rate-limit.key=user} by the user ID in the path where there is
+ * one. The filter runs after {@link LoggerFilter}, so rejected requests are
+ * still logged.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@ConditionalOnProperty(name = "ledger.rate-limit.enabled", havingValue = "true",
+    matchIfMissing = true)
+public class RateLimitFilter implements Filter {
+  private static final Logger LOGGER = Logger.getLogger(RateLimitFilter.class.getName());
+
+  private static final String USERS_PREFIX = "/users/";
+  private static final int UUID_LENGTH = 36;
+  private static final byte[] TOO_MANY =
+      "{\"error\":\"Too many requests, please retry later\"}".getBytes(StandardCharsets.UTF_8);
+
+  private final TokenBuckets transactions;
+  private final TokenBuckets analytics;
+  private final TokenBuckets others;
+  private final boolean byUser;
+
+  /**
+   * Constructs a new {@code RateLimitFilter}.
+   *
+   * @param transactionRate The transaction group's rate, in requests per second.
+   * @param transactionBurst The transaction group's burst size.
+   * @param analyticsRate The analytics group's rate, in requests per second.
+   * @param analyticsBurst The analytics group's burst size.
+   * @param defaultRate The default group's rate, in requests per second.
+   * @param defaultBurst The default group's burst size.
+   * @param key {@code ip} to limit each client address, or {@code user} to limit
+   *            each user ID in the path, falling back to the address.
+   * @param maxClients The number of clients tracked per group.
+   * @param idleSeconds How long an idle client's bucket is kept.
+   */
+  @Autowired
+  public RateLimitFilter(
+      @Value("${ledger.rate-limit.transactions.per-second:50}") final double transactionRate,
+      @Value("${ledger.rate-limit.transactions.burst:100}") final int transactionBurst,
+      @Value("${ledger.rate-limit.analytics.per-second:10}") final double analyticsRate,
+      @Value("${ledger.rate-limit.analytics.burst:20}") final int analyticsBurst,
+      @Value("${ledger.rate-limit.default.per-second:100}") final double defaultRate,
+      @Value("${ledger.rate-limit.default.burst:200}") final int defaultBurst,
+      @Value("${ledger.rate-limit.key:ip}") final String key,
+      @Value("${ledger.rate-limit.max-clients:100000}") final int maxClients,
+      @Value("${ledger.rate-limit.idle-seconds:600}") final long idleSeconds) {
+    final long idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+    this.transactions = new TokenBuckets(transactionRate, transactionBurst, maxClients, idleNanos);
+    this.analytics = new TokenBuckets(analyticsRate, analyticsBurst, maxClients, idleNanos);
+    this.others = new TokenBuckets(defaultRate, defaultBurst, maxClients, idleNanos);
+    if (!"ip".equals(key) && !"user".equals(key)) {
+      throw new IllegalArgumentException("ledger.rate-limit.key must be ip or user: " + key);
+    }
+    this.byUser = "user".equals(key);
+  }
+
+  /**
+   * Passes the request along the filter chain if its client is within the limit
+   * of the request's route group, and otherwise answers it with 429.
+   *
+   * @param request The incoming servlet request.
+   * @param response The servlet response.
+   * @param chain The filter chain to continue processing the request.
+   * @throws IOException if an I/O error occurs during filtering.
+   * @throws ServletException if a servlet error occurs during filtering.
+   */
+  @Override
+  public void doFilter(final ServletRequest request, final ServletResponse response,
+                       final FilterChain chain)
+      throws IOException, ServletException {
+    final HttpServletRequest httpRequest = (HttpServletRequest) request;
+    final String uri = httpRequest.getRequestURI();
+    final long wait = bucketsFor(httpRequest.getMethod(), uri)
+        .tryAcquire(clientKey(httpRequest, uri), System.nanoTime());
+    if (wait == 0) {
+      chain.doFilter(request, response);
+      return;
+    }
+    if (LOGGER.isLoggable(Level.FINE)) {
+      LOGGER.fine("Rate limited " + httpRequest.getMethod() + " " + uri);
+    }
+    final HttpServletResponse httpResponse = (HttpServletResponse) response;
+    httpResponse.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    httpResponse.setHeader(HttpHeaders.RETRY_AFTER,
+        Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L))));
+    httpResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    httpResponse.setContentLength(TOO_MANY.length);
+    httpResponse.getOutputStream().write(TOO_MANY);
+  }
+
+  /**
+   * Returns the buckets of the route group a request belongs to.
+   */
+  private TokenBuckets bucketsFor(final String method, final String uri) {
+    switch (RouteGroup.of(method, uri)) {
+      case TRANSACTIONS:
+        return transactions;
+      case ANALYTICS:
+        return analytics;
+      default:
+        return others;
+    }
+  }
+
+  /**
+   * Returns the key that identifies the request's client: the user ID in the path
+   * when limiting by user, and otherwise the client's address. The address is
+   * the connection's, or the one the proxy forwarded as resolved by
+   * {@code server.forward-headers-strategy}. The filter does not read
+   * {@code X-Forwarded-For} itself, since a client could send a new one with
+   * every request to escape its limit.
+   */
+  private String clientKey(final HttpServletRequest request, final String uri) {
+    if (byUser && uri.startsWith(USERS_PREFIX)
+        && uri.length() >= USERS_PREFIX.length() + UUID_LENGTH
+        && (uri.length() == USERS_PREFIX.length() + UUID_LENGTH
+            || uri.charAt(USERS_PREFIX.length() + UUID_LENGTH) == '/')) {
+      return uri.substring(USERS_PREFIX.length(), USERS_PREFIX.length() + UUID_LENGTH);
+    }
+    return request.getRemoteAddr();
+  }
+}
@@ -0,0 +1,145 @@
+package dev.ase.teamproject.filter;
+
+import dev.ase.teamproject.util.LatencyHistogram;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.stereotype.Component;
+
+/**
+ * Request counts and latencies per endpoint, and the requests in flight per
+ * route group.
+ *
+ * <p>An endpoint is a method, a route template such as
+ * {@code /users/{userId}/budget-report} and a response status, so that all
+ * users' requests to one route share a series. Each series is a
+ * {@link LatencyHistogram}. Finding it reads a map and scans the few
+ * method-status pairs seen for the route, without locking or allocating; only
+ * the first request of a new pair takes the route's lock to add it.
+ */
+@Component
+public class RequestMetrics {
+
+  /** The route of requests that no handler matched, such as rejected ones. */
+  public static final String UNMATCHED = "unmatched";
+
+  private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+  private final AtomicInteger[] inFlight = new AtomicInteger[RouteGroup.values().length];
+
+  /**
+   * Constructs a new {@code RequestMetrics}.
+   */
+  public RequestMetrics() {
+    for (int i = 0; i < inFlight.length; i++) {
+      inFlight[i] = new AtomicInteger();
+    }
+  }
+
+  /**
+   * Counts a request as started.
+   *
+   * @param group The request's route group.
+   */
+  public void started(final RouteGroup group) {
+    inFlight[group.ordinal()].incrementAndGet();
+  }
+
+  /**
+   * Counts a request as finished and records its latency.
+   *
+   * @param group The route group given to {@link #started(RouteGroup)}.
+   * @param method The request method.
+   * @param route The route template, or {@code null} if no handler matched.
+   * @param status The response status.
+   * @param nanos How long the request took.
+   */
+  public void finished(final RouteGroup group, final String method, final String route,
+                       final int status, final long nanos) {
+    inFlight[group.ordinal()].decrementAndGet();
+    final String name = route == null ? UNMATCHED : route;
+    Route series = routes.get(name);
+    if (series == null) {
+      series = routes.computeIfAbsent(name, Route::new);
+    }
+    series.histogram(method, status).record(nanos);
+  }
+
+  /**
+   * Returns how many requests of a route group are in flight.
+   *
+   * @param group The route group.
+   * @return The number of started requests not yet finished.
+   */
+  public int inFlight(final RouteGroup group) {
+    return inFlight[group.ordinal()].get();
+  }
+
+  /**
+   * Returns every endpoint seen so far, ordered by route.
+   *
+   * @return The endpoints and their histograms.
+   */
+  public List<Endpoint> endpoints() {
+    final List<Endpoint> endpoints = new ArrayList<>();
+    for (final Route route : routes.values()) {
+      endpoints.addAll(Arrays.asList(route.endpoints));
+    }
+    endpoints.sort(Comparator.comparing(Endpoint::route).thenComparing(Endpoint::method)
+        .thenComparingInt(Endpoint::status));
+    return endpoints;
+  }
+
+  /**
+   * One method, route template and status, and the latencies of its requests.
+   *
+   * @param method The request method.
+   * @param route The route template.
+   * @param status The response status.
+   * @param histogram The requests' latencies.
+   */
+  public record Endpoint(String method, String route, int status, LatencyHistogram histogram) {
+  }
+
+  /**
+   * The endpoints of one route template. The array is replaced, never changed,
+   * so readers scan it without locking.
+   */
+  private static final class Route {
+    private final String route;
+    private volatile Endpoint[] endpoints = new Endpoint[0];
+
+    Route(final String route) {
+      this.route = route;
+    }
+
+    LatencyHistogram histogram(final String method, final int status) {
+      final LatencyHistogram found = find(endpoints, method, status);
+      return found != null ? found : add(method, status);
+    }
+
+    private synchronized LatencyHistogram add(final String method, final int status) {
+      final LatencyHistogram found = find(endpoints, method, status);
+      if (found != null) {
+        return found;
+      }
+      final Endpoint endpoint = new Endpoint(method, route, status, new LatencyHistogram());
+      final Endpoint[] grown = Arrays.copyOf(endpoints, endpoints.length + 1);
+      grown[endpoints.length] = endpoint;
+      endpoints = grown;
+      return endpoint.histogram();
+    }
+
+    private static LatencyHistogram find(final Endpoint[] endpoints, final String method,
+                                         final int status) {
+      for (final Endpoint endpoint : endpoints) {
+        if (endpoint.status() == status && endpoint.method().equals(method)) {
+          return endpoint.histogram();
+        }
+      }
+      return null;
+    }
+  }
+}
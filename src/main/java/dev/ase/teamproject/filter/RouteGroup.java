@@ -0,0 +1,68 @@
+package dev.ase.teamproject.filter;
+
+/**
+ * The groups of endpoints that the request filters limit separately, by how
+ * much database work a request does.
+ */
+public enum RouteGroup {
+  /** The transaction endpoints, such as {@code /users/{userId}/transactions}. */
+  TRANSACTIONS,
+  /**
+   * The reads of budgets, summaries, spending and percentiles, and the
+   * dashboard.
+   */
+  ANALYTICS,
+  /** Everything else: users, pages and lookups. */
+  DEFAULT;
+
+  private static final String USERS_PREFIX = "/users/";
+  private static final String[] TRANSACTION_SECTIONS = {"transactions", "deletetransaction"};
+  private static final String[] ANALYTICS_SECTIONS = {
+      "budget", "budget-report", "weekly-summary", "monthly-summary", "spending", "percentiles"};
+
+  /**
+   * Returns the group a request belongs to, without allocating. Only
+   * {@code GET} requests to the analytics sections are analytics; writes to them,
+   * such as {@code PUT /users/{userId}/budget}, are not.
+   *
+   * @param method The request method.
+   * @param uri The request path.
+   * @return The request's group.
+   */
+  public static RouteGroup of(final String method, final String uri) {
+    if (uri.startsWith("/dashboard/")) {
+      return ANALYTICS;
+    }
+    if (uri.startsWith("/transactions/")) {
+      return TRANSACTIONS;
+    }
+    if (!uri.startsWith(USERS_PREFIX)) {
+      return DEFAULT;
+    }
+    final int slash = uri.indexOf('/', USERS_PREFIX.length());
+    if (slash < 0) {
+      return DEFAULT;
+    }
+    final int end = uri.indexOf('/', slash + 1);
+    final int length = (end < 0 ? uri.length() : end) - slash - 1;
+    if (sectionIn(uri, slash + 1, length, TRANSACTION_SECTIONS)) {
+      return TRANSACTIONS;
+    }
+    return "GET".equals(method) && sectionIn(uri, slash + 1, length, ANALYTICS_SECTIONS)
+        ? ANALYTICS : DEFAULT;
+  }
+
+  /**
+   * Returns whether the path segment at the given position is one of the names,
+   * without copying it out of the path.
+   */
+  private static boolean sectionIn(final String uri, final int start, final int length,
+                                   final String[] names) {
+    for (final String name : names) {
+      if (name.length() == length && uri.regionMatches(start, name, 0, length)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,128 @@
+package dev.ase.teamproject.filter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded set of token buckets, one per client key, each refilled at the same
+ * rate up to the same burst size.
+ *
+ * <p>Buckets are split into {@value #STRIPES} stripes by key hash, each a small
+ * access-ordered map guarded by its own lock, so clients in different stripes
+ * never contend. A stripe keeps at most its share of {@code maxClients} buckets
+ * and drops the least recently used one beyond that, as well as any bucket left
+ * idle for {@code idleNanos}. Dropping a bucket is harmless once it has been idle
+ * long enough to refill, since a new bucket starts full; the idle timeout should
+ * therefore be at least {@code burst / ratePerSecond} seconds.
+ */
+public final class TokenBuckets {
+
+  /** The number of independently locked stripes. */
+  public static final int STRIPES = 64;
+
+  private final long nanosPerToken;
+  private final long capacity;
+  private final long idleNanos;
+  private final Stripe[] stripes = new Stripe[STRIPES];
+
+  /**
+   * Constructs a new {@code TokenBuckets}.
+   *
+   * @param ratePerSecond The rate at which each bucket refills, in tokens per second.
+   * @param burst The capacity of each bucket, and so the largest burst allowed.
+   * @param maxClients The number of buckets kept, spread over the stripes.
+   * @param idleNanos How long a bucket may go unused before it is dropped.
+   */
+  public TokenBuckets(final double ratePerSecond, final int burst, final int maxClients,
+                      final long idleNanos) {
+    if (ratePerSecond <= 0 || burst < 1) {
+      throw new IllegalArgumentException("rate must be positive and burst at least 1");
+    }
+    this.nanosPerToken = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+    this.capacity = nanosPerToken * burst;
+    this.idleNanos = idleNanos;
+    final int perStripe = Math.max(1, maxClients / STRIPES);
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe(perStripe);
+    }
+  }
+
+  /**
+   * Takes a token from a client's bucket if one is available.
+   *
+   * @param key The client key.
+   * @param now The current {@link System#nanoTime()}.
+   * @return Zero if a token was taken, or otherwise how many nanoseconds until one
+   *         will be available.
+   */
+  public long tryAcquire(final String key, final long now) {
+    final int hash = key.hashCode();
+    final Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    synchronized (stripe) {
+      stripe.now = now;
+      Bucket bucket = stripe.get(key);
+      if (bucket == null) {
+        bucket = new Bucket(capacity, now);
+        stripe.put(key, bucket);
+      } else {
+        bucket.credit = Math.min(capacity, bucket.credit + (now - bucket.updated));
+        bucket.updated = now;
+      }
+      if (bucket.credit >= nanosPerToken) {
+        bucket.credit -= nanosPerToken;
+        return 0;
+      }
+      return nanosPerToken - bucket.credit;
+    }
+  }
+
+  /**
+   * Returns the number of buckets currently kept.
+   *
+   * @return The number of client keys tracked.
+   */
+  public int size() {
+    int size = 0;
+    for (final Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * A client's bucket, holding its tokens as the nanoseconds of refill they are
+   * worth so that refilling is exact. Guarded by its stripe's lock.
+   */
+  private static final class Bucket {
+    private long credit;
+    private long updated;
+
+    Bucket(final long credit, final long updated) {
+      this.credit = credit;
+      this.updated = updated;
+    }
+  }
+
+  /**
+   * The buckets of one stripe, least recently used first.
+   */
+  private final class Stripe extends LinkedHashMap<String, Bucket> {
+    private static final long serialVersionUID = 1L;
+
+    private final int maxEntries;
+    private long now;
+
+    Stripe(final int maxEntries) {
+      super(16, 0.75f, true);
+      this.maxEntries = maxEntries;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, Bucket> eldest) {
+      return size() > maxEntries || now - eldest.getValue().updated > idleNanos;
+    }
+  }
+}
@@ -18,6 +18,7 @@ public class Transaction implements Comparable<Transaction> {
   private String description;
   private double amount;
   private String category;
+  private TransactionCategory categoryType;
   private LocalDateTime timestamp;
   private LocalDate date;
 
@@ -37,7 +38,7 @@ public class Transaction implements Comparable<Transaction> {
                      final String category, final String description) {
     this.userId = userId;
     this.amount = amount;
-    this.category = category;
+    setCategory(category);
     setDescription(description);
   }
 
@@ -122,8 +123,24 @@ public class Transaction implements Comparable<Transaction> {
     return category;
   }
 
+  /**
+   * Sets the category of the transaction. The matching {@link TransactionCategory},
+   * if any, is resolved once here so that aggregations can index by it.
+   *
+   * @param category The category name, such as {@code "FOOD"}.
+   */
   public void setCategory(final String category) {
     this.category = category;
+    this.categoryType = TransactionCategory.fromName(category);
+  }
+
+  /**
+   * Returns the category as a {@link TransactionCategory}.
+   *
+   * @return The category, or {@code null} if the name is not a known category.
+   */
+  public TransactionCategory categoryType() {
+    return categoryType;
   }
 
   /**
@@ -0,0 +1,88 @@
+package dev.ase.teamproject.model;
+
+import java.util.Locale;
+
+/**
+ * This enum defines the transaction categories. The constants are declared in
+ * the same order as the values of the {@code transaction_category} database type,
+ * so {@link #ordinal()} can be used as a dense index (for example into a
+ * {@code double[TransactionCategory.COUNT]} of per-category totals).
+ */
+public enum TransactionCategory {
+  FOOD,
+  TRANSPORTATION,
+  ENTERTAINMENT,
+  UTILITIES,
+  SHOPPING,
+  HEALTHCARE,
+  TRAVEL,
+  EDUCATION,
+  OTHER;
+
+  /** The number of categories. */
+  public static final int COUNT = 9;
+
+  /** The category names separated by ", ", for error messages. */
+  public static final String NAMES = "FOOD, TRANSPORTATION, ENTERTAINMENT, UTILITIES, "
+      + "SHOPPING, HEALTHCARE, TRAVEL, EDUCATION, OTHER";
+
+  private static final TransactionCategory[] VALUES = values();
+
+  /**
+   * Returns the category with the given ordinal.
+   *
+   * @param ordinal The ordinal, from 0 to {@code COUNT - 1}.
+   * @return The matching {@code TransactionCategory}.
+   */
+  public static TransactionCategory of(final int ordinal) {
+    return VALUES[ordinal];
+  }
+
+  /**
+   * Returns the category whose name matches exactly, as the database type does.
+   *
+   * @param name The category name, such as {@code "FOOD"}.
+   * @return The matching {@code TransactionCategory}, or {@code null} if none matches.
+   */
+  public static TransactionCategory fromName(final String name) {
+    if (name == null) {
+      return null;
+    }
+    switch (name) {
+      case "FOOD":
+        return FOOD;
+      case "TRANSPORTATION":
+        return TRANSPORTATION;
+      case "ENTERTAINMENT":
+        return ENTERTAINMENT;
+      case "UTILITIES":
+        return UTILITIES;
+      case "SHOPPING":
+        return SHOPPING;
+      case "HEALTHCARE":
+        return HEALTHCARE;
+      case "TRAVEL":
+        return TRAVEL;
+      case "EDUCATION":
+        return EDUCATION;
+      case "OTHER":
+        return OTHER;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Returns the category whose name matches, ignoring case.
+   *
+   * @param name The category name in any case, such as {@code "food"}.
+   * @return The matching {@code TransactionCategory}, or {@code null} if none matches.
+   */
+  public static TransactionCategory parse(final String name) {
+    final TransactionCategory exact = fromName(name);
+    if (exact != null || name == null) {
+      return exact;
+    }
+    return fromName(name.toUpperCase(Locale.ROOT));
+  }
+}
@@ -0,0 +1,162 @@
+package dev.ase.teamproject.repository;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how many database operations may be in flight at once, adjusting the
+ * limit to the latency the database shows, in the manner of TCP Vegas.
+ *
+ * <p>Round trips are smoothed over the last twenty or so operations, and the
+ * lowest smoothed round trip seen stands for the database's unloaded latency.
+ * For each finished operation the limiter estimates how many of the in-flight
+ * operations were only queueing, {@code limit * (1 - minRtt / rtt)}, with
+ * {@code rtt} the smoothed round trip: while that queue stays small the limit
+ * grows, once it grows large the limit shrinks, and an operation that failed to
+ * get a connection at all shrinks it too. The step is the limit's order of
+ * magnitude, so large limits move faster. The lowest round trip is forgotten
+ * every {@code probeSamples} samples, so that a lasting change in the
+ * database's baseline is picked up.
+ *
+ * <p>Smoothing makes the estimate one of the whole mix of operations: a
+ * sub-millisecond lookup does not become the baseline that every heavier read
+ * is then measured against as if it had queued. Only when the mix as a whole
+ * slows down does the smoothed round trip move away from its lowest value.
+ */
+public final class AdaptiveLimit {
+
+  /** How many operations a round trip is smoothed over. */
+  private static final int SMOOTHING = 20;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final int probeSamples;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder rejected = new LongAdder();
+  private volatile int limit;
+  private double rtt;
+  private double minRtt = Double.MAX_VALUE;
+  private int smoothed;
+  private int samples;
+
+  /**
+   * Constructs a new {@code AdaptiveLimit}.
+   *
+   * @param initialLimit The limit to start from.
+   * @param minLimit The lowest the limit may shrink to.
+   * @param maxLimit The highest the limit may grow to.
+   * @param probeSamples How many samples the lowest round trip is kept for.
+   */
+  public AdaptiveLimit(final int initialLimit, final int minLimit, final int maxLimit,
+                       final int probeSamples) {
+    if (minLimit < 1 || maxLimit < minLimit) {
+      throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+    }
+    if (probeSamples < 1) {
+      throw new IllegalArgumentException("probeSamples must be at least 1");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.probeSamples = probeSamples;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  /**
+   * Takes a place if fewer operations than the limit are in flight. A caller
+   * that gets one must {@link #release(long, boolean)} it.
+   *
+   * @return {@code true} if the caller may go ahead, or {@code false} if it is
+   *         rejected.
+   */
+  public boolean tryAcquire() {
+    while (true) {
+      final int current = inFlight.get();
+      if (current >= limit) {
+        rejected.increment();
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Returns the place taken by {@link #tryAcquire()} and adjusts the limit to
+   * how the operation went.
+   *
+   * @param rttNanos How long the operation held its connection.
+   * @param dropped Whether the operation failed for lack of a connection.
+   */
+  public void release(final long rttNanos, final boolean dropped) {
+    final int current = inFlight.getAndDecrement();
+    update(rttNanos, current, dropped);
+  }
+
+  private synchronized void update(final long rttNanos, final int inFlightAtEnd,
+                                   final boolean dropped) {
+    if (dropped) {
+      setLimit(limit - step(limit));
+      return;
+    }
+    if (smoothed < SMOOTHING) {
+      smoothed++;
+    }
+    rtt += (Math.max(1, rttNanos) - rtt) / smoothed;
+    if (smoothed < SMOOTHING) {
+      return;
+    }
+    if (++samples >= probeSamples) {
+      samples = 0;
+      minRtt = rtt;
+    } else {
+      minRtt = Math.min(minRtt, rtt);
+    }
+    final int current = limit;
+    if (inFlightAtEnd * 2 < current) {
+      return;
+    }
+    final int step = step(current);
+    final long queue = (long) Math.ceil(current * (1.0 - minRtt / rtt));
+    if (queue <= 3L * step) {
+      setLimit(current + step);
+    } else if (queue >= 6L * step) {
+      setLimit(current - step);
+    }
+  }
+
+  private static int step(final int limit) {
+    return Math.max(1, (int) Math.log10(limit));
+  }
+
+  private void setLimit(final int newLimit) {
+    limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+  }
+
+  /**
+   * Returns the current limit.
+   *
+   * @return How many operations may be in flight at once.
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Returns how many operations are in flight.
+   *
+   * @return The number of places taken.
+   */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * Returns how many operations have been rejected so far.
+   *
+   * @return The number of rejected operations.
+   */
+  public long getRejected() {
+    return rejected.sum();
+  }
+}
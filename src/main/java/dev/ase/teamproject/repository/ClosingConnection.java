@@ -0,0 +1,67 @@
+package dev.ase.teamproject.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+/**
+ * Wraps a pooled connection so that an action runs, once, when it is closed.
+ * The data sources that limit connection checkouts use it to give back their
+ * permit.
+ */
+final class ClosingConnection implements InvocationHandler {
+  private final Connection target;
+  private final Runnable onClose;
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  private ClosingConnection(final Connection target, final Runnable onClose) {
+    this.target = target;
+    this.onClose = onClose;
+  }
+
+  /**
+   * Returns a connection that forwards to {@code target} and runs
+   * {@code onClose} the first time it is closed, after closing the target.
+   *
+   * @param target The pooled connection.
+   * @param onClose The action to run on close.
+   * @return The wrapping connection, which is a {@link ConnectionProxy}.
+   */
+  static Connection wrap(final Connection target, final Runnable onClose) {
+    return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+        new Class<?>[] {ConnectionProxy.class}, new ClosingConnection(target, onClose));
+  }
+
+  @Override
+  public Object invoke(final Object proxy, final Method method, final Object[] args)
+      throws Throwable {
+    switch (method.getName()) {
+      case "getTargetConnection":
+        return target;
+      case "equals":
+        return proxy == args[0];
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "close":
+        try {
+          return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+          throw e.getTargetException();
+        } finally {
+          if (closed.compareAndSet(false, true)) {
+            onClose.run();
+          }
+        }
+      default:
+        try {
+          return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+          throw e.getTargetException();
+        }
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package dev.ase.teamproject.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * This class limits how many connections can be checked out of a pool at once,
+ * and how many callers can wait for one.
+ *
+ * <p>With a fixed pool of request threads, the thread pool itself bounds how many
+ * requests reach the connection pool. Once requests run on virtual threads that
+ * bound is gone, and thousands of requests would queue inside the connection
+ * pool, each holding its socket and memory until the pool's connection timeout
+ * expires. The gate queues callers fairly on a semaphore sized to the pool, and
+ * fails fast with an {@link SQLTransientConnectionException} (the exception the
+ * pool itself throws on timeout) when too many are already waiting or a wait
+ * takes too long, so that excess load is shed rather than piled up.
+ *
+ * <p>A permit is held from {@link #getConnection()} until the returned
+ * connection is closed.
+ */
+public class GatedDataSource extends DelegatingDataSource {
+
+  private final Semaphore permits;
+  private final int maxConcurrency;
+  private final int maxWaiting;
+  private final long waitNanos;
+  private final AtomicInteger waiting = new AtomicInteger();
+
+  /**
+   * Constructs a new {@code GatedDataSource}.
+   *
+   * @param target The data source to take connections from.
+   * @param maxConcurrency How many connections may be checked out at once.
+   * @param maxWaiting How many callers may wait for a connection at once.
+   * @param waitMillis How long a caller waits for a connection before failing.
+   */
+  public GatedDataSource(final DataSource target, final int maxConcurrency,
+                         final int maxWaiting, final long waitMillis) {
+    super(target);
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("maxConcurrency must be at least 1");
+    }
+    this.permits = new Semaphore(maxConcurrency, true);
+    this.maxConcurrency = maxConcurrency;
+    this.maxWaiting = maxWaiting;
+    this.waitNanos = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    try {
+      return gated(super.getConnection());
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(final String username, final String password)
+      throws SQLException {
+    acquire();
+    try {
+      return gated(super.getConnection(username, password));
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns how many connections are checked out through the gate.
+   *
+   * @return The number of permits in use.
+   */
+  public int getActive() {
+    return maxConcurrency - permits.availablePermits();
+  }
+
+  /**
+   * Returns how many callers are waiting for a connection.
+   *
+   * @return The number of waiting callers.
+   */
+  public int getWaiting() {
+    return waiting.get();
+  }
+
+  private void acquire() throws SQLException {
+    if (!permits.tryAcquire()) {
+      if (waiting.incrementAndGet() > maxWaiting) {
+        waiting.decrementAndGet();
+        throw new SQLTransientConnectionException(
+            "Too many requests waiting for a database connection");
+      }
+      try {
+        if (!permits.tryAcquire(waitNanos, TimeUnit.NANOSECONDS)) {
+          throw new SQLTransientConnectionException(
+              "Timed out waiting for a database connection");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SQLTransientConnectionException(
+            "Interrupted while waiting for a database connection", e);
+      } finally {
+        waiting.decrementAndGet();
+      }
+    }
+  }
+
+  private Connection gated(final Connection connection) {
+    return ClosingConnection.wrap(connection, permits::release);
+  }
+}
@@ -0,0 +1,683 @@
+package dev.ase.teamproject.repository;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.TransactionCategory;
+import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.util.UuidMap;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Repository;
+
+/**
+ * This class implements the {@link LedgerRepository} entirely in process memory.
+ * It is selected with {@code ledger.store=memory} and needs no database.
+ *
+ * <p>Each user owns a ledger holding their transactions in an array kept sorted
+ * by creation time, so per-user listings and date-bounded queries are a reverse
+ * scan or a binary search. Transactions are also indexed by ID. Both maps are
+ * {@link UuidMap}s, which store the UUID keys as primitives.
+ * Concurrency is handled with a fixed set of read/write locks striped by user ID:
+ * every change to a user and their transactions happens under that user's stripe,
+ * while readers of different users never contend.
+ *
+ * <p>The store enforces the same rules as the PostgreSQL schema (unique username
+ * and email, foreign key from transaction to user, the {@code transaction_category}
+ * values and {@code DECIMAL(10,2)} amounts) and reports violations with the same
+ * constraint names, so the service layer translates errors identically.
+ *
+ * <p>Durable backends build on this class by attaching a {@link LedgerJournal},
+ * which is told about every mutation under the owning user's lock, and by
+ * rebuilding state on startup through the {@code restore} methods.
+ */
+@Repository
+@ConditionalOnProperty(name = "ledger.store", havingValue = "memory")
+public class InMemoryLedgerRepository implements LedgerRepository {
+  private static final int STRIPES = 64;
+  private static final int INITIAL_CAPACITY = 8;
+  private static final double NUMERIC_LIMIT = 1e8;
+
+  /** Orders transactions by creation time, oldest first. */
+  private static final Comparator<Transaction> BY_TIME = Transaction::compareTo;
+
+  private final ReentrantReadWriteLock[] stripes = new ReentrantReadWriteLock[STRIPES];
+  private final UuidMap<UserLedger> ledgers = new UuidMap<>();
+  private final UuidMap<Transaction> transactionsById = new UuidMap<>();
+  private final Map<String, UUID> usernames = new ConcurrentHashMap<>();
+  private final Map<String, UUID> emails = new ConcurrentHashMap<>();
+  private final AtomicLong userSequence = new AtomicLong();
+  private final Object clockLock = new Object();
+  private LocalDateTime lastTimestamp = LocalDateTime.MIN;
+  private volatile LedgerJournal journal = LedgerJournal.NONE;
+
+  /**
+   * Constructs a new, empty {@code InMemoryLedgerRepository}.
+   */
+  public InMemoryLedgerRepository() {
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new ReentrantReadWriteLock();
+    }
+  }
+
+  @Override
+  public List<User> findAllUsers() {
+    final List<UserLedger> snapshot = ledgers.values();
+    snapshot.sort(Comparator.comparingLong(ledger -> ledger.sequence));
+    final List<User> users = new ArrayList<>(snapshot.size());
+    for (final UserLedger ledger : snapshot) {
+      final Lock lock = readLock(ledger.user.getUserId());
+      lock.lock();
+      try {
+        users.add(copyOf(ledger.user));
+      } finally {
+        lock.unlock();
+      }
+    }
+    return users;
+  }
+
+  @Override
+  public Optional<User> findUser(final UUID userId) {
+    if (userId == null) {
+      return Optional.empty();
+    }
+    final Lock lock = readLock(userId);
+    lock.lock();
+    try {
+      final UserLedger ledger = ledgers.get(userId);
+      return ledger == null ? Optional.empty() : Optional.of(copyOf(ledger.user));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<User> findUsers(final Collection<UUID> userIds) {
+    final List<User> users = new ArrayList<>(userIds.size());
+    for (final UUID userId : userIds) {
+      findUser(userId).ifPresent(users::add);
+    }
+    return users;
+  }
+
+  @Override
+  public User insertUser(final User user) {
+    final UUID userId = user.getUserId() != null ? user.getUserId() : UUID.randomUUID();
+    final double budget = toNumeric(user.getBudget());
+    final Lock lock = writeLock(userId);
+    lock.lock();
+    try {
+      if (ledgers.containsKey(userId)) {
+        throw uniqueViolation("users_pkey", "user_id", userId);
+      }
+      reserve(usernames, user.getUsername(), userId, "users_username_key", "username");
+      try {
+        reserve(emails, user.getEmail(), userId, "users_email_key", "email");
+      } catch (DataIntegrityViolationException e) {
+        release(usernames, user.getUsername(), userId);
+        throw e;
+      }
+      user.setUserId(userId);
+      final User stored = copyOf(user);
+      stored.setBudget(budget);
+      journal.userInserted(stored);
+      ledgers.put(userId,
+          new UserLedger(stored, userSequence.incrementAndGet(), INITIAL_CAPACITY));
+      return user;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean deleteUser(final UUID userId) {
+    if (userId == null) {
+      return false;
+    }
+    final Lock lock = writeLock(userId);
+    lock.lock();
+    try {
+      final UserLedger ledger = ledgers.remove(userId);
+      if (ledger == null) {
+        return false;
+      }
+      // Journal before the unique keys become free for another user to take
+      journal.userDeleted(userId);
+      release(usernames, ledger.user.getUsername(), userId);
+      release(emails, ledger.user.getEmail(), userId);
+      for (int i = 0; i < ledger.size; i++) {
+        transactionsById.remove(ledger.entries[i].getTransactionId());
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean updateBudget(final UUID userId, final double budget) {
+    final double value = toNumeric(budget);
+    final Lock lock = writeLock(userId);
+    lock.lock();
+    try {
+      final UserLedger ledger = ledgers.get(userId);
+      if (ledger == null) {
+        return false;
+      }
+      ledger.user.setBudget(value);
+      journal.budgetUpdated(userId, value);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean existsByUsername(final String username, final UUID excludeUserId) {
+    return isTaken(usernames, username, excludeUserId);
+  }
+
+  @Override
+  public boolean existsByEmail(final String email, final UUID excludeUserId) {
+    return isTaken(emails, email, excludeUserId);
+  }
+
+  @Override
+  public List<Transaction> findAllTransactions() {
+    final List<Transaction> all = new ArrayList<>(transactionsById.size());
+    for (final UserLedger ledger : ledgers.values()) {
+      final Lock lock = readLock(ledger.user.getUserId());
+      lock.lock();
+      try {
+        for (int i = 0; i < ledger.size; i++) {
+          all.add(copyOf(ledger.entries[i]));
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+    all.sort(Collections.reverseOrder(BY_TIME));
+    return all;
+  }
+
+  @Override
+  public Optional<Transaction> findTransaction(final UUID transactionId) {
+    if (transactionId == null) {
+      return Optional.empty();
+    }
+    final Transaction indexed = transactionsById.get(transactionId);
+    if (indexed == null) {
+      return Optional.empty();
+    }
+    final Lock lock = readLock(indexed.getUserId());
+    lock.lock();
+    try {
+      // Re-check under the owner's lock in case of a concurrent delete
+      final Transaction stored = transactionsById.get(transactionId);
+      return stored == null ? Optional.empty() : Optional.of(copyOf(stored));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<Transaction> findTransactions(final Collection<UUID> transactionIds) {
+    final List<Transaction> transactions = new ArrayList<>(transactionIds.size());
+    for (final UUID transactionId : transactionIds) {
+      findTransaction(transactionId).ifPresent(transactions::add);
+    }
+    return transactions;
+  }
+
+  @Override
+  public List<Transaction> findTransactionsByUser(final UUID userId) {
+    return findTransactionsSince(userId, null);
+  }
+
+  @Override
+  public List<Transaction> findTransactionsSince(final UUID userId, final LocalDate since) {
+    if (userId == null) {
+      return new ArrayList<>();
+    }
+    final Lock lock = readLock(userId);
+    lock.lock();
+    try {
+      final UserLedger ledger = ledgers.get(userId);
+      if (ledger == null) {
+        return new ArrayList<>();
+      }
+      final int from = since == null ? 0 : ledger.firstOnOrAfter(since);
+      final List<Transaction> result = new ArrayList<>(ledger.size - from);
+      for (int i = ledger.size - 1; i >= from; i--) {
+        result.add(copyOf(ledger.entries[i]));
+      }
+      return result;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public double sumSpentSince(final UUID userId, final LocalDate since) {
+    if (userId == null) {
+      return 0.0;
+    }
+    final Lock lock = readLock(userId);
+    lock.lock();
+    try {
+      final UserLedger ledger = ledgers.get(userId);
+      if (ledger == null) {
+        return 0.0;
+      }
+      double total = 0.0;
+      for (int i = ledger.firstOnOrAfter(since); i < ledger.size; i++) {
+        final double amount = ledger.entries[i].getAmount();
+        if (amount > 0) {
+          total += amount;
+        }
+      }
+      return total;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void forEachCategoryTotal(final LocalDate from, final LocalDate to,
+                                   final CategoryTotalConsumer consumer) {
+    final double[] totals = new double[TransactionCategory.COUNT];
+    for (final UserLedger ledger : ledgers.values()) {
+      final UUID userId = ledger.user.getUserId();
+      Arrays.fill(totals, 0.0);
+      final Lock lock = readLock(userId);
+      lock.lock();
+      try {
+        if (ledgers.get(userId) != ledger) {
+          continue;
+        }
+        for (int i = ledger.firstOnOrAfter(from); i < ledger.size; i++) {
+          final Transaction transaction = ledger.entries[i];
+          if (transaction.getDate().isAfter(to)) {
+            break;
+          }
+          if (transaction.getAmount() > 0) {
+            totals[transaction.categoryType().ordinal()] += transaction.getAmount();
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+      // Call out without holding the user's lock
+      for (int i = 0; i < totals.length; i++) {
+        if (totals[i] > 0) {
+          consumer.accept(userId, TransactionCategory.of(i), totals[i]);
+        }
+      }
+    }
+  }
+
+  @Override
+  public Transaction insertTransaction(final Transaction transaction) {
+    final UUID userId = transaction.getUserId();
+    final double amount = toNumeric(transaction.getAmount());
+    checkCategory(transaction.getCategory());
+    final Lock lock = writeLock(userId);
+    lock.lock();
+    try {
+      final UserLedger ledger = userId == null ? null : ledgers.get(userId);
+      if (ledger == null) {
+        throw new DataIntegrityViolationException("insert or update on table \"transactions\""
+            + " violates foreign key constraint \"transactions_user_id_fkey\"");
+      }
+      transaction.setTransactionId(UUID.randomUUID());
+      transaction.setTimestamp(nextTimestamp());
+      final Transaction stored = copyOf(transaction);
+      stored.setAmount(amount);
+      journal.transactionInserted(stored);
+      ledger.add(stored);
+      transactionsById.put(stored.getTransactionId(), stored);
+      return transaction;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean updateTransaction(final UUID transactionId, final Transaction values) {
+    final double amount = toNumeric(values.getAmount());
+    checkCategory(values.getCategory());
+    final Transaction indexed = transactionId == null ? null : transactionsById.get(transactionId);
+    if (indexed == null) {
+      return false;
+    }
+    final Lock lock = writeLock(indexed.getUserId());
+    lock.lock();
+    try {
+      final Transaction stored = transactionsById.get(transactionId);
+      if (stored == null) {
+        return false;
+      }
+      stored.setDescription(values.getDescription());
+      stored.setAmount(amount);
+      stored.setCategory(values.getCategory());
+      journal.transactionUpdated(stored);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean deleteTransaction(final UUID transactionId) {
+    final Transaction indexed = transactionId == null ? null : transactionsById.get(transactionId);
+    if (indexed == null) {
+      return false;
+    }
+    final Lock lock = writeLock(indexed.getUserId());
+    lock.lock();
+    try {
+      final Transaction stored = transactionsById.remove(transactionId);
+      if (stored == null) {
+        return false;
+      }
+      final UserLedger ledger = ledgers.get(stored.getUserId());
+      if (ledger != null) {
+        ledger.remove(stored);
+      }
+      journal.transactionDeleted(transactionId);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // ---------------------------------------------------------------------------
+  // Recovery
+  // ---------------------------------------------------------------------------
+
+  /**
+   * Starts reporting mutations to the given journal. Called once recovery is done.
+   */
+  void attach(final LedgerJournal journal) {
+    this.journal = journal;
+  }
+
+  /**
+   * Puts a user exactly as recorded, replacing any user with the same ID.
+   * Unique constraints are not checked: the recorded history already obeyed them.
+   */
+  void restoreUser(final User user) {
+    restoreUser(user, INITIAL_CAPACITY);
+  }
+
+  /**
+   * Puts a user exactly as recorded, sizing a new ledger for the expected number
+   * of transactions.
+   */
+  void restoreUser(final User user, final int expectedTransactions) {
+    final UUID userId = user.getUserId();
+    final Lock lock = writeLock(userId);
+    lock.lock();
+    try {
+      final UserLedger ledger = ledgers.get(userId);
+      final User stored;
+      if (ledger == null) {
+        stored = copyOf(user);
+        ledgers.put(userId, new UserLedger(stored, userSequence.incrementAndGet(),
+            Math.max(INITIAL_CAPACITY, expectedTransactions)));
+      } else {
+        stored = ledger.user;
+        release(usernames, stored.getUsername(), userId);
+        release(emails, stored.getEmail(), userId);
+        stored.setUsername(user.getUsername());
+        stored.setEmail(user.getEmail());
+        stored.setBudget(user.getBudget());
+      }
+      if (stored.getUsername() != null) {
+        usernames.put(stored.getUsername(), userId);
+      }
+      if (stored.getEmail() != null) {
+        emails.put(stored.getEmail(), userId);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Puts a transaction exactly as recorded, keeping its ID and timestamp and
+   * replacing any transaction with the same ID. Ignored if its user is gone.
+   */
+  void restoreTransaction(final Transaction transaction) {
+    final Lock lock = writeLock(transaction.getUserId());
+    lock.lock();
+    try {
+      final UserLedger ledger = ledgers.get(transaction.getUserId());
+      if (ledger == null) {
+        return;
+      }
+      final Transaction stored = copyOf(transaction);
+      final Transaction previous = transactionsById.put(stored.getTransactionId(), stored);
+      if (previous != null) {
+        ledger.remove(previous);
+      }
+      ledger.add(stored);
+      synchronized (clockLock) {
+        if (stored.getTimestamp() != null && stored.getTimestamp().isAfter(lastTimestamp)) {
+          lastTimestamp = stored.getTimestamp();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Visits every user with a copy of their transactions, oldest first, in the
+   * order users were created. Each user is copied under their read lock, so the
+   * view of one user is consistent, while users are visited one at a time and
+   * writers to other users are never blocked. The visitor runs without any lock.
+   */
+  void export(final LedgerVisitor visitor) throws IOException {
+    final List<UserLedger> snapshot = ledgers.values();
+    snapshot.sort(Comparator.comparingLong(ledger -> ledger.sequence));
+    for (final UserLedger ledger : snapshot) {
+      final User user;
+      final Transaction[] transactions;
+      final Lock lock = readLock(ledger.user.getUserId());
+      lock.lock();
+      try {
+        if (ledgers.get(ledger.user.getUserId()) != ledger) {
+          continue;
+        }
+        user = copyOf(ledger.user);
+        transactions = new Transaction[ledger.size];
+        for (int i = 0; i < ledger.size; i++) {
+          transactions[i] = copyOf(ledger.entries[i]);
+        }
+      } finally {
+        lock.unlock();
+      }
+      visitor.visit(user, transactions);
+    }
+  }
+
+  /**
+   * Receives one user and their transactions during {@link #export}.
+   */
+  @FunctionalInterface
+  interface LedgerVisitor {
+    void visit(User user, Transaction[] transactions) throws IOException;
+  }
+
+  // ---------------------------------------------------------------------------
+  // Helpers
+  // ---------------------------------------------------------------------------
+
+  private Lock readLock(final UUID userId) {
+    return stripeFor(userId).readLock();
+  }
+
+  private Lock writeLock(final UUID userId) {
+    return stripeFor(userId).writeLock();
+  }
+
+  private ReentrantReadWriteLock stripeFor(final UUID userId) {
+    final int hash = userId == null ? 0 : userId.hashCode();
+    return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+  }
+
+  /**
+   * Returns the current time at database precision, strictly after the previous
+   * timestamp handed out so that insertion order is preserved on ties.
+   */
+  private LocalDateTime nextTimestamp() {
+    synchronized (clockLock) {
+      LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+      if (!now.isAfter(lastTimestamp)) {
+        now = lastTimestamp.plus(1, ChronoUnit.MICROS);
+      }
+      lastTimestamp = now;
+      return now;
+    }
+  }
+
+  private static boolean isTaken(final Map<String, UUID> index, final String key,
+                                 final UUID excludeUserId) {
+    if (key == null) {
+      return false;
+    }
+    final UUID owner = index.get(key);
+    return owner != null && !owner.equals(excludeUserId);
+  }
+
+  private static void reserve(final Map<String, UUID> index, final String key, final UUID userId,
+                              final String constraint, final String column) {
+    // Like PostgreSQL, NULL never collides with another NULL
+    if (key != null && index.putIfAbsent(key, userId) != null) {
+      throw uniqueViolation(constraint, column, key);
+    }
+  }
+
+  private static void release(final Map<String, UUID> index, final String key,
+                              final UUID userId) {
+    if (key != null) {
+      index.remove(key, userId);
+    }
+  }
+
+  private static DataIntegrityViolationException uniqueViolation(
+      final String constraint, final String column, final Object value) {
+    return new DataIntegrityViolationException("duplicate key value violates unique constraint \""
+        + constraint + "\" Detail: Key (" + column + ")=(" + value + ") already exists.");
+  }
+
+  private static void checkCategory(final String category) {
+    if (TransactionCategory.fromName(category) == null) {
+      throw new DataIntegrityViolationException(
+          "invalid input value for enum transaction_category: \"" + category + "\"");
+    }
+  }
+
+  /**
+   * Rounds a value the way a {@code DECIMAL(10,2)} column stores it.
+   */
+  private static double toNumeric(final double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= NUMERIC_LIMIT) {
+      throw new DataIntegrityViolationException("numeric field overflow");
+    }
+    return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+  }
+
+  private static User copyOf(final User user) {
+    final User copy = new User(user.getUsername(), user.getEmail(), user.getBudget());
+    copy.setUserId(user.getUserId());
+    return copy;
+  }
+
+  private static Transaction copyOf(final Transaction transaction) {
+    final Transaction copy = new Transaction(transaction.getUserId(), transaction.getAmount(),
+        transaction.getCategory(), transaction.getDescription());
+    copy.setTransactionId(transaction.getTransactionId());
+    copy.setTimestamp(transaction.getTimestamp());
+    copy.setDate(transaction.getDate());
+    return copy;
+  }
+
+  /**
+   * A user together with their transactions, kept in an array sorted oldest first.
+   * Guarded by the user's lock stripe.
+   */
+  private static final class UserLedger {
+    private final User user;
+    private final long sequence;
+    private Transaction[] entries;
+    private int size;
+
+    private UserLedger(final User user, final long sequence, final int capacity) {
+      this.user = user;
+      this.sequence = sequence;
+      this.entries = new Transaction[capacity];
+    }
+
+    private void add(final Transaction transaction) {
+      if (size == entries.length) {
+        entries = Arrays.copyOf(entries, size * 2);
+      }
+      // New transactions are almost always the latest, so search from the end
+      int index = size;
+      while (index > 0 && BY_TIME.compare(entries[index - 1], transaction) > 0) {
+        index--;
+      }
+      System.arraycopy(entries, index, entries, index + 1, size - index);
+      entries[index] = transaction;
+      size++;
+    }
+
+    private void remove(final Transaction transaction) {
+      for (int i = size - 1; i >= 0; i--) {
+        if (entries[i] == transaction) {
+          System.arraycopy(entries, i + 1, entries, i, size - i - 1);
+          entries[--size] = null;
+          return;
+        }
+      }
+    }
+
+    /**
+     * Returns the index of the first transaction dated on or after the given day.
+     */
+    private int firstOnOrAfter(final LocalDate since) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        final LocalDate date = entries[mid].getDate();
+        if (date == null || date.isBefore(since)) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+}
@@ -0,0 +1,265 @@
+package dev.ase.teamproject.repository;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.TransactionCategory;
+import dev.ase.teamproject.model.User;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * This class implements the {@link LedgerRepository} on top of the PostgreSQL
+ * database using the Spring {@code JdbcTemplate}. It is the default backend and
+ * is selected when {@code ledger.store} is unset or set to {@code jdbc}.
+ */
+@Repository
+@Profile("!reactive")
+@ConditionalOnProperty(name = "ledger.store", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcLedgerRepository implements LedgerRepository {
+  private static final String AMOUNT = "amount";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final RowMapper<User> userRowMapper = (rs, rowNum) -> {
+    final User user = new User();
+    user.setUserId((UUID) rs.getObject("user_id"));
+    user.setUsername(rs.getString("username"));
+    user.setEmail(rs.getString("email"));
+    user.setBudget(rs.getDouble("budget"));
+    return user;
+  };
+
+  private final RowMapper<Transaction> txRowMapper = (rs, rowNum) -> {
+    final Transaction transaction = new Transaction();
+    try {
+      transaction.setTransactionId((UUID) rs.getObject("transaction_id"));
+      transaction.setUserId((UUID) rs.getObject("user_id"));
+      transaction.setDescription(rs.getString("description"));
+      transaction.setAmount(rs.getDouble(AMOUNT));
+      transaction.setCategory(rs.getString("category"));
+
+      // Handle potential null values for timestamps
+      if (rs.getTimestamp("created_time") != null) {
+        transaction.setTimestamp(rs.getTimestamp("created_time").toLocalDateTime());
+      }
+
+      if (rs.getDate("created_date") != null) {
+        transaction.setDate(rs.getDate("created_date").toLocalDate());
+      }
+
+      return transaction;
+    } catch (Exception e) {
+      throw new IllegalStateException("Error mapping transaction row: " + e.getMessage(), e);
+    }
+  };
+
+  // Single-row lookups read the first row, if any, so that a missing user or
+  // transaction is an empty result rather than an EmptyResultDataAccessException.
+  private final ResultSetExtractor<Optional<User>> firstUser =
+      rs -> rs.next() ? Optional.of(userRowMapper.mapRow(rs, 0)) : Optional.empty();
+
+  private final ResultSetExtractor<Optional<Transaction>> firstTransaction =
+      rs -> rs.next() ? Optional.of(txRowMapper.mapRow(rs, 0)) : Optional.empty();
+
+  /**
+   * Constructs a new {@code JdbcLedgerRepository} with the specified {@code JdbcTemplate}.
+   *
+   * @param jdbcTemplate A {@code JdbcTemplate} used to communicate with database.
+   */
+  public JdbcLedgerRepository(final JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public List<User> findAllUsers() {
+    final String sql = "SELECT * FROM users";
+    return jdbcTemplate.query(sql, userRowMapper);
+  }
+
+  @Override
+  public Optional<User> findUser(final UUID userId) {
+    final String sql = "SELECT * FROM users WHERE user_id = ?";
+    return jdbcTemplate.query(sql, firstUser, userId);
+  }
+
+  @Override
+  public List<User> findUsers(final Collection<UUID> userIds) {
+    if (userIds.isEmpty()) {
+      return List.of();
+    }
+    final String sql = "SELECT * FROM users WHERE user_id = ANY(?)";
+    return jdbcTemplate.query(sql, uuidArray(userIds), userRowMapper);
+  }
+
+  @Override
+  public User insertUser(final User user) {
+    if (user.getUserId() != null) {
+      final String sql = "INSERT INTO users (user_id, username, email, budget) VALUES (?, ?, ?, ?)";
+      jdbcTemplate.update(sql,
+          user.getUserId(),  // Use the provided UUID
+          user.getUsername(),
+          user.getEmail(),
+          user.getBudget());
+      return user;  // Return as-is
+    } else {
+      final String sql =
+          "INSERT INTO users (username, email, budget) VALUES (?, ?, ?) RETURNING user_id";
+      final UUID generatedUserId = jdbcTemplate.queryForObject(sql, UUID.class,
+          user.getUsername(), user.getEmail(), user.getBudget());
+      user.setUserId(generatedUserId);
+      return user;
+    }
+  }
+
+  @Override
+  public boolean deleteUser(final UUID userId) {
+    final String sql = "DELETE FROM users WHERE user_id = ?";
+    final int rowsAffected = jdbcTemplate.update(sql, userId);
+    return rowsAffected > 0;
+  }
+
+  @Override
+  public boolean updateBudget(final UUID userId, final double budget) {
+    final String sql = "UPDATE users SET budget = ? WHERE user_id = ?";
+    return jdbcTemplate.update(sql, budget, userId) > 0;
+  }
+
+  @Override
+  public boolean existsByUsername(final String username, final UUID excludeUserId) {
+    final Integer count;
+    if (excludeUserId == null) {
+      // Check against all users
+      final String sql = "SELECT COUNT(*) FROM users WHERE username = ?";
+      count = jdbcTemplate.queryForObject(sql, Integer.class, username);
+    } else {
+      // Check against other users only
+      final String sql = "SELECT COUNT(*) FROM users WHERE username = ? AND user_id != ?";
+      count = jdbcTemplate.queryForObject(sql, Integer.class, username, excludeUserId);
+    }
+    return count != null && count > 0;
+  }
+
+  @Override
+  public boolean existsByEmail(final String email, final UUID excludeUserId) {
+    final Integer count;
+    if (excludeUserId == null) {
+      // Check against all users
+      final String sql = "SELECT COUNT(*) FROM users WHERE email = ?";
+      count = jdbcTemplate.queryForObject(sql, Integer.class, email);
+    } else {
+      // Check against other users only
+      final String sql = "SELECT COUNT(*) FROM users WHERE email = ? AND user_id != ?";
+      count = jdbcTemplate.queryForObject(sql, Integer.class, email, excludeUserId);
+    }
+    return count != null && count > 0;
+  }
+
+  @Override
+  public List<Transaction> findAllTransactions() {
+    final String sql = "SELECT * FROM transactions ORDER BY created_time DESC";
+    return jdbcTemplate.query(sql, txRowMapper);
+  }
+
+  @Override
+  public Optional<Transaction> findTransaction(final UUID transactionId) {
+    final String sql = "SELECT * FROM transactions WHERE transaction_id = ?";
+    return jdbcTemplate.query(sql, firstTransaction, transactionId);
+  }
+
+  @Override
+  public List<Transaction> findTransactions(final Collection<UUID> transactionIds) {
+    if (transactionIds.isEmpty()) {
+      return List.of();
+    }
+    final String sql = "SELECT * FROM transactions WHERE transaction_id = ANY(?)";
+    return jdbcTemplate.query(sql, uuidArray(transactionIds), txRowMapper);
+  }
+
+  @Override
+  public List<Transaction> findTransactionsByUser(final UUID userId) {
+    final String sql = "SELECT * FROM transactions WHERE user_id = ? ORDER BY created_time DESC";
+    return jdbcTemplate.query(sql, txRowMapper, userId);
+  }
+
+  @Override
+  public List<Transaction> findTransactionsSince(final UUID userId, final LocalDate since) {
+    final String sql = "SELECT * FROM transactions WHERE user_id = ? AND"
+        + " created_date >= ? ORDER BY created_time DESC";
+    return jdbcTemplate.query(sql, txRowMapper, userId, since);
+  }
+
+  @Override
+  public double sumSpentSince(final UUID userId, final LocalDate since) {
+    final String sql = "SELECT COALESCE(SUM(amount), 0) FROM transactions"
+        + " WHERE user_id = ? AND created_date >= ? AND amount > 0";
+    final Double result = jdbcTemplate.queryForObject(sql, Double.class, userId, since);
+    return result != null ? result : 0.0;
+  }
+
+  @Override
+  public void forEachCategoryTotal(final LocalDate from, final LocalDate to,
+                                   final CategoryTotalConsumer consumer) {
+    final String sql = "SELECT user_id, category::text AS category, SUM(amount) AS total"
+        + " FROM transactions WHERE created_date >= ? AND created_date <= ? AND amount > 0"
+        + " GROUP BY user_id, category";
+    jdbcTemplate.query(sql, (RowCallbackHandler) rs -> consumer.accept(
+        rs.getObject("user_id", UUID.class),
+        TransactionCategory.fromName(rs.getString("category")),
+        rs.getDouble("total")), from, to);
+  }
+
+  @Override
+  public Transaction insertTransaction(final Transaction transaction) {
+    final String sql = "INSERT INTO transactions (user_id, description, amount, category) "
+        + "VALUES (?, ?, ?, ?::transaction_category) "
+        + "RETURNING transaction_id, created_time, created_date";
+    final Transaction savedTransaction = jdbcTemplate.queryForObject(sql, (rs, rowNum) -> {
+      transaction.setTransactionId(rs.getObject("transaction_id", UUID.class));
+      transaction.setTimestamp(rs.getTimestamp("created_time").toLocalDateTime());
+      transaction.setDate(rs.getDate("created_date").toLocalDate());
+      return transaction;
+    },
+        transaction.getUserId(),
+        transaction.getDescription(),
+        transaction.getAmount(),
+        transaction.getCategory());
+    return savedTransaction != null ? savedTransaction : transaction;
+  }
+
+  @Override
+  public boolean updateTransaction(final UUID transactionId, final Transaction values) {
+    final String sql = "UPDATE transactions SET description = ?, amount = ?, "
+        + "category = ?::transaction_category WHERE transaction_id = ?";
+    final int rowsAffected = jdbcTemplate.update(sql,
+        values.getDescription(),
+        values.getAmount(),
+        values.getCategory(),
+        transactionId);
+    return rowsAffected > 0;
+  }
+
+  @Override
+  public boolean deleteTransaction(final UUID transactionId) {
+    final String sql = "DELETE FROM transactions WHERE transaction_id = ?";
+    final int rowsAffected = jdbcTemplate.update(sql, transactionId);
+    return rowsAffected > 0;
+  }
+
+  /**
+   * Binds the identifiers as a single {@code uuid[]} parameter, so a batch
+   * lookup is one statement however many identifiers it has.
+   */
+  private static PreparedStatementSetter uuidArray(final Collection<UUID> ids) {
+    return ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray()));
+  }
+}
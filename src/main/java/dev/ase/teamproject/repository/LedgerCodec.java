@@ -0,0 +1,128 @@
+package dev.ase.teamproject.repository;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Binary encoding of users and transactions shared by the file-backed stores.
+ *
+ * <p>UUIDs are written as two longs, strings as a length-prefixed UTF-8 byte
+ * sequence ({@code -1} for {@code null}) and timestamps as an epoch day plus a
+ * nano-of-day. The transaction date is not written because it is derived from
+ * the timestamp. Readers are provided both for streams and for buffers, the
+ * latter for snapshots that are memory-mapped on load.
+ */
+final class LedgerCodec {
+
+  private LedgerCodec() {
+  }
+
+  static void writeUuid(final DataOutput out, final UUID value) throws IOException {
+    out.writeLong(value.getMostSignificantBits());
+    out.writeLong(value.getLeastSignificantBits());
+  }
+
+  static UUID readUuid(final DataInput in) throws IOException {
+    return new UUID(in.readLong(), in.readLong());
+  }
+
+  static UUID readUuid(final ByteBuffer in) {
+    return new UUID(in.getLong(), in.getLong());
+  }
+
+  static void writeString(final DataOutput out, final String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  static String readString(final DataInput in) throws IOException {
+    final int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    final byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  static String readString(final ByteBuffer in) {
+    final int length = in.getInt();
+    if (length < 0) {
+      return null;
+    }
+    final byte[] bytes = new byte[length];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  static void writeUser(final DataOutput out, final User user) throws IOException {
+    writeUuid(out, user.getUserId());
+    writeString(out, user.getUsername());
+    writeString(out, user.getEmail());
+    out.writeDouble(user.getBudget());
+  }
+
+  static User readUser(final DataInput in) throws IOException {
+    final UUID userId = readUuid(in);
+    final User user = new User(readString(in), readString(in), in.readDouble());
+    user.setUserId(userId);
+    return user;
+  }
+
+  static User readUser(final ByteBuffer in) {
+    final UUID userId = readUuid(in);
+    final User user = new User(readString(in), readString(in), in.getDouble());
+    user.setUserId(userId);
+    return user;
+  }
+
+  static void writeTransaction(final DataOutput out, final Transaction transaction)
+      throws IOException {
+    writeUuid(out, transaction.getTransactionId());
+    writeUuid(out, transaction.getUserId());
+    out.writeDouble(transaction.getAmount());
+    writeString(out, transaction.getCategory());
+    writeString(out, transaction.getDescription());
+    final LocalDateTime timestamp = transaction.getTimestamp();
+    out.writeLong(timestamp.toLocalDate().toEpochDay());
+    out.writeLong(timestamp.toLocalTime().toNanoOfDay());
+  }
+
+  static Transaction readTransaction(final DataInput in) throws IOException {
+    final UUID transactionId = readUuid(in);
+    final UUID userId = readUuid(in);
+    final double amount = in.readDouble();
+    final String category = readString(in);
+    final Transaction transaction = new Transaction(userId, amount, category, readString(in));
+    transaction.setTransactionId(transactionId);
+    transaction.setTimestamp(LocalDateTime.of(LocalDate.ofEpochDay(in.readLong()),
+        LocalTime.ofNanoOfDay(in.readLong())));
+    return transaction;
+  }
+
+  static Transaction readTransaction(final ByteBuffer in) {
+    final UUID transactionId = readUuid(in);
+    final UUID userId = readUuid(in);
+    final double amount = in.getDouble();
+    final String category = readString(in);
+    final Transaction transaction = new Transaction(userId, amount, category, readString(in));
+    transaction.setTransactionId(transactionId);
+    transaction.setTimestamp(LocalDateTime.of(LocalDate.ofEpochDay(in.getLong()),
+        LocalTime.ofNanoOfDay(in.getLong())));
+    return transaction;
+  }
+}
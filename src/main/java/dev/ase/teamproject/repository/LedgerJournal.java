@@ -0,0 +1,69 @@
+package dev.ase.teamproject.repository;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import java.util.UUID;
+
+/**
+ * Receives every mutation applied by an {@link InMemoryLedgerRepository}.
+ *
+ * <p>Callbacks run while the affected user's write lock is held, after the
+ * mutation has been validated, so for any one user they arrive in the order the
+ * mutations took effect. Arguments are the stored values (rounded amounts,
+ * generated identifiers and timestamps) and must not be modified or retained.
+ */
+interface LedgerJournal {
+
+  /** A journal that records nothing. */
+  LedgerJournal NONE = new LedgerJournal() {
+  };
+
+  /**
+   * Called after a user is inserted.
+   *
+   * @param user The stored {@code User}.
+   */
+  default void userInserted(final User user) {
+  }
+
+  /**
+   * Called when a user and their transactions are deleted.
+   *
+   * @param userId The {@code UUID} of the deleted user.
+   */
+  default void userDeleted(final UUID userId) {
+  }
+
+  /**
+   * Called after a user's budget is changed.
+   *
+   * @param userId The {@code UUID} of the user.
+   * @param budget The stored budget.
+   */
+  default void budgetUpdated(final UUID userId, final double budget) {
+  }
+
+  /**
+   * Called after a transaction is inserted.
+   *
+   * @param transaction The stored {@code Transaction}.
+   */
+  default void transactionInserted(final Transaction transaction) {
+  }
+
+  /**
+   * Called after a transaction's description, amount or category is changed.
+   *
+   * @param transaction The stored {@code Transaction} holding the new values.
+   */
+  default void transactionUpdated(final Transaction transaction) {
+  }
+
+  /**
+   * Called after a transaction is deleted.
+   *
+   * @param transactionId The {@code UUID} of the deleted transaction.
+   */
+  default void transactionDeleted(final UUID transactionId) {
+  }
+}
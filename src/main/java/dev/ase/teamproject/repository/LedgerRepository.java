@@ -0,0 +1,192 @@
+package dev.ase.teamproject.repository;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.TransactionCategory;
+import dev.ase.teamproject.model.User;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * This interface defines the data access operations used by the service layer
+ * for users and transactions. Implementations decide where the ledger lives
+ * (PostgreSQL through {@code JdbcTemplate}, or an in-process store) while the
+ * service keeps all validation and business rules.
+ *
+ * <p>Implementations report constraint violations (unique username or email,
+ * unknown user for a transaction, invalid category) by throwing a
+ * {@code DataAccessException} whose message names the violated constraint in the
+ * same way PostgreSQL does, so callers can translate errors uniformly.
+ */
+public interface LedgerRepository {
+
+  /**
+   * Retrieves all users.
+   *
+   * @return A {@code List} of all {@code User} records.
+   */
+  List<User> findAllUsers();
+
+  /**
+   * Retrieves a user by their unique identifier.
+   *
+   * @param userId The {@code UUID} of the user.
+   * @return An {@code Optional} containing the {@code User}, or empty if not found.
+   */
+  Optional<User> findUser(UUID userId);
+
+  /**
+   * Retrieves the users with any of the given identifiers in one lookup.
+   *
+   * @param userIds The {@code UUID}s of the users; unknown ones are skipped.
+   * @return The {@code User} records found, in no particular order.
+   */
+  List<User> findUsers(Collection<UUID> userIds);
+
+  /**
+   * Inserts a new user. If the user already has a {@code userId} it is used as is,
+   * otherwise a new identifier is generated and set on the given object.
+   *
+   * @param user The {@code User} to insert.
+   * @return The inserted {@code User} with its identifier populated.
+   */
+  User insertUser(User user);
+
+  /**
+   * Deletes a user and, by cascade, all of their transactions.
+   *
+   * @param userId The {@code UUID} of the user to delete.
+   * @return {@code true} if a user was deleted; {@code false} otherwise.
+   */
+  boolean deleteUser(UUID userId);
+
+  /**
+   * Sets the budget of a user.
+   *
+   * @param userId The {@code UUID} of the user.
+   * @param budget The new budget value.
+   * @return {@code true} if a user was updated; {@code false} otherwise.
+   */
+  boolean updateBudget(UUID userId, double budget);
+
+  /**
+   * Checks whether a username is taken, optionally ignoring one user.
+   *
+   * @param username The username to look for.
+   * @param excludeUserId The user to ignore, or {@code null} to check all users.
+   * @return {@code true} if another user has this username.
+   */
+  boolean existsByUsername(String username, UUID excludeUserId);
+
+  /**
+   * Checks whether an email is taken, optionally ignoring one user.
+   *
+   * @param email The email to look for.
+   * @param excludeUserId The user to ignore, or {@code null} to check all users.
+   * @return {@code true} if another user has this email.
+   */
+  boolean existsByEmail(String email, UUID excludeUserId);
+
+  /**
+   * Retrieves all transactions, most recent first.
+   *
+   * @return A {@code List} of all {@code Transaction} records.
+   */
+  List<Transaction> findAllTransactions();
+
+  /**
+   * Retrieves a transaction by its unique identifier.
+   *
+   * @param transactionId The {@code UUID} of the transaction.
+   * @return An {@code Optional} containing the {@code Transaction}, or empty if not found.
+   */
+  Optional<Transaction> findTransaction(UUID transactionId);
+
+  /**
+   * Retrieves the transactions with any of the given identifiers in one lookup.
+   *
+   * @param transactionIds The {@code UUID}s of the transactions; unknown ones are skipped.
+   * @return The {@code Transaction} records found, in no particular order.
+   */
+  List<Transaction> findTransactions(Collection<UUID> transactionIds);
+
+  /**
+   * Retrieves all transactions of a user, most recent first.
+   *
+   * @param userId The {@code UUID} of the user.
+   * @return A {@code List} of the user's {@code Transaction} records.
+   */
+  List<Transaction> findTransactionsByUser(UUID userId);
+
+  /**
+   * Retrieves the transactions of a user created on or after a date, most recent first.
+   *
+   * @param userId The {@code UUID} of the user.
+   * @param since The first date (inclusive) to include.
+   * @return A {@code List} of matching {@code Transaction} records.
+   */
+  List<Transaction> findTransactionsSince(UUID userId, LocalDate since);
+
+  /**
+   * Sums the positive transaction amounts of a user created on or after a date.
+   *
+   * @param userId The {@code UUID} of the user.
+   * @param since The first date (inclusive) to include.
+   * @return The total spent, or {@code 0.0} if there is nothing to sum.
+   */
+  double sumSpentSince(UUID userId, LocalDate since);
+
+  /**
+   * Sums the positive transaction amounts created between two dates for each user
+   * and category, and passes every non-zero sum to the consumer.
+   *
+   * @param from The first date (inclusive) to include.
+   * @param to The last date (inclusive) to include.
+   * @param consumer Receives each user's total in each category they spent in.
+   */
+  void forEachCategoryTotal(LocalDate from, LocalDate to, CategoryTotalConsumer consumer);
+
+  /**
+   * Inserts a new transaction. The identifier, timestamp and date are generated
+   * by the store and set on the given object.
+   *
+   * @param transaction The {@code Transaction} to insert.
+   * @return The inserted {@code Transaction} with generated fields populated.
+   */
+  Transaction insertTransaction(Transaction transaction);
+
+  /**
+   * Writes the description, amount and category of an existing transaction.
+   *
+   * @param transactionId The {@code UUID} of the transaction to update.
+   * @param values The {@code Transaction} holding the new description, amount and category.
+   * @return {@code true} if a transaction was updated; {@code false} otherwise.
+   */
+  boolean updateTransaction(UUID transactionId, Transaction values);
+
+  /**
+   * Deletes a transaction by its unique identifier.
+   *
+   * @param transactionId The {@code UUID} of the transaction to delete.
+   * @return {@code true} if a transaction was deleted; {@code false} otherwise.
+   */
+  boolean deleteTransaction(UUID transactionId);
+
+  /**
+   * Receives per-user category totals from {@link #forEachCategoryTotal}.
+   */
+  @FunctionalInterface
+  interface CategoryTotalConsumer {
+
+    /**
+     * Accepts one user's total in one category.
+     *
+     * @param userId The user.
+     * @param category The category.
+     * @param total The sum of the user's positive amounts in the category.
+     */
+    void accept(UUID userId, TransactionCategory category, double total);
+  }
+}
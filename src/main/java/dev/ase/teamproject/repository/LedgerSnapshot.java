@@ -0,0 +1,163 @@
+package dev.ase.teamproject.repository;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary snapshots of an {@link InMemoryLedgerRepository}.
+ *
+ * <p>A snapshot file holds a header naming the first log segment that is not
+ * covered by it, then one section per user (the user, their transaction count
+ * and their transactions, oldest first), an end marker with totals, and a CRC32
+ * of everything before it. Snapshots are written to a temporary file, forced and
+ * atomically renamed, so a crash never leaves a partial snapshot in place.
+ *
+ * <p>Snapshots are fuzzy: they are taken while writes continue, after the log has
+ * been rolled to a new segment. Any mutation not reflected in the snapshot is in
+ * that segment or a later one, and replaying log records over a newer state is
+ * harmless because every record sets a value rather than adjusting one.
+ *
+ * <p>Loading maps the file into memory and decodes it in place.
+ */
+final class LedgerSnapshot {
+  private static final int MAGIC = 0x4C534E50;
+  private static final int VERSION = 1;
+  private static final byte SECTION_USER = 1;
+  private static final byte SECTION_END = 0;
+  private static final int TRAILER_BYTES = 4;
+
+  private LedgerSnapshot() {
+  }
+
+  /**
+   * Counts of what a snapshot contains.
+   *
+   * @param startGeneration The first log segment to replay after loading.
+   * @param users The number of users.
+   * @param transactions The number of transactions.
+   */
+  record Summary(long startGeneration, long users, long transactions) {
+  }
+
+  /**
+   * Writes a snapshot of the store to the given file.
+   *
+   * @param store The store to export.
+   * @param file The snapshot file to create or replace.
+   * @param startGeneration The first log segment not covered by this snapshot.
+   * @return What was written.
+   * @throws IOException If the snapshot cannot be written.
+   */
+  static Summary write(final InMemoryLedgerRepository store, final Path file,
+                       final long startGeneration) throws IOException {
+    final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    final long[] counts = new long[2];
+    try (FileOutputStream stream = new FileOutputStream(temp.toFile())) {
+      final CRC32 crc = new CRC32();
+      final DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+          new BufferedOutputStream(stream, 1 << 16), crc));
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(startGeneration);
+      store.export((user, transactions) -> {
+        out.writeByte(SECTION_USER);
+        LedgerCodec.writeUser(out, user);
+        out.writeInt(transactions.length);
+        for (final Transaction transaction : transactions) {
+          LedgerCodec.writeTransaction(out, transaction);
+        }
+        counts[0]++;
+        counts[1] += transactions.length;
+      });
+      out.writeByte(SECTION_END);
+      out.writeLong(counts[0]);
+      out.writeLong(counts[1]);
+      out.flush();
+      // The checksum itself is written past the checked stream
+      final DataOutputStream trailer = new DataOutputStream(stream);
+      trailer.writeInt((int) crc.getValue());
+      trailer.flush();
+      stream.getFD().sync();
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    forceDirectory(file.toAbsolutePath().getParent());
+    return new Summary(startGeneration, counts[0], counts[1]);
+  }
+
+  /**
+   * Loads a snapshot into an empty store.
+   *
+   * @param file The snapshot file.
+   * @param store The store to fill.
+   * @return What was loaded.
+   * @throws IOException If the file is unreadable, truncated or fails its checksum.
+   */
+  static Summary load(final Path file, final InMemoryLedgerRepository store) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Snapshot " + file + " is too large to map");
+      }
+      final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      if (size < 16 + TRAILER_BYTES) {
+        throw new IOException("Snapshot " + file + " is truncated");
+      }
+      final CRC32 crc = new CRC32();
+      crc.update(buffer.slice(0, (int) size - TRAILER_BYTES));
+      if ((int) crc.getValue() != buffer.getInt((int) size - TRAILER_BYTES)) {
+        throw new IOException("Snapshot " + file + " failed its checksum");
+      }
+      try {
+        return decode(buffer, store);
+      } catch (BufferUnderflowException | IllegalArgumentException e) {
+        throw new IOException("Snapshot " + file + " is malformed", e);
+      }
+    }
+  }
+
+  private static Summary decode(final ByteBuffer in, final InMemoryLedgerRepository store)
+      throws IOException {
+    if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+      throw new IOException("Not a ledger snapshot of version " + VERSION);
+    }
+    final long startGeneration = in.getLong();
+    long users = 0;
+    long transactions = 0;
+    while (in.get() == SECTION_USER) {
+      final User user = LedgerCodec.readUser(in);
+      final int count = in.getInt();
+      store.restoreUser(user, count);
+      for (int i = 0; i < count; i++) {
+        store.restoreTransaction(LedgerCodec.readTransaction(in));
+      }
+      users++;
+      transactions += count;
+    }
+    if (in.getLong() != users || in.getLong() != transactions) {
+      throw new IOException("Snapshot totals do not match its contents");
+    }
+    return new Summary(startGeneration, users, transactions);
+  }
+
+  private static void forceDirectory(final Path directory) {
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      // Not every platform can sync a directory; the rename is still atomic
+    }
+  }
+}
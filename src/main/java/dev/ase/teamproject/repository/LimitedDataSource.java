@@ -0,0 +1,81 @@
+package dev.ase.teamproject.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * This class limits how many connections can be checked out of a pool at once
+ * with an {@link AdaptiveLimit}, so that the limit follows the database's
+ * latency instead of the pool's fixed size.
+ *
+ * <p>Each checkout is one sample, timed from when the pool hands the connection
+ * over until it is closed, so the wait for the pool is not part of it. Outside
+ * a transaction the repository holds a connection only for one statement, so
+ * the sample is close to that statement's round trip.
+ * When the limit is reached, callers fail at once with an
+ * {@link SQLTransientConnectionException}, the exception the pool itself throws
+ * on timeout, instead of queueing in the pool.
+ */
+public class LimitedDataSource extends DelegatingDataSource {
+
+  private final AdaptiveLimit limit;
+
+  /**
+   * Constructs a new {@code LimitedDataSource}.
+   *
+   * @param target The data source to take connections from.
+   * @param limit The limit on connections checked out at once.
+   */
+  public LimitedDataSource(final DataSource target, final AdaptiveLimit limit) {
+    super(target);
+    this.limit = limit;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    try {
+      return limited(super.getConnection());
+    } catch (SQLException | RuntimeException e) {
+      limit.release(0, true);
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(final String username, final String password)
+      throws SQLException {
+    acquire();
+    try {
+      return limited(super.getConnection(username, password));
+    } catch (SQLException | RuntimeException e) {
+      limit.release(0, true);
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the limit, for its metrics.
+   *
+   * @return The limit given at construction.
+   */
+  public AdaptiveLimit getLimit() {
+    return limit;
+  }
+
+  private void acquire() throws SQLException {
+    if (!limit.tryAcquire()) {
+      throw new SQLTransientConnectionException("Database concurrency limit of "
+          + limit.getLimit() + " reached");
+    }
+  }
+
+  private Connection limited(final Connection connection) {
+    final long start = System.nanoTime();
+    return ClosingConnection.wrap(connection,
+        () -> limit.release(System.nanoTime() - start, false));
+  }
+}
@@ -0,0 +1,240 @@
+package dev.ase.teamproject.repository;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import io.r2dbc.spi.Readable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * This class runs the ledger queries of {@link JdbcLedgerRepository} without
+ * blocking, over R2DBC. It backs the reactive variant of the API and is only
+ * created with the {@code reactive} Spring profile.
+ *
+ * <p>Listings are returned as a {@link Flux} that fetches rows from the server
+ * {@value #FETCH_SIZE} at a time as subscribers request them, so a large listing
+ * is streamed with backpressure rather than read into memory.
+ */
+@Repository
+@Profile("reactive")
+public class R2dbcLedgerRepository {
+
+  /** How many rows a listing fetches from the server per round trip. */
+  public static final int FETCH_SIZE = 256;
+
+  private static final String USER_COLUMNS = "user_id, username, email, budget";
+  private static final String TRANSACTION_COLUMNS = "transaction_id, user_id, description,"
+      + " amount, category::text AS category, created_time, created_date";
+
+  private final DatabaseClient client;
+
+  /**
+   * Constructs a new {@code R2dbcLedgerRepository}.
+   *
+   * @param client The R2DBC client used to communicate with the database.
+   */
+  public R2dbcLedgerRepository(final DatabaseClient client) {
+    this.client = client;
+  }
+
+  /**
+   * Streams all users.
+   *
+   * @return The users.
+   */
+  public Flux<User> findAllUsers() {
+    return client.sql("SELECT " + USER_COLUMNS + " FROM users")
+        .filter(statement -> statement.fetchSize(FETCH_SIZE))
+        .map(R2dbcLedgerRepository::toUser)
+        .all();
+  }
+
+  /**
+   * Finds a user by ID.
+   *
+   * @param userId The user ID.
+   * @return The user, or empty if there is none.
+   */
+  public Mono<User> findUser(final UUID userId) {
+    return client.sql("SELECT " + USER_COLUMNS + " FROM users WHERE user_id = $1")
+        .bind(0, userId)
+        .map(R2dbcLedgerRepository::toUser)
+        .one();
+  }
+
+  /**
+   * Inserts a user, letting the database generate the ID.
+   *
+   * @param user The user to insert; its ID is set from the database.
+   * @return The inserted user.
+   */
+  public Mono<User> insertUser(final User user) {
+    return client.sql("INSERT INTO users (username, email, budget) VALUES ($1, $2, $3)"
+            + " RETURNING user_id")
+        .bind(0, user.getUsername())
+        .bind(1, user.getEmail())
+        .bind(2, BigDecimal.valueOf(user.getBudget()))
+        .map(row -> row.get("user_id", UUID.class))
+        .one()
+        .map(userId -> {
+          user.setUserId(userId);
+          return user;
+        });
+  }
+
+  /**
+   * Deletes a user and, through the foreign key, their transactions.
+   *
+   * @param userId The user ID.
+   * @return Whether a user was deleted.
+   */
+  public Mono<Boolean> deleteUser(final UUID userId) {
+    return client.sql("DELETE FROM users WHERE user_id = $1")
+        .bind(0, userId)
+        .fetch()
+        .rowsUpdated()
+        .map(rows -> rows > 0);
+  }
+
+  /**
+   * Finds a transaction by ID.
+   *
+   * @param transactionId The transaction ID.
+   * @return The transaction, or empty if there is none.
+   */
+  public Mono<Transaction> findTransaction(final UUID transactionId) {
+    return client.sql("SELECT " + TRANSACTION_COLUMNS
+            + " FROM transactions WHERE transaction_id = $1")
+        .bind(0, transactionId)
+        .map(R2dbcLedgerRepository::toTransaction)
+        .one();
+  }
+
+  /**
+   * Streams a user's transactions, most recent first.
+   *
+   * @param userId The user ID.
+   * @return The transactions.
+   */
+  public Flux<Transaction> findTransactionsByUser(final UUID userId) {
+    return client.sql("SELECT " + TRANSACTION_COLUMNS
+            + " FROM transactions WHERE user_id = $1 ORDER BY created_time DESC")
+        .bind(0, userId)
+        .filter(statement -> statement.fetchSize(FETCH_SIZE))
+        .map(R2dbcLedgerRepository::toTransaction)
+        .all();
+  }
+
+  /**
+   * Streams a user's transactions dated on or after a day, most recent first.
+   *
+   * @param userId The user ID.
+   * @param since The first day to include.
+   * @return The transactions.
+   */
+  public Flux<Transaction> findTransactionsSince(final UUID userId, final LocalDate since) {
+    return client.sql("SELECT " + TRANSACTION_COLUMNS
+            + " FROM transactions WHERE user_id = $1 AND created_date >= $2"
+            + " ORDER BY created_time DESC")
+        .bind(0, userId)
+        .bind(1, since)
+        .map(R2dbcLedgerRepository::toTransaction)
+        .all();
+  }
+
+  /**
+   * Sums a user's spending per category between two days, in the database.
+   *
+   * @param userId The user ID.
+   * @param from The first day of the period.
+   * @param to The last day of the period, inclusive.
+   * @return One {@code (category, total)} pair per category with spending.
+   */
+  public Flux<CategoryTotal> sumByCategory(final UUID userId, final LocalDate from,
+                                           final LocalDate to) {
+    return client.sql("SELECT category::text AS category, SUM(amount) AS total"
+            + " FROM transactions WHERE user_id = $1 AND created_date >= $2"
+            + " AND created_date <= $3 AND amount > 0 GROUP BY category")
+        .bind(0, userId)
+        .bind(1, from)
+        .bind(2, to)
+        .map(row -> new CategoryTotal(row.get("category", String.class),
+            row.get("total", BigDecimal.class).doubleValue()))
+        .all();
+  }
+
+  /**
+   * Inserts a transaction, letting the database generate its ID, time and date.
+   *
+   * @param transaction The transaction to insert; the generated fields are set on it.
+   * @return The inserted transaction.
+   */
+  public Mono<Transaction> insertTransaction(final Transaction transaction) {
+    return client.sql("INSERT INTO transactions (user_id, description, amount, category)"
+            + " VALUES ($1, $2, $3, $4::transaction_category)"
+            + " RETURNING transaction_id, created_time, created_date")
+        .bind(0, transaction.getUserId())
+        .bind(1, transaction.getDescription())
+        .bind(2, BigDecimal.valueOf(transaction.getAmount()))
+        .bind(3, transaction.getCategory())
+        .map(row -> {
+          transaction.setTransactionId(row.get("transaction_id", UUID.class));
+          transaction.setTimestamp(row.get("created_time", LocalDateTime.class));
+          transaction.setDate(row.get("created_date", LocalDate.class));
+          return transaction;
+        })
+        .one();
+  }
+
+  /**
+   * Deletes a transaction.
+   *
+   * @param transactionId The transaction ID.
+   * @return Whether a transaction was deleted.
+   */
+  public Mono<Boolean> deleteTransaction(final UUID transactionId) {
+    return client.sql("DELETE FROM transactions WHERE transaction_id = $1")
+        .bind(0, transactionId)
+        .fetch()
+        .rowsUpdated()
+        .map(rows -> rows > 0);
+  }
+
+  private static User toUser(final Readable row) {
+    final User user = new User();
+    user.setUserId(row.get("user_id", UUID.class));
+    user.setUsername(row.get("username", String.class));
+    user.setEmail(row.get("email", String.class));
+    final BigDecimal budget = row.get("budget", BigDecimal.class);
+    user.setBudget(budget == null ? 0.0 : budget.doubleValue());
+    return user;
+  }
+
+  private static Transaction toTransaction(final Readable row) {
+    final Transaction transaction = new Transaction();
+    transaction.setTransactionId(row.get("transaction_id", UUID.class));
+    transaction.setUserId(row.get("user_id", UUID.class));
+    transaction.setDescription(row.get("description", String.class));
+    transaction.setAmount(row.get("amount", BigDecimal.class).doubleValue());
+    transaction.setCategory(row.get("category", String.class));
+    transaction.setTimestamp(row.get("created_time", LocalDateTime.class));
+    transaction.setDate(row.get("created_date", LocalDate.class));
+    return transaction;
+  }
+
+  /**
+   * A user's total spending in one category.
+   *
+   * @param category The category name.
+   * @param total The amount spent.
+   */
+  public record CategoryTotal(String category, double total) {
+  }
+}
@@ -0,0 +1,299 @@
+package dev.ase.teamproject.repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Keeps the most recent statements that took longer than a threshold, with the
+ * plan the database chose for a sample of them.
+ *
+ * <p>For a sampled {@code SELECT}, {@code EXPLAIN (ANALYZE, BUFFERS)} is run on
+ * a background thread with the same text and parameters, so the plan is the one
+ * the database picks for those values at that time. {@code ANALYZE} executes the
+ * statement, so other statements are never explained: running an insert, update
+ * or delete again would take its locks and its share of the pool a second time.
+ * The {@code SELECT} runs in a transaction that is always rolled back. One plan
+ * is captured at a time and one more may wait; a sampled statement that arrives
+ * when both places are taken keeps its entry without a plan, so a burst of slow
+ * statements does not add a burst of load.
+ *
+ * <p>Entries record the parameters' types and array sizes, not their values.
+ */
+public final class SlowQueryLog implements AutoCloseable {
+  private static final Logger LOGGER = Logger.getLogger(SlowQueryLog.class.getName());
+
+  /** The plan of an entry that was not sampled. */
+  public static final String NOT_SAMPLED = "(not sampled)";
+
+  /** The plan of an entry whose plan is being captured. */
+  public static final String PENDING = "(pending)";
+
+  /** The plan of an entry whose statement is not a {@code SELECT}. */
+  public static final String NOT_SELECT = "(not explained: not a SELECT)";
+
+  /** The plan of an entry that was sampled while another plan was being captured. */
+  public static final String BUSY = "(skipped: another plan was being captured)";
+
+  private final DataSource dataSource;
+  private final long thresholdNanos;
+  private final double sampleRate;
+  private final AtomicReferenceArray<Entry> ring;
+  private final AtomicLong next = new AtomicLong();
+  private final ThreadPoolExecutor explainer = new ThreadPoolExecutor(1, 1, 0,
+      TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), runnable -> {
+        final Thread thread = new Thread(runnable, "slow-query-explain");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  /**
+   * Constructs a new {@code SlowQueryLog}.
+   *
+   * @param dataSource The data source the plans are captured on.
+   * @param thresholdMillis How long a statement must take to be kept.
+   * @param sampleRate The fraction of kept statements whose plan is captured.
+   * @param capacity How many statements are kept.
+   */
+  public SlowQueryLog(final DataSource dataSource, final long thresholdMillis,
+                      final double sampleRate, final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be at least 1");
+    }
+    this.dataSource = dataSource;
+    this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    this.sampleRate = sampleRate;
+    this.ring = new AtomicReferenceArray<>(capacity);
+  }
+
+  /**
+   * Returns whether a statement took long enough to be kept.
+   *
+   * @param nanos How long it took.
+   * @return {@code true} if it should be passed to {@link #slow}.
+   */
+  boolean isSlow(final long nanos) {
+    return nanos >= thresholdNanos;
+  }
+
+  /**
+   * Keeps a slow statement and, if it is sampled, captures its plan. The caller's
+   * connection must still be open, since array parameters are read from it.
+   */
+  void slow(final String query, final String sql, final Map<Integer, Object> parameters,
+            final long nanos, final long rows) {
+    final Object[] values = new Object[parameters.isEmpty() ? 0
+        : parameters.keySet().stream().mapToInt(Integer::intValue).max().getAsInt()];
+    final StringJoiner shape = new StringJoiner(", ", "[", "]");
+    for (int i = 0; i < values.length; i++) {
+      final Object value = parameters.get(i + 1);
+      values[i] = copied(value);
+      shape.add(shapeOf(values[i]));
+    }
+    final boolean select = isSelect(sql);
+    final boolean sampled = select && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    final Entry entry = new Entry(query, sql, shape.toString(),
+        TimeUnit.NANOSECONDS.toMicros(nanos), rows,
+        sampled ? PENDING : select ? NOT_SAMPLED : NOT_SELECT);
+    ring.set((int) (next.getAndIncrement() % ring.length()), entry);
+    if (sampled) {
+      try {
+        explainer.execute(() -> entry.plan = explain(sql, values));
+      } catch (RejectedExecutionException e) {
+        entry.plan = BUSY;
+      }
+    }
+  }
+
+  /**
+   * Returns the kept statements, newest first.
+   *
+   * @return The entries.
+   */
+  public List<Entry> entries() {
+    final List<Entry> entries = new ArrayList<>();
+    final long last = next.get();
+    for (long i = last - 1; i >= 0 && i >= last - ring.length(); i--) {
+      final Entry entry = ring.get((int) (i % ring.length()));
+      if (entry != null) {
+        entries.add(entry);
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Stops capturing plans.
+   */
+  @Override
+  public void close() {
+    explainer.shutdownNow();
+  }
+
+  private String explain(final String sql, final Object[] values) {
+    try (Connection connection = dataSource.getConnection()) {
+      final boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try (PreparedStatement statement =
+               connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+        for (int i = 0; i < values.length; i++) {
+          statement.setObject(i + 1, values[i] instanceof ArrayValue array
+              ? connection.createArrayOf(array.type(), array.elements()) : values[i]);
+        }
+        final StringBuilder plan = new StringBuilder();
+        try (ResultSet results = statement.executeQuery()) {
+          while (results.next()) {
+            plan.append(results.getString(1)).append('\n');
+          }
+        }
+        return plan.toString();
+      } finally {
+        connection.rollback();
+        connection.setAutoCommit(autoCommit);
+      }
+    } catch (SQLException | RuntimeException e) {
+      if (LOGGER.isLoggable(Level.FINE)) {
+        LOGGER.fine("Could not explain slow statement: " + e.getMessage());
+      }
+      return "(EXPLAIN failed: " + e.getMessage() + ")";
+    }
+  }
+
+  private static boolean isSelect(final String sql) {
+    final String text = sql.stripLeading();
+    return text.regionMatches(true, 0, "SELECT", 0, 6)
+        && (text.length() == 6 || !Character.isLetterOrDigit(text.charAt(6)));
+  }
+
+  private static Object copied(final Object value) {
+    if (!(value instanceof Array array)) {
+      return value;
+    }
+    try {
+      return new ArrayValue(array.getBaseTypeName(), (Object[]) array.getArray());
+    } catch (SQLException | ClassCastException e) {
+      return null;
+    }
+  }
+
+  private static String shapeOf(final Object value) {
+    if (value == null) {
+      return "null";
+    }
+    if (value instanceof ArrayValue array) {
+      return array.type() + "[" + array.elements().length + "]";
+    }
+    return value.getClass().getSimpleName();
+  }
+
+  /**
+   * An array parameter, copied out of the connection it was created on.
+   */
+  private record ArrayValue(String type, Object[] elements) {
+  }
+
+  /**
+   * One slow statement.
+   */
+  public static final class Entry {
+    private final Instant at = Instant.now();
+    private final String query;
+    private final String sql;
+    private final String parameters;
+    private final long durationMicros;
+    private final long rows;
+    private volatile String plan;
+
+    Entry(final String query, final String sql, final String parameters,
+          final long durationMicros, final long rows, final String plan) {
+      this.query = query;
+      this.sql = sql;
+      this.parameters = parameters;
+      this.durationMicros = durationMicros;
+      this.rows = rows;
+      this.plan = plan;
+    }
+
+    /**
+     * Returns when the statement finished.
+     *
+     * @return The time it was kept.
+     */
+    public Instant getAt() {
+      return at;
+    }
+
+    /**
+     * Returns the name of the query, as in the SQL metrics.
+     *
+     * @return The name of the method that ran it.
+     */
+    public String getQuery() {
+      return query;
+    }
+
+    /**
+     * Returns the statement's text.
+     *
+     * @return The SQL.
+     */
+    public String getSql() {
+      return sql;
+    }
+
+    /**
+     * Returns the types of the parameters, with the sizes of arrays.
+     *
+     * @return For example {@code [UUID, LocalDate]} or {@code [uuid[40]]}.
+     */
+    public String getParameters() {
+      return parameters;
+    }
+
+    /**
+     * Returns how long the statement took.
+     *
+     * @return The duration in microseconds.
+     */
+    public long getDurationMicros() {
+      return durationMicros;
+    }
+
+    /**
+     * Returns how many rows the statement read or changed.
+     *
+     * @return The number of rows.
+     */
+    public long getRows() {
+      return rows;
+    }
+
+    /**
+     * Returns the plan, or why there is none.
+     *
+     * @return The output of {@code EXPLAIN (ANALYZE, BUFFERS)}, or one of
+     *         {@link #NOT_SAMPLED}, {@link #NOT_SELECT}, {@link #PENDING},
+   *         {@link #BUSY} or a failure.
+     */
+    public String getPlan() {
+      return plan;
+    }
+  }
+}
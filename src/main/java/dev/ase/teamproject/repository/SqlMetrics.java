@@ -0,0 +1,222 @@
+package dev.ase.teamproject.repository;
+
+import dev.ase.teamproject.util.LatencyHistogram;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * The time and rows of the SQL statements run through a {@link TimedDataSource},
+ * per named query, and the time spent waiting for connections.
+ *
+ * <p>A query is named after the method that ran it, such as
+ * {@code findTransactionsByUser}: the first time a statement's text is seen, the
+ * stack is walked for the first caller outside the JDBC and Spring layers, and
+ * the name is kept for that text from then on. Statements whose text is built at
+ * run time would each be a new text, so past {@value #MAX_STATEMENTS} texts the
+ * name is looked up every time but no longer kept.
+ *
+ * <p>With summaries enabled, the statements run on a request's thread are also
+ * added up in a {@link Summary} kept as a request attribute, for the
+ * {@code X-Sql-Summary} response header.
+ */
+public final class SqlMetrics {
+
+  /** The request attribute holding the request's {@link Summary}. */
+  public static final String SUMMARY_ATTRIBUTE = SqlMetrics.class.getName() + ".summary";
+
+  private static final int MAX_STATEMENTS = 512;
+  private static final String[] SKIPPED_PREFIXES = {
+      SqlMetrics.class.getName(), TimedConnection.class.getName(), "org.springframework.",
+      "java.", "jdk.", "com.sun."};
+  private static final StackWalker STACK = StackWalker.getInstance();
+
+  private final ConcurrentHashMap<String, Query> byStatement = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Query> byName = new ConcurrentHashMap<>();
+  private final LatencyHistogram acquire = new LatencyHistogram();
+  private final boolean summaries;
+
+  /**
+   * Constructs a new {@code SqlMetrics}.
+   *
+   * @param summaries Whether to add up each request's statements in its
+   *                  {@link Summary}.
+   */
+  public SqlMetrics(final boolean summaries) {
+    this.summaries = summaries;
+  }
+
+  /**
+   * Returns every query seen so far, ordered by name.
+   *
+   * @return The queries and their measurements.
+   */
+  public List<Query> queries() {
+    final List<Query> queries = new ArrayList<>(byName.values());
+    queries.sort(Comparator.comparing(Query::getName));
+    return queries;
+  }
+
+  /**
+   * Returns how long callers waited for connections.
+   *
+   * @return The histogram of connection waits.
+   */
+  public LatencyHistogram acquireWait() {
+    return acquire;
+  }
+
+  /**
+   * Returns the current request's summary, if summaries are enabled and the
+   * caller is on a request's thread.
+   *
+   * @return The summary, created on first use.
+   */
+  public Optional<Summary> summary() {
+    if (!summaries) {
+      return Optional.empty();
+    }
+    final RequestAttributes request = RequestContextHolder.getRequestAttributes();
+    if (request == null) {
+      return Optional.empty();
+    }
+    Summary summary = (Summary) request.getAttribute(SUMMARY_ATTRIBUTE,
+        RequestAttributes.SCOPE_REQUEST);
+    if (summary == null) {
+      summary = new Summary();
+      request.setAttribute(SUMMARY_ATTRIBUTE, summary, RequestAttributes.SCOPE_REQUEST);
+    }
+    return Optional.of(summary);
+  }
+
+  /**
+   * Returns the query a statement's text belongs to.
+   */
+  Query query(final String sql) {
+    final Query known = byStatement.get(sql);
+    if (known != null) {
+      return known;
+    }
+    final Query query = byName.computeIfAbsent(callerName(), Query::new);
+    if (byStatement.size() < MAX_STATEMENTS) {
+      byStatement.putIfAbsent(sql, query);
+    }
+    return query;
+  }
+
+  void acquired(final long nanos) {
+    acquire.record(nanos);
+    if (summaries) {
+      summary().ifPresent(summary -> summary.acquireNanos += nanos);
+    }
+  }
+
+  void executed(final Query query, final long nanos, final long rows) {
+    query.latency.record(nanos);
+    query.rows.add(rows);
+    if (summaries) {
+      summary().ifPresent(summary -> {
+        summary.statements++;
+        summary.nanos += nanos;
+        summary.rows += rows;
+      });
+    }
+  }
+
+  private static String callerName() {
+    return STACK.walk(frames -> frames
+        .filter(frame -> !skipped(frame.getClassName()))
+        .findFirst()
+        .map(StackWalker.StackFrame::getMethodName)
+        .orElse("unknown"));
+  }
+
+  private static boolean skipped(final String className) {
+    for (final String prefix : SKIPPED_PREFIXES) {
+      if (className.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The statements run by one method: their durations and the rows they read or
+   * changed.
+   */
+  public static final class Query {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+
+    Query(final String name) {
+      this.name = name;
+    }
+
+    /**
+     * Returns the query's name.
+     *
+     * @return The name of the method that runs it.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the statements' durations, from execution until the statement is
+     * closed, which includes reading their rows.
+     *
+     * @return The histogram of statement durations.
+     */
+    public LatencyHistogram getLatency() {
+      return latency;
+    }
+
+    /**
+     * Returns how many rows the statements read or changed.
+     *
+     * @return The total number of rows.
+     */
+    public long getRows() {
+      return rows.sum();
+    }
+  }
+
+  /**
+   * The statements run for one request, added up. Only the request's own thread
+   * updates it.
+   */
+  public static final class Summary {
+    private int statements;
+    private long nanos;
+    private long rows;
+    private long acquireNanos;
+
+    /**
+     * Returns how many statements ran.
+     *
+     * @return The number of statements.
+     */
+    public int getStatements() {
+      return statements;
+    }
+
+    /**
+     * Returns the summary as a header value, such as
+     * {@code statements=3; time=2.41ms; rows=57; acquire=0.12ms}.
+     *
+     * @return The formatted summary.
+     */
+    @Override
+    public String toString() {
+      return String.format(Locale.ROOT, "statements=%d; time=%.2fms; rows=%d; acquire=%.2fms",
+          statements, nanos / 1e6, rows, acquireNanos / 1e6);
+    }
+  }
+}
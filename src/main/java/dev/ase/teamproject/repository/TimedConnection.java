@@ -0,0 +1,210 @@
+package dev.ase.teamproject.repository;
+
+import dev.ase.teamproject.util.LedgerEvents;
+import dev.ase.teamproject.util.Tracer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wraps a connection so that its statements are timed and their rows counted
+ * into {@link SqlMetrics}.
+ *
+ * <p>A statement is timed from its first execution until it is closed, so the
+ * time includes reading its results, and its rows are those read from its
+ * result sets plus those its updates changed. In a traced request the statement
+ * is also a span, and during a flight recording it is a
+ * {@link LedgerEvents.SqlStatement} event. With a {@link SlowQueryLog}, the
+ * parameters a statement is given are kept until it closes, so that a slow one
+ * can be explained with them. Everything else is passed through to the wrapped
+ * objects.
+ */
+final class TimedConnection implements InvocationHandler {
+  private final Connection target;
+  private final SqlMetrics metrics;
+  private final SlowQueryLog slowQueries;
+
+  private TimedConnection(final Connection target, final SqlMetrics metrics,
+                          final SlowQueryLog slowQueries) {
+    this.target = target;
+    this.metrics = metrics;
+    this.slowQueries = slowQueries;
+  }
+
+  /**
+   * Returns a connection that forwards to {@code target} and times its
+   * statements.
+   *
+   * @param target The connection to wrap.
+   * @param metrics Where the statements are recorded.
+   * @param slowQueries Where slow statements are kept, or {@code null}.
+   * @return The wrapping connection.
+   */
+  static Connection wrap(final Connection target, final SqlMetrics metrics,
+                         final SlowQueryLog slowQueries) {
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[] {Connection.class}, new TimedConnection(target, metrics, slowQueries));
+  }
+
+  private Object wrap(final Class<? extends Statement> type, final Object statement,
+                      final String sql) {
+    return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {type},
+        new TimedStatement(statement, sql));
+  }
+
+  @Override
+  public Object invoke(final Object proxy, final Method method, final Object[] args)
+      throws Throwable {
+    switch (method.getName()) {
+      case "equals":
+        return proxy == args[0];
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "prepareStatement":
+        return wrap(PreparedStatement.class, forward(target, method, args),
+            (String) args[0]);
+      case "createStatement":
+        return wrap(Statement.class, forward(target, method, args), null);
+      default:
+        return forward(target, method, args);
+    }
+  }
+
+  private static Object forward(final Object target, final Method method, final Object[] args)
+      throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getTargetException();
+    }
+  }
+
+  /**
+   * Times one statement. A plain statement gets its query from the text it
+   * executes.
+   */
+  private final class TimedStatement implements InvocationHandler {
+    private final Object target;
+    private final Map<Integer, Object> parameters;
+    private String sql;
+    private SqlMetrics.Query query;
+    private long start;
+    private long rows;
+    private LedgerEvents.SqlStatement event;
+
+    TimedStatement(final Object target, final String sql) {
+      this.target = target;
+      this.sql = sql;
+      this.query = sql == null ? null : metrics.query(sql);
+      this.parameters = slowQueries == null || sql == null ? null : new HashMap<>();
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args)
+        throws Throwable {
+      final String name = method.getName();
+      switch (name) {
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "getResultSet":
+          return results(forward(target, method, args));
+        case "close":
+          try {
+            return forward(target, method, args);
+          } finally {
+            if (start != 0 && query != null) {
+              final long end = System.nanoTime();
+              metrics.executed(query, end - start, rows);
+              if (Tracer.isTracing()) {
+                Tracer.record("SQL " + query.getName(), start, end);
+              }
+              LedgerEvents.sqlFinished(event, query.getName(), rows);
+              event = null;
+              if (slowQueries != null && slowQueries.isSlow(end - start)) {
+                slowQueries.slow(query.getName(), sql,
+                    parameters == null ? Map.of() : parameters, end - start, rows);
+              }
+              start = 0;
+            }
+          }
+        case "clearParameters":
+          if (parameters != null) {
+            parameters.clear();
+          }
+          return forward(target, method, args);
+        default:
+          if (parameters != null && name.startsWith("set") && args != null
+              && args.length >= 2 && args[0] instanceof Integer) {
+            parameters.put((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+          }
+          if (!name.startsWith("execute")) {
+            return forward(target, method, args);
+          }
+          if (query == null && args != null && args.length > 0 && args[0] instanceof String) {
+            sql = (String) args[0];
+            query = metrics.query(sql);
+          }
+          if (start == 0) {
+            start = System.nanoTime();
+            event = LedgerEvents.sqlStarted();
+          }
+          final Object result = forward(target, method, args);
+          if (result instanceof Integer || result instanceof Long) {
+            rows += ((Number) result).longValue();
+          } else if (result instanceof int[]) {
+            for (final int count : (int[]) result) {
+              rows += Math.max(count, 0);
+            }
+          }
+          return results(result);
+      }
+    }
+
+    private Object results(final Object result) {
+      if (!(result instanceof ResultSet)) {
+        return result;
+      }
+      return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+          new Class<?>[] {ResultSet.class}, new CountedResults(result));
+    }
+
+    /**
+     * Counts the rows read from one of the statement's result sets.
+     */
+    private final class CountedResults implements InvocationHandler {
+      private final Object target;
+
+      CountedResults(final Object target) {
+        this.target = target;
+      }
+
+      @Override
+      public Object invoke(final Object proxy, final Method method, final Object[] args)
+          throws Throwable {
+        switch (method.getName()) {
+          case "equals":
+            return proxy == args[0];
+          case "hashCode":
+            return System.identityHashCode(proxy);
+          case "next":
+            final Object next = forward(target, method, args);
+            if (Boolean.TRUE.equals(next)) {
+              rows++;
+            }
+            return next;
+          default:
+            return forward(target, method, args);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package dev.ase.teamproject.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.springframework.core.InfrastructureProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * This class records into {@link SqlMetrics} how long each connection takes to
+ * get and, through {@link TimedConnection}, how long each statement on it takes
+ * and how many rows it reads or changes, and passes statements over a threshold
+ * to a {@link SlowQueryLog}.
+ *
+ * <p>It is meant to be given to a {@code JdbcTemplate} rather than be a bean
+ * itself, so that it wraps whatever limits the application's data source has and
+ * the wait it measures includes theirs. It is an {@link InfrastructureProxy}, so
+ * transactions bound to the wrapped data source are still found through it.
+ */
+public class TimedDataSource extends DelegatingDataSource implements InfrastructureProxy {
+
+  private final SqlMetrics metrics;
+  private final SlowQueryLog slowQueries;
+
+  /**
+   * Constructs a new {@code TimedDataSource}.
+   *
+   * @param target The data source to take connections from.
+   * @param metrics Where the connection waits and statements are recorded.
+   * @param slowQueries Where statements over its threshold are kept, or
+   *                    {@code null}.
+   */
+  public TimedDataSource(final DataSource target, final SqlMetrics metrics,
+                         final SlowQueryLog slowQueries) {
+    super(target);
+    this.metrics = metrics;
+    this.slowQueries = slowQueries;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    final long start = System.nanoTime();
+    final Connection connection = super.getConnection();
+    metrics.acquired(System.nanoTime() - start);
+    return TimedConnection.wrap(connection, metrics, slowQueries);
+  }
+
+  @Override
+  public Connection getConnection(final String username, final String password)
+      throws SQLException {
+    final long start = System.nanoTime();
+    final Connection connection = super.getConnection(username, password);
+    metrics.acquired(System.nanoTime() - start);
+    return TimedConnection.wrap(connection, metrics, slowQueries);
+  }
+
+  @Override
+  public Object getWrappedObject() {
+    return obtainTargetDataSource();
+  }
+}
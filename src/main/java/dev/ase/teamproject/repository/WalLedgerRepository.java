@@ -0,0 +1,218 @@
+package dev.ase.teamproject.repository;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+/**
+ * This class implements the {@link LedgerRepository} as an embedded, file-backed
+ * store for single-node deployments. It is selected with {@code ledger.store=wal}.
+ *
+ * <p>Reads and writes are served by the in-memory indexes of
+ * {@link InMemoryLedgerRepository}. Every mutation is also appended to a
+ * {@link WriteAheadLog}, and the call returns only once its record is durable;
+ * concurrent writers share a single {@code fsync} through group commit.
+ *
+ * <p>Once the current log segment grows past {@code ledger.wal.snapshot-bytes},
+ * a background thread rolls the log and writes a {@link LedgerSnapshot} while
+ * writes continue, then deletes the segments the snapshot covers. On startup the
+ * snapshot is memory-mapped and loaded and only the log written after it is
+ * replayed. The time taken is logged and available from {@link #getRecoveryMillis()}.
+ *
+ * <p>All files live in the directory set by {@code ledger.wal.dir}. Setting
+ * {@code ledger.wal.fsync=false} skips forcing writes to the device, trading
+ * durability on power loss for latency (useful for tests).
+ */
+@Repository
+@ConditionalOnProperty(name = "ledger.store", havingValue = "wal")
+public class WalLedgerRepository extends InMemoryLedgerRepository implements Closeable {
+  private static final Logger LOGGER = Logger.getLogger(WalLedgerRepository.class.getName());
+
+  private static final String SNAPSHOT_FILE = "snapshot.bin";
+  private static final long DEFAULT_SNAPSHOT_BYTES = 64L << 20;
+
+  private final WriteAheadLog log;
+  private final Path snapshotFile;
+  private final long snapshotBytes;
+  private final long recoveryMillis;
+  private final Object checkpointLock = new Object();
+  private final AtomicBoolean checkpointScheduled = new AtomicBoolean();
+  private final ExecutorService checkpointer = Executors.newSingleThreadExecutor(runnable -> {
+    final Thread thread = new Thread(runnable, "ledger-snapshot");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Opens the store in the given directory with the default snapshot threshold.
+   *
+   * @param directory The directory holding the log and snapshot; created if missing.
+   * @param fsync Whether to force each group commit to the device.
+   * @throws IOException If the files cannot be opened or read.
+   */
+  public WalLedgerRepository(final Path directory, final boolean fsync) throws IOException {
+    this(directory, fsync, DEFAULT_SNAPSHOT_BYTES);
+  }
+
+  /**
+   * Opens the store in the given directory, loading the latest snapshot and
+   * replaying the log written after it.
+   *
+   * @param directory The directory holding the log and snapshot; created if missing.
+   * @param fsync Whether to force each group commit to the device.
+   * @param snapshotBytes The log segment size that triggers a background snapshot.
+   * @throws IOException If the files cannot be opened or read.
+   */
+  @Autowired
+  public WalLedgerRepository(@Value("${ledger.wal.dir:data/ledger}") final Path directory,
+                             @Value("${ledger.wal.fsync:true}") final boolean fsync,
+                             @Value("${ledger.wal.snapshot-bytes:67108864}")
+                             final long snapshotBytes) throws IOException {
+    final long start = System.nanoTime();
+    this.log = WriteAheadLog.open(directory, fsync);
+    this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+    this.snapshotBytes = snapshotBytes;
+
+    LedgerSnapshot.Summary snapshot = new LedgerSnapshot.Summary(0, 0, 0);
+    if (Files.exists(snapshotFile)) {
+      snapshot = LedgerSnapshot.load(snapshotFile, this);
+    }
+    final long loaded = System.nanoTime();
+    final long records = log.replay(this, snapshot.startGeneration());
+    attach(log);
+    final long end = System.nanoTime();
+
+    this.recoveryMillis = TimeUnit.NANOSECONDS.toMillis(end - start);
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("Ledger recovered in " + recoveryMillis + " ms: snapshot with "
+          + snapshot.users() + " users and " + snapshot.transactions() + " transactions loaded in "
+          + TimeUnit.NANOSECONDS.toMillis(loaded - start) + " ms, " + records
+          + " log records replayed in " + TimeUnit.NANOSECONDS.toMillis(end - loaded) + " ms");
+    }
+  }
+
+  /**
+   * Returns how long opening the store took, from the start of snapshot loading
+   * to the end of log replay.
+   *
+   * @return The recovery time in milliseconds.
+   */
+  public long getRecoveryMillis() {
+    return recoveryMillis;
+  }
+
+  @Override
+  public User insertUser(final User user) {
+    final User inserted = super.insertUser(user);
+    committed();
+    return inserted;
+  }
+
+  @Override
+  public boolean deleteUser(final UUID userId) {
+    return synced(super.deleteUser(userId));
+  }
+
+  @Override
+  public boolean updateBudget(final UUID userId, final double budget) {
+    return synced(super.updateBudget(userId, budget));
+  }
+
+  @Override
+  public Transaction insertTransaction(final Transaction transaction) {
+    final Transaction inserted = super.insertTransaction(transaction);
+    committed();
+    return inserted;
+  }
+
+  @Override
+  public boolean updateTransaction(final UUID transactionId, final Transaction values) {
+    return synced(super.updateTransaction(transactionId, values));
+  }
+
+  @Override
+  public boolean deleteTransaction(final UUID transactionId) {
+    return synced(super.deleteTransaction(transactionId));
+  }
+
+  /**
+   * Writes a snapshot now and deletes the log segments it covers. Writes to the
+   * store continue while the snapshot is taken.
+   *
+   * @throws IOException If the log cannot be rolled or the snapshot written.
+   */
+  public void checkpoint() throws IOException {
+    synchronized (checkpointLock) {
+      final long start = System.nanoTime();
+      final long generation = log.roll();
+      final LedgerSnapshot.Summary summary = LedgerSnapshot.write(this, snapshotFile, generation);
+      log.deleteBefore(generation);
+      if (LOGGER.isLoggable(Level.INFO)) {
+        LOGGER.info("Ledger snapshot of " + summary.users() + " users and "
+            + summary.transactions() + " transactions written in "
+            + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+      }
+    }
+  }
+
+  /**
+   * Waits for a running snapshot, flushes outstanding records and closes the log.
+   *
+   * @throws IOException If the final flush or close fails.
+   */
+  @Override
+  public void close() throws IOException {
+    checkpointer.shutdown();
+    try {
+      checkpointer.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    log.close();
+  }
+
+  private boolean synced(final boolean changed) {
+    if (changed) {
+      committed();
+    }
+    return changed;
+  }
+
+  /**
+   * Waits for durability, then schedules a snapshot if the log has grown too long.
+   */
+  private void committed() {
+    log.sync();
+    if (log.segmentSize() >= snapshotBytes && checkpointScheduled.compareAndSet(false, true)) {
+      try {
+        checkpointer.execute(() -> {
+          try {
+            checkpoint();
+          } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Ledger snapshot failed; the log is kept", e);
+          } finally {
+            checkpointScheduled.set(false);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        // The store is closing
+        checkpointScheduled.set(false);
+      }
+    }
+  }
+}
@@ -0,0 +1,443 @@
+package dev.ase.teamproject.repository;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * An append-only log of ledger mutations with group commit.
+ *
+ * <p>The log is a sequence of numbered segment files ({@code wal-<generation>.log})
+ * in one directory. Records are only ever appended to the newest segment;
+ * {@link #roll()} starts a new one so that older segments can be deleted once a
+ * snapshot covers them.
+ *
+ * <p>Each record is framed as {@code [length][crc32][type][payload]}, where the
+ * length and checksum cover the type byte and payload. Records are appended to an
+ * in-memory batch while the mutating thread holds its user's lock; callers then
+ * invoke {@link #sync()} after releasing the lock. The first thread to arrive
+ * becomes the leader, writes every record appended so far and forces the file
+ * once, and threads that arrive while a force is in flight find their records
+ * already durable when they get their turn. One {@code fsync} therefore covers
+ * all concurrent writers.
+ *
+ * <p>On replay, reading a segment stops at the first frame that is incomplete or
+ * fails its checksum (a write torn by a crash) and the segment is truncated there.
+ */
+final class WriteAheadLog implements LedgerJournal, Closeable {
+  private static final Logger LOGGER = Logger.getLogger(WriteAheadLog.class.getName());
+
+  private static final String SEGMENT_PREFIX = "wal-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final int HEADER_BYTES = 8;
+  private static final int MAX_RECORD_BYTES = 1 << 20;
+
+  private static final byte USER_PUT = 1;
+  private static final byte USER_DELETE = 2;
+  private static final byte BUDGET_SET = 3;
+  private static final byte TX_PUT = 4;
+  private static final byte TX_UPDATE = 5;
+  private static final byte TX_DELETE = 6;
+
+  private final Path directory;
+  private final boolean fsync;
+
+  private final Object appendLock = new Object();
+  private final Object flushLock = new Object();
+  private ByteArrayOutputStream pending = new ByteArrayOutputStream(4096);
+  private long appended;
+  private long segmentStart;
+  private volatile long durable;
+  private volatile IOException failure;
+
+  // Guarded by flushLock
+  private FileChannel channel;
+  private long generation;
+
+  private WriteAheadLog(final Path directory, final boolean fsync) {
+    this.directory = directory;
+    this.fsync = fsync;
+  }
+
+  /**
+   * Opens the log in the given directory, creating the directory if needed.
+   *
+   * @param directory The directory holding the segment files.
+   * @param fsync Whether {@link #sync()} forces written records to the device.
+   * @return The opened log; {@link #replay} must be called before appending.
+   * @throws IOException If the directory cannot be created.
+   */
+  static WriteAheadLog open(final Path directory, final boolean fsync) throws IOException {
+    Files.createDirectories(directory);
+    return new WriteAheadLog(directory, fsync);
+  }
+
+  /**
+   * Applies every intact record in the segments numbered {@code fromGeneration}
+   * and above to the given store, deletes older segments, truncates any torn tail
+   * and opens the newest segment for appending.
+   *
+   * @param store The store to rebuild.
+   * @param fromGeneration The first segment to replay.
+   * @return The number of records applied.
+   * @throws IOException If a segment cannot be read.
+   */
+  long replay(final InMemoryLedgerRepository store, final long fromGeneration)
+      throws IOException {
+    long records = 0;
+    long newest = fromGeneration;
+    for (final long segment : segments()) {
+      final Path file = segmentPath(segment);
+      if (segment < fromGeneration) {
+        Files.delete(file);
+        continue;
+      }
+      try (FileChannel in = FileChannel.open(file,
+          StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        records += replaySegment(store, file, in);
+      }
+      newest = segment;
+    }
+    synchronized (flushLock) {
+      openSegment(newest);
+    }
+    return records;
+  }
+
+  /**
+   * Closes the current segment and starts appending to a new one. Every record
+   * appended before the call is durable in the old segment when this returns.
+   *
+   * @return The generation number of the new segment.
+   * @throws IOException If the old segment cannot be flushed or the new one created.
+   */
+  long roll() throws IOException {
+    synchronized (flushLock) {
+      synchronized (appendLock) {
+        writePending();
+        channel.close();
+        openSegment(generation + 1);
+        return generation;
+      }
+    }
+  }
+
+  /**
+   * Deletes the segments numbered below the given generation.
+   *
+   * @param oldestNeeded The oldest generation that must be kept.
+   * @throws IOException If a segment cannot be deleted.
+   */
+  void deleteBefore(final long oldestNeeded) throws IOException {
+    for (final long segment : segments()) {
+      if (segment < oldestNeeded) {
+        Files.deleteIfExists(segmentPath(segment));
+      }
+    }
+  }
+
+  /**
+   * Blocks until every record appended so far is written and, if enabled, forced
+   * to the device.
+   *
+   * @throws DataAccessResourceFailureException If the log cannot be written.
+   */
+  void sync() {
+    final long target;
+    synchronized (appendLock) {
+      target = appended;
+    }
+    if (durable >= target) {
+      return;
+    }
+    synchronized (flushLock) {
+      checkHealthy();
+      // A leader that ran while we waited may already have covered our records
+      if (durable >= target) {
+        return;
+      }
+      final byte[] batch;
+      final long end;
+      synchronized (appendLock) {
+        batch = pending.toByteArray();
+        pending = new ByteArrayOutputStream(Math.max(4096, batch.length));
+        end = appended;
+      }
+      write(batch);
+      durable = end;
+    }
+  }
+
+  /**
+   * Returns the number of bytes in the current segment, including records not
+   * yet synced.
+   *
+   * @return The size of the current segment.
+   */
+  long segmentSize() {
+    synchronized (appendLock) {
+      return appended - segmentStart;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (flushLock) {
+      if (channel == null) {
+        return;
+      }
+      try {
+        if (failure == null) {
+          sync();
+        }
+      } finally {
+        channel.close();
+        channel = null;
+      }
+    }
+  }
+
+  // ---------------------------------------------------------------------------
+  // LedgerJournal
+  // ---------------------------------------------------------------------------
+
+  @Override
+  public void userInserted(final User user) {
+    append(USER_PUT, out -> LedgerCodec.writeUser(out, user));
+  }
+
+  @Override
+  public void userDeleted(final UUID userId) {
+    append(USER_DELETE, out -> LedgerCodec.writeUuid(out, userId));
+  }
+
+  @Override
+  public void budgetUpdated(final UUID userId, final double budget) {
+    append(BUDGET_SET, out -> {
+      LedgerCodec.writeUuid(out, userId);
+      out.writeDouble(budget);
+    });
+  }
+
+  @Override
+  public void transactionInserted(final Transaction transaction) {
+    append(TX_PUT, out -> LedgerCodec.writeTransaction(out, transaction));
+  }
+
+  @Override
+  public void transactionUpdated(final Transaction transaction) {
+    append(TX_UPDATE, out -> {
+      LedgerCodec.writeUuid(out, transaction.getTransactionId());
+      LedgerCodec.writeString(out, transaction.getDescription());
+      out.writeDouble(transaction.getAmount());
+      LedgerCodec.writeString(out, transaction.getCategory());
+    });
+  }
+
+  @Override
+  public void transactionDeleted(final UUID transactionId) {
+    append(TX_DELETE, out -> LedgerCodec.writeUuid(out, transactionId));
+  }
+
+  // ---------------------------------------------------------------------------
+  // Helpers
+  // ---------------------------------------------------------------------------
+
+  private void append(final byte type, final RecordWriter writer) {
+    final ByteArrayOutputStream body = new ByteArrayOutputStream(128);
+    try {
+      final DataOutputStream out = new DataOutputStream(body);
+      out.writeByte(type);
+      writer.write(out);
+    } catch (IOException e) {
+      // Writing to a byte array does not fail
+      throw new UncheckedIOException(e);
+    }
+    final byte[] bytes = body.toByteArray();
+    final CRC32 crc = new CRC32();
+    crc.update(bytes);
+    final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+        .putInt(bytes.length)
+        .putInt((int) crc.getValue());
+    synchronized (appendLock) {
+      pending.write(header.array(), 0, HEADER_BYTES);
+      pending.write(bytes, 0, bytes.length);
+      appended += HEADER_BYTES + bytes.length;
+    }
+  }
+
+  private long replaySegment(final InMemoryLedgerRepository store, final Path file,
+                             final FileChannel in) throws IOException {
+    long valid = 0;
+    long records = 0;
+    final DataInputStream stream = new DataInputStream(
+        new BufferedInputStream(Channels.newInputStream(in), 1 << 16));
+    final CRC32 crc = new CRC32();
+    try {
+      while (true) {
+        final int length = stream.readInt();
+        final int checksum = stream.readInt();
+        if (length <= 0 || length > MAX_RECORD_BYTES) {
+          break;
+        }
+        final byte[] body = new byte[length];
+        stream.readFully(body);
+        crc.reset();
+        crc.update(body);
+        if ((int) crc.getValue() != checksum) {
+          break;
+        }
+        apply(store, body);
+        valid += HEADER_BYTES + length;
+        records++;
+      }
+    } catch (EOFException e) {
+      // End of segment, possibly in the middle of a torn record
+    }
+    final long size = in.size();
+    if (valid < size) {
+      if (LOGGER.isLoggable(Level.WARNING)) {
+        LOGGER.warning("Truncating " + (size - valid) + " bytes of torn records from " + file);
+      }
+      in.truncate(valid);
+      in.force(true);
+    }
+    return records;
+  }
+
+  /**
+   * Opens a segment for appending at its end. Caller holds {@code flushLock}.
+   */
+  private void openSegment(final long segment) throws IOException {
+    channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    generation = segment;
+    synchronized (appendLock) {
+      segmentStart = appended - channel.size();
+    }
+  }
+
+  /**
+   * Writes all pending records to the current segment. Caller holds both locks.
+   */
+  private void writePending() {
+    final byte[] batch = pending.toByteArray();
+    pending = new ByteArrayOutputStream(4096);
+    write(batch);
+    durable = appended;
+  }
+
+  /**
+   * Writes and forces a batch. Caller holds {@code flushLock}.
+   */
+  private void write(final byte[] batch) {
+    checkHealthy();
+    try {
+      final ByteBuffer buffer = ByteBuffer.wrap(batch);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      if (fsync) {
+        channel.force(false);
+      }
+    } catch (IOException e) {
+      failure = e;
+      checkHealthy();
+    }
+  }
+
+  private void checkHealthy() {
+    if (failure != null) {
+      throw new DataAccessResourceFailureException(
+          "Write-ahead log in " + directory + " is unavailable", failure);
+    }
+  }
+
+  private Path segmentPath(final long segment) {
+    return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+  }
+
+  /**
+   * Lists the generation numbers of the segments on disk, oldest first.
+   */
+  private List<Long> segments() throws IOException {
+    final List<Long> result = new ArrayList<>();
+    try (DirectoryStream<Path> files =
+             Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+      for (final Path file : files) {
+        final String name = file.getFileName().toString();
+        try {
+          result.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+              name.length() - SEGMENT_SUFFIX.length())));
+        } catch (NumberFormatException e) {
+          // Not a segment written by this class
+        }
+      }
+    }
+    result.sort(null);
+    return result;
+  }
+
+  private static void apply(final InMemoryLedgerRepository store, final byte[] body)
+      throws IOException {
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+    final byte type = in.readByte();
+    switch (type) {
+      case USER_PUT:
+        store.restoreUser(LedgerCodec.readUser(in));
+        break;
+      case USER_DELETE:
+        store.deleteUser(LedgerCodec.readUuid(in));
+        break;
+      case BUDGET_SET:
+        store.updateBudget(LedgerCodec.readUuid(in), in.readDouble());
+        break;
+      case TX_PUT:
+        store.restoreTransaction(LedgerCodec.readTransaction(in));
+        break;
+      case TX_UPDATE:
+        final UUID transactionId = LedgerCodec.readUuid(in);
+        final Transaction values = new Transaction();
+        values.setDescription(LedgerCodec.readString(in));
+        values.setAmount(in.readDouble());
+        values.setCategory(LedgerCodec.readString(in));
+        store.updateTransaction(transactionId, values);
+        break;
+      case TX_DELETE:
+        store.deleteTransaction(LedgerCodec.readUuid(in));
+        break;
+      default:
+        throw new IOException("Unknown record type " + type);
+    }
+  }
+
+  /**
+   * Writes the payload of one record.
+   */
+  @FunctionalInterface
+  private interface RecordWriter {
+    void write(DataOutputStream out) throws IOException;
+  }
+}
@@ -0,0 +1,164 @@
+package dev.ase.teamproject.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+/**
+ * This class computes the budget reports of many users at once, for dashboards
+ * that show hundreds of accounts per page.
+ *
+ * <p>Each user's report is computed by {@link MockApiService#getBudgetReport} as
+ * a separate task on a shared pool of {@code ledger.dashboard.threads} threads
+ * (2 by default). Every task runs its own queries, and the tasks run outside the
+ * analytics bulkhead: the dashboard request holds one analytics place while its
+ * tasks take up to {@code ledger.dashboard.threads} connections of their own.
+ * Analytics as a whole may therefore hold up to
+ * {@code ledger.bulkhead.analytics.max-concurrency} plus
+ * {@code ledger.dashboard.threads} connections, and the two should add up to
+ * well under the connection pool's size, leaving the rest to inserts and
+ * lookups. Tasks wait in a queue of at most {@code ledger.dashboard.queue}
+ * entries, shared by all requests; tasks that do not fit are not run.
+ *
+ * <p>A request waits at most {@code ledger.dashboard.deadline-millis} for its
+ * reports. Reports that are not ready by then are cancelled, and skipped if they
+ * have not started, and the request returns the ones that are, listing the rest
+ * as pending so the client can ask for them again.
+ */
+@Service
+@Profile("!reactive")
+public class BudgetDashboard implements AutoCloseable {
+  private static final Logger LOGGER = Logger.getLogger(BudgetDashboard.class.getName());
+
+  private final MockApiService service;
+  private final long deadlineNanos;
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * Constructs a new {@code BudgetDashboard}.
+   *
+   * @param service The service that computes each user's report.
+   * @param threads The number of reports computed at once, across all requests.
+   * @param queue The number of reports that may wait for a thread.
+   * @param deadlineMillis How long a request waits for its reports.
+   */
+  @Autowired
+  public BudgetDashboard(final MockApiService service,
+                         @Value("${ledger.dashboard.threads:2}") final int threads,
+                         @Value("${ledger.dashboard.queue:2000}") final int queue,
+                         @Value("${ledger.dashboard.deadline-millis:2000}")
+                         final long deadlineMillis) {
+    this.service = service;
+    this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+    final AtomicInteger count = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queue), runnable -> {
+          final Thread thread =
+              new Thread(runnable, "budget-dashboard-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Computes the budget reports of the given users concurrently, returning
+   * whatever is ready by the deadline.
+   *
+   * @param userIds The {@code UUID}s of the users; duplicates are ignored.
+   * @return A {@code Map} with keys "reports", from identifier to the report of
+   *         {@link MockApiService#getBudgetReport} in request order; "missing",
+   *         the identifiers that match no user; "pending", the identifiers whose
+   *         reports were not ready by the deadline or could not be queued;
+   *         "failed", the identifiers whose reports raised an error; and
+   *         "complete", whether "pending" and "failed" are empty.
+   * @throws IllegalArgumentException if an identifier is {@code null} or more than
+   *         {@link MockApiService#MAX_BATCH_IDS} distinct identifiers are given.
+   */
+  public Map<String, Object> reports(final Collection<UUID> userIds) {
+    final long deadline = System.nanoTime() + deadlineNanos;
+    final List<UUID> ids = MockApiService.batchIds(userIds);
+    final Map<UUID, CompletableFuture<Map<String, Object>>> tasks = new LinkedHashMap<>();
+    final List<CompletableFuture<Map<String, Object>>> queued = new ArrayList<>();
+    for (final UUID id : ids) {
+      CompletableFuture<Map<String, Object>> future = null;
+      try {
+        future = CompletableFuture.supplyAsync(() -> service.getBudgetReport(id), executor);
+        queued.add(future);
+      } catch (RejectedExecutionException e) {
+        // Left without a task, and reported as pending
+      }
+      tasks.put(id, future);
+    }
+    awaitAll(queued, deadline);
+
+    final Map<UUID, Map<String, Object>> reports = new LinkedHashMap<>();
+    final List<UUID> missing = new ArrayList<>();
+    final List<UUID> pending = new ArrayList<>();
+    final List<UUID> failed = new ArrayList<>();
+    for (final Map.Entry<UUID, CompletableFuture<Map<String, Object>>> task : tasks.entrySet()) {
+      final CompletableFuture<Map<String, Object>> future = task.getValue();
+      // Cancelling stops a task that has not started from running at all
+      if (future == null || !future.isDone() && future.cancel(false)) {
+        pending.add(task.getKey());
+      } else if (future.isCompletedExceptionally()) {
+        failed.add(task.getKey());
+      } else {
+        final Map<String, Object> report = future.join();
+        if (report.containsKey("error")) {
+          missing.add(task.getKey());
+        } else {
+          reports.put(task.getKey(), report);
+        }
+      }
+    }
+    if (!(pending.isEmpty() && failed.isEmpty()) && LOGGER.isLoggable(Level.WARNING)) {
+      LOGGER.warning("Dashboard returned " + reports.size() + " of " + ids.size()
+          + " reports; " + pending.size() + " pending, " + failed.size() + " failed");
+    }
+    final Map<String, Object> result = new LinkedHashMap<>();
+    result.put("reports", reports);
+    result.put("missing", missing);
+    result.put("pending", pending);
+    result.put("failed", failed);
+    result.put("complete", pending.isEmpty() && failed.isEmpty());
+    return result;
+  }
+
+  /**
+   * Stops the report threads, abandoning queued reports.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private static void awaitAll(final Collection<CompletableFuture<Map<String, Object>>> tasks,
+                               final long deadline) {
+    try {
+      CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]))
+          .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      // Reported per task by the caller
+    }
+  }
+}
@@ -1,74 +1,101 @@
 package dev.ase.teamproject.service;
 
 import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.TransactionCategory;
 import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.repository.LedgerRepository;
+import dev.ase.teamproject.util.LedgerEvents;
+import dev.ase.teamproject.util.SingleFlight;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
-import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.stereotype.Service;
 
 /**
  * This class defines the Mock API Service responsible for managing
- * interactions between the application and the PostgreSQL database.
+ * interactions between the application and the ledger store.
  * It provides CRUD operations for users and transactions, as well as
  * analytics and budgeting functionalities.
- * All methods in this class use the Spring JdbcTemplate for data access.
+ * All data access goes through a {@link LedgerRepository}, which is backed by
+ * PostgreSQL by default or by an in-process store when configured.
+ * Weekly spending totals and date-range spending are served from a
+ * {@link WeeklySpendWindow} and a {@link SpendingIndex} that the transaction
+ * write paths keep current, and spending percentiles from the monthly totals of
+ * {@link SpendingPercentiles}. Concurrent requests for the same user's budget
+ * report or monthly summary share one computation through a {@link SingleFlight}.
  */
 @Service
+@Profile("!reactive")
 public class MockApiService {
-  private final JdbcTemplate jdbcTemplate;
-
-  private final RowMapper<User> userRowMapper = (rs, rowNum) -> {
-    final User user = new User();
-    user.setUserId((UUID) rs.getObject("user_id"));
-    user.setUsername(rs.getString("username"));
-    user.setEmail(rs.getString("email"));
-    user.setBudget(rs.getDouble("budget"));
-    return user;
-  };
-
-  private final RowMapper<Transaction> txRowMapper = (rs, rowNum) -> {
-    final Transaction transaction = new Transaction();
-    try {
-      transaction.setTransactionId((UUID) rs.getObject("transaction_id"));
-      transaction.setUserId((UUID) rs.getObject("user_id"));
-      transaction.setDescription(rs.getString("description"));
-      transaction.setAmount(rs.getDouble(AMOUNT));
-      transaction.setCategory(rs.getString("category"));
-
-      // Handle potential null values for timestamps
-      if (rs.getTimestamp("created_time") != null) {
-        transaction.setTimestamp(rs.getTimestamp("created_time").toLocalDateTime());
-      }
-
-      if (rs.getDate("created_date") != null) {
-        transaction.setDate(rs.getDate("created_date").toLocalDate());
-      }
-
-      return transaction;
-    } catch (Exception e) {
-      throw new IllegalStateException("Error mapping transaction row: " + e.getMessage(), e);
-    }
-  };
+  private final LedgerRepository repository;
+  private final WeeklySpendWindow spendWindow;
+  private final SpendingIndex spendingIndex;
+  private final SpendingPercentiles spendingPercentiles;
+  private final List<UserSpendCache<?>> spendCaches = new ArrayList<>();
+  private final SingleFlight<UUID, Map<String, Object>> budgetReports =
+      new SingleFlight<>("budget_report");
+  private final SingleFlight<UUID, String> monthlySummaries =
+      new SingleFlight<>("monthly_summary");
+
+  /** The most identifiers a single batch lookup accepts. */
+  public static final int MAX_BATCH_IDS = 1000;
 
   private static final String USER_NOT_FOUND = "User not found";
   private static final String AMOUNT = "amount";
 
   /**
-   * Constructs a new {@code MockApiService} with the specified {@code JdbcTemplate}.
+   * Constructs a new {@code MockApiService} with the specified {@code LedgerRepository}.
    *
-   * @param jdbcTemplate A {@code JdbcTemplate} used to communicate with database.
+   * @param repository A {@code LedgerRepository} used to read and write the ledger.
    */
-  public MockApiService(final JdbcTemplate jdbcTemplate) {
-    this.jdbcTemplate = jdbcTemplate;
+  public MockApiService(final LedgerRepository repository) {
+    this(repository, null, null, null);
+  }
+
+  /**
+   * Constructs a new {@code MockApiService} that serves spending totals from
+   * in-memory aggregates.
+   *
+   * @param repository A {@code LedgerRepository} used to read and write the ledger.
+   * @param spendWindow The in-memory weekly spending window, or {@code null} to
+   *                    compute weekly spending from the repository on every call.
+   * @param spendingIndex The in-memory date-range spending index, or {@code null}
+   *                      to compute range spending from the repository on every call.
+   * @param spendingPercentiles The cross-user monthly spending totals, or {@code null}
+   *                            to rank spending from the repository on every call.
+   */
+  @Autowired
+  public MockApiService(final LedgerRepository repository,
+                        final WeeklySpendWindow spendWindow,
+                        final SpendingIndex spendingIndex,
+                        final SpendingPercentiles spendingPercentiles) {
+    this.repository = repository;
+    this.spendWindow = spendWindow;
+    this.spendingIndex = spendingIndex;
+    this.spendingPercentiles = spendingPercentiles;
+    if (spendWindow != null) {
+      spendCaches.add(spendWindow);
+    }
+    if (spendingIndex != null) {
+      spendCaches.add(spendingIndex);
+    }
   }
 
   /**
@@ -77,8 +104,7 @@ public class MockApiService {
    * @return A {@code List} of all {@code User} records.
    */
   public List<User> viewAllUsers() {
-    final String sql = "SELECT * FROM users";
-    return jdbcTemplate.query(sql, userRowMapper);
+    return repository.findAllUsers();
   }
 
   /**
@@ -89,13 +115,24 @@ public class MockApiService {
    *         or empty if not found.
    */
   public Optional<User> getUser(final UUID userId) {
-    final String sql = "SELECT * FROM users WHERE user_id = ?";
-    try {
-      final User user = jdbcTemplate.queryForObject(sql, userRowMapper, userId);
-      return Optional.ofNullable(user);
-    } catch (Exception e) {
-      return Optional.empty();
-    }
+    return repository.findUser(userId);
+  }
+
+  /**
+   * Retrieves the users with the given identifiers in a single lookup.
+   * Identifiers that match no user are left out of the result rather than
+   * treated as errors.
+   *
+   * @param userIds The {@code UUID}s of the users to retrieve; duplicates are ignored.
+   * @return A {@code Map} from identifier to {@code User}, in the order the
+   *         identifiers were given, holding only the users that exist.
+   * @throws IllegalArgumentException if an identifier is {@code null} or more than
+   *         {@link #MAX_BATCH_IDS} distinct identifiers are given.
+   */
+  public Map<UUID, User> getUsers(final Collection<UUID> userIds) {
+    final List<UUID> ids = batchIds(userIds);
+    return ids.isEmpty() ? Map.of()
+        : inRequestOrder(ids, repository.findUsers(ids), User::getUserId);
   }
 
   /**
@@ -106,22 +143,7 @@ public class MockApiService {
    * @return The created {@code User} object with its assigned {@code UUID}.
    */
   public User addUser(final User user) {
-    if (user.getUserId() != null) {
-      final String sql = "INSERT INTO users (user_id, username, email, budget) VALUES (?, ?, ?, ?)";
-      jdbcTemplate.update(sql,
-          user.getUserId(),  // Use the provided UUID
-          user.getUsername(),
-          user.getEmail(),
-          user.getBudget());
-      return user;  // Return as-is
-    } else {
-      final String sql =
-          "INSERT INTO users (username, email, budget) VALUES (?, ?, ?) RETURNING user_id";
-      final UUID generatedUserId = jdbcTemplate.queryForObject(sql, UUID.class,
-          user.getUsername(), user.getEmail(), user.getBudget());
-      user.setUserId(generatedUserId);
-      return user;
-    }
+    return repository.insertUser(user);
   }
 
   /**
@@ -131,9 +153,13 @@ public class MockApiService {
    * @return {@code true} if a record was deleted; {@code false} otherwise.
    */
   public boolean deleteUser(final UUID userId) {
-    final String sql = "DELETE FROM users WHERE user_id = ?";
-    final int rowsAffected = jdbcTemplate.update(sql, userId);
-    return rowsAffected > 0;
+    final boolean deleted = repository.deleteUser(userId);
+    if (deleted) {
+      for (final UserSpendCache<?> cache : spendCaches) {
+        cache.forget(userId);
+      }
+    }
+    return deleted;
   }
 
   /**
@@ -143,8 +169,7 @@ public class MockApiService {
    *         sorted by {@code created_time}.
    */
   public List<Transaction> viewAllTransactions() {
-    final String sql = "SELECT * FROM transactions ORDER BY created_time DESC";
-    return jdbcTemplate.query(sql, txRowMapper);
+    return repository.findAllTransactions();
   }
 
   /**
@@ -155,14 +180,25 @@ public class MockApiService {
    *         or empty if not.
    */
   public Optional<Transaction> getTransaction(final UUID transactionId) {
-    final String sql = "SELECT * FROM transactions WHERE transaction_id = ?";
-    try {
-      final Transaction transaction = jdbcTemplate
-          .queryForObject(sql, txRowMapper, transactionId);
-      return Optional.ofNullable(transaction);
-    } catch (Exception e) {
-      return Optional.empty();
-    }
+    return repository.findTransaction(transactionId);
+  }
+
+  /**
+   * Retrieves the transactions with the given identifiers in a single lookup.
+   * Identifiers that match no transaction are left out of the result rather
+   * than treated as errors.
+   *
+   * @param transactionIds The {@code UUID}s of the transactions to retrieve;
+   *                       duplicates are ignored.
+   * @return A {@code Map} from identifier to {@code Transaction}, in the order the
+   *         identifiers were given, holding only the transactions that exist.
+   * @throws IllegalArgumentException if an identifier is {@code null} or more than
+   *         {@link #MAX_BATCH_IDS} distinct identifiers are given.
+   */
+  public Map<UUID, Transaction> getTransactions(final Collection<UUID> transactionIds) {
+    final List<UUID> ids = batchIds(transactionIds);
+    return ids.isEmpty() ? Map.of()
+        : inRequestOrder(ids, repository.findTransactions(ids), Transaction::getTransactionId);
   }
 
   /**
@@ -175,8 +211,20 @@ public class MockApiService {
    * @throws IllegalArgumentException if required fields are missing, invalid, or
    *         if the user ID does not exist.
    * @throws IllegalStateException if the insert operation fails.
+   * @throws DataAccessResourceFailureException if the store is unavailable or has
+   *         no connection to spare.
    */
   public Transaction addTransaction(final Transaction transaction) {
+    final LedgerEvents.Operation event =
+        LedgerEvents.begin("addTransaction", transaction.getUserId());
+    try {
+      return insertTransaction(transaction);
+    } finally {
+      LedgerEvents.end(event);
+    }
+  }
+
+  private Transaction insertTransaction(final Transaction transaction) {
     // Validate required fields before database operation
     if (transaction.getUserId() == null) {
       throw new IllegalArgumentException("User ID is required");
@@ -194,29 +242,23 @@ public class MockApiService {
     }
 
     try {
-      final String sql = "INSERT INTO transactions (user_id, description, amount, category) "
-          + "VALUES (?, ?, ?, ?::transaction_category) "
-          + "RETURNING transaction_id, created_time, created_date";
-      final Transaction savedTransaction = jdbcTemplate.queryForObject(sql, (rs, rowNum) -> {
-        transaction.setTransactionId(rs.getObject("transaction_id", UUID.class));
-        transaction.setTimestamp(rs.getTimestamp("created_time").toLocalDateTime());
-        transaction.setDate(rs.getDate("created_date").toLocalDate());
-        return transaction;
-      },
-          transaction.getUserId(),
-          transaction.getDescription(),
-          transaction.getAmount(),
-          transaction.getCategory());
-      return savedTransaction != null ? savedTransaction : transaction;
+      final Transaction saved = tracked(transaction.getUserId(),
+          () -> repository.insertTransaction(transaction),
+          (buckets, inserted) -> buckets.add(inserted.getDate(), inserted.categoryType(),
+              inserted.getAmount()));
+      LedgerEvents.touched(1);
+      return saved;
+    } catch (DataAccessResourceFailureException e) {
+      // The store is unavailable or saturated, which the caller answers with 503
+      throw e;
     } catch (Exception e) {
       final String message = e.getMessage();
       if (message != null && message.contains("foreign key constraint")) {
         throw new IllegalArgumentException("Invalid user ID: user does not exist", e);
       } else if (message != null && (message.contains("transaction_category")
           || message.contains("enum"))) {
-        throw new IllegalArgumentException("Invalid category. Valid categories are: FOOD,"
-            + "TRANSPORTATION, ENTERTAINMENT, UTILITIES, SHOPPING,"
-            + "HEALTHCARE, TRAVEL, EDUCATION, OTHER", e);
+        throw new IllegalArgumentException(
+            "Invalid category. Valid categories are: " + TransactionCategory.NAMES, e);
       } else if (message != null && (message.contains("numeric") || message.contains(AMOUNT))) {
         throw new IllegalArgumentException("Invalid amount format: must be a valid number", e);
       } else {
@@ -232,11 +274,15 @@ public class MockApiService {
    * @param userId The {@code UUID} of the user.
    * @return A {@code List} of the user's {@code Transaction} records.
    * @throws IllegalStateException if the query fails.
+   * @throws DataAccessResourceFailureException if the store is unavailable or has
+   *         no connection to spare.
    */
   public List<Transaction> getTransactionsByUser(final UUID userId) {
     try {
-      final String sql = "SELECT * FROM transactions WHERE user_id = ? ORDER BY created_time DESC";
-      return jdbcTemplate.query(sql, txRowMapper, userId);
+      return repository.findTransactionsByUser(userId);
+    } catch (DataAccessResourceFailureException e) {
+      // The store is unavailable or saturated, which the caller answers with 503
+      throw e;
     } catch (Exception e) {
       throw new IllegalStateException("Failed to get transactions: " + e.getMessage(), e);
     }
@@ -254,15 +300,28 @@ public class MockApiService {
    * @throws IllegalArgumentException if the transaction is not found, if no valid
    *         fields are provided, or if any field value is invalid.
    * @throws IllegalStateException if the update operation fails.
+   * @throws DataAccessResourceFailureException if the store is unavailable or has
+   *         no connection to spare.
    */
   public Optional<Transaction> updateTransaction(
       final UUID transactionId, final Map<String, Object> updates) {
+    final LedgerEvents.Operation event = LedgerEvents.begin("updateTransaction", null);
+    try {
+      return applyUpdates(transactionId, updates);
+    } finally {
+      LedgerEvents.end(event);
+    }
+  }
+
+  private Optional<Transaction> applyUpdates(
+      final UUID transactionId, final Map<String, Object> updates) {
     final Optional<Transaction> existing = getTransaction(transactionId);
     if (!existing.isPresent()) {
       throw new IllegalArgumentException("Transaction not found with ID: " + transactionId);
     }
 
     final Transaction transaction = existing.get();
+    LedgerEvents.user(transaction.getUserId());
 
     // Validate and apply updates
     if (updates.containsKey("description")) {
@@ -306,16 +365,13 @@ public class MockApiService {
         if (cat.isBlank()) {
           throw new IllegalArgumentException("Category cannot be empty");
         }
-        // Validate category against known values
-        final List<String> validCategories = Arrays.asList(
-            "FOOD", "TRANSPORTATION", "ENTERTAINMENT", "UTILITIES",
-            "SHOPPING", "HEALTHCARE", "TRAVEL", "EDUCATION", "OTHER"
-        );
-        if (!validCategories.contains(cat.toUpperCase(Locale.ROOT))) {
+        // Validate category against known values, ignoring case
+        final TransactionCategory parsed = TransactionCategory.parse(cat);
+        if (parsed == null) {
           throw new IllegalArgumentException("Invalid category: " + cat
-              + ". Valid categories are: " + String.join(", ", validCategories));
+              + ". Valid categories are: " + TransactionCategory.NAMES);
         }
-        transaction.setCategory(cat);
+        transaction.setCategory(parsed.name());
       } else {
         throw new IllegalArgumentException("Category must be a string");
       }
@@ -326,27 +382,32 @@ public class MockApiService {
       throw new IllegalArgumentException("No valid fields provided for update");
     }
 
-    final String sql = "UPDATE transactions SET description = ?, amount = ?, "
-        + "category = ?::transaction_category WHERE transaction_id = ?";
-    final int rowsAffected;
+    final boolean updated;
     try {
-      rowsAffected = jdbcTemplate.update(sql,
-          transaction.getDescription(),
-          transaction.getAmount(),
-          transaction.getCategory(),
-          transactionId);
+      updated = tracked(transaction.getUserId(),
+          () -> repository.updateTransaction(transactionId, transaction),
+          (buckets, changed) -> {
+            // Another update may have run since the read above, so the
+            // previous amount and category are not known to be the stored ones
+            if (changed) {
+              buckets.discard(transaction.getDate());
+            }
+          });
+    } catch (DataAccessResourceFailureException e) {
+      // The store is unavailable or saturated, which the caller answers with 503
+      throw e;
     } catch (DataAccessException e) {
       final String message = e.getMessage();
       if (message != null && (message.contains("transaction_category")
           || message.contains("enum"))) {
-        throw new IllegalArgumentException("Invalid category. Valid categories are: "
-            + "FOOD, TRANSPORTATION, ENTERTAINMENT, UTILITIES, SHOPPING, "
-            + "HEALTHCARE, TRAVEL, EDUCATION, OTHER", e);
+        throw new IllegalArgumentException(
+            "Invalid category. Valid categories are: " + TransactionCategory.NAMES, e);
       }
       throw new IllegalStateException("Failed to update transaction: " + message, e);
     }
 
-    if (rowsAffected > 0) {
+    if (updated) {
+      LedgerEvents.touched(1);
       return getTransaction(transactionId);
     }
     throw new IllegalStateException("Failed to update transaction: no rows affected");
@@ -359,9 +420,23 @@ public class MockApiService {
    * @return {@code true} if a record was deleted; {@code false} otherwise.
    */
   public boolean deleteTransaction(final UUID transactionId) {
-    final String sql = "DELETE FROM transactions WHERE transaction_id = ?";
-    final int rowsAffected = jdbcTemplate.update(sql, transactionId);
-    return rowsAffected > 0;
+    if (spendCaches.isEmpty() && spendingPercentiles == null) {
+      return repository.deleteTransaction(transactionId);
+    }
+    // The caches need the owner, date, category and amount of the row being removed
+    final Optional<Transaction> existing = getTransaction(transactionId);
+    if (!existing.isPresent()) {
+      return repository.deleteTransaction(transactionId);
+    }
+    final Transaction transaction = existing.get();
+    return tracked(transaction.getUserId(),
+        () -> repository.deleteTransaction(transactionId),
+        (buckets, deleted) -> {
+          if (deleted) {
+            buckets.remove(transaction.getDate(), transaction.categoryType(),
+                transaction.getAmount());
+          }
+        });
   }
 
   /**
@@ -435,12 +510,22 @@ public class MockApiService {
    *         or "User not found" if the user does not exist.
    */
   public String getMonthlySummary(final UUID userId) {
+    final LedgerEvents.Operation event = LedgerEvents.begin("getMonthlySummary", userId);
+    try {
+      return monthlySummaries.run(userId, () -> computeMonthlySummary(userId));
+    } finally {
+      LedgerEvents.end(event);
+    }
+  }
+
+  private String computeMonthlySummary(final UUID userId) {
     final Optional<User> userOpt = getUser(userId);
     if (!userOpt.isPresent()) {
       return USER_NOT_FOUND;
     }
     final User user = userOpt.get();
     final List<Transaction> transactions = getTransactionsByUser(userId);
+    LedgerEvents.touched(transactions.size());
     final LocalDate now = LocalDate.now();
     final List<Transaction> monthTransactions = transactions.stream()
         .filter(t -> t.getDate() != null && t.getDate().getMonth()
@@ -457,17 +542,11 @@ public class MockApiService {
         .append(String.format("Total Spent: $%.2f%n", totalSpent))
         .append(String.format("Remaining: $%.2f%n%n", remaining))
         .append("Spending by Category:\n");
-    final Map<String, Double> byCategory = monthTransactions.stream()
-        .filter(t -> t.getAmount() > 0)
-        .collect(Collectors.groupingBy(
-            Transaction::getCategory,
-            Collectors.summingDouble(Transaction::getAmount)
-        ));
-    byCategory.entrySet().stream()
-        .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
-        .forEach(entry -> {
-          summary.append(String.format("- %s: $%.2f\n", entry.getKey(), entry.getValue()));
-        });
+    final double[] byCategory = sumByCategory(monthTransactions);
+    for (final int ordinal : ordinalsByDescendingTotal(byCategory)) {
+      summary.append(String.format("- %s: $%.2f\n",
+          TransactionCategory.of(ordinal), byCategory[ordinal]));
+    }
     return summary.toString();
   }
 
@@ -481,31 +560,42 @@ public class MockApiService {
    *         an "error" key if the user is not found.
    */
   public Map<String, Object> getBudgetReport(final UUID userId) {
+    final LedgerEvents.Operation event = LedgerEvents.begin("getBudgetReport", userId);
+    try {
+      return budgetReports.run(userId, () -> computeBudgetReport(userId));
+    } finally {
+      LedgerEvents.end(event);
+    }
+  }
+
+  private Map<String, Object> computeBudgetReport(final UUID userId) {
     final Optional<User> userOpt = getUser(userId);
     if (!userOpt.isPresent()) {
       return Map.of("error", USER_NOT_FOUND);
     }
     final User user = userOpt.get();
     final List<Transaction> transactions = getTransactionsByUser(userId);
+    LedgerEvents.touched(transactions.size());
     final double totalSpent = transactions.stream()
         .filter(t -> t.getAmount() > 0)
         .mapToDouble(Transaction::getAmount)
         .sum();
     final double remaining = user.getBudget() - totalSpent;
     final String warningsText = getBudgetWarningsText(userId);
-    final Map<String, Double> byCategory = transactions.stream()
-        .filter(t -> t.getAmount() > 0)
-        .collect(Collectors.groupingBy(
-            Transaction::getCategory,
-            Collectors.summingDouble(Transaction::getAmount)
-        ));
+    final double[] totals = sumByCategory(transactions);
+    final Map<String, Double> byCategory = new HashMap<>();
+    for (int i = 0; i < TransactionCategory.COUNT; i++) {
+      if (totals[i] > 0) {
+        byCategory.put(TransactionCategory.of(i).name(), totals[i]);
+      }
+    }
     return Map.of(
         "userId", userId,
         "username", user.getUsername(),
         "totalBudget", user.getBudget(),
         "totalSpent", totalSpent,
         "remaining", remaining,
-        "categories", byCategory,
+        "categories", Collections.unmodifiableMap(byCategory),
         "isOverBudget", remaining < 0,
         "warnings", warningsText,
         "hasWarnings", !warningsText.isEmpty()
@@ -538,8 +628,7 @@ public class MockApiService {
       if (newBudget < 0) {
         throw new IllegalArgumentException("Budget cannot be negative");
       }
-      final String sql = "UPDATE users SET budget = ? WHERE user_id = ?";
-      jdbcTemplate.update(sql, newBudget, userId);
+      repository.updateBudget(userId, newBudget);
     }
   }
 
@@ -551,10 +640,12 @@ public class MockApiService {
    * @return A {@code List} of {@code Transaction} objects created in the past week.
    */
   public List<Transaction> weeklySummary(final UUID userId) {
-    final LocalDate oneWeekAgo = LocalDate.now().minusDays(7);
-    final String sql = "SELECT * FROM transactions WHERE user_id = ? AND"
-        + " created_date >= ? ORDER BY created_time DESC";
-    return jdbcTemplate.query(sql, txRowMapper, userId, oneWeekAgo);
+    final LocalDate today = LocalDate.now();
+    if (spendWindow == null) {
+      return repository.findTransactionsSince(userId, today.minusDays(7));
+    }
+    // The rows are needed anyway, so use them to refresh the user's window
+    return spendWindow.load(userId, today, repository::findTransactionsSince);
   }
 
   /**
@@ -564,19 +655,153 @@ public class MockApiService {
    * @param userId The {@code UUID} of the user.
    * @return The total spending amount for the last 7 days, or 0.0 if no transactions
    *         exist or if an error occurs.
+   * @throws DataAccessResourceFailureException if the store is unavailable or has
+   *         no connection to spare.
    */
   public double totalLast7Days(final UUID userId) {
-    final LocalDate oneWeekAgo = LocalDate.now().minusDays(7);
-    final String sql = "SELECT COALESCE(SUM(amount), 0) FROM transactions"
-        + " WHERE user_id = ? AND created_date >= ? AND amount > 0";
+    final LocalDate today = LocalDate.now();
     try {
-      final Double result = jdbcTemplate.queryForObject(sql, Double.class, userId, oneWeekAgo);
-      return result != null ? result : 0.0;
+      if (spendWindow == null) {
+        return repository.sumSpentSince(userId, today.minusDays(7));
+      }
+      long cents = 0;
+      for (final long day : spendWindow.dailyCents(userId, today,
+          repository::findTransactionsSince)) {
+        cents += day;
+      }
+      return cents / 100.0;
+    } catch (DataAccessResourceFailureException e) {
+      // The store is unavailable or saturated, which the caller answers with 503
+      throw e;
     } catch (Exception e) {
       return 0.0;
     }
   }
 
+  /**
+   * Calculates a user's spending for each of the days counted by
+   * {@link #totalLast7Days(UUID)}: today and the seven days before it.
+   * Only positive transaction amounts are included.
+   *
+   * @param userId The {@code UUID} of the user.
+   * @return A {@code Map} from each date, oldest first, to the amount spent that day.
+   */
+  public Map<LocalDate, Double> dailySpendLast7Days(final UUID userId) {
+    final LocalDate today = LocalDate.now();
+    final long[] cents = spendWindow == null
+        ? WeeklySpendWindow.dailyCents(
+            repository.findTransactionsSince(userId, today.minusDays(7)), today)
+        : spendWindow.dailyCents(userId, today, repository::findTransactionsSince);
+    final Map<LocalDate, Double> daily = new LinkedHashMap<>();
+    for (int i = 0; i < cents.length; i++) {
+      daily.put(today.minusDays(cents.length - 1 - i), cents[i] / 100.0);
+    }
+    return daily;
+  }
+
+  /**
+   * Calculates a user's spending between two dates, in total and per category.
+   * Only positive transaction amounts are included.
+   *
+   * @param userId The {@code UUID} of the user.
+   * @param from The first date of the period.
+   * @param to The last date of the period, inclusive.
+   * @return A {@code Map} with keys "userId", "from", "to", "totalSpent" and
+   *         "categories" (the amount spent in each category with spending), or
+   *         a map with an "error" key if the user is not found.
+   * @throws IllegalArgumentException if either date is missing or {@code from}
+   *         is after {@code to}.
+   */
+  public Map<String, Object> getSpendingBetween(final UUID userId, final LocalDate from,
+                                                final LocalDate to) {
+    if (from == null || to == null || from.isAfter(to)) {
+      throw new IllegalArgumentException("'from' must be a date on or before 'to'");
+    }
+    if (!getUser(userId).isPresent()) {
+      return Map.of("error", USER_NOT_FOUND);
+    }
+    final long[] cents = rangeCents(userId, from, to);
+    final Map<String, Double> byCategory = new LinkedHashMap<>();
+    for (int i = 0; i < TransactionCategory.COUNT; i++) {
+      if (cents[i] > 0) {
+        byCategory.put(TransactionCategory.of(i).name(), cents[i] / 100.0);
+      }
+    }
+    return Map.of(
+        "userId", userId,
+        "from", from,
+        "to", to,
+        "totalSpent", cents[SpendingIndex.TOTAL] / 100.0,
+        "categories", byCategory
+    );
+  }
+
+  /**
+   * Ranks a user's spending in each category against all users. Over a period
+   * of the given number of calendar months ending with the current one, the
+   * user's average monthly spending in a category is compared with every user's
+   * total in that category for each month of the period in which they spent in it.
+   *
+   * @param userId The {@code UUID} of the user.
+   * @param months The number of months in the period, counting the current one.
+   * @return A {@code Map} with keys "userId", "months", "from", "to" and "categories",
+   *         which maps each category the user spent in to its "monthlySpend" and
+   *         "percentile" (the share of monthly totals below the user's); or a map
+   *         with an "error" key if the user is not found.
+   * @throws IllegalArgumentException if {@code months} is out of range.
+   * @throws DataAccessResourceFailureException if the spending of other users is
+   *         still being read.
+   */
+  public Map<String, Object> getSpendingPercentiles(final UUID userId, final int months) {
+    final int maxMonths = spendingPercentiles == null
+        ? SpendingPercentiles.DEFAULT_MONTHS : spendingPercentiles.getMaxMonths();
+    if (months < 1 || months > maxMonths) {
+      throw new IllegalArgumentException("months must be between 1 and " + maxMonths);
+    }
+    if (!getUser(userId).isPresent()) {
+      return Map.of("error", USER_NOT_FOUND);
+    }
+    final LocalDate today = LocalDate.now();
+    final YearMonth current = YearMonth.from(today);
+    final LocalDate from = current.minusMonths(months - 1).atDay(1);
+    final long[] cents = rangeCents(userId, from, today);
+    final double[] monthlySpend = new double[TransactionCategory.COUNT];
+    for (int i = 0; i < monthlySpend.length; i++) {
+      monthlySpend[i] = cents[i] / 100.0 / months;
+    }
+    final double[] ranks = spendingPercentiles == null
+        ? SpendingPercentiles.exactRanks(repository, current, months, monthlySpend)
+        : spendingPercentiles.ranks(current, months, monthlySpend);
+
+    final Map<String, Object> byCategory = new LinkedHashMap<>();
+    for (int i = 0; i < TransactionCategory.COUNT; i++) {
+      if (cents[i] > 0) {
+        final Map<String, Double> entry = new LinkedHashMap<>();
+        entry.put("monthlySpend", Math.round(monthlySpend[i] * 100) / 100.0);
+        if (!Double.isNaN(ranks[i])) {
+          entry.put("percentile", Math.round(ranks[i] * 1000) / 10.0);
+        }
+        byCategory.put(TransactionCategory.of(i).name(), entry);
+      }
+    }
+    return Map.of(
+        "userId", userId,
+        "months", months,
+        "from", from,
+        "to", today,
+        "categories", byCategory
+    );
+  }
+
+  /**
+   * Sums a user's spending between two dates, per category and in total, in cents.
+   */
+  private long[] rangeCents(final UUID userId, final LocalDate from, final LocalDate to) {
+    return spendingIndex == null
+        ? SpendingIndex.rangeCents(repository.findTransactionsByUser(userId), from, to)
+        : spendingIndex.rangeCents(userId, from, to, repository::findTransactionsByUser);
+  }
+
   /**
    * Checks whether a username already exists in the database. Optionally excludes
    * a specific user ID from the search, useful for update operations where a user
@@ -589,18 +814,7 @@ public class MockApiService {
    *         {@code false} otherwise.
    */
   public boolean isUsernameExists(final String username, final UUID excludeUserId) {
-    if (excludeUserId == null) {
-      // Check against all users
-      final String sql = "SELECT COUNT(*) FROM users WHERE username = ?";
-      final Integer count = jdbcTemplate.queryForObject(sql, Integer.class, username);
-      return count != null && count > 0;
-    } else {
-      // Check against other users only
-      final String sql = "SELECT COUNT(*) FROM users WHERE username = ? AND user_id != ?";
-      final Integer count = jdbcTemplate.queryForObject(sql,
-          Integer.class, username, excludeUserId);
-      return count != null && count > 0;
-    }
+    return repository.existsByUsername(username, excludeUserId);
   }
 
   /**
@@ -615,16 +829,131 @@ public class MockApiService {
    *         {@code false} otherwise.
    */
   public boolean isEmailExists(final String email, final UUID excludeUserId) {
-    if (excludeUserId == null) {
-      // Check against all users
-      final String sql = "SELECT COUNT(*) FROM users WHERE email = ?";
-      final Integer count = jdbcTemplate.queryForObject(sql, Integer.class, email);
-      return count != null && count > 0;
-    } else {
-      // Check against other users only
-      final String sql = "SELECT COUNT(*) FROM users WHERE email = ? AND user_id != ?";
-      final Integer count = jdbcTemplate.queryForObject(sql, Integer.class, email, excludeUserId);
-      return count != null && count > 0;
+    return repository.existsByEmail(email, excludeUserId);
+  }
+
+  /**
+   * Sums the positive amounts of the given transactions per category.
+   *
+   * @param transactions The transactions to sum.
+   * @return The totals, indexed by {@link TransactionCategory#ordinal()}.
+   */
+  private static double[] sumByCategory(final List<Transaction> transactions) {
+    final double[] totals = new double[TransactionCategory.COUNT];
+    for (final Transaction transaction : transactions) {
+      final TransactionCategory category = transaction.categoryType();
+      // Stored rows always have a known category; the database type enforces it
+      if (category != null && transaction.getAmount() > 0) {
+        totals[category.ordinal()] += transaction.getAmount();
+      }
+    }
+    return totals;
+  }
+
+  /**
+   * Returns the ordinals of the categories with a positive total, largest total first.
+   *
+   * @param totals The per-category totals, indexed by ordinal.
+   * @return The ordinals to report, in order.
+   */
+  private static int[] ordinalsByDescendingTotal(final double[] totals) {
+    final int[] ordinals = new int[TransactionCategory.COUNT];
+    int count = 0;
+    for (int i = 0; i < totals.length; i++) {
+      if (totals[i] > 0) {
+        // Insertion sort; there are only nine categories
+        int j = count++;
+        while (j > 0 && totals[ordinals[j - 1]] < totals[i]) {
+          ordinals[j] = ordinals[j - 1];
+          j--;
+        }
+        ordinals[j] = i;
+      }
+    }
+    return Arrays.copyOf(ordinals, count);
+  }
+
+  /**
+   * Runs a transaction write through each spending cache, so that every cache
+   * and the spending percentiles see the write start and apply its effect once
+   * it completes.
+   *
+   * @param userId The user whose transactions the write changes.
+   * @param write The repository write.
+   * @param change The effect of a successful write on the user's aggregates.
+   * @param <T> The write's result type.
+   * @return The write's result.
+   */
+  private <T> T tracked(final UUID userId, final Supplier<T> write,
+                        final UserSpendCache.Change<T> change) {
+    Supplier<T> chained = write;
+    if (spendingPercentiles != null) {
+      chained = () -> spendingPercentiles.write(userId, write, change);
+    }
+    for (final UserSpendCache<?> cache : spendCaches) {
+      final Supplier<T> inner = chained;
+      chained = () -> cache.write(userId, inner, change);
+    }
+    return chained.get();
+  }
+
+  /**
+   * Returns the coalescers of the analytics operations, for their metrics.
+   *
+   * @return The budget report and monthly summary coalescers.
+   */
+  public List<SingleFlight<?, ?>> singleFlights() {
+    return List.of(budgetReports, monthlySummaries);
+  }
+
+  /**
+   * Checks the identifiers of a batch lookup and drops duplicates, keeping the
+   * order they were given in.
+   *
+   * @param ids The requested identifiers.
+   * @return The distinct identifiers.
+   * @throws IllegalArgumentException if an identifier is {@code null} or there
+   *         are more than {@link #MAX_BATCH_IDS} distinct identifiers.
+   */
+  static List<UUID> batchIds(final Collection<UUID> ids) {
+    if (ids == null) {
+      throw new IllegalArgumentException("ids are required");
+    }
+    final LinkedHashSet<UUID> distinct = new LinkedHashSet<>();
+    for (final UUID id : ids) {
+      if (id == null) {
+        throw new IllegalArgumentException("ids must not contain null");
+      }
+      distinct.add(id);
+    }
+    if (distinct.size() > MAX_BATCH_IDS) {
+      throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids per lookup");
+    }
+    return new ArrayList<>(distinct);
+  }
+
+  /**
+   * Keys the rows returned by a batch lookup by identifier, in request order.
+   *
+   * @param ids The distinct requested identifiers.
+   * @param rows The rows found, in any order.
+   * @param key Extracts a row's identifier.
+   * @param <T> The row type.
+   * @return The found rows keyed by identifier.
+   */
+  private static <T> Map<UUID, T> inRequestOrder(final List<UUID> ids, final List<T> rows,
+                                                 final Function<T, UUID> key) {
+    final Map<UUID, T> byId = new HashMap<>(rows.size() * 2);
+    for (final T row : rows) {
+      byId.put(key.apply(row), row);
+    }
+    final Map<UUID, T> ordered = new LinkedHashMap<>(byId.size() * 2);
+    for (final UUID id : ids) {
+      final T row = byId.get(id);
+      if (row != null) {
+        ordered.put(id, row);
+      }
     }
+    return ordered;
   }
 }
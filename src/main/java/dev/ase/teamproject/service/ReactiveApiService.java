@@ -0,0 +1,247 @@
+package dev.ase.teamproject.service;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.TransactionCategory;
+import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.repository.R2dbcLedgerRepository;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * This class is the non-blocking counterpart of {@link MockApiService} for the
+ * JSON endpoints served by the reactive variant of the API. It applies the same
+ * validation and returns the same response shapes, over an
+ * {@link R2dbcLedgerRepository}, and is only created with the {@code reactive}
+ * Spring profile.
+ *
+ * <p>It does not use the in-memory spending caches: those are kept current by
+ * the servlet stack's write paths, and each stack should be measured on its own.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveApiService {
+  private static final String USER_NOT_FOUND = "User not found";
+
+  private final R2dbcLedgerRepository repository;
+
+  /**
+   * Constructs a new {@code ReactiveApiService}.
+   *
+   * @param repository The reactive ledger store.
+   */
+  public ReactiveApiService(final R2dbcLedgerRepository repository) {
+    this.repository = repository;
+  }
+
+  /**
+   * Streams all users.
+   *
+   * @return The users.
+   */
+  public Flux<User> viewAllUsers() {
+    return repository.findAllUsers();
+  }
+
+  /**
+   * Retrieves a user.
+   *
+   * @param userId The {@code UUID} of the user.
+   * @return The user, or empty if not found.
+   */
+  public Mono<User> getUser(final UUID userId) {
+    return repository.findUser(userId);
+  }
+
+  /**
+   * Adds a new user, letting the database generate the ID.
+   *
+   * @param user The user to add.
+   * @return The created user.
+   * @throws IllegalArgumentException (signalled) if a field is missing or the
+   *         username or email is already taken.
+   */
+  public Mono<User> addUser(final User user) {
+    if (user.getUsername() == null) {
+      return Mono.error(new IllegalArgumentException("Username field is required"));
+    }
+    if (user.getEmail() == null) {
+      return Mono.error(new IllegalArgumentException("Email field is required"));
+    }
+    return repository.insertUser(user)
+        .onErrorMap(DataIntegrityViolationException.class, e -> {
+          final String message = String.valueOf(e.getMostSpecificCause().getMessage());
+          if (message.contains("users_email_key")) {
+            return new IllegalArgumentException("Email already exists: " + user.getEmail(), e);
+          } else if (message.contains("users_username_key")) {
+            return new IllegalArgumentException(
+                "Username already exists: " + user.getUsername(), e);
+          }
+          return new IllegalArgumentException("Data integrity violation", e);
+        });
+  }
+
+  /**
+   * Deletes a user and their transactions.
+   *
+   * @param userId The {@code UUID} of the user.
+   * @return {@code true} if a user was deleted.
+   */
+  public Mono<Boolean> deleteUser(final UUID userId) {
+    return repository.deleteUser(userId);
+  }
+
+  /**
+   * Retrieves a transaction.
+   *
+   * @param transactionId The {@code UUID} of the transaction.
+   * @return The transaction, or empty if not found.
+   */
+  public Mono<Transaction> getTransaction(final UUID transactionId) {
+    return repository.findTransaction(transactionId);
+  }
+
+  /**
+   * Streams a user's transactions, most recent first, with backpressure.
+   *
+   * @param userId The {@code UUID} of the user.
+   * @return The transactions.
+   */
+  public Flux<Transaction> getTransactionsByUser(final UUID userId) {
+    return repository.findTransactionsByUser(userId);
+  }
+
+  /**
+   * Adds a transaction, with the same validation as
+   * {@link MockApiService#addTransaction(Transaction)}.
+   *
+   * @param transaction The transaction to add.
+   * @return The created transaction with its generated fields.
+   * @throws IllegalArgumentException (signalled) if a field is missing or invalid.
+   */
+  public Mono<Transaction> addTransaction(final Transaction transaction) {
+    if (transaction.getUserId() == null) {
+      return Mono.error(new IllegalArgumentException("User ID is required"));
+    }
+    final String description = transaction.getDescription();
+    if (description == null || description.isBlank()) {
+      return Mono.error(new IllegalArgumentException("Description is required"));
+    }
+    if (transaction.getAmount() <= 0) {
+      return Mono.error(new IllegalArgumentException("Amount must be greater than 0"));
+    }
+    final String category = transaction.getCategory();
+    if (category == null || category.isBlank()) {
+      return Mono.error(new IllegalArgumentException("Category is required"));
+    }
+    if (TransactionCategory.fromName(category) == null) {
+      return Mono.error(new IllegalArgumentException(
+          "Invalid category. Valid categories are: " + TransactionCategory.NAMES));
+    }
+    return repository.insertTransaction(transaction)
+        .onErrorMap(DataIntegrityViolationException.class, e ->
+            new IllegalArgumentException("Invalid user ID: user does not exist", e));
+  }
+
+  /**
+   * Deletes a transaction.
+   *
+   * @param transactionId The {@code UUID} of the transaction.
+   * @return {@code true} if a transaction was deleted.
+   */
+  public Mono<Boolean> deleteTransaction(final UUID transactionId) {
+    return repository.deleteTransaction(transactionId);
+  }
+
+  /**
+   * Summarizes a user's spending over the same window as
+   * {@link MockApiService#weeklySummary(UUID)}: today and the seven days before.
+   *
+   * @param user The user.
+   * @return A map with keys "username", "weeklyTotal", "transactionCount",
+   *         "transactions" and "dailyTotals" (oldest day first).
+   */
+  public Mono<Map<String, Object>> weeklySummary(final User user) {
+    final LocalDate today = LocalDate.now();
+    return repository.findTransactionsSince(user.getUserId(),
+            today.minusDays(WeeklySpendWindow.DAYS - 1))
+        .collectList()
+        .map(transactions -> weeklySummary(user, transactions, today));
+  }
+
+  /**
+   * Builds the weekly summary of already fetched transactions.
+   */
+  static Map<String, Object> weeklySummary(final User user, final List<Transaction> transactions,
+                                           final LocalDate today) {
+    final long[] cents = WeeklySpendWindow.dailyCents(transactions, today);
+    final Map<LocalDate, Double> daily = new LinkedHashMap<>();
+    long total = 0;
+    for (int i = 0; i < cents.length; i++) {
+      daily.put(today.minusDays(cents.length - 1 - i), cents[i] / 100.0);
+      total += cents[i];
+    }
+    final Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("username", user.getUsername());
+    summary.put("weeklyTotal", total / 100.0);
+    summary.put("transactionCount", transactions.size());
+    summary.put("transactions", transactions);
+    summary.put("dailyTotals", daily);
+    return summary;
+  }
+
+  /**
+   * Calculates a user's spending between two dates, in total and per category,
+   * with the same result as {@link MockApiService#getSpendingBetween}.
+   *
+   * @param userId The {@code UUID} of the user.
+   * @param from The first date of the period.
+   * @param to The last date of the period, inclusive.
+   * @return A map with keys "userId", "from", "to", "totalSpent" and "categories",
+   *         or with an "error" key if the user is not found.
+   * @throws IllegalArgumentException (signalled) if {@code from} is after {@code to}.
+   */
+  public Mono<Map<String, Object>> getSpendingBetween(final UUID userId, final LocalDate from,
+                                                      final LocalDate to) {
+    if (from == null || to == null || from.isAfter(to)) {
+      return Mono.error(
+          new IllegalArgumentException("'from' must be a date on or before 'to'"));
+    }
+    return repository.findUser(userId)
+        .flatMap(user -> repository.sumByCategory(userId, from, to)
+            .collectList()
+            .map(totals -> {
+              final long[] cents = new long[TransactionCategory.COUNT];
+              long total = 0;
+              for (final R2dbcLedgerRepository.CategoryTotal categoryTotal : totals) {
+                final TransactionCategory category =
+                    TransactionCategory.fromName(categoryTotal.category());
+                final long amount = Math.round(categoryTotal.total() * 100);
+                if (category != null) {
+                  cents[category.ordinal()] += amount;
+                }
+                total += amount;
+              }
+              final Map<String, Double> byCategory = new LinkedHashMap<>();
+              for (int i = 0; i < TransactionCategory.COUNT; i++) {
+                if (cents[i] > 0) {
+                  byCategory.put(TransactionCategory.of(i).name(), cents[i] / 100.0);
+                }
+              }
+              return Map.<String, Object>of(
+                  "userId", userId,
+                  "from", from,
+                  "to", to,
+                  "totalSpent", total / 100.0,
+                  "categories", byCategory);
+            }))
+        .defaultIfEmpty(Map.of("error", USER_NOT_FOUND));
+  }
+}
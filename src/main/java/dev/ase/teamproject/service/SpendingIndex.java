@@ -0,0 +1,311 @@
+package dev.ase.teamproject.service;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.TransactionCategory;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class answers "how much did a user spend between two dates" from an
+ * in-memory prefix-sum index, for the total and for each category.
+ *
+ * <p>Each user has a Fenwick (binary indexed) tree over the days on which they
+ * have spending, sorted by date. Every node holds {@value #WIDTH} sums in cents:
+ * one per {@link TransactionCategory} ordinal followed by the total. A range query
+ * finds its first and last day by binary search and subtracts two prefix sums, so
+ * it runs in O(log days) whatever the length of the range. Writes add or subtract
+ * an amount at a day in O(log days); a day after the last indexed day is appended
+ * in O(log days), and only a write for an earlier day that is not yet indexed
+ * rebuilds the tree.
+ *
+ * <p>Indexes are loaded and kept current as described in {@link UserSpendCache}.
+ */
+@Component
+public class SpendingIndex extends UserSpendCache<SpendingIndex.Tree> {
+
+  /** The number of sums per result: one per category, then the total. */
+  public static final int WIDTH = TransactionCategory.COUNT + 1;
+
+  /** The index of the total in a result. */
+  public static final int TOTAL = TransactionCategory.COUNT;
+
+  /**
+   * Constructs a new {@code SpendingIndex}.
+   *
+   * @param ttlSeconds How long a loaded index is trusted before reloading it.
+   * @param maxUsers The number of users to keep indexes for.
+   */
+  @Autowired
+  public SpendingIndex(@Value("${ledger.spending-index.ttl-seconds:300}") final long ttlSeconds,
+                       @Value("${ledger.spending-index.max-users:10000}") final int maxUsers) {
+    super(ttlSeconds, maxUsers);
+  }
+
+  /**
+   * Returns what a user spent between two dates, loading the user's index from
+   * the database if it is cold or expired.
+   *
+   * @param userId The user.
+   * @param from The first day of the range.
+   * @param to The last day of the range, inclusive.
+   * @param loader Reads all of a user's transactions.
+   * @return {@value #WIDTH} sums in cents, indexed by category ordinal and {@link #TOTAL}.
+   */
+  public long[] rangeCents(final UUID userId, final LocalDate from, final LocalDate to,
+                           final Function<UUID, List<Transaction>> loader) {
+    final long fromDay = from.toEpochDay();
+    final long toDay = to.toEpochDay();
+    final long[] cached = cached(userId, tree -> tree.range(fromDay, toDay));
+    if (cached != null) {
+      return cached;
+    }
+    final List<Transaction> rows = load(userId, () -> loader.apply(userId));
+    // Query the rows directly in case the load could not be installed
+    return aggregate(rows).range(fromDay, toDay);
+  }
+
+  /**
+   * Sums transactions dated between two days without an index.
+   *
+   * @param transactions The transactions to sum.
+   * @param from The first day of the range.
+   * @param to The last day of the range, inclusive.
+   * @return {@value #WIDTH} sums in cents, indexed by category ordinal and {@link #TOTAL}.
+   */
+  public static long[] rangeCents(final List<Transaction> transactions, final LocalDate from,
+                                  final LocalDate to) {
+    final long[] sums = new long[WIDTH];
+    for (final Transaction transaction : transactions) {
+      final LocalDate date = transaction.getDate();
+      if (date != null && !date.isBefore(from) && !date.isAfter(to)
+          && transaction.getAmount() > 0) {
+        final long cents = Math.round(transaction.getAmount() * 100);
+        final TransactionCategory category = transaction.categoryType();
+        if (category != null) {
+          sums[category.ordinal()] += cents;
+        }
+        sums[TOTAL] += cents;
+      }
+    }
+    return sums;
+  }
+
+  @Override
+  protected Tree newEntry() {
+    return new Tree();
+  }
+
+  /**
+   * One user's Fenwick tree. Node {@code i} (1-based) covers the days at positions
+   * {@code i - lowbit(i) + 1} to {@code i} of {@code days}, and its {@value #WIDTH}
+   * sums are stored at {@code tree[i * WIDTH]} onwards.
+   */
+  static final class Tree extends UserSpendCache.Entry {
+    private static final int INITIAL_DAYS = 16;
+
+    private long[] days = new long[INITIAL_DAYS];
+    private long[] tree = new long[(INITIAL_DAYS + 1) * WIDTH];
+    private int size;
+
+    private Tree() {
+    }
+
+    @Override
+    protected void reset() {
+      size = 0;
+    }
+
+    @Override
+    public void add(final LocalDate date, final TransactionCategory category,
+                    final double amount) {
+      adjust(date, category, amount, 1);
+    }
+
+    @Override
+    public void remove(final LocalDate date, final TransactionCategory category,
+                       final double amount) {
+      adjust(date, category, amount, -1);
+    }
+
+    /**
+     * Builds the tree from scratch in linear time after sorting the rows' days,
+     * rather than inserting them one at a time in arbitrary order.
+     */
+    @Override
+    protected void fill(final List<Transaction> rows) {
+      final long[] sorted = new long[rows.size()];
+      int count = 0;
+      for (final Transaction transaction : rows) {
+        if (transaction.getDate() != null && transaction.getAmount() > 0) {
+          sorted[count++] = transaction.getDate().toEpochDay();
+        }
+      }
+      Arrays.sort(sorted, 0, count);
+      int distinct = 0;
+      for (int i = 0; i < count; i++) {
+        if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+          sorted[distinct++] = sorted[i];
+        }
+      }
+      ensureCapacity(distinct);
+      System.arraycopy(sorted, 0, days, 0, distinct);
+      size = distinct;
+      Arrays.fill(tree, 0, (size + 1) * WIDTH, 0);
+      for (final Transaction transaction : rows) {
+        final int position = position(transaction.getDate(), transaction.getAmount());
+        if (position >= 0) {
+          addPoint(position + 1, transaction.categoryType(),
+              Math.round(transaction.getAmount() * 100));
+        }
+      }
+      build();
+    }
+
+    private int position(final LocalDate date, final double amount) {
+      if (date == null || !(amount > 0)) {
+        return -1;
+      }
+      final int position = Arrays.binarySearch(days, 0, size, date.toEpochDay());
+      return position >= 0 ? position : -1;
+    }
+
+    private void adjust(final LocalDate date, final TransactionCategory category,
+                        final double amount, final int sign) {
+      // Only positive amounts are spending, as in the SQL sums
+      if (date == null || !(amount > 0)) {
+        return;
+      }
+      final long day = date.toEpochDay();
+      int position = Arrays.binarySearch(days, 0, size, day);
+      if (position < 0) {
+        position = -position - 1;
+        if (position == size) {
+          append(day);
+        } else {
+          insert(position, day);
+        }
+      }
+      update(position + 1, category, sign * Math.round(amount * 100));
+    }
+
+    private void update(final int node, final TransactionCategory category, final long cents) {
+      for (int i = node; i <= size; i += i & -i) {
+        if (category != null) {
+          tree[i * WIDTH + category.ordinal()] += cents;
+        }
+        tree[i * WIDTH + TOTAL] += cents;
+      }
+    }
+
+    /**
+     * Appends an empty day after the last one. The new node must hold the sum of
+     * the days it covers, all of which are already indexed apart from itself.
+     */
+    private void append(final long day) {
+      ensureCapacity(size + 1);
+      days[size] = day;
+      size++;
+      final int node = size;
+      final int base = node * WIDTH;
+      Arrays.fill(tree, base, base + WIDTH, 0);
+      // Covered days node - lowbit + 1 .. node - 1 are the children node - 1, node - 2, ...
+      for (int child = node - 1; child > node - (node & -node); child -= child & -child) {
+        for (int k = 0; k < WIDTH; k++) {
+          tree[base + k] += tree[child * WIDTH + k];
+        }
+      }
+    }
+
+    /**
+     * Inserts an empty day before existing ones by converting the tree back to
+     * per-day sums, shifting them and rebuilding.
+     */
+    private void insert(final int position, final long day) {
+      unbuild();
+      ensureCapacity(size + 1);
+      System.arraycopy(days, position, days, position + 1, size - position);
+      System.arraycopy(tree, (position + 1) * WIDTH, tree, (position + 2) * WIDTH,
+          (size - position) * WIDTH);
+      days[position] = day;
+      Arrays.fill(tree, (position + 1) * WIDTH, (position + 2) * WIDTH, 0);
+      size++;
+      build();
+    }
+
+    private void addPoint(final int node, final TransactionCategory category,
+                          final long cents) {
+      if (category != null) {
+        tree[node * WIDTH + category.ordinal()] += cents;
+      }
+      tree[node * WIDTH + TOTAL] += cents;
+    }
+
+    /**
+     * Turns per-day sums into tree nodes in place, in linear time.
+     */
+    private void build() {
+      for (int i = 1; i <= size; i++) {
+        final int parent = i + (i & -i);
+        if (parent <= size) {
+          for (int k = 0; k < WIDTH; k++) {
+            tree[parent * WIDTH + k] += tree[i * WIDTH + k];
+          }
+        }
+      }
+    }
+
+    /**
+     * Turns tree nodes back into per-day sums in place; the inverse of {@link #build()}.
+     */
+    private void unbuild() {
+      for (int i = size; i >= 1; i--) {
+        final int parent = i + (i & -i);
+        if (parent <= size) {
+          for (int k = 0; k < WIDTH; k++) {
+            tree[parent * WIDTH + k] -= tree[i * WIDTH + k];
+          }
+        }
+      }
+    }
+
+    private void ensureCapacity(final int capacity) {
+      if (capacity > days.length) {
+        final int grown = Math.max(capacity, days.length * 2);
+        days = Arrays.copyOf(days, grown);
+        tree = Arrays.copyOf(tree, (grown + 1) * WIDTH);
+      }
+    }
+
+    private long[] range(final long fromDay, final long toDay) {
+      final long[] sums = new long[WIDTH];
+      if (fromDay > toDay) {
+        return sums;
+      }
+      prefix(lowerBound(toDay + 1), sums, 1);
+      prefix(lowerBound(fromDay), sums, -1);
+      return sums;
+    }
+
+    /**
+     * Adds the sums of the first {@code count} days to {@code sums}, times {@code sign}.
+     */
+    private void prefix(final int count, final long[] sums, final int sign) {
+      for (int i = count; i > 0; i -= i & -i) {
+        for (int k = 0; k < WIDTH; k++) {
+          sums[k] += sign * tree[i * WIDTH + k];
+        }
+      }
+    }
+
+    private int lowerBound(final long day) {
+      final int position = Arrays.binarySearch(days, 0, size, day);
+      return position >= 0 ? position : -position - 1;
+    }
+  }
+}
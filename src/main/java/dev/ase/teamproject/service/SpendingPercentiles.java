@@ -0,0 +1,548 @@
+package dev.ase.teamproject.service;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.TransactionCategory;
+import dev.ase.teamproject.repository.LedgerRepository;
+import dev.ase.teamproject.util.UuidMap;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class ranks a user's spending in each category against all users, from
+ * every user's monthly totals per category, kept in memory.
+ *
+ * <p>Totals are partitioned by calendar month: a partition holds every user's
+ * total in each category for that month, and a sorted copy of each category's
+ * totals that ranks are counted from. Ranking over several months adds up their
+ * counts. A month is read from the database once, with one grouped query, in the
+ * background, the first time it is ranked; until it has been read, ranks that
+ * need it wait up to {@code ledger.percentiles.wait-millis} and then fail with
+ * {@link DataAccessResourceFailureException}, which clients see as {@code 503}
+ * with {@code Retry-After}. Memory grows with the number of users: each of the
+ * {@code ledger.percentiles.months} partitions holds
+ * {@value TransactionCategory#COUNT} totals per user who spent that month, plus
+ * the sorted copies of the nonzero ones.
+ *
+ * <p>Transaction writes adjust the totals through {@link #write}, and a month
+ * whose totals changed has its sorted copies rebuilt from them in the background
+ * once they are older than {@code ledger.percentiles.refresh-seconds}; ranks are
+ * exact as of that rebuild. An update whose previous values are unknown has that
+ * user's month read again. Writes made by other application instances are only
+ * seen when a month is read again from the database, after
+ * {@code ledger.percentiles.max-age-seconds}.
+ *
+ * <p>Like {@link UserSpendCache#load}, a read from the database is only trusted
+ * for users who had no write in progress while it ran: every read records the
+ * users whose writes were in progress when it started or started before it was
+ * installed, and those users' totals are left stale, ignoring further changes,
+ * until a read of their own month finishes with no write of theirs overlapping
+ * it. A write is therefore never counted both by a read and by its change.
+ */
+@Component
+@Profile("!reactive")
+public class SpendingPercentiles {
+  private static final Logger LOGGER = Logger.getLogger(SpendingPercentiles.class.getName());
+
+  /** The default number of months that can be ranked over. */
+  public static final int DEFAULT_MONTHS = 12;
+
+  /** Totals below half a cent are what is left of removed spending. */
+  private static final double MIN_TOTAL = 0.005;
+
+  private final LedgerRepository repository;
+  private final int maxMonths;
+  private final long refreshNanos;
+  private final long maxAgeNanos;
+  private final long waitMillis;
+  private final Map<YearMonth, Partition> partitions = new ConcurrentHashMap<>();
+  private final Map<UUID, Integer> writing = new ConcurrentHashMap<>();
+  private final Queue<Read> reads = new ConcurrentLinkedQueue<>();
+  private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+    final Thread thread = new Thread(runnable, "spending-percentiles");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Constructs a new {@code SpendingPercentiles}.
+   *
+   * @param repository The store to read monthly totals from.
+   * @param maxMonths The number of months, up to the current one, that can be ranked over.
+   * @param refreshSeconds How long a changed month's ranks are served before rebuilding.
+   * @param maxAgeSeconds How long a month's totals are kept before reading them again.
+   * @param waitMillis How long a rank waits for a month that is being read.
+   */
+  @Autowired
+  public SpendingPercentiles(final LedgerRepository repository,
+                             @Value("${ledger.percentiles.months:12}") final int maxMonths,
+                             @Value("${ledger.percentiles.refresh-seconds:60}")
+                             final long refreshSeconds,
+                             @Value("${ledger.percentiles.max-age-seconds:3600}")
+                             final long maxAgeSeconds,
+                             @Value("${ledger.percentiles.wait-millis:100}")
+                             final long waitMillis) {
+    this.repository = repository;
+    this.maxMonths = maxMonths;
+    this.refreshNanos = TimeUnit.SECONDS.toNanos(refreshSeconds);
+    this.maxAgeNanos = TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+    this.waitMillis = waitMillis;
+  }
+
+  /**
+   * Returns the number of months, up to the current one, that can be ranked over.
+   *
+   * @return The maximum value for {@code months} in {@link #ranks}.
+   */
+  public int getMaxMonths() {
+    return maxMonths;
+  }
+
+  /**
+   * Ranks monthly spending against all users' monthly totals over a period of
+   * whole months ending with the given one.
+   *
+   * @param last The last month of the period.
+   * @param months The number of months in the period.
+   * @param monthlySpend The monthly amount to rank for each category, by ordinal.
+   * @return For each category, the fraction of users' monthly totals in the
+   *         period below the given amount, or {@code NaN} if nobody spent in
+   *         that category during the period.
+   * @throws DataAccessResourceFailureException if a month of the period has not
+   *         been read yet.
+   */
+  public double[] ranks(final YearMonth last, final int months, final double[] monthlySpend) {
+    if (months < 1 || months > maxMonths) {
+      throw new IllegalArgumentException("months must be between 1 and " + maxMonths);
+    }
+    partitions.keySet().removeIf(month -> month.isBefore(last.minusMonths(maxMonths - 1)));
+    final Partition[] period = new Partition[months];
+    final CompletableFuture<?>[] loads = new CompletableFuture<?>[months];
+    for (int m = 0; m < months; m++) {
+      period[m] = partitions.computeIfAbsent(last.minusMonths(m), Partition::new);
+      loads[m] = loaded(period[m]);
+    }
+    awaitLoaded(CompletableFuture.allOf(loads));
+
+    final long[] below = new long[TransactionCategory.COUNT];
+    final long[] counts = new long[TransactionCategory.COUNT];
+    for (final Partition partition : period) {
+      final double[][] sorted = sorted(partition);
+      for (int i = 0; i < below.length; i++) {
+        below[i] += countBelow(sorted[i], monthlySpend[i]);
+        counts[i] += sorted[i].length;
+      }
+    }
+    final double[] ranks = new double[TransactionCategory.COUNT];
+    for (int i = 0; i < ranks.length; i++) {
+      ranks[i] = counts[i] == 0 ? Double.NaN : (double) below[i] / counts[i];
+    }
+    return ranks;
+  }
+
+  /**
+   * Ranks monthly spending exactly, by aggregating every month of the period from
+   * the store. Used when no totals are kept in memory.
+   *
+   * @param repository The store to aggregate monthly totals from.
+   * @param last The last month of the period.
+   * @param months The number of months in the period.
+   * @param monthlySpend The monthly amount to rank for each category, by ordinal.
+   * @return For each category, the fraction of users' monthly totals in the period
+   *         below the given amount, or {@code NaN} if nobody spent in that category.
+   */
+  public static double[] exactRanks(final LedgerRepository repository, final YearMonth last,
+                                    final int months, final double[] monthlySpend) {
+    if (months < 1 || months > DEFAULT_MONTHS) {
+      throw new IllegalArgumentException("months must be between 1 and " + DEFAULT_MONTHS);
+    }
+    final long[] below = new long[TransactionCategory.COUNT];
+    final long[] counts = new long[TransactionCategory.COUNT];
+    for (int m = 0; m < months; m++) {
+      final YearMonth month = last.minusMonths(m);
+      repository.forEachCategoryTotal(month.atDay(1), month.atEndOfMonth(),
+          (userId, category, total) -> {
+            if (category != null) {
+              counts[category.ordinal()]++;
+              if (total < monthlySpend[category.ordinal()]) {
+                below[category.ordinal()]++;
+              }
+            }
+          });
+    }
+    final double[] ranks = new double[TransactionCategory.COUNT];
+    for (int i = 0; i < ranks.length; i++) {
+      ranks[i] = counts[i] == 0 ? Double.NaN : (double) below[i] / counts[i];
+    }
+    return ranks;
+  }
+
+  /**
+   * Runs a write for a user and, if it succeeds, applies its effect to the
+   * user's totals. Reads that overlap the write do not trust the user's totals.
+   *
+   * @param userId The user whose transactions the write changes.
+   * @param write The write to run.
+   * @param change The effect of the write on the user's totals.
+   * @param <T> The write's result type.
+   * @return The write's result.
+   */
+  public <T> T write(final UUID userId, final Supplier<T> write,
+                     final UserSpendCache.Change<T> change) {
+    if (userId == null) {
+      return write.get();
+    }
+    writing.merge(userId, 1, Integer::sum);
+    for (final Read read : reads) {
+      read.overlapped.add(userId);
+    }
+    try {
+      final T result = write.get();
+      // Applied before the write stops counting as in progress, so that no read
+      // starting afterwards can see it too
+      change.apply(forUser(userId), result);
+      return result;
+    } finally {
+      writing.computeIfPresent(userId, (id, count) -> count == 1 ? null : count - 1);
+    }
+  }
+
+  /**
+   * Returns the hooks through which the writes of one user adjust the totals.
+   * Changes should be applied within {@link #write}, so that reads running at
+   * the same time know about them.
+   *
+   * @param userId The user whose transactions are written.
+   * @return The user's buckets.
+   */
+  public UserSpendCache.Buckets forUser(final UUID userId) {
+    return new UserSpendCache.Buckets() {
+      @Override
+      public void add(final LocalDate date, final TransactionCategory category,
+                      final double amount) {
+        if (amount > 0) {
+          changed(userId, date, category, amount);
+        }
+      }
+
+      @Override
+      public void remove(final LocalDate date, final TransactionCategory category,
+                         final double amount) {
+        if (amount > 0) {
+          changed(userId, date, category, -amount);
+        }
+      }
+
+      @Override
+      public void discard(final LocalDate date) {
+        stale(userId, date);
+      }
+    };
+  }
+
+  private void changed(final UUID userId, final LocalDate date,
+                       final TransactionCategory category, final double delta) {
+    final Partition partition = partitionOf(date);
+    if (partition == null || userId == null || category == null) {
+      return;
+    }
+    partition.lock.readLock().lock();
+    try {
+      // A stale user's totals are replaced by the read that makes them current
+      if (partition.totals != null && !partition.stale.contains(userId)) {
+        add(partition.totals, userId, category.ordinal(), delta);
+      }
+    } finally {
+      partition.lock.readLock().unlock();
+    }
+    partition.writes.incrementAndGet();
+  }
+
+  /**
+   * Marks one user's totals for a month to be read again, after a write whose
+   * effect on them is unknown. The next rebuild of the month reads them.
+   */
+  private void stale(final UUID userId, final LocalDate date) {
+    final Partition partition = partitionOf(date);
+    if (partition == null || userId == null) {
+      return;
+    }
+    partition.lock.writeLock().lock();
+    try {
+      partition.stale.add(userId);
+    } finally {
+      partition.lock.writeLock().unlock();
+    }
+    partition.writes.incrementAndGet();
+  }
+
+  private Partition partitionOf(final LocalDate date) {
+    return date == null ? null : partitions.get(YearMonth.from(date));
+  }
+
+  /**
+   * Returns the month's first read, starting it if it has not started or has
+   * failed.
+   */
+  private CompletableFuture<Void> loaded(final Partition partition) {
+    synchronized (partition) {
+      if (partition.loaded == null || partition.loaded.isCompletedExceptionally()) {
+        partition.loaded = CompletableFuture.runAsync(() -> load(partition), refresher);
+      }
+      return partition.loaded;
+    }
+  }
+
+  private void awaitLoaded(final CompletableFuture<?> loads) {
+    try {
+      loads.get(waitMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw new DataAccessResourceFailureException(
+          "Spending percentiles are being prepared, please retry", e);
+    } catch (ExecutionException e) {
+      throw new DataAccessResourceFailureException(
+          "Spending percentiles could not be prepared", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DataAccessResourceFailureException("Interrupted preparing percentiles", e);
+    }
+  }
+
+  /**
+   * Returns a month's sorted totals, scheduling a rebuild if they changed and a
+   * new read from the database if they are too old.
+   */
+  private double[][] sorted(final Partition partition) {
+    final long now = System.nanoTime();
+    if (now - partition.loadedAt > maxAgeNanos) {
+      refresh(partition, () -> load(partition));
+    } else if (now - partition.builtAt > refreshNanos && partition.writes.get() > 0) {
+      refresh(partition, () -> rebuild(partition));
+    }
+    return partition.sorted;
+  }
+
+  /**
+   * Runs a refresh of a month on the background thread, unless one is already
+   * queued or running for it.
+   */
+  private void refresh(final Partition partition, final Runnable refresh) {
+    if (partition.refreshing.compareAndSet(false, true)
+        && !submit(partition.month, refresh, () -> partition.refreshing.set(false))) {
+      partition.refreshing.set(false);
+    }
+  }
+
+  /**
+   * Runs work for a month on the background thread, logging its failure.
+   *
+   * @return {@code false} if the work could not be queued.
+   */
+  private boolean submit(final YearMonth month, final Runnable work, final Runnable done) {
+    try {
+      refresher.execute(() -> {
+        try {
+          work.run();
+        } catch (RuntimeException e) {
+          LOGGER.log(Level.WARNING, "Refreshing spending percentiles for " + month + " failed", e);
+        } finally {
+          done.run();
+        }
+      });
+      return true;
+    } catch (RejectedExecutionException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Reads a month's totals from the database and builds its sorted totals. Users
+   * whose writes overlapped the read are left stale and read again one by one.
+   */
+  private void load(final Partition partition) {
+    final long start = System.nanoTime();
+    final UuidMap<double[]> totals = new UuidMap<>();
+    final Read read = startRead();
+    try {
+      repository.forEachCategoryTotal(partition.month.atDay(1), partition.month.atEndOfMonth(),
+          (userId, category, total) -> {
+            if (category != null) {
+              add(totals, userId, category.ordinal(), total);
+            }
+          });
+      partition.lock.writeLock().lock();
+      try {
+        partition.totals = totals;
+        partition.stale.clear();
+        partition.stale.addAll(read.overlapped);
+      } finally {
+        partition.lock.writeLock().unlock();
+      }
+    } finally {
+      reads.remove(read);
+    }
+    partition.loadedAt = System.nanoTime();
+    if (LOGGER.isLoggable(Level.FINE)) {
+      LOGGER.fine("Spending totals for " + partition.month + " read in "
+          + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+    rebuild(partition);
+  }
+
+  /**
+   * Reads the month's stale users again and builds its sorted totals.
+   */
+  private void rebuild(final Partition partition) {
+    final long writesSeen = partition.writes.get();
+    for (final UUID userId : List.copyOf(partition.stale)) {
+      reread(partition, userId);
+    }
+    final List<double[]> users;
+    partition.lock.readLock().lock();
+    try {
+      users = partition.totals.values();
+    } finally {
+      partition.lock.readLock().unlock();
+    }
+    final double[][] sorted = new double[TransactionCategory.COUNT][users.size()];
+    final int[] counts = new int[TransactionCategory.COUNT];
+    for (final double[] totals : users) {
+      synchronized (totals) {
+        for (int i = 0; i < sorted.length; i++) {
+          if (totals[i] >= MIN_TOTAL) {
+            sorted[i][counts[i]++] = totals[i];
+          }
+        }
+      }
+    }
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i] = Arrays.copyOf(sorted[i], counts[i]);
+      Arrays.sort(sorted[i]);
+    }
+    // Sorted totals are never changed once published, so readers may count them freely
+    partition.sorted = sorted;
+    partition.builtAt = System.nanoTime();
+    partition.writes.addAndGet(-writesSeen);
+  }
+
+  /**
+   * Reads one user's totals for a month again and installs them if no write of
+   * the user overlapped the read; otherwise the user stays stale until the next
+   * rebuild.
+   */
+  private void reread(final Partition partition, final UUID userId) {
+    final double[] totals = new double[TransactionCategory.COUNT];
+    final Read read = startRead();
+    try {
+      for (final Transaction transaction :
+          repository.findTransactionsSince(userId, partition.month.atDay(1))) {
+        final TransactionCategory category = transaction.categoryType();
+        if (category != null && transaction.getAmount() > 0
+            && YearMonth.from(transaction.getDate()).equals(partition.month)) {
+          totals[category.ordinal()] += transaction.getAmount();
+        }
+      }
+      partition.lock.writeLock().lock();
+      try {
+        if (!read.overlapped.contains(userId) && partition.stale.remove(userId)) {
+          partition.totals.put(userId, totals);
+        } else {
+          partition.writes.incrementAndGet();
+        }
+      } finally {
+        partition.lock.writeLock().unlock();
+      }
+    } finally {
+      reads.remove(read);
+    }
+  }
+
+  /**
+   * Starts a read from the database, counting as overlapped every user with a
+   * write in progress. Users whose writes start later add themselves.
+   */
+  private Read startRead() {
+    final Read read = new Read();
+    reads.add(read);
+    read.overlapped.addAll(writing.keySet());
+    return read;
+  }
+
+  private static int countBelow(final double[] sorted, final double value) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (sorted[mid] < value) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static void add(final UuidMap<double[]> totals, final UUID userId,
+                          final int category, final double amount) {
+    final double[] user = totals.computeIfAbsent(userId,
+        id -> new double[TransactionCategory.COUNT]);
+    synchronized (user) {
+      user[category] += amount;
+    }
+  }
+
+  /**
+   * A read from the database in progress, with the users whose writes overlapped it.
+   */
+  private static final class Read {
+    private final Set<UUID> overlapped = ConcurrentHashMap.newKeySet();
+  }
+
+  /**
+   * One month's totals and sorted totals. The totals and stale users are
+   * replaced under the write lock and used under the read lock; each user's
+   * totals are guarded by their own monitor.
+   */
+  private static final class Partition {
+    private final YearMonth month;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final Set<UUID> stale = ConcurrentHashMap.newKeySet();
+    private UuidMap<double[]> totals;
+    private CompletableFuture<Void> loaded;
+    private volatile double[][] sorted;
+    private volatile long builtAt;
+    private volatile long loadedAt;
+
+    private Partition(final YearMonth month) {
+      this.month = month;
+    }
+  }
+}
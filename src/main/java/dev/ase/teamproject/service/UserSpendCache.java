@@ -0,0 +1,341 @@
+package dev.ase.teamproject.service;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.TransactionCategory;
+import dev.ase.teamproject.util.UuidMap;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Base class for in-memory aggregates of each user's spending that the service
+ * keeps current as it writes transactions.
+ *
+ * <p>A user's entry is filled from the database the first time it is read
+ * ({@link #load}), and again once it is older than the configured TTL, which
+ * bounds how long writes made by other application instances go unnoticed. In
+ * between, the service reports every write through {@link #write}. A load is only
+ * installed if no write for that user was in progress or started while the rows
+ * were being read, so a write is never counted twice or missed. A failed write
+ * discards the entry, since whether the database changed is unknown.
+ *
+ * <p>Entries are held in a {@link UuidMap}, so a user costs no {@code UUID} or
+ * map node beyond the entry itself. When {@code maxUsers} is reached, the cold
+ * and expired entries are dropped and, if that is not enough, the least
+ * recently used eighth of the rest, so a busy cache keeps its active users
+ * warm. An entry is only dropped while no write holds it, and a write or load
+ * that finds its entry dropped looks the user up again, so no write is applied
+ * to an entry that later reads cannot see.
+ *
+ * @param <E> The per-user aggregate.
+ */
+public abstract class UserSpendCache<E extends UserSpendCache.Entry> {
+
+  private final UuidMap<E> entries = new UuidMap<>();
+  private final long ttlNanos;
+  private final int maxUsers;
+  private final AtomicBoolean evicting = new AtomicBoolean();
+
+  /**
+   * Constructs a new cache.
+   *
+   * @param ttlSeconds How long a loaded entry is trusted before reloading it.
+   * @param maxUsers The number of users to keep entries for.
+   */
+  protected UserSpendCache(final long ttlSeconds, final int maxUsers) {
+    this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    this.maxUsers = maxUsers;
+  }
+
+  /**
+   * Applies the effect of a completed write to a user's aggregate. Implemented
+   * by the write paths of the service.
+   *
+   * @param <T> The write's result type.
+   */
+  @FunctionalInterface
+  public interface Change<T> {
+
+    /**
+     * Records the effect of a completed write.
+     *
+     * @param buckets The user's aggregate.
+     * @param result The value returned by the write.
+     */
+    void apply(Buckets buckets, T result);
+  }
+
+  /**
+   * Adjusts the aggregate of one user. Passed to {@link Change#apply}.
+   */
+  public interface Buckets {
+
+    /**
+     * Adds a transaction's amount, if the amount counts as spending.
+     *
+     * @param date The transaction date.
+     * @param category The transaction category, or {@code null} if unknown.
+     * @param amount The transaction amount.
+     */
+    void add(LocalDate date, TransactionCategory category, double amount);
+
+    /**
+     * Removes a transaction's amount, if the amount counted as spending.
+     *
+     * @param date The transaction date.
+     * @param category The transaction category, or {@code null} if unknown.
+     * @param amount The transaction amount.
+     */
+    void remove(LocalDate date, TransactionCategory category, double amount);
+
+    /**
+     * Gives up on keeping the aggregate current after a change whose previous
+     * values are unknown, so that it is read from the database again.
+     *
+     * @param date The date of the changed transaction.
+     */
+    void discard(LocalDate date);
+  }
+
+  /**
+   * Runs a write for a user and, if it succeeds, applies its effect to the user's
+   * entry. If the write fails, the entry is discarded.
+   *
+   * @param userId The user whose transactions the write changes.
+   * @param write The write to run.
+   * @param change The effect of the write on the entry.
+   * @param <T> The write's result type.
+   * @return The write's result.
+   */
+  public <T> T write(final UUID userId, final Supplier<T> write, final Change<T> change) {
+    if (userId == null) {
+      return write.get();
+    }
+    final E entry = acquire(userId);
+    boolean succeeded = false;
+    T result = null;
+    try {
+      result = write.get();
+      succeeded = true;
+      return result;
+    } finally {
+      synchronized (entry) {
+        entry.inFlight--;
+        if (entry.warm) {
+          if (succeeded) {
+            change.apply(entry, result);
+          } else {
+            entry.warm = false;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Forgets a user's entry, for example after the user is deleted.
+   *
+   * @param userId The user to forget.
+   */
+  public void forget(final UUID userId) {
+    final E entry = entries.get(userId);
+    if (entry != null) {
+      synchronized (entry) {
+        entry.warm = false;
+        if (entry.inFlight == 0) {
+          entry.evicted = true;
+          entries.remove(userId, entry);
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates an empty aggregate.
+   *
+   * @return A new entry.
+   */
+  protected abstract E newEntry();
+
+  /**
+   * Reads a user's transactions from the database and, when it is safe to, uses
+   * them to refresh the user's entry.
+   *
+   * @param userId The user.
+   * @param reader Reads the transactions the entry covers.
+   * @return The rows returned by the reader.
+   */
+  protected final List<Transaction> load(final UUID userId,
+                                         final Supplier<List<Transaction>> reader) {
+    E entry = entry(userId);
+    long stamp;
+    while (true) {
+      synchronized (entry) {
+        if (!entry.evicted) {
+          stamp = entry.inFlight == 0 ? entry.writesStarted : -1;
+          break;
+        }
+      }
+      entries.remove(userId, entry);
+      entry = entry(userId);
+    }
+    final List<Transaction> rows = reader.get();
+    if (stamp >= 0) {
+      synchronized (entry) {
+        if (entry.writesStarted == stamp && !entry.evicted) {
+          entry.reset();
+          entry.fill(rows);
+          entry.warm = true;
+          entry.loadedAt = System.nanoTime();
+          entry.lastUsed = entry.loadedAt;
+        }
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Runs a query against a user's entry if it is loaded and has not expired.
+   *
+   * @param userId The user.
+   * @param query The query, run while holding the entry's monitor.
+   * @param <R> The query's result type.
+   * @return The query's result, or {@code null} if the entry must be loaded first.
+   */
+  protected final <R> R cached(final UUID userId, final Function<E, R> query) {
+    final E entry = entries.get(userId);
+    if (entry == null) {
+      return null;
+    }
+    synchronized (entry) {
+      final long now = System.nanoTime();
+      if (!entry.warm || now - entry.loadedAt > ttlNanos) {
+        return null;
+      }
+      entry.lastUsed = now;
+      return query.apply(entry);
+    }
+  }
+
+  /**
+   * Builds an entry from the given rows without caching it, for reads whose load
+   * could not be installed.
+   *
+   * @param rows The transactions to aggregate.
+   * @return A new entry holding the rows.
+   */
+  protected final E aggregate(final List<Transaction> rows) {
+    final E entry = newEntry();
+    entry.fill(rows);
+    return entry;
+  }
+
+  /**
+   * Returns the user's entry with a write counted as started and in progress,
+   * checked under the entry's monitor so that it cannot be evicted in between.
+   */
+  private E acquire(final UUID userId) {
+    while (true) {
+      final E entry = entry(userId);
+      synchronized (entry) {
+        if (!entry.evicted) {
+          entry.writesStarted++;
+          entry.inFlight++;
+          entry.lastUsed = System.nanoTime();
+          return entry;
+        }
+      }
+      entries.remove(userId, entry);
+    }
+  }
+
+  private E entry(final UUID userId) {
+    E entry = entries.get(userId);
+    if (entry == null) {
+      if (entries.size() >= maxUsers) {
+        evict();
+      }
+      entry = entries.computeIfAbsent(userId, id -> newEntry());
+    }
+    return entry;
+  }
+
+  /**
+   * Makes room for new users by dropping the cold and expired entries and, if
+   * the cache is still more than seven eighths full, the least recently used
+   * entries down to that size. One thread evicts at a time; the others carry on,
+   * letting the cache briefly exceed its size.
+   */
+  private void evict() {
+    if (!evicting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      final long now = System.nanoTime();
+      entries.removeIf(entry -> evict(entry, idle -> !idle.warm || now - idle.loadedAt > ttlNanos));
+      final int excess = entries.size() - (maxUsers - Math.max(1, maxUsers / 8));
+      if (excess > 0) {
+        final long[] used = entries.values().stream()
+            .mapToLong(entry -> entry.lastUsed).sorted().toArray();
+        if (used.length > 0) {
+          final long cutoff = used[Math.min(excess, used.length) - 1];
+          entries.removeIf(entry -> evict(entry, idle -> idle.lastUsed <= cutoff));
+        }
+      }
+    } finally {
+      evicting.set(false);
+    }
+  }
+
+  /**
+   * Marks an entry as evicted if no write holds it and it matches the test.
+   */
+  private static <E extends Entry> boolean evict(final E entry, final Predicate<E> test) {
+    synchronized (entry) {
+      if (entry.inFlight > 0 || !test.test(entry)) {
+        return false;
+      }
+      entry.evicted = true;
+      return true;
+    }
+  }
+
+  /**
+   * One user's aggregate and write bookkeeping. Guarded by its own monitor.
+   */
+  protected abstract static class Entry implements Buckets {
+    long writesStarted;
+    int inFlight;
+    boolean warm;
+    boolean evicted;
+    long loadedAt;
+    /** Read without the monitor when choosing entries to evict. */
+    volatile long lastUsed = System.nanoTime();
+
+    @Override
+    public final void discard(final LocalDate date) {
+      warm = false;
+    }
+
+    /**
+     * Empties the aggregate.
+     */
+    protected abstract void reset();
+
+    /**
+     * Adds rows to an empty aggregate.
+     *
+     * @param rows The transactions to add.
+     */
+    protected void fill(final List<Transaction> rows) {
+      for (final Transaction transaction : rows) {
+        add(transaction.getDate(), transaction.categoryType(), transaction.getAmount());
+      }
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package dev.ase.teamproject.service;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.TransactionCategory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class keeps each user's spending over the trailing week in memory, so the
+ * weekly total and per-day breakdown are answered without a database query.
+ *
+ * <p>The window matches the SQL used by {@code MockApiService}: transactions
+ * dated today or up to seven days before ({@code created_date >= today - 7}), so
+ * it spans {@value #DAYS} days. Each user has a ring of {@value #DAYS} day buckets
+ * holding the sum of positive amounts in cents. A bucket is tagged with the day
+ * it holds, so a day boundary needs no explicit roll-over: a bucket whose tag is
+ * outside the current window simply reads as zero and is reset on its next write.
+ *
+ * <p>Buckets are loaded and kept current as described in {@link UserSpendCache}.
+ */
+@Component
+public class WeeklySpendWindow extends UserSpendCache<WeeklySpendWindow.Window> {
+
+  /** The number of days in the window: today and the seven days before it. */
+  public static final int DAYS = 8;
+
+  private static final long NO_DAY = Long.MIN_VALUE;
+
+  /**
+   * Constructs a new {@code WeeklySpendWindow}.
+   *
+   * @param ttlSeconds How long loaded buckets are trusted before reloading them.
+   * @param maxUsers The number of users to keep buckets for.
+   */
+  @Autowired
+  public WeeklySpendWindow(@Value("${ledger.weekly-window.ttl-seconds:60}") final long ttlSeconds,
+                           @Value("${ledger.weekly-window.max-users:100000}") final int maxUsers) {
+    super(ttlSeconds, maxUsers);
+  }
+
+  /**
+   * Reads the user's transactions in the window from the database and, when it
+   * is safe to, uses them to refresh the user's buckets.
+   *
+   * @param userId The user.
+   * @param today The last day of the window.
+   * @param loader Reads a user's transactions dated on or after a day.
+   * @return The rows returned by the loader.
+   */
+  public List<Transaction> load(final UUID userId, final LocalDate today,
+                                final BiFunction<UUID, LocalDate, List<Transaction>> loader) {
+    return load(userId, () -> loader.apply(userId, today.minusDays(DAYS - 1)));
+  }
+
+  /**
+   * Returns the user's spending per day over the window, oldest day first, loading
+   * the buckets from the database if they are cold or expired.
+   *
+   * @param userId The user.
+   * @param today The last day of the window.
+   * @param loader Reads a user's transactions dated on or after a day.
+   * @return {@value #DAYS} totals in cents; index {@code DAYS - 1} is today.
+   */
+  public long[] dailyCents(final UUID userId, final LocalDate today,
+                           final BiFunction<UUID, LocalDate, List<Transaction>> loader) {
+    final long[] cached = cached(userId, window -> window.read(today.toEpochDay()));
+    if (cached != null) {
+      return cached;
+    }
+    // Sum the rows directly in case the load could not be installed
+    return dailyCents(load(userId, today, loader), today);
+  }
+
+  /**
+   * Sums transactions into the days of the window ending on the given day.
+   *
+   * @param transactions The transactions to sum.
+   * @param today The last day of the window.
+   * @return {@value #DAYS} totals in cents; index {@code DAYS - 1} is today.
+   */
+  public static long[] dailyCents(final List<Transaction> transactions, final LocalDate today) {
+    final Window scratch = new Window();
+    scratch.fill(transactions);
+    return scratch.read(today.toEpochDay());
+  }
+
+  @Override
+  protected Window newEntry() {
+    return new Window();
+  }
+
+  /**
+   * One user's day buckets.
+   */
+  static final class Window extends UserSpendCache.Entry {
+    private final long[] days = new long[DAYS];
+    private final long[] cents = new long[DAYS];
+
+    private Window() {
+      reset();
+    }
+
+    @Override
+    protected void reset() {
+      for (int i = 0; i < DAYS; i++) {
+        days[i] = NO_DAY;
+        cents[i] = 0;
+      }
+    }
+
+    @Override
+    public void add(final LocalDate date, final TransactionCategory category,
+                    final double amount) {
+      adjust(date, amount, 1);
+    }
+
+    @Override
+    public void remove(final LocalDate date, final TransactionCategory category,
+                       final double amount) {
+      adjust(date, amount, -1);
+    }
+
+    private void adjust(final LocalDate date, final double amount, final int sign) {
+      // Only positive amounts are spending, as in the SQL sum
+      if (date == null || !(amount > 0)) {
+        return;
+      }
+      final long day = date.toEpochDay();
+      final int slot = (int) Math.floorMod(day, (long) DAYS);
+      if (days[slot] != day) {
+        if (days[slot] != NO_DAY && days[slot] > day) {
+          // Older than the day now held here, so already outside the window
+          return;
+        }
+        days[slot] = day;
+        cents[slot] = 0;
+      }
+      cents[slot] += sign * Math.round(amount * 100);
+    }
+
+    private long[] read(final long today) {
+      final long[] result = new long[DAYS];
+      for (int i = 0; i < DAYS; i++) {
+        final long day = today - (DAYS - 1) + i;
+        final int slot = (int) Math.floorMod(day, (long) DAYS);
+        result[i] = days[slot] == day ? cents[slot] : 0;
+      }
+      return result;
+    }
+  }
+}
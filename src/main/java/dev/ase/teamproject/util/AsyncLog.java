@@ -0,0 +1,318 @@
+package dev.ase.teamproject.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Formatter;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * Writes log lines from a background thread, so that request threads never
+ * format a line or wait on the output stream's lock.
+ *
+ * <p>Callers put the fields of a record into a slot of a ring that is allocated
+ * once, up front: the strings they already hold, a status and a duration. The
+ * writer thread takes the filled slots in order, formats them into one buffer
+ * and writes the batch with a single call. Slots are claimed as in Dmitry
+ * Vyukov's bounded queue: each carries a sequence number telling whether it is
+ * free for the current lap of the ring or holds a record, so claiming one is a
+ * single compare-and-set. When every slot is full the record is dropped and
+ * counted instead of making the caller wait. A record that cannot be formatted
+ * or written is counted as failed, and the writer carries on with the next.
+ *
+ * <p>There are two kinds of record: access lines, in the {@code CLIENT_LOG:}
+ * format the request log has always used, and application log records passed
+ * on by {@link AsyncLogHandler}.
+ */
+public final class AsyncLog implements AutoCloseable {
+
+  private static final int BATCH = 256;
+  private static final int ACCESS = 0;
+  private static final int RECORD = 1;
+
+  private final Slot[] slots;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder written = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final Writer out;
+  private final boolean closeOut;
+  private final long idleNanos;
+  private final Thread writer;
+  private final Formatter messages = new SimpleFormatter();
+  private final StringBuilder buffer = new StringBuilder(BATCH * 96);
+  private long head;
+  private volatile boolean running = true;
+
+  /**
+   * Constructs a new {@code AsyncLog} and starts its writer thread.
+   *
+   * @param out The stream the lines are written to.
+   * @param closeOut Whether {@link #close()} closes the stream too.
+   * @param capacity How many records may wait to be written; rounded up to a
+   *                 power of two.
+   * @param idleMillis How long the writer sleeps when there is nothing to write,
+   *                   which bounds how late a line appears.
+   */
+  public AsyncLog(final OutputStream out, final boolean closeOut, final int capacity,
+                  final long idleMillis) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be at least 1");
+    }
+    final int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+    this.slots = new Slot[size];
+    for (int i = 0; i < size; i++) {
+      slots[i] = new Slot(i);
+    }
+    this.mask = size - 1;
+    this.out = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    this.closeOut = closeOut;
+    this.idleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, idleMillis));
+    this.writer = new Thread(this::drain, "async-log-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Queues an access line.
+   *
+   * @param client The client address.
+   * @param method The request method.
+   * @param uri The request path.
+   * @param arrivedMillis When the request arrived, in milliseconds since the epoch.
+   * @param status The response status.
+   * @param nanos How long the request took.
+   * @param traceId The request's trace identifier, or 0 if it has none.
+   * @return {@code true} if the line was queued, or {@code false} if it was
+   *         dropped because the ring is full.
+   */
+  public boolean access(final String client, final String method, final String uri,
+                        final long arrivedMillis, final int status, final long nanos,
+                        final long traceId) {
+    final long position = claim();
+    if (position < 0) {
+      return false;
+    }
+    final Slot slot = slots[(int) position & mask];
+    slot.kind = ACCESS;
+    slot.epochMillis = arrivedMillis;
+    slot.client = client;
+    slot.method = method;
+    slot.uri = uri;
+    slot.status = status;
+    slot.nanos = nanos;
+    slot.traceId = traceId;
+    slot.sequence = position + 1;
+    return true;
+  }
+
+  /**
+   * Queues an application log record.
+   *
+   * @param record The record; its message is formatted on the writer thread.
+   * @return {@code true} if the record was queued, or {@code false} if it was
+   *         dropped because the ring is full.
+   */
+  public boolean record(final LogRecord record) {
+    final long position = claim();
+    if (position < 0) {
+      return false;
+    }
+    final Slot slot = slots[(int) position & mask];
+    slot.kind = RECORD;
+    slot.record = record;
+    slot.sequence = position + 1;
+    return true;
+  }
+
+  /**
+   * Returns how many records were dropped because the ring was full.
+   *
+   * @return The number of dropped records.
+   */
+  public long dropped() {
+    return dropped.sum();
+  }
+
+  /**
+   * Returns how many records have been written.
+   *
+   * @return The number of written records.
+   */
+  public long written() {
+    return written.sum();
+  }
+
+  /**
+   * Returns how many records were lost because they could not be formatted or
+   * written.
+   *
+   * @return The number of failed records.
+   */
+  public long failed() {
+    return failed.sum();
+  }
+
+  /**
+   * Writes what is queued, stops the writer thread and, if asked to at
+   * construction, closes the stream.
+   */
+  @Override
+  public void close() {
+    running = false;
+    LockSupport.unpark(writer);
+    try {
+      writer.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (closeOut) {
+      try {
+        out.close();
+      } catch (IOException e) {
+        // Nothing more can be logged.
+      }
+    }
+  }
+
+  /**
+   * Claims the next slot, or returns -1 if the ring is full.
+   */
+  private long claim() {
+    long position = tail.get();
+    while (true) {
+      final long sequence = slots[(int) position & mask].sequence;
+      if (sequence == position) {
+        if (tail.compareAndSet(position, position + 1)) {
+          return position;
+        }
+        position = tail.get();
+      } else if (sequence < position) {
+        dropped.increment();
+        return -1;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  private void drain() {
+    while (true) {
+      final boolean stopping = !running;
+      int count;
+      try {
+        count = writeBatch();
+      } catch (RuntimeException e) {
+        // This is the only thread that writes the log, so it must not stop
+        failed.increment();
+        buffer.setLength(0);
+        count = 0;
+      }
+      if (count == 0) {
+        if (stopping) {
+          return;
+        }
+        LockSupport.parkNanos(this, idleNanos);
+      }
+    }
+  }
+
+  private int writeBatch() {
+    int count = 0;
+    int lines = 0;
+    Slot slot = slots[(int) head & mask];
+    while (count < BATCH && slot.sequence == head + 1) {
+      final int mark = buffer.length();
+      try {
+        format(slot);
+        lines++;
+      } catch (RuntimeException e) {
+        // Such as a thrown exception whose toString fails; skip just this one
+        buffer.setLength(mark);
+        failed.increment();
+      } finally {
+        slot.clear();
+        slot.sequence = head + slots.length;
+        head++;
+      }
+      count++;
+      slot = slots[(int) head & mask];
+    }
+    if (lines > 0) {
+      try {
+        out.append(buffer);
+        out.flush();
+      } catch (IOException | RuntimeException e) {
+        failed.add(lines);
+        lines = 0;
+      }
+      buffer.setLength(0);
+      written.add(lines);
+    }
+    return count;
+  }
+
+  private void format(final Slot slot) {
+    if (slot.kind == ACCESS) {
+      buffer.append("CLIENT_LOG: ").append(slot.client).append(" | ")
+          .append(slot.method).append(' ').append(slot.uri).append(" | ");
+      DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(slot.epochMillis), buffer);
+      buffer.append(" | ").append(slot.status).append(" | ")
+          .append(slot.nanos / 1_000).append(" us");
+      if (slot.traceId != 0) {
+        buffer.append(" | trace=").append(Tracer.hex(slot.traceId));
+      }
+      buffer.append('\n');
+    } else {
+      final LogRecord record = slot.record;
+      DateTimeFormatter.ISO_INSTANT.formatTo(record.getInstant(), buffer);
+      buffer.append(' ').append(record.getLevel().getName()).append(' ')
+          .append(record.getLoggerName()).append(": ").append(messages.formatMessage(record));
+      buffer.append('\n');
+      if (record.getThrown() != null) {
+        final StringWriter trace = new StringWriter();
+        record.getThrown().printStackTrace(new PrintWriter(trace));
+        buffer.append(trace.getBuffer());
+      }
+    }
+  }
+
+  /**
+   * One preallocated place in the ring.
+   */
+  private static final class Slot {
+    private volatile long sequence;
+    private int kind;
+    private long epochMillis;
+    private String client;
+    private String method;
+    private String uri;
+    private int status;
+    private long nanos;
+    private long traceId;
+    private LogRecord record;
+
+    Slot(final long sequence) {
+      this.sequence = sequence;
+    }
+
+    void clear() {
+      client = null;
+      method = null;
+      uri = null;
+      record = null;
+    }
+  }
+}
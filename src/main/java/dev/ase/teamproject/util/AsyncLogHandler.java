@@ -0,0 +1,40 @@
+package dev.ase.teamproject.util;
+
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * A {@code java.util.logging} handler that passes records on to an
+ * {@link AsyncLog}, so that the application's log lines are formatted and
+ * written off the calling thread, and dropped rather than waited for when the
+ * log falls behind.
+ */
+public final class AsyncLogHandler extends Handler {
+  private final AsyncLog log;
+
+  /**
+   * Constructs a new {@code AsyncLogHandler}.
+   *
+   * @param log The log to pass records on to.
+   */
+  public AsyncLogHandler(final AsyncLog log) {
+    this.log = log;
+  }
+
+  @Override
+  public void publish(final LogRecord record) {
+    if (isLoggable(record)) {
+      log.record(record);
+    }
+  }
+
+  @Override
+  public void flush() {
+    // The log's writer thread flushes after every batch.
+  }
+
+  @Override
+  public void close() {
+    // The log is closed by its owner.
+  }
+}
@@ -0,0 +1,95 @@
+package dev.ase.teamproject.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records durations into log-linear buckets, in the manner of HdrHistogram,
+ * without locks or allocation.
+ *
+ * <p>Each power of two of nanoseconds is split into {@value #SUB_BUCKETS} equal
+ * buckets, so a duration is placed in a bucket at most about 3% wider than it,
+ * whether it is a microsecond or a minute. Finding the bucket takes a few shifts
+ * and recording is one atomic increment, so concurrent callers never wait on one
+ * another. Durations longer than about 68 seconds are counted in the last bucket.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_EXPONENT = 35;
+  private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+  private static final int BUCKETS = bucketOf(MAX_VALUE) + 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder sum = new LongAdder();
+
+  /**
+   * Records one duration.
+   *
+   * @param nanos The duration in nanoseconds; negative values count as zero.
+   */
+  public void record(final long nanos) {
+    final long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+    counts.incrementAndGet(bucketOf(value));
+    sum.add(value);
+  }
+
+  /**
+   * Returns the sum of the recorded durations.
+   *
+   * @return The total in nanoseconds.
+   */
+  public long sumNanos() {
+    return sum.sum();
+  }
+
+  /**
+   * Counts the durations at or below each of the given bounds. A duration is
+   * counted under a bound when its whole bucket is, so counts may lag the exact
+   * ones by durations within a bucket's width below the bound.
+   *
+   * @param boundsNanos Ascending upper bounds in nanoseconds.
+   * @return The cumulative count for each bound, followed by the total count.
+   */
+  public long[] cumulativeCounts(final long[] boundsNanos) {
+    final long[] cumulative = new long[boundsNanos.length + 1];
+    long total = 0;
+    int bound = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      final long highest = highestValueIn(bucket);
+      while (bound < boundsNanos.length && highest > boundsNanos[bound]) {
+        cumulative[bound++] = total;
+      }
+      total += counts.get(bucket);
+    }
+    while (bound < boundsNanos.length) {
+      cumulative[bound++] = total;
+    }
+    cumulative[boundsNanos.length] = total;
+    return cumulative;
+  }
+
+  /**
+   * Returns the bucket of a duration: durations below {@value #SUB_BUCKETS}
+   * nanoseconds have one bucket each, and each later power of two has
+   * {@value #SUB_BUCKETS}.
+   */
+  private static int bucketOf(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final int exponent = 63 - Long.numberOfLeadingZeros(value);
+    final int shift = exponent - SUB_BUCKET_BITS;
+    return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+  }
+
+  private static long highestValueIn(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+    final long lowest = (long) ((bucket & (SUB_BUCKETS - 1)) + SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,189 @@
+package dev.ase.teamproject.util;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the ledger's business operations and its SQL
+ * statements, so that a recording shows them next to the JVM's own events.
+ *
+ * <p>Each event has the duration of its operation or statement, the rows it
+ * touched and a hash of the user it was for, never the user's identifier. While
+ * no recording has the events enabled, {@link #begin} and {@link #sqlStarted}
+ * return {@code null} and the other methods do nothing, so the events cost a
+ * check of a flag.
+ *
+ * <p>The user and rows of an operation are tracked on its thread: the
+ * statements an operation runs carry its user, and {@link #touched} adds to its
+ * rows.
+ */
+public final class LedgerEvents {
+
+  private static final ThreadLocal<Operation> CURRENT = new ThreadLocal<>();
+
+  /** The number of operation events in progress on any thread. */
+  private static final AtomicInteger OPEN = new AtomicInteger();
+
+  private LedgerEvents() {
+  }
+
+  /**
+   * A service operation, such as adding a transaction or building a budget
+   * report.
+   */
+  @Name("dev.ase.teamproject.Operation")
+  @Label("Ledger Operation")
+  @Category("Ledger")
+  @Description("A ledger service operation, with the user it was for and the rows it touched")
+  @StackTrace(false)
+  public static final class Operation extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("User ID Hash")
+    @Description("The hash code of the user's identifier")
+    int userIdHash;
+
+    @Label("Rows")
+    @Description("The transactions the operation wrote or read")
+    long rows;
+
+    private transient Operation previous;
+  }
+
+  /**
+   * An SQL statement, from its first execution until it was closed.
+   */
+  @Name("dev.ase.teamproject.SqlStatement")
+  @Label("Ledger SQL Statement")
+  @Category("Ledger")
+  @Description("An SQL statement, named after the repository method that ran it")
+  @StackTrace(false)
+  public static final class SqlStatement extends Event {
+    @Label("Query")
+    String query;
+
+    @Label("User ID Hash")
+    @Description("The hash code of the identifier of the operation's user, or 0 outside one")
+    int userIdHash;
+
+    @Label("Rows")
+    @Description("The rows the statement read or changed")
+    long rows;
+  }
+
+  /**
+   * Starts an operation event on the calling thread, if any recording has it
+   * enabled. A started event must be passed to {@link #end}.
+   *
+   * @param operation The operation's name.
+   * @param userId The user the operation is for, or {@code null}.
+   * @return The event, or {@code null} if it is not enabled.
+   */
+  public static Operation begin(final String operation, final UUID userId) {
+    final Operation event = new Operation();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.operation = operation;
+    event.userIdHash = userId == null ? 0 : userId.hashCode();
+    event.previous = CURRENT.get();
+    CURRENT.set(event);
+    OPEN.incrementAndGet();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Ends an operation event and commits it if it passes the recording's
+   * threshold.
+   *
+   * @param event The event returned by {@link #begin}, or {@code null}.
+   */
+  public static void end(final Operation event) {
+    if (event == null) {
+      return;
+    }
+    event.end();
+    CURRENT.set(event.previous);
+    OPEN.decrementAndGet();
+    if (event.shouldCommit()) {
+      event.commit();
+    }
+  }
+
+  /**
+   * Sets the user of the operation in progress on the calling thread, for an
+   * operation that finds its user only once it has started.
+   *
+   * @param userId The user the operation is for.
+   */
+  public static void user(final UUID userId) {
+    if (OPEN.get() == 0) {
+      return;
+    }
+    final Operation event = CURRENT.get();
+    if (event != null && userId != null) {
+      event.userIdHash = userId.hashCode();
+    }
+  }
+
+  /**
+   * Adds rows to the operation in progress on the calling thread, if any.
+   *
+   * @param rows The rows touched.
+   */
+  public static void touched(final long rows) {
+    if (OPEN.get() == 0) {
+      return;
+    }
+    final Operation event = CURRENT.get();
+    if (event != null) {
+      event.rows += rows;
+    }
+  }
+
+  /**
+   * Starts an SQL statement event, if any recording has it enabled.
+   *
+   * @return The event, or {@code null} if it is not enabled.
+   */
+  public static SqlStatement sqlStarted() {
+    final SqlStatement event = new SqlStatement();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Ends an SQL statement event and commits it if it passes the recording's
+   * threshold.
+   *
+   * @param event The event returned by {@link #sqlStarted}, or {@code null}.
+   * @param query The name of the statement's query.
+   * @param rows The rows the statement read or changed.
+   */
+  public static void sqlFinished(final SqlStatement event, final String query,
+                                 final long rows) {
+    if (event == null) {
+      return;
+    }
+    event.end();
+    if (!event.shouldCommit()) {
+      return;
+    }
+    final Operation operation = OPEN.get() == 0 ? null : CURRENT.get();
+    event.query = query;
+    event.userIdHash = operation == null ? 0 : operation.userIdHash;
+    event.rows = rows;
+    event.commit();
+  }
+}
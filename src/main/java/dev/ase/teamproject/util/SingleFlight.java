@@ -0,0 +1,107 @@
+package dev.ase.teamproject.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent computations of the same key: while one caller computes
+ * the value for a key, other callers for that key wait for it and receive the
+ * same result instead of computing it again.
+ *
+ * <p>Nothing is cached. The key is released as soon as its computation finishes,
+ * so a caller that arrives afterwards computes a fresh value; only callers whose
+ * requests overlap share one. If the computation throws, every caller waiting
+ * on it receives the same exception. Results are shared between threads, so they
+ * should be immutable.
+ *
+ * @param <K> The key type.
+ * @param <V> The result type.
+ */
+public final class SingleFlight<K, V> {
+  private final String name;
+  private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder shared = new LongAdder();
+
+  /**
+   * Constructs a new {@code SingleFlight}.
+   *
+   * @param name The name of the operation, used to label its metrics.
+   */
+  public SingleFlight(final String name) {
+    this.name = name;
+  }
+
+  /**
+   * Returns the value for a key, computing it unless a computation for the same
+   * key is already in flight, in which case that computation's result is returned.
+   *
+   * @param key The key.
+   * @param computation Computes the value; called at most once per flight.
+   * @return The computed value.
+   */
+  public V run(final K key, final Supplier<V> computation) {
+    calls.increment();
+    final CompletableFuture<V> flight = new CompletableFuture<>();
+    final CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+    if (leader != null) {
+      shared.increment();
+      try {
+        return leader.join();
+      } catch (CompletionException e) {
+        throw rethrown(e.getCause());
+      }
+    }
+    try {
+      final V value = computation.get();
+      inFlight.remove(key, flight);
+      flight.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      inFlight.remove(key, flight);
+      flight.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the name of the operation.
+   *
+   * @return The name given at construction.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the number of calls to {@link #run} so far.
+   *
+   * @return The total number of calls.
+   */
+  public long calls() {
+    return calls.sum();
+  }
+
+  /**
+   * Returns the number of calls that received another caller's result instead
+   * of computing their own.
+   *
+   * @return The number of coalesced calls.
+   */
+  public long shared() {
+    return shared.sum();
+  }
+
+  private static RuntimeException rethrown(final Throwable cause) {
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    }
+    return new CompletionException(cause);
+  }
+}
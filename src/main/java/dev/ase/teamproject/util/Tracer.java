@@ -0,0 +1,360 @@
+package dev.ase.teamproject.util;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records where the time of sampled requests goes, as traces of nested spans,
+ * and keeps the most recent traces in a fixed ring.
+ *
+ * <p>A request's trace is bound to the thread that handles it, between
+ * {@link #start} and {@link #finish}. Code on that thread opens spans with the
+ * static {@link #span(String)} and closes them with try-with-resources, or
+ * records a span it has already timed with {@link #record(String, long, long)};
+ * spans opened inside another are nested in it. When the thread has no trace,
+ * because the request was not sampled or the code runs on another thread,
+ * both cost one thread-local read and record nothing.
+ *
+ * <p>Finished traces overwrite the oldest in the ring, so reading them never
+ * holds up the requests that write them.
+ */
+public final class Tracer {
+
+  private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+  private static final Span NONE = new Span(null, null, 0);
+
+  private final double sampleRate;
+  private final boolean forcible;
+  private final int maxSpans;
+  private final AtomicReferenceArray<Trace> ring;
+  private final AtomicLong next = new AtomicLong();
+
+  /**
+   * Constructs a new {@code Tracer}.
+   *
+   * @param sampleRate The fraction of requests traced, from 0 to 1.
+   * @param forcible Whether a request may ask to be traced whatever the sample
+   *                 rate.
+   * @param capacity How many finished traces are kept.
+   * @param maxSpans How many spans a trace keeps; later ones are only counted.
+   */
+  public Tracer(final double sampleRate, final boolean forcible, final int capacity,
+                final int maxSpans) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be at least 1");
+    }
+    this.sampleRate = sampleRate;
+    this.forcible = forcible;
+    this.maxSpans = maxSpans;
+    this.ring = new AtomicReferenceArray<>(capacity);
+  }
+
+  /**
+   * Returns a new trace identifier, never zero.
+   *
+   * @return The identifier.
+   */
+  public static long newTraceId() {
+    long id;
+    do {
+      id = ThreadLocalRandom.current().nextLong();
+    } while (id == 0);
+    return id;
+  }
+
+  /**
+   * Formats a trace identifier as 16 hexadecimal digits.
+   *
+   * @param traceId The identifier.
+   * @return The identifier in hexadecimal.
+   */
+  public static String hex(final long traceId) {
+    final String digits = Long.toHexString(traceId);
+    return "0000000000000000".substring(digits.length()) + digits;
+  }
+
+  /**
+   * Starts tracing a request on the current thread if it is sampled.
+   *
+   * @param traceId The request's trace identifier.
+   * @param method The request method.
+   * @param uri The request path.
+   * @param force Whether the request asked to be traced whatever the sample
+   *              rate; ignored unless the tracer is forcible.
+   * @return The trace, to pass to {@link #finish}, or {@code null} if the request
+   *         is not traced.
+   */
+  public Trace start(final long traceId, final String method, final String uri,
+                     final boolean force) {
+    if (!(force && forcible) && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+      return null;
+    }
+    final Trace trace = new Trace(traceId, method, uri, maxSpans);
+    CURRENT.set(trace);
+    return trace;
+  }
+
+  /**
+   * Stops tracing the current thread's request and keeps its trace.
+   *
+   * @param trace The trace returned by {@link #start}, or {@code null}.
+   * @param status The response status.
+   */
+  public void finish(final Trace trace, final int status) {
+    if (trace == null) {
+      return;
+    }
+    CURRENT.remove();
+    trace.finish(status);
+    ring.set((int) (next.getAndIncrement() % ring.length()), trace);
+  }
+
+  /**
+   * Returns the most recent finished traces, newest first.
+   *
+   * @param limit The most traces to return.
+   * @return The traces.
+   */
+  public List<Trace> recent(final int limit) {
+    final List<Trace> traces = new ArrayList<>();
+    final long last = next.get();
+    for (long i = last - 1; i >= 0 && i >= last - ring.length() && traces.size() < limit; i--) {
+      final Trace trace = ring.get((int) (i % ring.length()));
+      if (trace != null) {
+        traces.add(trace);
+      }
+    }
+    traces.sort(Comparator.comparing(Trace::getStart).reversed());
+    return traces;
+  }
+
+  /**
+   * Returns whether the current thread's request is being traced, for callers
+   * that would have to build a span's name.
+   *
+   * @return {@code true} if spans opened now are recorded.
+   */
+  public static boolean isTracing() {
+    return CURRENT.get() != null;
+  }
+
+  /**
+   * Opens a span in the current thread's trace.
+   *
+   * @param name What the span covers.
+   * @return The span, to close when it ends; a shared span that records nothing
+   *         if the thread has no trace.
+   */
+  public static Span span(final String name) {
+    final Trace trace = CURRENT.get();
+    return trace == null ? NONE : trace.open(name);
+  }
+
+  /**
+   * Records a span that has already ended in the current thread's trace.
+   *
+   * @param name What the span covered.
+   * @param startNanos When it started, from {@link System#nanoTime()}.
+   * @param endNanos When it ended.
+   */
+  public static void record(final String name, final long startNanos, final long endNanos) {
+    final Trace trace = CURRENT.get();
+    if (trace != null) {
+      trace.add(name, startNanos, endNanos);
+    }
+  }
+
+  /**
+   * One request's spans. Only the request's thread writes it, until it is
+   * finished.
+   */
+  public static final class Trace {
+    private final long traceId;
+    private final String method;
+    private final String uri;
+    private final Instant start = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final int maxSpans;
+    private final List<Span> spans = new ArrayList<>();
+    private int depth;
+    private int droppedSpans;
+    private int status;
+    private long durationNanos;
+
+    Trace(final long traceId, final String method, final String uri, final int maxSpans) {
+      this.traceId = traceId;
+      this.method = method;
+      this.uri = uri;
+      this.maxSpans = maxSpans;
+    }
+
+    Span open(final String name) {
+      if (spans.size() >= maxSpans) {
+        droppedSpans++;
+        return NONE;
+      }
+      final Span span = new Span(this, name, depth++);
+      spans.add(span);
+      return span;
+    }
+
+    void add(final String name, final long spanStart, final long spanEnd) {
+      if (spans.size() >= maxSpans) {
+        droppedSpans++;
+        return;
+      }
+      final Span span = new Span(this, name, depth);
+      span.startNanos = spanStart;
+      span.endNanos = spanEnd;
+      spans.add(span);
+    }
+
+    void finish(final int responseStatus) {
+      this.status = responseStatus;
+      this.durationNanos = System.nanoTime() - startNanos;
+      spans.sort(Comparator.comparingLong(span -> span.startNanos));
+    }
+
+    /**
+     * Returns the trace identifier.
+     *
+     * @return The identifier in hexadecimal.
+     */
+    public String getTraceId() {
+      return hex(traceId);
+    }
+
+    /**
+     * Returns the request method.
+     *
+     * @return The method.
+     */
+    public String getMethod() {
+      return method;
+    }
+
+    /**
+     * Returns the request path.
+     *
+     * @return The path.
+     */
+    public String getUri() {
+      return uri;
+    }
+
+    /**
+     * Returns the response status.
+     *
+     * @return The status.
+     */
+    public int getStatus() {
+      return status;
+    }
+
+    /**
+     * Returns when the request started.
+     *
+     * @return The start time.
+     */
+    public Instant getStart() {
+      return start;
+    }
+
+    /**
+     * Returns how long the request took.
+     *
+     * @return The duration in microseconds.
+     */
+    public long getDurationMicros() {
+      return TimeUnit.NANOSECONDS.toMicros(durationNanos);
+    }
+
+    /**
+     * Returns the spans, in the order they started.
+     *
+     * @return The spans.
+     */
+    public List<Span> getSpans() {
+      return spans;
+    }
+
+    /**
+     * Returns how many spans were not kept because the trace was full.
+     *
+     * @return The number of spans left out.
+     */
+    public int getDroppedSpans() {
+      return droppedSpans;
+    }
+  }
+
+  /**
+   * A timed part of a request, nested {@code depth} spans deep.
+   */
+  public static final class Span implements AutoCloseable {
+    private final Trace trace;
+    private final String name;
+    private final int depth;
+    private long startNanos = System.nanoTime();
+    private long endNanos;
+
+    Span(final Trace trace, final String name, final int depth) {
+      this.trace = trace;
+      this.name = name;
+      this.depth = depth;
+    }
+
+    /**
+     * Ends the span.
+     */
+    @Override
+    public void close() {
+      if (trace != null && endNanos == 0) {
+        endNanos = System.nanoTime();
+        trace.depth--;
+      }
+    }
+
+    /**
+     * Returns what the span covers.
+     *
+     * @return The span's name.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns how many spans it is nested in.
+     *
+     * @return The nesting depth, 0 for a top-level span.
+     */
+    public int getDepth() {
+      return depth;
+    }
+
+    /**
+     * Returns when the span started, from the start of the request.
+     *
+     * @return The offset in microseconds.
+     */
+    public long getOffsetMicros() {
+      return TimeUnit.NANOSECONDS.toMicros(startNanos - trace.startNanos);
+    }
+
+    /**
+     * Returns how long the span took.
+     *
+     * @return The duration in microseconds, or -1 if it never ended.
+     */
+    public long getDurationMicros() {
+      return endNanos == 0 ? -1 : TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos);
+    }
+  }
+}
@@ -0,0 +1,465 @@
+package dev.ase.teamproject.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A concurrent hash map keyed by {@link UUID}, storing each key as its two
+ * {@code long} halves rather than as an object.
+ *
+ * <p>A {@code ConcurrentHashMap<UUID, V>} costs a node object and, unless the
+ * value already holds it, a {@code UUID} object per entry: around 70 bytes on a
+ * 64-bit JVM with compressed pointers. This map keeps keys and values in parallel
+ * arrays with open addressing and linear probing, so an entry costs its two key
+ * halves and a value reference: 20 bytes per slot, or 27 to 54 bytes per entry
+ * as a table fills from half to its maximum load factor of 3/4. Removal shifts
+ * later entries of the probe sequence back instead of leaving tombstones, so
+ * lookups never slow down as entries come and go.
+ *
+ * <p>The map is split into {@value #SEGMENTS} segments by key hash, each with its
+ * own {@link StampedLock}. Lookups first read the segment optimistically without
+ * locking and only take the read lock if a writer interfered; writers to
+ * different segments never contend. As with {@code ConcurrentHashMap}, keys and
+ * values must not be {@code null}, and {@link #values()} and {@link #removeIf} are
+ * weakly consistent.
+ *
+ * @param <V> The value type.
+ */
+public final class UuidMap<V> {
+
+  /** The number of independently locked segments. */
+  public static final int SEGMENTS = 64;
+
+  private static final int SEGMENT_BITS = Integer.numberOfTrailingZeros(SEGMENTS);
+  private static final int MIN_CAPACITY = 8;
+
+  private final Segment<V>[] segments;
+
+  /**
+   * Constructs an empty map.
+   */
+  public UuidMap() {
+    this(0);
+  }
+
+  /**
+   * Constructs an empty map sized to hold the given number of entries without
+   * growing, assuming keys spread evenly over the segments.
+   *
+   * @param expectedSize The expected number of entries.
+   */
+  @SuppressWarnings("unchecked")
+  public UuidMap(final int expectedSize) {
+    final int perSegment = (int) Math.min(1 << 30, (long) expectedSize * 4 / 3 / SEGMENTS + 1);
+    final int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(perSegment - 1) << 1);
+    segments = new Segment[SEGMENTS];
+    for (int i = 0; i < SEGMENTS; i++) {
+      segments[i] = new Segment<>(capacity);
+    }
+  }
+
+  /**
+   * Returns the value for a key.
+   *
+   * @param key The key.
+   * @return The value, or {@code null} if the key is absent.
+   */
+  public V get(final UUID key) {
+    return get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+  }
+
+  /**
+   * Returns the value for a key given as its two halves.
+   *
+   * @param msb The most significant 64 bits of the key.
+   * @param lsb The least significant 64 bits of the key.
+   * @return The value, or {@code null} if the key is absent.
+   */
+  public V get(final long msb, final long lsb) {
+    final long hash = hash(msb, lsb);
+    return segmentFor(hash).get(msb, lsb, hash);
+  }
+
+  /**
+   * Returns whether the map holds a key.
+   *
+   * @param key The key.
+   * @return {@code true} if the key is present.
+   */
+  public boolean containsKey(final UUID key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Maps a key to a value.
+   *
+   * @param key The key.
+   * @param value The value.
+   * @return The previous value, or {@code null} if the key was absent.
+   */
+  public V put(final UUID key, final V value) {
+    Objects.requireNonNull(value);
+    final long msb = key.getMostSignificantBits();
+    final long lsb = key.getLeastSignificantBits();
+    final long hash = hash(msb, lsb);
+    return segmentFor(hash).put(msb, lsb, hash, value, false);
+  }
+
+  /**
+   * Maps a key to a value unless it is already present.
+   *
+   * @param key The key.
+   * @param value The value.
+   * @return The present value, or {@code null} if the value was added.
+   */
+  public V putIfAbsent(final UUID key, final V value) {
+    Objects.requireNonNull(value);
+    final long msb = key.getMostSignificantBits();
+    final long lsb = key.getLeastSignificantBits();
+    final long hash = hash(msb, lsb);
+    return segmentFor(hash).put(msb, lsb, hash, value, true);
+  }
+
+  /**
+   * Returns the value for a key, first computing and adding it if the key is
+   * absent. The function runs at most once per call, while holding the lock of
+   * the key's segment, so it must be short and must not use this map.
+   *
+   * @param key The key.
+   * @param function Computes a value for the key, or returns {@code null} to add nothing.
+   * @return The present or computed value, or {@code null} if none was computed.
+   */
+  public V computeIfAbsent(final UUID key, final Function<? super UUID, ? extends V> function) {
+    final long msb = key.getMostSignificantBits();
+    final long lsb = key.getLeastSignificantBits();
+    final long hash = hash(msb, lsb);
+    final Segment<V> segment = segmentFor(hash);
+    final V present = segment.get(msb, lsb, hash);
+    return present != null ? present : segment.computeIfAbsent(key, hash, function);
+  }
+
+  /**
+   * Removes a key.
+   *
+   * @param key The key.
+   * @return The removed value, or {@code null} if the key was absent.
+   */
+  public V remove(final UUID key) {
+    final long msb = key.getMostSignificantBits();
+    final long lsb = key.getLeastSignificantBits();
+    final long hash = hash(msb, lsb);
+    return segmentFor(hash).remove(msb, lsb, hash, null);
+  }
+
+  /**
+   * Removes a key only if it maps to the given value.
+   *
+   * @param key The key.
+   * @param value The value expected, compared by identity.
+   * @return {@code true} if the entry was removed.
+   */
+  public boolean remove(final UUID key, final V value) {
+    Objects.requireNonNull(value);
+    final long msb = key.getMostSignificantBits();
+    final long lsb = key.getLeastSignificantBits();
+    final long hash = hash(msb, lsb);
+    return segmentFor(hash).remove(msb, lsb, hash, value) != null;
+  }
+
+  /**
+   * Returns the number of entries. Concurrent writes may or may not be counted.
+   *
+   * @return The number of entries.
+   */
+  public int size() {
+    int size = 0;
+    for (final Segment<V> segment : segments) {
+      size += segment.size;
+    }
+    return size;
+  }
+
+  /**
+   * Returns a copy of the values, in no particular order. Each segment is copied
+   * atomically, but writes to other segments may happen during the copy.
+   *
+   * @return A new list of the values.
+   */
+  public List<V> values() {
+    final List<V> values = new ArrayList<>(size());
+    for (final Segment<V> segment : segments) {
+      segment.copyValues(values);
+    }
+    return values;
+  }
+
+  /**
+   * Removes every entry whose value matches a predicate. The predicate runs
+   * without any lock held, and an entry whose value is replaced after it was
+   * tested is kept.
+   *
+   * @param predicate Selects the values to remove.
+   * @return {@code true} if any entry was removed.
+   */
+  public boolean removeIf(final Predicate<? super V> predicate) {
+    boolean removed = false;
+    for (final Segment<V> segment : segments) {
+      removed |= segment.removeIf(predicate);
+    }
+    return removed;
+  }
+
+  private Segment<V> segmentFor(final long hash) {
+    return segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+  }
+
+  /**
+   * Mixes both halves of a key (the finalizer of MurmurHash3), so that keys which
+   * differ in only a few bits, such as time-based UUIDs, still spread evenly. The
+   * top bits choose the segment and the bottom bits the slot within it.
+   */
+  private static long hash(final long msb, final long lsb) {
+    long hash = msb * 0x9E3779B97F4A7C15L ^ lsb;
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * One segment's slots. A slot is empty when its value is {@code null}. The
+   * arrays are replaced together when the table grows, so a reader that captured
+   * a table always indexes arrays of the same length.
+   */
+  private static final class Table {
+    private final long[] msbs;
+    private final long[] lsbs;
+    private final Object[] values;
+    private final int mask;
+
+    private Table(final int capacity) {
+      msbs = new long[capacity];
+      lsbs = new long[capacity];
+      values = new Object[capacity];
+      mask = capacity - 1;
+    }
+
+    /**
+     * Returns the slot holding a key, or {@code -1}. The probe is bounded by the
+     * capacity so that it ends even on a table being changed by a writer.
+     */
+    private int indexOf(final long msb, final long lsb, final long hash) {
+      int index = (int) hash & mask;
+      for (int probes = 0; probes <= mask; probes++) {
+        if (values[index] == null) {
+          return -1;
+        }
+        if (msbs[index] == msb && lsbs[index] == lsb) {
+          return index;
+        }
+        index = (index + 1) & mask;
+      }
+      return -1;
+    }
+
+    private void insert(final long msb, final long lsb, final long hash, final Object value) {
+      int index = (int) hash & mask;
+      while (values[index] != null) {
+        index = (index + 1) & mask;
+      }
+      msbs[index] = msb;
+      lsbs[index] = lsb;
+      values[index] = value;
+    }
+
+    /**
+     * Empties a slot, moving back any later entry of the same probe run that
+     * could have been stored there, so that no lookup stops short of its key.
+     */
+    private void removeAt(final int slot) {
+      int hole = slot;
+      int next = slot;
+      while (true) {
+        next = (next + 1) & mask;
+        if (values[next] == null) {
+          break;
+        }
+        final int home = (int) hash(msbs[next], lsbs[next]) & mask;
+        // The entry may fill the hole if the hole lies between its home slot and it
+        if (((next - home) & mask) >= ((next - hole) & mask)) {
+          msbs[hole] = msbs[next];
+          lsbs[hole] = lsbs[next];
+          values[hole] = values[next];
+          hole = next;
+        }
+      }
+      values[hole] = null;
+    }
+  }
+
+  private static final class Segment<V> {
+    private final StampedLock lock = new StampedLock();
+    private Table table;
+    private volatile int size;
+
+    private Segment(final int capacity) {
+      table = new Table(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V get(final long msb, final long lsb, final long hash) {
+      final long optimistic = lock.tryOptimisticRead();
+      if (optimistic != 0) {
+        final Table current = table;
+        final int index = current.indexOf(msb, lsb, hash);
+        final Object value = index < 0 ? null : current.values[index];
+        if (lock.validate(optimistic)) {
+          return (V) value;
+        }
+      }
+      final long stamp = lock.readLock();
+      try {
+        final int index = table.indexOf(msb, lsb, hash);
+        return index < 0 ? null : (V) table.values[index];
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V put(final long msb, final long lsb, final long hash, final V value,
+                  final boolean onlyIfAbsent) {
+      final long stamp = lock.writeLock();
+      try {
+        final int index = table.indexOf(msb, lsb, hash);
+        if (index >= 0) {
+          final V previous = (V) table.values[index];
+          if (!onlyIfAbsent) {
+            table.values[index] = value;
+          }
+          return previous;
+        }
+        add(msb, lsb, hash, value);
+        return null;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V computeIfAbsent(final UUID key, final long hash,
+                              final Function<? super UUID, ? extends V> function) {
+      final long msb = key.getMostSignificantBits();
+      final long lsb = key.getLeastSignificantBits();
+      final long stamp = lock.writeLock();
+      try {
+        final int index = table.indexOf(msb, lsb, hash);
+        if (index >= 0) {
+          return (V) table.values[index];
+        }
+        final V value = function.apply(key);
+        if (value != null) {
+          add(msb, lsb, hash, value);
+        }
+        return value;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    /**
+     * Removes a key if it maps to {@code expected}, or to anything if that is
+     * {@code null}, and returns the removed value.
+     */
+    @SuppressWarnings("unchecked")
+    private V remove(final long msb, final long lsb, final long hash, final V expected) {
+      final long stamp = lock.writeLock();
+      try {
+        final int index = table.indexOf(msb, lsb, hash);
+        if (index < 0 || expected != null && table.values[index] != expected) {
+          return null;
+        }
+        final V previous = (V) table.values[index];
+        table.removeAt(index);
+        size--;
+        return previous;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void copyValues(final List<V> into) {
+      final long stamp = lock.readLock();
+      try {
+        for (final Object value : table.values) {
+          if (value != null) {
+            into.add((V) value);
+          }
+        }
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean removeIf(final Predicate<? super V> predicate) {
+      final long[] msbs;
+      final long[] lsbs;
+      final Object[] values;
+      int count = 0;
+      final long stamp = lock.readLock();
+      try {
+        msbs = new long[size];
+        lsbs = new long[size];
+        values = new Object[size];
+        for (int i = 0; i <= table.mask; i++) {
+          if (table.values[i] != null) {
+            msbs[count] = table.msbs[i];
+            lsbs[count] = table.lsbs[i];
+            values[count] = table.values[i];
+            count++;
+          }
+        }
+      } finally {
+        lock.unlockRead(stamp);
+      }
+      boolean removed = false;
+      for (int i = 0; i < count; i++) {
+        final V value = (V) values[i];
+        if (predicate.test(value)
+            && remove(msbs[i], lsbs[i], hash(msbs[i], lsbs[i]), value) != null) {
+          removed = true;
+        }
+      }
+      return removed;
+    }
+
+    /**
+     * Adds an absent key, growing the table first if it would pass 3/4 full.
+     * Called with the write lock held.
+     */
+    private void add(final long msb, final long lsb, final long hash, final Object value) {
+      if ((size + 1) * 4L > (table.mask + 1) * 3L) {
+        final Table grown = new Table((table.mask + 1) * 2);
+        for (int i = 0; i <= table.mask; i++) {
+          if (table.values[i] != null) {
+            grown.insert(table.msbs[i], table.lsbs[i], hash(table.msbs[i], table.lsbs[i]),
+                table.values[i]);
+          }
+        }
+        // The old table is never written again, so optimistic readers of it stay safe
+        table = grown;
+      }
+      table.insert(msb, lsb, hash, value);
+      size++;
+    }
+  }
+}
@@ -0,0 +1,261 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import dev.ase.teamproject.config.RequestExecutionConfig;
+import dev.ase.teamproject.controller.MetricsController;
+import dev.ase.teamproject.repository.AdaptiveLimit;
+import dev.ase.teamproject.repository.GatedDataSource;
+import dev.ase.teamproject.repository.InMemoryLedgerRepository;
+import dev.ase.teamproject.repository.LimitedDataSource;
+import dev.ase.teamproject.service.MockApiService;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Unit tests for the AdaptiveLimit and LimitedDataSource classes.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>latency</b>: at the baseline (limit grows), well above it (limit
+ *       shrinks), back at the baseline (limit grows again)</li>
+ *   <li><b>query mix</b>: cheap lookups among heavier reads on a healthy
+ *       database (limit holds), the whole mix slowing down (limit shrinks)</li>
+ *   <li><b>utilisation</b>: under half the limit (limit unchanged)</li>
+ *   <li><b>checkout</b>: under the limit (connection), at the limit (rejected
+ *       at once), pool failure (limit shrinks)</li>
+ *   <li><b>bounds</b>: limit never leaves [min, max]; invalid bounds rejected;
+ *       a configured max above the pool size capped at the pool size</li>
+ * </ul>
+ */
+public class AdaptiveLimitTests {
+
+  private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  /**
+   * Tests that the limit grows while latency stays at the baseline, shrinks as
+   * it rises, and grows back when the database recovers.
+   */
+  @Test
+  public void release_followsLatency() {
+    AdaptiveLimit limit = new AdaptiveLimit(10, 1, 40, 10_000);
+    runFull(limit, 5 * MILLI, 20);
+    assertEquals(40, limit.getLimit());
+
+    runFull(limit, 50 * MILLI, 20);
+    assertTrue(limit.getLimit() < 10, "limit " + limit.getLimit());
+    final int degraded = limit.getLimit();
+
+    runFull(limit, 5 * MILLI, 20);
+    assertTrue(limit.getLimit() > degraded, "limit " + limit.getLimit());
+  }
+
+  /**
+   * Tests that a steady mix of sub-millisecond lookups and 40 ms reads does not
+   * read as a queue, and that the limit still shrinks when the whole mix slows.
+   */
+  @Test
+  public void release_mixedQueries_limitHolds() {
+    AdaptiveLimit limit = new AdaptiveLimit(10, 1, 10, 1000);
+    long[] mix = {MILLI * 3 / 10, 40 * MILLI, 40 * MILLI, 40 * MILLI};
+    runMixed(limit, mix, 50);
+    assertTrue(limit.getLimit() >= 8, "limit " + limit.getLimit());
+
+    runMixed(limit, new long[] {10 * MILLI, 400 * MILLI, 400 * MILLI, 400 * MILLI}, 20);
+    assertTrue(limit.getLimit() < 8, "limit " + limit.getLimit());
+  }
+
+  /**
+   * Tests that samples taken while under half the limit is in flight leave it
+   * alone, and that the limit stays within its bounds.
+   */
+  @Test
+  public void release_idleOrBounded_limitUnchanged() {
+    AdaptiveLimit limit = new AdaptiveLimit(10, 2, 12, 10_000);
+    for (int i = 0; i < 50; i++) {
+      assertTrue(limit.tryAcquire());
+      limit.release(i % 2 == 0 ? MILLI : 100 * MILLI, false);
+    }
+    assertEquals(10, limit.getLimit());
+
+    for (int i = 0; i < 50; i++) {
+      limit.tryAcquire();
+      limit.release(MILLI, true);
+    }
+    assertEquals(2, limit.getLimit());
+    assertEquals(0, limit.getInFlight());
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(1, 0, 1, 1));
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(1, 2, 1, 1));
+  }
+
+  /**
+   * Tests that the configured limit never grows past the pool's size, even when
+   * its maximum is set higher.
+   */
+  @Test
+  public void dataSourceAdaptiveLimit_maxAbovePool_capped() {
+    MockEnvironment environment = new MockEnvironment()
+        .withProperty("spring.datasource.hikari.maximum-pool-size", "10")
+        .withProperty("ledger.jdbc.adaptive-limit.max", "40");
+    LimitedDataSource dataSource = (LimitedDataSource) RequestExecutionConfig
+        .dataSourceAdaptiveLimit(environment)
+        .postProcessAfterInitialization(mock(DataSource.class), "dataSource");
+
+    runFull(dataSource.getLimit(), 5 * MILLI, 20);
+    assertEquals(10, dataSource.getLimit().getLimit());
+  }
+
+  /**
+   * Tests that a connection is limited until closed, that checkouts beyond the
+   * limit are rejected at once, and that a failing pool shrinks the limit.
+   */
+  @Test
+  public void getConnection_limitedAndRejectedFast() throws SQLException {
+    DataSource target = mock(DataSource.class);
+    Connection pooled = mock(Connection.class);
+    when(target.getConnection()).thenReturn(pooled);
+    LimitedDataSource dataSource = new LimitedDataSource(target, new AdaptiveLimit(1, 1, 4, 100));
+
+    Connection connection = dataSource.getConnection();
+    assertSame(pooled, ((ConnectionProxy) connection).getTargetConnection());
+    long start = System.nanoTime();
+    SQLException rejected =
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    assertTrue(rejected.getMessage().contains("limit of 1"));
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    connection.close();
+    connection.close();
+    assertEquals(0, dataSource.getLimit().getInFlight());
+    assertEquals(1, dataSource.getLimit().getRejected());
+
+    AdaptiveLimit limit = new AdaptiveLimit(4, 1, 4, 100);
+    when(target.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+    LimitedDataSource failing = new LimitedDataSource(target, limit);
+    assertThrows(SQLTransientConnectionException.class, failing::getConnection);
+    assertEquals(3, limit.getLimit());
+    assertEquals(0, limit.getInFlight());
+  }
+
+  /**
+   * Tests the limit against a local database stub whose queries slow down and
+   * recover, queried by more callers than the limit allows, and that the
+   * metrics report it through a wrapping data source.
+   */
+  @Test
+  public void getConnection_latencyInjectingPool_limitTracksDatabase() throws Exception {
+    AtomicLong latencyNanos = new AtomicLong(2 * MILLI);
+    Connection connection = mock(Connection.class);
+    when(connection.isValid(anyInt())).thenAnswer(query -> {
+      sleep(latencyNanos.get());
+      return true;
+    });
+    DataSource pool = mock(DataSource.class);
+    when(pool.getConnection()).thenReturn(connection);
+    AdaptiveLimit limit = new AdaptiveLimit(8, 1, 16, 100_000);
+    LimitedDataSource dataSource = new LimitedDataSource(pool, limit);
+
+    AtomicBoolean stop = new AtomicBoolean();
+    ExecutorService callers = Executors.newFixedThreadPool(24);
+    try {
+      for (int i = 0; i < 24; i++) {
+        callers.submit(() -> query(dataSource, stop));
+      }
+      assertTrue(awaitLimit(limit, l -> l == 16), "limit " + limit.getLimit());
+      latencyNanos.set(40 * MILLI);
+      assertTrue(awaitLimit(limit, l -> l < 8), "limit " + limit.getLimit());
+      latencyNanos.set(2 * MILLI);
+      assertTrue(awaitLimit(limit, l -> l == 16), "limit " + limit.getLimit());
+    } finally {
+      stop.set(true);
+      callers.shutdown();
+      assertTrue(callers.awaitTermination(5, TimeUnit.SECONDS));
+    }
+    assertTrue(limit.getRejected() > 0);
+
+    String metrics = new MetricsController(new MockApiService(new InMemoryLedgerRepository()),
+        null, new GatedDataSource(dataSource, 1, 0, 0), null, null, null).metrics();
+    assertTrue(metrics.contains("ledger_db_concurrency_limit " + limit.getLimit() + "\n"));
+    assertTrue(metrics.contains("ledger_db_in_flight 0\n"));
+  }
+
+  /**
+   * Fills the limit and releases every place with the given latency, in rounds.
+   */
+  private static void runFull(final AdaptiveLimit limit, final long rttNanos, final int rounds) {
+    for (int round = 0; round < rounds; round++) {
+      int taken = 0;
+      while (limit.tryAcquire()) {
+        taken++;
+      }
+      for (int i = 0; i < taken; i++) {
+        limit.release(rttNanos, false);
+      }
+    }
+  }
+
+  /**
+   * Fills the limit and releases every place with the next latency of the mix,
+   * in rounds.
+   */
+  private static void runMixed(final AdaptiveLimit limit, final long[] mix, final int rounds) {
+    int next = 0;
+    for (int round = 0; round < rounds; round++) {
+      int taken = 0;
+      while (limit.tryAcquire()) {
+        taken++;
+      }
+      for (int i = 0; i < taken; i++) {
+        limit.release(mix[next++ % mix.length], false);
+      }
+    }
+  }
+
+  /**
+   * Runs one query after another until stopped, backing off briefly when rejected.
+   */
+  private static void query(final LimitedDataSource dataSource, final AtomicBoolean stop) {
+    while (!stop.get()) {
+      try (Connection connection = dataSource.getConnection()) {
+        connection.isValid(1);
+      } catch (SQLException e) {
+        sleep(MILLI);
+      }
+    }
+  }
+
+  private static boolean awaitLimit(final AdaptiveLimit limit, final IntPredicate condition) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (System.nanoTime() < deadline) {
+      if (condition.test(limit.getLimit())) {
+        return true;
+      }
+      sleep(10 * MILLI);
+    }
+    return false;
+  }
+
+  private static void sleep(final long nanos) {
+    try {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.ase.teamproject.controller.MetricsController;
+import dev.ase.teamproject.filter.LoggerFilter;
+import dev.ase.teamproject.repository.InMemoryLedgerRepository;
+import dev.ase.teamproject.service.MockApiService;
+import dev.ase.teamproject.util.AsyncLog;
+import dev.ase.teamproject.util.AsyncLogHandler;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for the AsyncLog, AsyncLogHandler and LoggerFilter classes.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>record kind</b>: access line (stamped with its arrival time),
+ *       application log record (with and without a thrown exception, whose stack
+ *       trace is written), record that cannot be formatted (failed, skipped)</li>
+ *   <li><b>ring</b>: room left (queued and written in order), full (dropped
+ *       and counted without blocking)</li>
+ *   <li><b>filter</b>: chain completes (its status), chain throws (500)</li>
+ *   <li><b>capacity</b>: valid, below 1 (rejected)</li>
+ * </ul>
+ */
+public class AsyncLogTests {
+
+  /**
+   * Tests that access lines are written in order in the CLIENT_LOG format.
+   */
+  @Test
+  public void access_writesLinesInOrder() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (AsyncLog log = new AsyncLog(out, false, 16, 1)) {
+      for (int i = 0; i < 40; i++) {
+        assertTrue(log.access("10.0.0." + i, "GET", "/users/" + i, i * 1000L, 200, 1_500_000,
+            0));
+        awaitWritten(log, i + 1 - 8);
+      }
+    }
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(40, lines.length);
+    for (int i = 0; i < 40; i++) {
+      assertEquals("CLIENT_LOG: 10.0.0." + i + " | GET /users/" + i + " | "
+          + Instant.ofEpochSecond(i) + " | 200 | 1500 us", lines[i]);
+    }
+  }
+
+  /**
+   * Tests that application log records are formatted by the writer thread.
+   */
+  @Test
+  public void handler_routesRecords() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Logger logger = Logger.getLogger("dev.ase.teamproject.AsyncLogTests.handler");
+    try (AsyncLog log = new AsyncLog(out, false, 16, 1)) {
+      AsyncLogHandler handler = new AsyncLogHandler(log);
+      logger.setUseParentHandlers(false);
+      logger.addHandler(handler);
+      try {
+        logger.log(Level.INFO, "created {0}", "user");
+        logger.log(Level.WARNING, "failed", new IllegalStateException("boom"));
+        logger.fine("not loggable");
+      } finally {
+        logger.removeHandler(handler);
+        logger.setUseParentHandlers(true);
+      }
+    }
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertTrue(lines[0].endsWith(" INFO dev.ase.teamproject.AsyncLogTests.handler: created user"),
+        lines[0]);
+    assertTrue(lines[1].endsWith(" WARNING dev.ase.teamproject.AsyncLogTests.handler: failed"),
+        lines[1]);
+    assertEquals("java.lang.IllegalStateException: boom", lines[2]);
+    assertTrue(lines[3].startsWith("\tat dev.ase.teamproject.AsyncLogTests.handler_routesRecords"),
+        lines[3]);
+  }
+
+  /**
+   * Tests that a record that cannot be formatted is counted as failed, and the
+   * writer carries on with the next one.
+   */
+  @Test
+  public void record_formatFails_countedAndSkipped() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (AsyncLog log = new AsyncLog(out, false, 16, 1)) {
+      LogRecord broken = new LogRecord(Level.WARNING, "broken");
+      broken.setThrown(new IllegalStateException() {
+        @Override
+        public String toString() {
+          throw new UnsupportedOperationException("cannot describe");
+        }
+      });
+      assertTrue(log.record(broken));
+      assertTrue(log.access("c", "GET", "/after", 0, 200, 0, 0));
+      awaitWritten(log, 1);
+
+      assertEquals(1, log.failed());
+      assertEquals(1, log.written());
+      String metrics = new MetricsController(
+          new MockApiService(new InMemoryLedgerRepository()), null, null, log, null, null)
+          .metrics();
+      assertTrue(metrics.contains("ledger_log_failed_total 1\n"), metrics);
+    }
+    assertTrue(out.toString(StandardCharsets.UTF_8).startsWith("CLIENT_LOG: c | GET /after | "));
+  }
+
+  /**
+   * Tests that when the output stalls, the ring fills and further lines are
+   * dropped and counted at once, and that the queued lines are still written.
+   */
+  @Test
+  public void access_ringFull_dropsWithoutBlocking() throws Exception {
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ByteArrayOutputStream written = new ByteArrayOutputStream();
+    OutputStream stalled = new OutputStream() {
+      @Override
+      public void write(final int b) {
+        written.write(b);
+      }
+
+      @Override
+      public void write(final byte[] b, final int off, final int len) throws IOException {
+        writing.countDown();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        written.write(b, off, len);
+      }
+    };
+    try (AsyncLog log = new AsyncLog(stalled, false, 8, 1)) {
+      assertTrue(log.access("c", "GET", "/first", 0, 200, 0, 0));
+      assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+      long start = System.nanoTime();
+      int queued = 0;
+      for (int i = 0; i < 20; i++) {
+        if (log.access("c", "GET", "/next", 0, 200, 0, 0)) {
+          queued++;
+        }
+      }
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+      assertEquals(8, queued);
+      assertEquals(12, log.dropped());
+      assertFalse(log.access("c", "GET", "/next", 0, 200, 0, 0));
+
+      String metrics = new MetricsController(
+          new MockApiService(new InMemoryLedgerRepository()), null, null, log, null, null)
+          .metrics();
+      assertTrue(metrics.contains("ledger_log_dropped_total 13\n"), metrics);
+
+      release.countDown();
+      awaitWritten(log, 9);
+    }
+    assertEquals(9, written.toString(StandardCharsets.UTF_8).split("\n").length);
+  }
+
+  /**
+   * Tests that the filter logs each request's arrival time and status, including
+   * a failed one as 500.
+   */
+  @Test
+  public void loggerFilter_logsStatusAndFailures() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long[] handled = new long[1];
+    try (AsyncLog log = new AsyncLog(out, false, 16, 1)) {
+      LoggerFilter filter = new LoggerFilter(log, null, null);
+      MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users");
+      request.addHeader("X-Forwarded-For", "203.0.113.9");
+      filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+        handled[0] = System.currentTimeMillis();
+        try {
+          Thread.sleep(50);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        ((MockHttpServletResponse) res).setStatus(201);
+      });
+      assertThrows(IllegalStateException.class, () -> filter.doFilter(
+          new MockHttpServletRequest("GET", "/boom"), new MockHttpServletResponse(),
+          (req, res) -> {
+            throw new IllegalStateException("boom");
+          }));
+    }
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].startsWith("CLIENT_LOG: 203.0.113.9 | POST /users | "), lines[0]);
+    assertTrue(lines[0].contains(" | 201 | "), lines[0]);
+    assertTrue(Instant.parse(lines[0].split(" \\| ")[2]).toEpochMilli() <= handled[0], lines[0]);
+    assertTrue(lines[1].startsWith("CLIENT_LOG: 127.0.0.1 | GET /boom | "), lines[1]);
+    assertTrue(lines[1].contains(" | 500 | "), lines[1]);
+  }
+
+  /**
+   * Tests that a capacity below 1 is rejected.
+   */
+  @Test
+  public void constructor_invalidCapacity_throws() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new AsyncLog(new ByteArrayOutputStream(), false, 0, 1));
+  }
+
+  private static void awaitWritten(final AsyncLog log, final long count) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (log.written() < count && System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.repository.InMemoryLedgerRepository;
+import dev.ase.teamproject.service.BudgetDashboard;
+import dev.ase.teamproject.service.MockApiService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the BudgetDashboard class.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>user</b>: exists (report), unknown (missing), repeated (one report)</li>
+ *   <li><b>report</b>: ready by the deadline (returned), late (pending),
+ *       not queued (pending), raises an error (failed)</li>
+ *   <li><b>ids</b>: up to the batch limit (accepted), over it (rejected)</li>
+ * </ul>
+ */
+public class BudgetDashboardTests {
+
+  private final InMemoryLedgerRepository repository = new InMemoryLedgerRepository();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final List<BudgetDashboard> dashboards = new ArrayList<>();
+
+  /**
+   * Releases blocked reports and stops the dashboards.
+   */
+  @AfterEach
+  public void tearDown() {
+    release.countDown();
+    dashboards.forEach(BudgetDashboard::close);
+  }
+
+  /**
+   * Tests that reports come back keyed by user in request order, with unknown
+   * users reported as missing.
+   */
+  @Test
+  public void reports_knownAndUnknownUsers_keyedInRequestOrder() {
+    UUID alice = addUser("alice", 100.0);
+    UUID bob = addUser("bob", 50.0);
+    repository.insertTransaction(new Transaction(bob, 80.0, "FOOD", "Groceries"));
+    UUID unknown = UUID.randomUUID();
+
+    Map<String, Object> result = dashboard(new MockApiService(repository), 4, 100, 5000)
+        .reports(List.of(bob, unknown, alice, bob));
+
+    Map<?, ?> reports = (Map<?, ?>) result.get("reports");
+    assertEquals(List.of(bob, alice), new ArrayList<>(reports.keySet()));
+    assertEquals(80.0, ((Map<?, ?>) reports.get(bob)).get("totalSpent"));
+    assertEquals(List.of(unknown), result.get("missing"));
+    assertEquals(List.of(), result.get("pending"));
+    assertEquals(true, result.get("complete"));
+  }
+
+  /**
+   * Tests that reports not ready by the deadline are listed as pending while
+   * the ready ones are returned.
+   */
+  @Test
+  public void reports_slowUser_returnsPartialResultsAtDeadline() {
+    UUID fast = addUser("fast", 100.0);
+    UUID slow = addUser("slow", 100.0);
+    MockApiService service = new MockApiService(repository) {
+      @Override
+      public Map<String, Object> getBudgetReport(final UUID userId) {
+        if (userId.equals(slow)) {
+          await();
+        }
+        return super.getBudgetReport(userId);
+      }
+    };
+
+    long start = System.nanoTime();
+    Map<String, Object> result = dashboard(service, 2, 100, 200).reports(List.of(slow, fast));
+
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    assertEquals(List.of(fast), new ArrayList<>(((Map<?, ?>) result.get("reports")).keySet()));
+    assertEquals(List.of(slow), result.get("pending"));
+    assertEquals(false, result.get("complete"));
+  }
+
+  /**
+   * Tests that reports which do not fit in the queue are pending, not run.
+   */
+  @Test
+  public void reports_queueFull_restPending() {
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      ids.add(addUser("user" + i, 10.0));
+    }
+    MockApiService service = new MockApiService(repository) {
+      @Override
+      public Map<String, Object> getBudgetReport(final UUID userId) {
+        await();
+        return super.getBudgetReport(userId);
+      }
+    };
+
+    Map<String, Object> result = dashboard(service, 1, 1, 100).reports(ids);
+
+    assertTrue(((Map<?, ?>) result.get("reports")).isEmpty());
+    assertEquals(ids, result.get("pending"));
+  }
+
+  /**
+   * Tests that a report that raises an error is listed as failed.
+   */
+  @Test
+  public void reports_reportThrows_listedAsFailed() {
+    UUID ok = addUser("ok", 10.0);
+    UUID broken = addUser("broken", 10.0);
+    MockApiService service = new MockApiService(repository) {
+      @Override
+      public Map<String, Object> getBudgetReport(final UUID userId) {
+        if (userId.equals(broken)) {
+          throw new IllegalStateException("boom");
+        }
+        return super.getBudgetReport(userId);
+      }
+    };
+
+    Map<String, Object> result = dashboard(service, 2, 10, 5000).reports(List.of(ok, broken));
+
+    assertTrue(((Map<?, ?>) result.get("reports")).containsKey(ok));
+    assertEquals(List.of(broken), result.get("failed"));
+    assertFalse((Boolean) result.get("complete"));
+  }
+
+  /**
+   * Tests that more ids than the batch limit are rejected.
+   */
+  @Test
+  public void reports_tooManyIds_throwsIllegalArgumentException() {
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i <= MockApiService.MAX_BATCH_IDS; i++) {
+      ids.add(UUID.randomUUID());
+    }
+    BudgetDashboard dashboard = dashboard(new MockApiService(repository), 1, 1, 100);
+
+    assertThrows(IllegalArgumentException.class, () -> dashboard.reports(ids));
+  }
+
+  private UUID addUser(final String name, final double budget) {
+    return repository.insertUser(new User(name, name + "@example.com", budget)).getUserId();
+  }
+
+  private BudgetDashboard dashboard(final MockApiService service, final int threads,
+                                    final int queue, final long deadlineMillis) {
+    BudgetDashboard dashboard = new BudgetDashboard(service, threads, queue, deadlineMillis);
+    dashboards.add(dashboard);
+    return dashboard;
+  }
+
+  private void await() {
+    try {
+      release.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.ase.teamproject.controller.MetricsController;
+import dev.ase.teamproject.filter.Bulkhead;
+import dev.ase.teamproject.filter.BulkheadFilter;
+import dev.ase.teamproject.filter.RouteGroup;
+import dev.ase.teamproject.repository.InMemoryLedgerRepository;
+import dev.ase.teamproject.service.MockApiService;
+import jakarta.servlet.FilterChain;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for the BulkheadFilter, Bulkhead and RouteGroup classes.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>route group</b>: transactions, analytics reads, budget writes and
+ *       other default requests</li>
+ *   <li><b>bulkhead</b>: place free (runs), full with room to wait (waits),
+ *       full past the wait (503 with Retry-After)</li>
+ *   <li><b>queue latency</b>: under the target (analytics admitted), over the
+ *       target for the interval (analytics shed, core still admitted), over it
+ *       with a new arrival as a place frees up (arrival queues behind the
+ *       waiter, queue stays overloaded)</li>
+ *   <li><b>metrics</b>: running, waiting and rejected requests per class</li>
+ * </ul>
+ */
+public class BulkheadFilterTests {
+
+  private final ExecutorService pool = Executors.newCachedThreadPool();
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  /**
+   * Releases blocked requests and stops their threads.
+   */
+  @AfterEach
+  public void tearDown() {
+    release.countDown();
+    pool.shutdownNow();
+  }
+
+  /**
+   * Tests the route group of representative requests.
+   */
+  @Test
+  public void routeGroup_classifiesRequests() {
+    String user = "/users/" + UUID.randomUUID();
+    assertEquals(RouteGroup.TRANSACTIONS, RouteGroup.of("GET", user + "/transactions"));
+    assertEquals(RouteGroup.TRANSACTIONS,
+        RouteGroup.of("GET", user + "/transactions/" + UUID.randomUUID()));
+    assertEquals(RouteGroup.TRANSACTIONS, RouteGroup.of("POST", "/transactions/lookup"));
+    assertEquals(RouteGroup.ANALYTICS, RouteGroup.of("GET", user + "/budget-report"));
+    assertEquals(RouteGroup.ANALYTICS, RouteGroup.of("GET", user + "/budget"));
+    assertEquals(RouteGroup.ANALYTICS, RouteGroup.of("GET", user + "/percentiles"));
+    assertEquals(RouteGroup.ANALYTICS, RouteGroup.of("POST", "/dashboard/budget-reports"));
+    assertEquals(RouteGroup.DEFAULT, RouteGroup.of("GET", user));
+    assertEquals(RouteGroup.DEFAULT, RouteGroup.of("GET", user + "/edit-form"));
+    assertEquals(RouteGroup.DEFAULT, RouteGroup.of("GET", "/users"));
+    assertEquals(RouteGroup.DEFAULT, RouteGroup.of("GET", "/"));
+  }
+
+  /**
+   * Tests that budget updates are not analytics, whichever endpoint they use.
+   */
+  @Test
+  public void routeGroup_budgetWrites_areDefault() {
+    String user = "/users/" + UUID.randomUUID();
+    assertEquals(RouteGroup.DEFAULT, RouteGroup.of("PUT", user + "/budget"));
+    assertEquals(RouteGroup.DEFAULT, RouteGroup.of("POST", user + "/update-budget"));
+  }
+
+  /**
+   * Tests that analytics requests beyond the limit wait, then get 503, while
+   * core requests still run.
+   */
+  @Test
+  public void doFilter_analyticsFull_rejectedAfterWaitCoreUnaffected() throws Exception {
+    BulkheadFilter filter = new BulkheadFilter(4, 10, 1000, 1, 10, 50, 10_000, 10_000);
+    CountDownLatch running = new CountDownLatch(1);
+    final Future<MockHttpServletResponse> held =
+        pool.submit(() -> call(filter, "/dashboard/budget-reports", blocking(running)));
+    assertTrue(running.await(5, TimeUnit.SECONDS));
+
+    MockHttpServletResponse rejected = call(filter, "/dashboard/budget-reports", passing());
+    assertEquals(503, rejected.getStatus());
+    assertEquals("1", rejected.getHeader("Retry-After"));
+    assertEquals(200, call(filter, "/users/" + UUID.randomUUID(), passing()).getStatus());
+
+    release.countDown();
+    assertEquals(200, held.get(5, TimeUnit.SECONDS).getStatus());
+    assertEquals(200, call(filter, "/dashboard/budget-reports", passing()).getStatus());
+  }
+
+  /**
+   * Tests that analytics is shed at once while the core queue stays slow, and
+   * that core requests keep being admitted.
+   */
+  @Test
+  public void doFilter_coreQueueSlow_analyticsShedFirst() throws Exception {
+    BulkheadFilter filter = new BulkheadFilter(1, 10, 5000, 4, 10, 5000, 1, 10);
+    CountDownLatch running = new CountDownLatch(1);
+    String core = "/users/" + UUID.randomUUID() + "/transactions";
+    final Future<MockHttpServletResponse> held =
+        pool.submit(() -> call(filter, core, blocking(running)));
+    assertTrue(running.await(5, TimeUnit.SECONDS));
+    final Future<MockHttpServletResponse> queued =
+        pool.submit(() -> call(filter, core, passing()));
+    while (filter.bulkheads().get(0).getWaiting() == 0) {
+      Thread.onSpinWait();
+    }
+    Thread.sleep(50);
+
+    long start = System.nanoTime();
+    MockHttpServletResponse shed = call(filter, "/dashboard/budget-reports", passing());
+    assertEquals(503, shed.getStatus());
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+    release.countDown();
+    assertEquals(200, held.get(5, TimeUnit.SECONDS).getStatus());
+    assertEquals(200, queued.get(5, TimeUnit.SECONDS).getStatus());
+    assertEquals(200, call(filter, "/dashboard/budget-reports", passing()).getStatus());
+
+    String metrics = new MetricsController(
+        new MockApiService(new InMemoryLedgerRepository()), filter, null, null, null, null)
+        .metrics();
+    assertTrue(metrics.contains("ledger_bulkhead_rejected_total{class=\"analytics\"} 1\n"));
+    assertTrue(metrics.contains("ledger_bulkhead_active{class=\"core\"} 0\n"));
+  }
+
+  /**
+   * Tests that a new arrival does not take a freed place ahead of a waiting
+   * request, and that it does not clear the overload of a queue that stays slow.
+   */
+  @Test
+  public void acquire_waitersQueued_arrivalDoesNotBarge() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("core", 1, 5, TimeUnit.MILLISECONDS.toNanos(400),
+        TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(50));
+    assertTrue(bulkhead.acquire());
+    final Future<Boolean> waiter = pool.submit(bulkhead::acquire);
+    while (bulkhead.getWaiting() == 0) {
+      Thread.onSpinWait();
+    }
+    Thread.sleep(80);
+    assertTrue(bulkhead.overloaded());
+
+    bulkhead.release();
+    assertFalse(bulkhead.acquire());
+    assertTrue(waiter.get(5, TimeUnit.SECONDS));
+
+    final Future<Boolean> next = pool.submit(bulkhead::acquire);
+    while (bulkhead.getWaiting() == 0) {
+      Thread.onSpinWait();
+    }
+    assertTrue(bulkhead.overloaded());
+    bulkhead.release();
+    assertTrue(next.get(5, TimeUnit.SECONDS));
+  }
+
+  private FilterChain blocking(final CountDownLatch running) {
+    return (request, response) -> {
+      running.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+  }
+
+  private static FilterChain passing() {
+    return (request, response) -> { };
+  }
+
+  private static MockHttpServletResponse call(final BulkheadFilter filter, final String path,
+                                              final FilterChain chain) throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(new MockHttpServletRequest("GET", path), response, chain);
+    return response;
+  }
+}
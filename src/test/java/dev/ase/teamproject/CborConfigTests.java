@@ -0,0 +1,130 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ase.teamproject.config.CborConfig;
+import dev.ase.teamproject.controller.RouteController;
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.service.MockApiService;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * Unit tests for the CborConfig class and CBOR content negotiation.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>encoding</b>: UUID (16 raw bytes), timestamp (epoch millis), date
+ *       (epoch day), round trip (equal transaction)</li>
+ *   <li><b>Accept header</b>: application/cbor (CBOR), application/json or
+ *       none (JSON)</li>
+ *   <li><b>endpoint</b>: without a declared type (transactions), with declared
+ *       types (weekly summary)</li>
+ * </ul>
+ */
+public class CborConfigTests {
+
+  private ObjectMapper cbor;
+  private ObjectMapper json;
+  private Transaction transaction;
+
+  /**
+   * Builds the mappers and a stored transaction.
+   */
+  @BeforeEach
+  public void setUp() {
+    cbor = CborConfig.cborMapper(new Jackson2ObjectMapperBuilder());
+    json = Jackson2ObjectMapperBuilder.json().build();
+    transaction = new Transaction(UUID.randomUUID(), 42.5, "FOOD", "Groceries");
+    transaction.setTransactionId(UUID.randomUUID());
+    transaction.setTimestamp(LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_000_000));
+    transaction.setDate(LocalDate.of(2025, 3, 14));
+  }
+
+  /**
+   * Tests that UUIDs, timestamps and dates use their compact forms and round-trip.
+   */
+  @Test
+  public void transaction_encodesCompactlyAndRoundTrips() throws Exception {
+    byte[] bytes = cbor.writeValueAsBytes(transaction);
+    JsonNode tree = cbor.readTree(bytes);
+
+    ByteBuffer id = ByteBuffer.wrap(tree.get("transactionId").binaryValue());
+    assertEquals(16, id.capacity());
+    assertEquals(transaction.getTransactionId(), new UUID(id.getLong(), id.getLong()));
+    assertEquals(transaction.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli(),
+        tree.get("timestamp").longValue());
+    assertEquals(transaction.getDate().toEpochDay(), tree.get("date").longValue());
+
+    Transaction decoded = cbor.readValue(bytes, Transaction.class);
+    assertEquals(transaction.getTransactionId(), decoded.getTransactionId());
+    assertEquals(transaction.getUserId(), decoded.getUserId());
+    assertEquals(transaction.getTimestamp(), decoded.getTimestamp());
+    assertEquals(transaction.getDate(), decoded.getDate());
+    assertEquals(transaction.getAmount(), decoded.getAmount());
+    assertEquals(transaction.getCategory(), decoded.getCategory());
+
+    assertTrue(bytes.length < json.writeValueAsBytes(transaction).length);
+  }
+
+  /**
+   * Tests that the Accept header selects CBOR or JSON from the controller.
+   */
+  @Test
+  public void controller_negotiatesCborOrJson() throws Exception {
+    MockApiService service = mock(MockApiService.class);
+    User user = new User("Alice", "alice@example.com", 500.0);
+    user.setUserId(transaction.getUserId());
+    List<Transaction> transactions = new ArrayList<>(List.of(transaction));
+    when(service.getUser(user.getUserId())).thenReturn(Optional.of(user));
+    when(service.getTransactionsByUser(user.getUserId())).thenReturn(transactions);
+    MockMvc mvc = MockMvcBuilders.standaloneSetup(new RouteController(service))
+        .setMessageConverters(new MappingJackson2HttpMessageConverter(json),
+            new CborConfig().cborHttpMessageConverter(new Jackson2ObjectMapperBuilder()))
+        .build();
+    String path = "/users/" + user.getUserId() + "/transactions";
+
+    byte[] body = mvc.perform(get(path).accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andReturn().getResponse().getContentAsByteArray();
+    List<Transaction> decoded = cbor.readValue(body, new TypeReference<List<Transaction>>() { });
+    assertEquals(1, decoded.size());
+    assertEquals(transaction.getTransactionId(), decoded.get(0).getTransactionId());
+
+    byte[] text = mvc.perform(get(path).accept(MediaType.APPLICATION_JSON))
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+        .andReturn().getResponse().getContentAsByteArray();
+    assertArrayEquals(json.writeValueAsBytes(transactions), text);
+    mvc.perform(get(path)).andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+    mvc.perform(get("/users/" + user.getUserId() + "/weekly-summary")
+            .accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+  }
+}
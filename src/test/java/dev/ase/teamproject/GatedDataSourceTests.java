@@ -0,0 +1,126 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import dev.ase.teamproject.repository.GatedDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+/**
+ * Unit tests for the GatedDataSource class.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>permits</b>: available (immediate), exhausted and released in time
+ *       (waits), exhausted for longer than the wait (times out)</li>
+ *   <li><b>waiters</b>: within max-waiting, beyond it (rejected at once)</li>
+ *   <li><b>close</b>: once (releases the permit), twice (releases it only once)</li>
+ *   <li><b>target failure</b>: the pool throws (permit is returned)</li>
+ * </ul>
+ */
+public class GatedDataSourceTests {
+
+  /**
+   * Tests that a connection forwards to the pooled one and frees its permit on close.
+   */
+  @Test
+  public void getConnection_forwardsAndReleasesOnClose() throws SQLException {
+    DataSource target = mock(DataSource.class);
+    Connection pooled = mock(Connection.class);
+    when(target.getConnection()).thenReturn(pooled);
+    when(pooled.isReadOnly()).thenReturn(true);
+    GatedDataSource gate = new GatedDataSource(target, 1, 0, 0);
+
+    Connection connection = gate.getConnection();
+    assertTrue(connection.isReadOnly());
+    assertSame(pooled, ((ConnectionProxy) connection).getTargetConnection());
+    assertEquals(1, gate.getActive());
+
+    connection.close();
+    connection.close();
+    verify(pooled, times(2)).close();
+    assertEquals(0, gate.getActive());
+    gate.getConnection().close();
+  }
+
+  /**
+   * Tests that callers beyond max-waiting are rejected at once and that a waiter
+   * times out when no permit is returned.
+   */
+  @Test
+  public void exhausted_rejectsOrTimesOut() throws SQLException {
+    DataSource target = mock(DataSource.class);
+    when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+
+    GatedDataSource noQueue = new GatedDataSource(target, 1, 0, 1000);
+    noQueue.getConnection();
+    SQLException rejected = assertThrows(SQLTransientConnectionException.class,
+        noQueue::getConnection);
+    assertTrue(rejected.getMessage().contains("Too many"));
+
+    GatedDataSource shortWait = new GatedDataSource(target, 1, 1, 10);
+    shortWait.getConnection();
+    SQLException timedOut = assertThrows(SQLTransientConnectionException.class,
+        shortWait::getConnection);
+    assertTrue(timedOut.getMessage().contains("Timed out"));
+    assertEquals(0, shortWait.getWaiting());
+  }
+
+  /**
+   * Tests that a waiter gets the permit released by another caller.
+   */
+  @Test
+  public void exhausted_waiterProceedsWhenReleased() throws Exception {
+    DataSource target = mock(DataSource.class);
+    when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+    GatedDataSource gate = new GatedDataSource(target, 1, 1, 10_000);
+    Connection held = gate.getConnection();
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    try {
+      CountDownLatch started = new CountDownLatch(1);
+      final Future<Connection> waiter = pool.submit(() -> {
+        started.countDown();
+        return gate.getConnection();
+      });
+      started.await();
+      while (gate.getWaiting() == 0) {
+        Thread.onSpinWait();
+      }
+
+      held.close();
+      waiter.get(5, TimeUnit.SECONDS).close();
+      assertEquals(0, gate.getActive());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Tests that a failure to get a pooled connection returns the permit.
+   */
+  @Test
+  public void targetFails_permitReturned() throws SQLException {
+    DataSource target = mock(DataSource.class);
+    when(target.getConnection()).thenThrow(new SQLTransientConnectionException("pool timeout"));
+    GatedDataSource gate = new GatedDataSource(target, 1, 0, 0);
+
+    assertThrows(SQLTransientConnectionException.class, gate::getConnection);
+    assertEquals(0, gate.getActive());
+  }
+}
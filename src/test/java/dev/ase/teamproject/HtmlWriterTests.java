@@ -0,0 +1,107 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import dev.ase.teamproject.controller.HtmlPage;
+import dev.ase.teamproject.controller.HtmlPageConverter;
+import dev.ase.teamproject.controller.HtmlTemplate;
+import dev.ase.teamproject.controller.HtmlWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+/**
+ * Unit tests for the HtmlWriter, HtmlTemplate and HtmlPageConverter classes.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>money</b>: whole, cents, half a cent (rounded up), negative, negative
+ *       zero, beyond the fast path, random amounts (same as {@code %.2f})</li>
+ *   <li><b>text</b>: plain (unchanged), HTML-special characters (escaped), null</li>
+ *   <li><b>template</b>: no slots, every slot filled, a slot left unfilled</li>
+ *   <li><b>converter</b>: page written to the response body as UTF-8</li>
+ * </ul>
+ */
+public class HtmlWriterTests {
+
+  /**
+   * Tests that amounts are written exactly as {@code String.format("%.2f")} writes them.
+   */
+  @Test
+  public void money_matchesFormat() {
+    double[] amounts = {0, 1, 12.5, 0.125, 1.005, 2.675, 0.045, 99.999, 1e9, 1e20,
+        -0.001, -0.0, -12.345, 0.1 + 0.2, Double.NaN, Double.POSITIVE_INFINITY};
+    for (double amount : amounts) {
+      assertEquals(String.format(Locale.ROOT, "%.2f", amount), money(amount),
+          "amount " + amount);
+    }
+    Random random = new Random(42);
+    for (int i = 0; i < 100_000; i++) {
+      double amount = i % 2 == 0 ? random.nextInt(10_000_000) / 1000.0
+          : random.nextDouble() * 1e6;
+      assertEquals(String.format(Locale.ROOT, "%.2f", amount), money(amount),
+          "amount " + amount);
+    }
+  }
+
+  /**
+   * Tests that text is escaped and UUIDs are written in canonical form.
+   */
+  @Test
+  public void textAndUuid_written() {
+    UUID id = UUID.randomUUID();
+    StringWriter html = new StringWriter();
+    new HtmlWriter(html).text("Tom & <Jerry's> \"shop\"").raw("|").text("plain")
+        .raw("|").text((String) null).raw("|").uuid(id);
+    assertEquals("Tom &amp; &lt;Jerry&#39;s&gt; &quot;shop&quot;|plain|null|" + id,
+        html.toString());
+  }
+
+  /**
+   * Tests that template slots are filled in order and that an unfilled one is reported.
+   */
+  @Test
+  public void template_fillsSlotsInOrder() {
+    HtmlTemplate row = HtmlTemplate.compile("<li>{} spent ${}</li>");
+    HtmlTemplate rule = HtmlTemplate.compile("<hr>");
+    assertEquals(2, row.slots());
+    assertEquals(0, rule.slots());
+
+    StringWriter html = new StringWriter();
+    HtmlWriter out = new HtmlWriter(html);
+    out.begin(row).text("Alice").money(12.5).begin(rule).begin(row).text("Bob").money(3);
+    assertEquals("<li>Alice spent $12.50</li><hr><li>Bob spent $3.00</li>", html.toString());
+
+    out.begin(row).text("Carol");
+    assertThrows(IllegalStateException.class, () -> out.begin(rule));
+  }
+
+  /**
+   * Tests that the converter writes a page to the response body.
+   */
+  @Test
+  public void converter_writesPage() throws IOException {
+    HtmlPageConverter converter = new HtmlPageConverter();
+    HtmlPage page = out -> out.raw("<p>").text("Zoë").raw("</p>");
+    MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+    converter.write(page, MediaType.TEXT_HTML, message);
+
+    assertEquals("<p>Zoë</p>", message.getBodyAsString(StandardCharsets.UTF_8));
+    assertEquals(StandardCharsets.UTF_8, message.getHeaders().getContentType().getCharset());
+    assertEquals("<p>Zoë</p>", page.asString());
+  }
+
+  private static String money(final double amount) {
+    StringWriter html = new StringWriter();
+    new HtmlWriter(html).money(amount);
+    return html.toString();
+  }
+}
@@ -0,0 +1,224 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.repository.InMemoryLedgerRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Unit tests for the {@link InMemoryLedgerRepository} class.
+ *
+ * <p>Service-level behavior is covered by {@code MockApiServiceInMemoryTests};
+ * these tests focus on properties specific to the in-process store.
+ *
+ * <h2>Equivalence Partitions</h2>
+ * <ul>
+ *   <li>P1: (Valid) Per-user listings are ordered most recent first</li>
+ *   <li>P2: (Valid) Returned objects are copies that do not alias stored state</li>
+ *   <li>P3: (Invalid) Constraint violations carry PostgreSQL constraint names</li>
+ *   <li>P4: (Valid/Boundary) Date-bounded queries include the boundary day</li>
+ *   <li>P5: (Valid) Concurrent inserts for many users are all retained</li>
+ * </ul>
+ */
+public class InMemoryLedgerRepositoryTests {
+
+  private InMemoryLedgerRepository repository;
+  private UUID userId;
+
+  /**
+   * Creates an empty store with a single user before each test.
+   */
+  @BeforeEach
+  public void setUp() {
+    repository = new InMemoryLedgerRepository();
+    userId = repository.insertUser(new User("alice", "alice@example.com", 100.0)).getUserId();
+  }
+
+  /**
+   * Tests that transactions are listed most recent first.
+   *
+   * <p>Partition: P1 (Valid).
+   */
+  @Test
+  public void findTransactionsByUser_multipleInserts_returnsMostRecentFirst() {
+    for (int i = 0; i < 20; i++) {
+      repository.insertTransaction(new Transaction(userId, i + 1, "FOOD", "tx" + i));
+    }
+
+    List<Transaction> result = repository.findTransactionsByUser(userId);
+
+    assertEquals(20, result.size());
+    assertEquals("tx19", result.get(0).getDescription());
+    assertEquals("tx0", result.get(19).getDescription());
+  }
+
+  /**
+   * Tests that mutating a returned transaction does not change the store.
+   *
+   * <p>Partition: P2 (Valid).
+   */
+  @Test
+  public void findTransaction_mutateResult_storeUnchanged() {
+    Transaction saved = repository.insertTransaction(
+        new Transaction(userId, 10.0, "FOOD", "lunch"));
+
+    Transaction first = repository.findTransaction(saved.getTransactionId()).get();
+    first.setDescription("changed");
+    Transaction second = repository.findTransaction(saved.getTransactionId()).get();
+
+    assertNotSame(first, second);
+    assertEquals("lunch", second.getDescription());
+  }
+
+  /**
+   * Tests that a duplicate email names the PostgreSQL unique constraint.
+   *
+   * <p>Partition: P3 (Invalid).
+   */
+  @Test
+  public void insertUser_duplicateEmail_namesConstraint() {
+    DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+        () -> repository.insertUser(new User("bob", "alice@example.com", 10.0)));
+
+    assertTrue(e.getMessage().contains("users_email_key"));
+    assertFalse(repository.existsByUsername("bob", null));
+  }
+
+  /**
+   * Tests that a transaction for an unknown user is rejected as a foreign key violation.
+   *
+   * <p>Partition: P3 (Invalid).
+   */
+  @Test
+  public void insertTransaction_unknownUser_foreignKeyViolation() {
+    DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+        () -> repository.insertTransaction(
+            new Transaction(UUID.randomUUID(), 10.0, "FOOD", "orphan")));
+
+    assertTrue(e.getMessage().contains("foreign key constraint"));
+  }
+
+  /**
+   * Tests that an unknown category is rejected like the database enum.
+   *
+   * <p>Partition: P3 (Invalid).
+   */
+  @Test
+  public void updateTransaction_invalidCategory_enumViolation() {
+    Transaction saved = repository.insertTransaction(
+        new Transaction(userId, 10.0, "FOOD", "lunch"));
+    Transaction values = new Transaction(userId, 10.0, "food", "lunch");
+
+    DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+        () -> repository.updateTransaction(saved.getTransactionId(), values));
+
+    assertTrue(e.getMessage().contains("transaction_category"));
+  }
+
+  /**
+   * Tests that date-bounded queries include transactions made on the boundary day.
+   *
+   * <p>Partition: P4 (Valid/Boundary).
+   */
+  @Test
+  public void sumSpentSince_today_includesTodaysTransactions() {
+    repository.insertTransaction(new Transaction(userId, 10.0, "FOOD", "a"));
+    repository.insertTransaction(new Transaction(userId, 5.5, "OTHER", "b"));
+
+    assertEquals(15.5, repository.sumSpentSince(userId, LocalDate.now()));
+    assertEquals(0.0, repository.sumSpentSince(userId, LocalDate.now().plusDays(1)));
+    assertEquals(2, repository.findTransactionsSince(userId, LocalDate.now()).size());
+  }
+
+  /**
+   * Tests that per-user category totals include both boundary days and only
+   * positive amounts, one call per user and category with spending.
+   *
+   * <p>Partition: P4 (Valid/Boundary).
+   */
+  @Test
+  public void forEachCategoryTotal_today_groupsByUserAndCategory() {
+    UUID bob = repository.insertUser(new User("bob", "bob@example.com", 50.0)).getUserId();
+    repository.insertTransaction(new Transaction(userId, 10.0, "FOOD", "a"));
+    repository.insertTransaction(new Transaction(userId, 2.5, "FOOD", "b"));
+    repository.insertTransaction(new Transaction(userId, 4.0, "TRAVEL", "c"));
+    repository.insertTransaction(new Transaction(bob, 7.0, "FOOD", "d"));
+
+    Map<String, Double> totals = new HashMap<>();
+    LocalDate today = LocalDate.now();
+    repository.forEachCategoryTotal(today, today, (user, category, total) ->
+        totals.merge((user.equals(userId) ? "alice-" : "bob-") + category, total, Double::sum));
+
+    assertEquals(Map.of("alice-FOOD", 12.5, "alice-TRAVEL", 4.0, "bob-FOOD", 7.0), totals);
+
+    totals.clear();
+    repository.forEachCategoryTotal(today.plusDays(1), today.plusDays(2),
+        (user, category, total) -> totals.put(category.name(), total));
+    assertTrue(totals.isEmpty());
+  }
+
+  /**
+   * Tests that amounts are stored with two decimal places like DECIMAL(10,2).
+   *
+   * <p>Partition: P4 (Valid/Boundary).
+   */
+  @Test
+  public void insertTransaction_extraDecimals_roundedToCents() {
+    Transaction saved = repository.insertTransaction(
+        new Transaction(userId, 10.005, "FOOD", "rounding"));
+
+    assertEquals(10.01, repository.findTransaction(saved.getTransactionId()).get().getAmount());
+  }
+
+  /**
+   * Tests that concurrent inserts across many users are all retained.
+   *
+   * <p>Partition: P5 (Valid).
+   */
+  @Test
+  public void insertTransaction_concurrentUsers_allRetained() throws Exception {
+    List<UUID> users = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      users.add(repository.insertUser(
+          new User("user" + i, "user" + i + "@example.com", 50.0)).getUserId());
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (UUID id : users) {
+        futures.add(pool.submit(() -> {
+          for (int j = 0; j < 100; j++) {
+            repository.insertTransaction(new Transaction(id, 1.0, "OTHER", "t" + j));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    assertEquals(1600, repository.findAllTransactions().size());
+    for (UUID id : users) {
+      assertEquals(100.0, repository.sumSpentSince(id, LocalDate.now()));
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import dev.ase.teamproject.controller.RecordingController;
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.repository.InMemoryLedgerRepository;
+import dev.ase.teamproject.repository.JdbcLedgerRepository;
+import dev.ase.teamproject.repository.SqlMetrics;
+import dev.ase.teamproject.repository.TimedDataSource;
+import dev.ase.teamproject.service.MockApiService;
+import dev.ase.teamproject.util.LedgerEvents;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.sql.DataSource;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Unit tests for the LedgerEvents and RecordingController classes.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>recording</b>: events enabled (committed), no recording (nothing
+ *       started)</li>
+ *   <li><b>operation</b>: add and update a transaction, budget report, monthly
+ *       summary; with the user's hash and the rows touched</li>
+ *   <li><b>SQL statement</b>: inside an operation (its user), outside one (no
+ *       user)</li>
+ *   <li><b>admin endpoint</b>: no recording, running, stopped; starting twice,
+ *       stopping or dumping nothing (409)</li>
+ * </ul>
+ */
+public class LedgerEventsTests {
+
+  @TempDir
+  private Path directory;
+
+  /**
+   * Tests that the service's operations are recorded with the user's hash and
+   * the rows they touched.
+   */
+  @Test
+  public void operations_recorded() throws IOException {
+    MockApiService service = new MockApiService(new InMemoryLedgerRepository());
+    UUID userId = service.addUser(new User("events", "events@example.com", 500)).getUserId();
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable(LedgerEvents.Operation.class);
+      recording.start();
+      Transaction saved = service.addTransaction(
+          new Transaction(userId, 40, "FOOD", "Lunch"));
+      service.updateTransaction(saved.getTransactionId(), Map.of("amount", 45));
+      service.getBudgetReport(userId);
+      service.getMonthlySummary(userId);
+      recording.stop();
+      events = read(recording, "dev.ase.teamproject.Operation");
+    }
+
+    assertEquals(List.of("addTransaction", "updateTransaction", "getBudgetReport",
+        "getMonthlySummary"), events.stream().map(e -> e.getString("operation")).toList());
+    for (RecordedEvent event : events) {
+      assertEquals(userId.hashCode(), event.getInt("userIdHash"));
+      assertEquals(1, event.getLong("rows"));
+      assertFalse(event.getDuration().isNegative());
+    }
+  }
+
+  /**
+   * Tests that SQL statements are recorded with their query, rows and the user
+   * of the operation that ran them.
+   */
+  @Test
+  public void statements_recordedWithOperationUser() throws Exception {
+    DataSource target = mock(DataSource.class);
+    Connection connection = mock(Connection.class);
+    PreparedStatement prepared = mock(PreparedStatement.class);
+    ResultSet results = mock(ResultSet.class);
+    when(target.getConnection()).thenReturn(connection);
+    when(connection.prepareStatement(anyString())).thenReturn(prepared);
+    when(prepared.executeQuery()).thenReturn(results);
+    when(results.next()).thenReturn(true, true, false, false);
+    JdbcLedgerRepository repository = new JdbcLedgerRepository(
+        new JdbcTemplate(new TimedDataSource(target, new SqlMetrics(false), null)));
+    UUID userId = UUID.randomUUID();
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable(LedgerEvents.Operation.class);
+      recording.enable(LedgerEvents.SqlStatement.class);
+      recording.start();
+      LedgerEvents.Operation operation = LedgerEvents.begin("getBudgetReport", userId);
+      repository.findTransactionsByUser(userId);
+      LedgerEvents.end(operation);
+      repository.findUser(userId);
+      recording.stop();
+      events = read(recording, "dev.ase.teamproject.SqlStatement");
+    }
+
+    assertEquals(2, events.size());
+    assertEquals("findTransactionsByUser", events.get(0).getString("query"));
+    assertEquals(userId.hashCode(), events.get(0).getInt("userIdHash"));
+    assertEquals(2, events.get(0).getLong("rows"));
+    assertEquals("findUser", events.get(1).getString("query"));
+    assertEquals(0, events.get(1).getInt("userIdHash"));
+    assertEquals(0, events.get(1).getLong("rows"));
+  }
+
+  /**
+   * Tests that nothing is started while no recording has the events enabled.
+   */
+  @Test
+  public void noRecording_nothingStarted() {
+    assertNull(LedgerEvents.begin("addTransaction", UUID.randomUUID()));
+    assertNull(LedgerEvents.sqlStarted());
+    LedgerEvents.touched(1);
+    LedgerEvents.end(null);
+    LedgerEvents.sqlFinished(null, "findUser", 1);
+  }
+
+  /**
+   * Tests starting, dumping and stopping a recording through the admin
+   * endpoint, and the requests that do not fit the recording's state.
+   */
+  @Test
+  public void recordingController_startDumpStop() throws IOException {
+    RecordingController controller =
+        new RecordingController(directory.toString(), "default", 1);
+    try {
+      assertEquals("NONE", controller.status().get("state"));
+      assertEquals(409, controller.stop().getStatusCode().value());
+      assertEquals(409, controller.dump().getStatusCode().value());
+
+      assertEquals("RUNNING", controller.start().getBody().get("state"));
+      assertEquals(409, controller.start().getStatusCode().value());
+      ResponseEntity<Map<String, Object>> dumped = controller.dump();
+      Path file = Path.of((String) dumped.getBody().get("file"));
+      assertEquals(directory.toAbsolutePath(), file.getParent());
+      assertTrue(Files.size(file) > 0);
+
+      assertEquals("STOPPED", controller.stop().getBody().get("state"));
+      assertEquals(200, controller.dump().getStatusCode().value());
+      assertEquals("RUNNING", controller.start().getBody().get("state"));
+    } finally {
+      controller.destroy();
+    }
+    assertEquals("NONE", controller.status().get("state"));
+  }
+
+  private List<RecordedEvent> read(final Recording recording, final String type)
+      throws IOException {
+    Path file = directory.resolve(type + ".jfr");
+    recording.dump(file);
+    return RecordingFile.readAllEvents(file).stream()
+        .filter(event -> event.getEventType().getName().equals(type))
+        .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+        .toList();
+  }
+}
@@ -0,0 +1,1186 @@
+package dev.ase.teamproject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.service.MockApiService;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Shared service-level test suite for MockApiService.
+ *
+ * <p>Every {@code LedgerRepository} backend must pass these tests. Subclasses supply
+ * a {@link MockApiService} wired to their backend with an empty store, and the suite
+ * exercises CRUD operations, constraint enforcement (unique username and email,
+ * foreign keys, category values, cascade deletes), generated fields and the
+ * analytics queries against it.
+ *
+ * <p>Known subclasses:
+ * <ul>
+ *   <li>{@code MockApiServiceIntegrationTests} - PostgreSQL through JdbcTemplate</li>
+ *   <li>{@code MockApiServiceInMemoryTests} - the in-process ledger store</li>
+ *   <li>{@code MockApiServiceWalTests} - the write-ahead-logged ledger store</li>
+ *   <li>{@code MockApiServiceWindowTests} - the in-process store with the in-memory
+ *       spending aggregates enabled</li>
+ * </ul>
+ */
+public abstract class MockApiServiceContractTests {
+
+  protected MockApiService service;
+
+  protected UUID userId;
+
+  /**
+   * Returns a service backed by an empty ledger store.
+   *
+   * @return The {@code MockApiService} under test.
+   */
+  protected abstract MockApiService emptyService();
+
+  /**
+   * Sets up a clean store before each test.
+   * Creates a base user for tests to use, ensuring isolation between test cases.
+   */
+  @BeforeEach
+  public void setup() {
+    service = emptyService();
+
+    User user = new User();
+    user.setUsername("user");
+    user.setEmail("user@email.com");
+    user.setBudget(100.0);
+
+    User saved = service.addUser(user);
+    userId = saved.getUserId();
+  }
+
+  // ===========================================================================
+  // USER CRUD OPERATIONS - Testing User table integration
+  // ===========================================================================
+
+  /**
+   * Tests retrieval of all users from the database.
+   *
+   * <p><strong>External Integration:</strong> Service → Database SELECT query
+   */
+  @Test
+  public void testViewAllUsers() {
+    List<User> users = service.viewAllUsers();
+    assertThat(users).hasSize(1);
+    assertThat(users.get(0).getUsername()).isEqualTo("user");
+  }
+
+  /**
+   * Tests retrieval of a specific user by UUID.
+   *
+   * <p><strong>External Integration:</strong> Service → Database SELECT with WHERE clause
+   */
+  @Test
+  public void testGetUser() {
+    Optional<User> user = service.getUser(userId);
+    assertThat(user).isPresent();
+    assertThat(user.get().getUsername()).isEqualTo("user");
+  }
+
+  /**
+   * Tests retrieval of non-existent user.
+   *
+   * <p><strong>External Integration:</strong> Service → Database returns empty result
+   */
+  @Test
+  public void testGetUser_notFound() {
+    UUID fakeId = UUID.randomUUID();
+
+    Optional<User> user = service.getUser(fakeId);
+
+    assertThat(user).isEmpty();
+  }
+
+  /**
+   * Tests that a batch lookup returns the known users keyed by id, in request
+   * order, without duplicates, and leaves unknown ids out.
+   *
+   * <p><strong>External Integration:</strong> Service → Database SELECT with
+   * {@code WHERE user_id = ANY(?)}
+   */
+  @Test
+  public void testGetUsers_batch() {
+    User other = new User();
+    other.setUsername("other");
+    other.setEmail("other@email.com");
+    other.setBudget(50.0);
+    UUID otherId = service.addUser(other).getUserId();
+    UUID fakeId = UUID.randomUUID();
+
+    Map<UUID, User> users = service.getUsers(List.of(otherId, fakeId, userId, otherId));
+
+    assertThat(users.keySet()).containsExactly(otherId, userId);
+    assertThat(users.get(userId).getUsername()).isEqualTo("user");
+    assertThat(service.getUsers(List.of())).isEmpty();
+  }
+
+  /**
+   * Tests that a batch lookup rejects more ids than the limit.
+   */
+  @Test
+  public void testGetUsers_tooManyIds_fail() {
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i <= MockApiService.MAX_BATCH_IDS; i++) {
+      ids.add(UUID.randomUUID());
+    }
+
+    assertThatThrownBy(() -> service.getUsers(ids))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /**
+   * Tests successful user creation with database-generated UUID.
+   *
+   * <p><strong>External Integration:</strong> Service → Database INSERT with RETURNING clause
+   * to retrieve auto-generated user_id
+   */
+  @Test
+  public void testAddUser_success() {
+    User user = new User();
+    user.setUsername("newUser");
+    user.setEmail("test@email.com");
+    user.setBudget(50.0);
+
+    User saved = service.addUser(user);
+
+    assertThat(saved.getUserId()).isNotNull();
+    assertThat(service.getUser(saved.getUserId())).isPresent();
+  }
+
+  /**
+   * Tests database unique constraint enforcement on username.
+   *
+   * <p><strong>External Integration:</strong> Service → Database unique constraint violation
+   * handling (users_username_key constraint)
+   */
+  @Test
+  public void testAddUser_duplicateUsername_fail() {
+    User duplicate = new User();
+    duplicate.setUsername("user");
+    duplicate.setEmail("test@email.com");
+    duplicate.setBudget(10.0);
+
+    assertThatThrownBy(() -> service.addUser(duplicate))
+        .isInstanceOf(Exception.class);
+  }
+
+  /**
+   * Tests database unique constraint enforcement on email.
+   *
+   * <p><strong>External Integration:</strong> Service → Database unique constraint violation
+   * handling (users_email_key constraint)
+   */
+  @Test
+  public void testAddUser_duplicateEmail_fail() {
+    User duplicate = new User();
+    duplicate.setUsername("differentUser");
+    duplicate.setEmail("user@email.com");  // Same email as setup user
+    duplicate.setBudget(10.0);
+
+    assertThatThrownBy(() -> service.addUser(duplicate))
+        .isInstanceOf(Exception.class);
+  }
+
+  /**
+   * Tests user deletion from database.
+   *
+   * <p><strong>External Integration:</strong> Service → Database DELETE operation
+   * and verification that record no longer exists
+   */
+  @Test
+  public void testDeleteUser() {
+    boolean deleted = service.deleteUser(userId);
+    assertThat(deleted).isTrue();
+    assertThat(service.getUser(userId)).isEmpty();
+  }
+
+  /**
+   * Tests deletion of non-existent user.
+   *
+   * <p><strong>External Integration:</strong> Service → Database DELETE returns 0 rows affected
+   */
+  @Test
+  public void testDeleteUser_notFound() {
+    UUID fakeId = UUID.randomUUID();
+
+    boolean deleted = service.deleteUser(fakeId);
+
+    assertThat(deleted).isFalse();
+  }
+
+  // ===========================================================================
+  // TRANSACTION CRUD OPERATIONS - Testing Transaction table integration
+  // ===========================================================================
+
+  /**
+   * Tests retrieval of all transactions from the database.
+   *
+   * <p><strong>External Integration:</strong> Service → Database SELECT query
+   * with ORDER BY clause
+   */
+  @Test
+  public void testViewAllTransactions() {
+    // Add transactions for test user
+    Transaction t1 = new Transaction(userId, 10.0, "FOOD", "first");
+    Transaction t2 = new Transaction(userId, 20.0, "OTHER", "second");
+    service.addTransaction(t1);
+    service.addTransaction(t2);
+
+    List<Transaction> all = service.viewAllTransactions();
+
+    assertThat(all).hasSizeGreaterThanOrEqualTo(2);
+    // Most recent should be first (ORDER BY created_time DESC)
+    assertThat(all.get(0).getDescription()).isEqualTo("second");
+  }
+
+  /**
+   * Tests retrieval of a specific transaction by ID.
+   *
+   * <p><strong>External Integration:</strong> Service → Database SELECT with WHERE clause
+   */
+  @Test
+  public void testGetTransaction_found() {
+    Transaction t = new Transaction(userId, 50.0, "FOOD", "specific transaction");
+    Transaction saved = service.addTransaction(t);
+
+    Optional<Transaction> found = service.getTransaction(saved.getTransactionId());
+
+    assertThat(found).isPresent();
+    assertThat(found.get().getDescription()).isEqualTo("specific transaction");
+  }
+
+  /**
+   * Tests retrieval of non-existent transaction.
+   *
+   * <p><strong>External Integration:</strong> Service → Database returns empty result
+   */
+  @Test
+  public void testGetTransaction_notFound() {
+    UUID fakeId = UUID.randomUUID();
+
+    Optional<Transaction> found = service.getTransaction(fakeId);
+
+    assertThat(found).isEmpty();
+  }
+
+  /**
+   * Tests that a batch lookup returns the known transactions keyed by id and
+   * leaves unknown ids out.
+   *
+   * <p><strong>External Integration:</strong> Service → Database SELECT with
+   * {@code WHERE transaction_id = ANY(?)}
+   */
+  @Test
+  public void testGetTransactions_batch() {
+    Transaction first = service.addTransaction(new Transaction(userId, 10.0, "FOOD", "first"));
+    Transaction second = service.addTransaction(new Transaction(userId, 20.0, "FOOD", "second"));
+    UUID fakeId = UUID.randomUUID();
+
+    Map<UUID, Transaction> found = service.getTransactions(
+        List.of(second.getTransactionId(), fakeId, first.getTransactionId()));
+
+    assertThat(found.keySet())
+        .containsExactly(second.getTransactionId(), first.getTransactionId());
+    assertThat(found.get(first.getTransactionId()).getDescription()).isEqualTo("first");
+  }
+
+  /**
+   * Tests successful transaction creation with database-generated fields.
+   *
+   * <p><strong>External Integration:</strong>
+   * <ul>
+   *   <li>Service → Database INSERT with RETURNING clause</li>
+   *   <li>Database auto-generates: transaction_id, created_time, created_date</li>
+   *   <li>Tests PostgreSQL ENUM casting (::transaction_category)</li>
+   * </ul>
+   */
+  @Test
+  public void testAddTransaction_success() {
+    Transaction t = new Transaction();
+    t.setUserId(userId);
+    t.setDescription("desc");
+    t.setAmount(10.0);
+    t.setCategory("OTHER");
+
+    Transaction saved = service.addTransaction(t);
+
+    assertThat(saved.getTransactionId()).isNotNull();
+    assertThat(saved.getDate()).isNotNull();
+    assertThat(saved.getTimestamp()).isNotNull();
+  }
+
+  /**
+   * Tests application-level validation before database interaction.
+   *
+   * <p><strong>Internal Integration:</strong> Application validation layer preventing
+   * invalid data from reaching the database
+   */
+  @Test
+  public void testAddTransaction_negativeAmountInvalid() {
+    Transaction t = new Transaction();
+    t.setUserId(userId);
+    t.setDescription("desc");
+    t.setAmount(-5.0);
+    t.setCategory("OTHER");
+
+    assertThatThrownBy(() -> service.addTransaction(t))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Amount must be greater than 0");
+  }
+
+  /**
+   * Tests application-level validation for zero amount.
+   *
+   * <p><strong>Internal Integration:</strong> Application validation layer
+   */
+  @Test
+  public void testAddTransaction_zeroAmountInvalid() {
+    Transaction t = new Transaction();
+    t.setUserId(userId);
+    t.setDescription("desc");
+    t.setAmount(0.0);
+    t.setCategory("OTHER");
+
+    assertThatThrownBy(() -> service.addTransaction(t))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Amount must be greater than 0");
+  }
+
+  /**
+   * Tests application-level validation for null description.
+   *
+   * <p><strong>Internal Integration:</strong> Application validation layer
+   */
+  @Test
+  public void testAddTransaction_nullDescriptionInvalid() {
+    Transaction t = new Transaction();
+    t.setUserId(userId);
+    t.setDescription(null);
+    t.setAmount(10.0);
+    t.setCategory("OTHER");
+
+    assertThatThrownBy(() -> service.addTransaction(t))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Description is required");
+  }
+
+  /**
+   * Tests application-level validation for null category.
+   *
+   * <p><strong>Internal Integration:</strong> Application validation layer
+   */
+  @Test
+  public void testAddTransaction_nullCategoryInvalid() {
+    Transaction t = new Transaction();
+    t.setUserId(userId);
+    t.setDescription("desc");
+    t.setAmount(10.0);
+    t.setCategory(null);
+
+    assertThatThrownBy(() -> service.addTransaction(t))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Category is required");
+  }
+
+  /**
+   * Tests database ENUM constraint enforcement.
+   *
+   * <p><strong>External Integration:</strong> Application attempts invalid category,
+   * database ENUM type rejects it, application handles the error
+   */
+  @Test
+  public void testAddTransaction_categoryInvalid() {
+    Transaction t = new Transaction();
+    t.setUserId(userId);
+    t.setDescription("desc");
+    t.setAmount(5.0);
+    t.setCategory("INVALID");
+
+    assertThatThrownBy(() -> service.addTransaction(t))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Invalid category");
+  }
+
+  /**
+   * Tests partial update of transaction record.
+   *
+   * <p><strong>External Integration:</strong> Service → Database UPDATE operation
+   * with selective field modification
+   */
+  @Test
+  public void testUpdateTransaction_success() {
+    Transaction t = new Transaction(userId, 20.0, "OTHER", "desc");
+    Transaction saved = service.addTransaction(t);
+
+    Map<String, Object> updates = Map.of(
+        "amount", 25.0,
+        "description", "updated"
+    );
+
+    Optional<Transaction> updated = service.updateTransaction(saved.getTransactionId(), updates);
+
+    assertThat(updated).isPresent();
+    assertThat(updated.get().getAmount()).isEqualTo(25.0);
+    assertThat(updated.get().getDescription()).isEqualTo("updated");
+  }
+
+  /**
+   * Tests update with category change.
+   *
+   * <p><strong>External Integration:</strong> Service → Database UPDATE with ENUM casting
+   */
+  @Test
+  public void testUpdateTransaction_categoryChange() {
+    Transaction t = new Transaction(userId, 20.0, "OTHER", "desc");
+    Transaction saved = service.addTransaction(t);
+
+    Map<String, Object> updates = Map.of("category", "FOOD");
+
+    Optional<Transaction> updated = service.updateTransaction(saved.getTransactionId(), updates);
+
+    assertThat(updated).isPresent();
+    assertThat(updated.get().getCategory()).isEqualTo("FOOD");
+  }
+
+  /**
+   * Tests that a category given in lower case is stored under its canonical name.
+   *
+   * <p><strong>Internal Integration:</strong> Application validation resolves the
+   * name case-insensitively before the database ENUM cast
+   */
+  @Test
+  public void testUpdateTransaction_lowerCaseCategory_storedCanonical() {
+    Transaction saved = service.addTransaction(new Transaction(userId, 20.0, "OTHER", "desc"));
+
+    Optional<Transaction> updated = service.updateTransaction(saved.getTransactionId(),
+        Map.of("category", "travel"));
+
+    assertThat(updated).isPresent();
+    assertThat(updated.get().getCategory()).isEqualTo("TRAVEL");
+  }
+
+  /**
+   * Tests update with invalid category.
+   *
+   * <p><strong>Internal Integration:</strong> Application validation rejects invalid category
+   */
+  @Test
+  public void testUpdateTransaction_invalidCategory() {
+    Transaction t = new Transaction(userId, 20.0, "OTHER", "desc");
+    Transaction saved = service.addTransaction(t);
+
+    Map<String, Object> updates = Map.of("category", "INVALID_CATEGORY");
+
+    assertThatThrownBy(() -> service.updateTransaction(saved.getTransactionId(), updates))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Invalid category");
+  }
+
+  /**
+   * Tests transaction deletion from database.
+   *
+   * <p><strong>External Integration:</strong> Service → Database DELETE operation
+   */
+  @Test
+  public void testDeleteTransaction_success() {
+    Transaction t = new Transaction(userId, 10.0, "OTHER", "desc");
+    Transaction saved = service.addTransaction(t);
+
+    boolean deleted = service.deleteTransaction(saved.getTransactionId());
+    assertThat(deleted).isTrue();
+
+    // Verify actually deleted
+    assertThat(service.getTransaction(saved.getTransactionId())).isEmpty();
+  }
+
+  /**
+   * Tests deletion of non-existent transaction.
+   *
+   * <p><strong>External Integration:</strong> Service → Database DELETE returns 0 rows
+   */
+  @Test
+  public void testDeleteTransaction_notFound() {
+    UUID fakeId = UUID.randomUUID();
+
+    boolean deleted = service.deleteTransaction(fakeId);
+
+    assertThat(deleted).isFalse();
+  }
+
+  // ===========================================================================
+  // FOREIGN KEY RELATIONSHIP TESTS - Testing User-Transaction data sharing
+  // ===========================================================================
+
+  /**
+   * Tests that transactions cannot be created for non-existent users.
+   *
+   * <p><strong>External Integration:</strong> Database foreign key constraint enforcement
+   * between transactions.user_id and users.user_id
+   */
+  @Test
+  public void testAddTransaction_invalidUserId() {
+    UUID fakeUserId = UUID.randomUUID();
+    Transaction t = new Transaction(fakeUserId, 10.0, "OTHER", "desc");
+
+    assertThatThrownBy(() -> service.addTransaction(t))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Invalid user ID");
+  }
+
+  /**
+   * Tests cascade delete: deleting a user deletes their transactions.
+   *
+   * <p><strong>External Integration:</strong>
+   * <ul>
+   *   <li>User-Transaction foreign key with ON DELETE CASCADE</li>
+   *   <li>Database automatically removes child records</li>
+   *   <li>Service verifies cascaded deletion</li>
+   * </ul>
+   *
+   * <p><strong>Shared Data:</strong> Transaction.userId references User.userId
+   */
+  @Test
+  public void testDeleteUser_cascadesTransactions() {
+    // Create transactions for user
+    Transaction t1 = new Transaction(userId, 10.0, "FOOD", "lunch");
+    Transaction t2 = new Transaction(userId, 20.0, "OTHER", "misc");
+    service.addTransaction(t1);
+    service.addTransaction(t2);
+
+    // Verify transactions exist
+    List<Transaction> before = service.getTransactionsByUser(userId);
+    assertThat(before).hasSize(2);
+
+    // Delete user
+    boolean deleted = service.deleteUser(userId);
+    assertThat(deleted).isTrue();
+
+    // Verify transactions were cascaded
+    List<Transaction> after = service.getTransactionsByUser(userId);
+    assertThat(after).isEmpty();
+  }
+
+  /**
+   * Tests retrieval of transactions filtered by user ID.
+   *
+   * <p><strong>External Integration:</strong> Service → Database query filtering
+   * by foreign key relationship
+   *
+   * <p><strong>Shared Data:</strong> Tests that transactions are correctly
+   * associated with their owning user via userId
+   */
+  @Test
+  public void testGetTransactionsByUser() {
+    // Create second user
+    User user2 = new User("user2", "user2@email.com", 200.0);
+    User savedUser2 = service.addUser(user2);
+
+    // Create transactions for both users
+    Transaction t1 = new Transaction(userId, 10.0, "FOOD", "user1-tx1");
+    Transaction t2 = new Transaction(userId, 15.0, "OTHER", "user1-tx2");
+    Transaction t3 = new Transaction(savedUser2.getUserId(), 30.0, "FOOD", "user2-tx1");
+
+    service.addTransaction(t1);
+    service.addTransaction(t2);
+    service.addTransaction(t3);
+
+    // Test user 1's transactions
+    List<Transaction> user1Txs = service.getTransactionsByUser(userId);
+    assertThat(user1Txs).hasSize(2);
+    assertThat(user1Txs).allMatch(tx -> tx.getUserId().equals(userId));
+
+    // Test user 2's transactions
+    List<Transaction> user2Txs = service.getTransactionsByUser(savedUser2.getUserId());
+    assertThat(user2Txs).hasSize(1);
+    assertThat(user2Txs.get(0).getDescription()).isEqualTo("user2-tx1");
+  }
+
+  // ===========================================================================
+  // ANALYTICS OPERATIONS - Testing complex database queries with aggregations
+  // ===========================================================================
+
+  /**
+   * Tests budget summary generation with SUM aggregation.
+   *
+   * <p><strong>Internal Integration:</strong>
+   * <ul>
+   *   <li>Service retrieves user from database</li>
+   *   <li>Service queries transactions with WHERE clause</li>
+   *   <li>Application calculates SUM</li>
+   *   <li>Combines data from both User and Transaction tables into summary</li>
+   * </ul>
+   *
+   * <p><strong>Shared Data:</strong> Combines User.budget with Transaction.amount
+   */
+  @Test
+  public void testGetBudgetsTextBlock_userFound() {
+    addSampleTransactions();
+    String summary = service.getBudgetsTextBlock(userId);
+    assertThat(summary).contains("Total Budget", "Total Spent", "Remaining");
+  }
+
+  /**
+   * Tests error handling when querying non-existent user.
+   *
+   * <p><strong>External Integration:</strong> Service queries database for non-existent
+   * record and handles absence gracefully
+   */
+  @Test
+  public void testGetBudgetsTextBlock_userNotFound() {
+    UUID fakeId = UUID.randomUUID();
+    String summary = service.getBudgetsTextBlock(fakeId);
+    assertThat(summary).contains("User not found");
+  }
+
+  /**
+   * Tests budget warning generation for over-budget user.
+   *
+   * <p><strong>Internal Integration:</strong>
+   * <ul>
+   *   <li>Service retrieves user from database</li>
+   *   <li>Service retrieves transactions and calculates totals</li>
+   *   <li>Business logic generates warning messages</li>
+   * </ul>
+   *
+   * <p><strong>Shared Data:</strong> Compares User.budget with sum of Transaction.amount
+   */
+  @Test
+  public void testGetBudgetWarningsText_overBudget() {
+    // Create transactions exceeding the 100.0 budget
+    Transaction t1 = new Transaction(userId, 80.0, "FOOD", "big expense");
+    Transaction t2 = new Transaction(userId, 50.0, "OTHER", "another expense");
+    service.addTransaction(t1);
+    service.addTransaction(t2);
+
+    String warnings = service.getBudgetWarningsText(userId);
+
+    assertThat(warnings).contains("OVER BUDGET");
+  }
+
+  /**
+   * Tests budget warning generation for near-budget user.
+   *
+   * <p><strong>Internal Integration:</strong> Business logic detects less than 10% remaining
+   *
+   * <p><strong>Shared Data:</strong> User.budget compared with Transaction totals
+   */
+  @Test
+  public void testGetBudgetWarningsText_nearBudget() {
+    // Spend 95 of 100 budget (5% remaining, which is < 10%)
+    Transaction t = new Transaction(userId, 95.0, "FOOD", "big expense");
+    service.addTransaction(t);
+
+    String warnings = service.getBudgetWarningsText(userId);
+
+    assertThat(warnings).contains("Budget warning");
+  }
+
+  /**
+   * Tests budget warning generation for healthy budget.
+   *
+   * <p><strong>Internal Integration:</strong> No warnings when budget is healthy
+   */
+  @Test
+  public void testGetBudgetWarningsText_healthy() {
+    // Spend only 10 of 100 budget (90% remaining)
+    Transaction t = new Transaction(userId, 10.0, "FOOD", "small expense");
+    service.addTransaction(t);
+
+    String warnings = service.getBudgetWarningsText(userId);
+
+    assertThat(warnings).isEmpty();
+  }
+
+  /**
+   * Tests budget warning for non-existent user.
+   *
+   * <p><strong>External Integration:</strong> Service handles missing user gracefully
+   */
+  @Test
+  public void testGetBudgetWarningsText_userNotFound() {
+    UUID fakeId = UUID.randomUUID();
+
+    String warnings = service.getBudgetWarningsText(fakeId);
+
+    assertThat(warnings).contains("User not found");
+  }
+
+  /**
+   * Tests budget update operation.
+   *
+   * <p><strong>External Integration:</strong> Service → Database UPDATE operation
+   * with validation
+   */
+  @Test
+  public void testSetBudgets_success() {
+    service.setBudgets(userId, Map.of("budget", 200.0));
+    Optional<User> updated = service.getUser(userId);
+    assertThat(updated).isPresent();
+    assertThat(updated.get().getBudget()).isEqualTo(200.0);
+  }
+
+  /**
+   * Tests budget validation before database update.
+   *
+   * <p><strong>Internal Integration:</strong> Application validates data before
+   * sending to database
+   */
+  @Test
+  public void testSetBudgets_invalidBudget() {
+    assertThatThrownBy(() -> service.setBudgets(userId, Map.of("budget", -10)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Budget cannot be negative");
+  }
+
+  /**
+   * Tests budget update for non-existent user.
+   *
+   * <p><strong>External Integration:</strong> Service validates user exists before update
+   */
+  @Test
+  public void testSetBudgets_userNotFound() {
+    UUID fakeId = UUID.randomUUID();
+
+    assertThatThrownBy(() -> service.setBudgets(fakeId, Map.of("budget", 100.0)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("User not found");
+  }
+
+  /**
+   * Tests weekly summary with date-based filtering.
+   *
+   * <p><strong>External Integration:</strong>
+   * <ul>
+   *   <li>Service → Database query with date comparison (created_date >= ?)</li>
+   *   <li>Tests PostgreSQL date arithmetic</li>
+   *   <li>Verifies ORDER BY clause works correctly</li>
+   * </ul>
+   */
+  @Test
+  public void testWeeklySummary() {
+    addSampleTransactions();
+    List<Transaction> weekly = service.weeklySummary(userId);
+    assertThat(weekly).hasSize(3);
+  }
+
+  /**
+   * Tests weekly summary for user with no transactions.
+   *
+   * <p><strong>External Integration:</strong> Database returns empty result set
+   */
+  @Test
+  public void testWeeklySummary_noTransactions() {
+    List<Transaction> weekly = service.weeklySummary(userId);
+    assertThat(weekly).isEmpty();
+  }
+
+  /**
+   * Tests aggregate SUM calculation with date filtering.
+   *
+   * <p><strong>External Integration:</strong> Service → Database aggregate query
+   * (SUM with WHERE clause and date comparison)
+   */
+  @Test
+  public void testTotalLast7Days() {
+    addSampleTransactions();
+    double total = service.totalLast7Days(userId);
+    assertThat(total).isEqualTo(26.0); // 10 + 1 + 15
+  }
+
+  /**
+   * Tests total calculation when no transactions exist.
+   *
+   * <p><strong>External Integration:</strong> Database COALESCE returns 0 for null SUM
+   */
+  @Test
+  public void testTotalLast7Days_noTransactions() {
+    double total = service.totalLast7Days(userId);
+    assertThat(total).isEqualTo(0.0);
+  }
+
+  /**
+   * Tests that the weekly total follows adds, updates and deletes made after it
+   * was first read, and that the per-day totals agree with it.
+   */
+  @Test
+  public void testTotalLast7Days_followsWrites() {
+    addSampleTransactions();
+    assertThat(service.totalLast7Days(userId)).isEqualTo(26.0);
+
+    Transaction extra = service.addTransaction(new Transaction(userId, 4.5, "FOOD", "extra"));
+    assertThat(service.totalLast7Days(userId)).isEqualTo(30.5);
+
+    service.updateTransaction(extra.getTransactionId(), Map.of("amount", 7.25));
+    assertThat(service.totalLast7Days(userId)).isEqualTo(33.25);
+
+    service.deleteTransaction(extra.getTransactionId());
+    assertThat(service.totalLast7Days(userId)).isEqualTo(26.0);
+
+    Map<LocalDate, Double> daily = service.dailySpendLast7Days(userId);
+    assertThat(daily).hasSize(8);
+    assertThat(daily.keySet()).first().isEqualTo(LocalDate.now().minusDays(7));
+    assertThat(daily.get(LocalDate.now())).isEqualTo(26.0);
+  }
+
+  /**
+   * Tests range spending over a period including today, in total and per
+   * category, and that it follows later writes.
+   */
+  @Test
+  public void testGetSpendingBetween_followsWrites() {
+    addSampleTransactions();
+    LocalDate today = LocalDate.now();
+
+    Map<String, Object> spending = service.getSpendingBetween(userId, today.minusDays(30), today);
+    assertThat(spending.get("totalSpent")).isEqualTo(26.0);
+    assertThat(spending.get("categories")).isEqualTo(Map.of("OTHER", 25.0, "FOOD", 1.0));
+
+    Transaction extra = service.addTransaction(new Transaction(userId, 4.5, "TRAVEL", "bus"));
+    service.updateTransaction(extra.getTransactionId(), Map.of("category", "FOOD"));
+    spending = service.getSpendingBetween(userId, today, today);
+    assertThat(spending.get("totalSpent")).isEqualTo(30.5);
+    assertThat(spending.get("categories")).isEqualTo(Map.of("OTHER", 25.0, "FOOD", 5.5));
+
+    service.deleteTransaction(extra.getTransactionId());
+    assertThat(service.getSpendingBetween(userId, today, today).get("totalSpent"))
+        .isEqualTo(26.0);
+  }
+
+  /**
+   * Tests range spending over a period with no transactions.
+   */
+  @Test
+  public void testGetSpendingBetween_emptyPeriod() {
+    addSampleTransactions();
+    LocalDate past = LocalDate.now().minusYears(1);
+
+    Map<String, Object> spending = service.getSpendingBetween(userId, past, past.plusDays(10));
+    assertThat(spending.get("totalSpent")).isEqualTo(0.0);
+    assertThat(spending.get("categories")).isEqualTo(Map.of());
+  }
+
+  /**
+   * Tests that a period ending before it starts is rejected.
+   */
+  @Test
+  public void testGetSpendingBetween_reversedDates_throws() {
+    LocalDate today = LocalDate.now();
+    assertThatThrownBy(() -> service.getSpendingBetween(userId, today, today.minusDays(1)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /**
+   * Tests that spending is ranked against other users' totals in the same
+   * category, and that categories the user did not spend in are left out.
+   */
+  @Test
+  public void testGetSpendingPercentiles_ranksAgainstOtherUsers() {
+    for (int i = 1; i <= 4; i++) {
+      User other = service.addUser(new User("other" + i, "other" + i + "@email.com", 100.0));
+      service.addTransaction(new Transaction(other.getUserId(), i * 10.0, "FOOD", "food"));
+    }
+    service.addTransaction(new Transaction(userId, 35.0, "FOOD", "groceries"));
+
+    Map<String, Object> result = service.getSpendingPercentiles(userId, 1);
+
+    assertThat(result.get("months")).isEqualTo(1);
+    @SuppressWarnings("unchecked")
+    Map<String, Map<String, Double>> categories =
+        (Map<String, Map<String, Double>>) result.get("categories");
+    assertThat(categories).containsOnlyKeys("FOOD");
+    assertThat(categories.get("FOOD").get("monthlySpend")).isEqualTo(35.0);
+    // 10, 20 and 30 are below 35; 35 and 40 are not
+    assertThat(categories.get("FOOD").get("percentile")).isEqualTo(60.0);
+  }
+
+  /**
+   * Tests that an out-of-range number of months is rejected.
+   */
+  @Test
+  public void testGetSpendingPercentiles_invalidMonths_throws() {
+    assertThatThrownBy(() -> service.getSpendingPercentiles(userId, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> service.getSpendingPercentiles(userId, 13))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /**
+   * Tests the per-day totals for a user with no transactions.
+   */
+  @Test
+  public void testDailySpendLast7Days_noTransactions() {
+    Map<LocalDate, Double> daily = service.dailySpendLast7Days(userId);
+    assertThat(daily).hasSize(8);
+    assertThat(daily.values()).containsOnly(0.0);
+  }
+
+  /**
+   * Tests monthly summary with date filtering and grouping.
+   *
+   * <p><strong>Internal Integration:</strong>
+   * <ul>
+   *   <li>Service queries transactions from database</li>
+   *   <li>Filters by current month/year</li>
+   *   <li>Groups by category (using Java streams)</li>
+   *   <li>Calculates totals per category</li>
+   * </ul>
+   *
+   * <p><strong>Shared Data:</strong> Combines User.budget with grouped Transaction data
+   */
+  @Test
+  public void testGetMonthlySummary() {
+    addSampleTransactions();
+    String summary = service.getMonthlySummary(userId);
+    assertThat(summary)
+        .contains("Total Budget")
+        .contains("Total Spent")
+        .contains("Spending by Category");
+  }
+
+  /**
+   * Tests that monthly category totals are listed largest first.
+   *
+   * <p><strong>Internal Integration:</strong> per-category totals are indexed by
+   * {@code TransactionCategory} ordinal and then ordered by amount.
+   */
+  @Test
+  public void testGetMonthlySummary_categoriesOrderedByTotal() {
+    service.addTransaction(new Transaction(userId, 5.0, "FOOD", "Snack"));
+    service.addTransaction(new Transaction(userId, 30.0, "TRAVEL", "Train"));
+    service.addTransaction(new Transaction(userId, 10.0, "FOOD", "Lunch"));
+
+    String summary = service.getMonthlySummary(userId);
+
+    assertThat(summary).contains("- TRAVEL: $30.00").contains("- FOOD: $15.00");
+    assertThat(summary.indexOf("TRAVEL")).isLessThan(summary.indexOf("FOOD"));
+    assertThat(summary).doesNotContain("SHOPPING");
+  }
+
+  /**
+   * Tests monthly summary for non-existent user.
+   *
+   * <p><strong>External Integration:</strong> Service handles missing user gracefully
+   */
+  @Test
+  public void testGetMonthlySummary_userNotFound() {
+    UUID fakeId = UUID.randomUUID();
+
+    String summary = service.getMonthlySummary(fakeId);
+
+    assertThat(summary).contains("User not found");
+  }
+
+  /**
+   * Tests comprehensive budget report generation.
+   *
+   * <p><strong>Internal Integration:</strong>
+   * <ul>
+   *   <li>Retrieves user data from database</li>
+   *   <li>Retrieves all user transactions</li>
+   *   <li>Performs aggregations (SUM, GROUP BY category)</li>
+   *   <li>Combines multiple queries into single report</li>
+   *   <li>Applies business logic (warnings, thresholds)</li>
+   *   <li>Calls getBudgetWarningsText internally</li>
+   * </ul>
+   *
+   * <p><strong>Shared Data:</strong> Comprehensive integration of User and Transaction data
+   */
+  @Test
+  public void testGetBudgetReport() {
+    addSampleTransactions();
+    Map<String, Object> report = service.getBudgetReport(userId);
+
+    assertThat(report).containsKeys(
+        "userId", "username", "totalBudget", "totalSpent",
+        "remaining", "categories", "isOverBudget", "warnings"
+    );
+    assertThat(report.get("totalSpent")).isEqualTo(26.0);
+  }
+
+  /**
+   * Tests budget report for non-existent user.
+   *
+   * <p><strong>External Integration:</strong> Service returns error map for missing user
+   */
+  @Test
+  public void testGetBudgetReport_userNotFound() {
+    UUID fakeId = UUID.randomUUID();
+
+    Map<String, Object> report = service.getBudgetReport(fakeId);
+
+    assertThat(report).containsKey("error");
+    assertThat(report.get("error")).isEqualTo("User not found");
+  }
+
+  /**
+   * Tests budget report with over-budget status.
+   *
+   * <p><strong>Internal Integration:</strong> Business logic correctly sets isOverBudget flag
+   *
+   * <p><strong>Shared Data:</strong> Compares User.budget (100) with Transaction totals (130)
+   */
+  @Test
+  public void testGetBudgetReport_overBudget() {
+    Transaction t1 = new Transaction(userId, 80.0, "FOOD", "big expense");
+    Transaction t2 = new Transaction(userId, 50.0, "OTHER", "another expense");
+    service.addTransaction(t1);
+    service.addTransaction(t2);
+
+    Map<String, Object> report = service.getBudgetReport(userId);
+
+    assertThat(report.get("totalSpent")).isEqualTo(130.0);
+    assertThat(report.get("remaining")).isEqualTo(-30.0);
+    assertThat(report.get("isOverBudget")).isEqualTo(true);
+    assertThat(report.get("hasWarnings")).isEqualTo(true);
+  }
+
+  // ===========================================================================
+  // UNIQUE CONSTRAINT VALIDATION - Testing database constraint checks
+  // ===========================================================================
+
+  /**
+   * Tests username uniqueness check against database.
+   *
+   * <p><strong>External Integration:</strong> Service → Database COUNT query
+   * to check for existing username
+   */
+  @Test
+  public void testIsUsernameExists_existing() {
+    boolean exists = service.isUsernameExists("user", null);
+    assertThat(exists).isTrue();
+  }
+
+  /**
+   * Tests username check for non-existent username.
+   *
+   * <p><strong>External Integration:</strong> Service → Database COUNT returns 0
+   */
+  @Test
+  public void testIsUsernameExists_notExisting() {
+    boolean exists = service.isUsernameExists("nonexistent", null);
+    assertThat(exists).isFalse();
+  }
+
+  /**
+   * Tests username uniqueness check with exclusion.
+   *
+   * <p><strong>External Integration:</strong> Service → Database COUNT query
+   * with compound WHERE clause (username = ? AND user_id != ?)
+   */
+  @Test
+  public void testIsUsernameExists_excludingSelf() {
+    boolean exists = service.isUsernameExists("user", userId);
+    assertThat(exists).isFalse(); // Excludes self, so not considered duplicate
+  }
+
+  /**
+   * Tests email uniqueness check against database.
+   *
+   * <p><strong>External Integration:</strong> Service → Database COUNT query
+   * to check for existing email
+   */
+  @Test
+  public void testIsEmailExists_existing() {
+    boolean exists = service.isEmailExists("user@email.com", null);
+    assertThat(exists).isTrue();
+  }
+
+  /**
+   * Tests email check for non-existent email.
+   *
+   * <p><strong>External Integration:</strong> Service → Database COUNT returns 0
+   */
+  @Test
+  public void testIsEmailExists_notExisting() {
+    boolean exists = service.isEmailExists("nonexistent@email.com", null);
+    assertThat(exists).isFalse();
+  }
+
+  /**
+   * Tests email uniqueness check with exclusion.
+   *
+   * <p><strong>External Integration:</strong> Service → Database COUNT query
+   * with compound WHERE clause
+   */
+  @Test
+  public void testIsEmailExists_excludingSelf() {
+    boolean exists = service.isEmailExists("user@email.com", userId);
+    assertThat(exists).isFalse();
+  }
+
+  // ===========================================================================
+  // TIMESTAMP AND DATE HANDLING - Testing database triggers and defaults
+  // ===========================================================================
+
+  /**
+   * Tests that database automatically generates timestamps and dates.
+   *
+   * <p><strong>External Integration:</strong>
+   * <ul>
+   *   <li>Database trigger sets created_time to CURRENT_TIMESTAMP</li>
+   *   <li>Database trigger sets created_date to CURRENT_DATE</li>
+   *   <li>Service retrieves and maps these values correctly</li>
+   * </ul>
+   */
+  @Test
+  public void testTransactionTimestampGeneration() {
+    Transaction t = new Transaction(userId, 50.0, "FOOD", "test");
+
+    // Don't set timestamp or date manually
+    Transaction saved = service.addTransaction(t);
+
+    // Verify database populated these fields
+    assertThat(saved.getTimestamp()).isNotNull();
+    assertThat(saved.getDate()).isNotNull();
+    assertThat(saved.getDate()).isEqualTo(LocalDate.now());
+  }
+
+  /**
+   * Tests that transaction ID is generated by database.
+   *
+   * <p><strong>External Integration:</strong> Database generates UUID via gen_random_uuid()
+   */
+  @Test
+  public void testTransactionIdGeneration() {
+    Transaction t = new Transaction(userId, 25.0, "OTHER", "test id generation");
+
+    // Transaction ID should be null before save
+    assertThat(t.getTransactionId()).isNull();
+
+    Transaction saved = service.addTransaction(t);
+
+    // Database should have generated the ID
+    assertThat(saved.getTransactionId()).isNotNull();
+  }
+
+  // ===========================================================================
+  // Helper Methods
+  // ===========================================================================
+
+  /**
+   * Helper method to create sample transactions for testing.
+   * Reduces code duplication across tests.
+   */
+  private void addSampleTransactions() {
+    Transaction t1 = new Transaction(userId, 10.0, "OTHER", "desc1");
+    Transaction t2 = new Transaction(userId, 1.0, "FOOD", "desc2");
+    Transaction t3 = new Transaction(userId, 15.0, "OTHER", "desc3");
+    service.addTransaction(t1);
+    service.addTransaction(t2);
+    service.addTransaction(t3);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package dev.ase.teamproject;
+
+import dev.ase.teamproject.repository.InMemoryLedgerRepository;
+import dev.ase.teamproject.service.MockApiService;
+
+/**
+ * Runs the shared MockApiService suite against the in-memory ledger store.
+ *
+ * <p>Each test gets a fresh {@link InMemoryLedgerRepository}, so no database
+ * or Spring context is needed. The store must reproduce the PostgreSQL behavior
+ * the suite relies on: generated IDs and timestamps, unique constraints, the
+ * foreign key from transactions to users, category validation and cascade deletes.
+ */
+public class MockApiServiceInMemoryTests extends MockApiServiceContractTests {
+
+  @Override
+  protected MockApiService emptyService() {
+    return new MockApiService(new InMemoryLedgerRepository());
+  }
+}
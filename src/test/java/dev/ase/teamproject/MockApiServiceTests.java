@@ -18,6 +18,7 @@ import static org.mockito.Mockito.when;
 
 import dev.ase.teamproject.model.Transaction;
 import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.repository.JdbcLedgerRepository;
 import dev.ase.teamproject.service.MockApiService;
 import java.sql.Date;
 import java.sql.Timestamp;
@@ -32,11 +33,12 @@ import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
 
 /**
@@ -60,7 +62,7 @@ import org.springframework.jdbc.core.RowMapper;
  * <ul>
  *   <li>P1: (Valid) User exists - returns Optional with user</li>
  *   <li>P2: (Valid) User does not exist - returns empty Optional</li>
- *   <li>P3: (Invalid) Database error - returns empty Optional</li>
+ *   <li>P3: (Invalid) Database error - propagates, not reported as not found</li>
  * </ul>
  *
  * <h3>3. addUser(User)</h3>
@@ -89,7 +91,7 @@ import org.springframework.jdbc.core.RowMapper;
  * <ul>
  *   <li>P1: (Valid) Transaction exists - returns Optional with transaction</li>
  *   <li>P2: (Valid) Transaction not found - returns empty Optional</li>
- *   <li>P3: (Invalid) Database error - returns empty Optional</li>
+ *   <li>P3: (Invalid) Database error - propagates, not reported as not found</li>
  * </ul>
  *
  * <h3>7. addTransaction(Transaction)</h3>
@@ -106,6 +108,7 @@ import org.springframework.jdbc.core.RowMapper;
  *   <li>P10: (Invalid) Foreign key violation - throws IllegalArgumentException</li>
  *   <li>P11: (Invalid) Invalid category enum - throws IllegalArgumentException</li>
  *   <li>P12: (Invalid) General database error - throws IllegalStateException</li>
+ *   <li>P13: (Invalid) No connection available - propagates for a 503</li>
  * </ul>
  *
  * <h3>8. getTransactionsByUser(UUID)</h3>
@@ -113,6 +116,7 @@ import org.springframework.jdbc.core.RowMapper;
  *   <li>P1: (Valid) User has transactions - returns list</li>
  *   <li>P2: (Valid/Boundary) User has no transactions - returns empty list</li>
  *   <li>P3: (Invalid) Database error - throws IllegalStateException</li>
+ *   <li>P4: (Invalid) No connection available - propagates for a 503</li>
  * </ul>
  *
  * <h3>9. updateTransaction(UUID, Map)</h3>
@@ -131,6 +135,7 @@ import org.springframework.jdbc.core.RowMapper;
  *   <li>P12: (Invalid) Invalid category value - throws IllegalArgumentException</li>
  *   <li>P13: (Invalid) DB category enum error - throws IllegalArgumentException</li>
  *   <li>P14: (Invalid) Update fails (0 rows) - throws IllegalStateException</li>
+ *   <li>P15: (Invalid) No connection available - propagates for a 503</li>
  * </ul>
  *
  * <h3>10. deleteTransaction(UUID)</h3>
@@ -193,6 +198,7 @@ import org.springframework.jdbc.core.RowMapper;
  *   <li>P2: (Valid/Boundary) No transactions - returns 0.0</li>
  *   <li>P3: (Valid/Edge) Database returns null - returns 0.0</li>
  *   <li>P4: (Invalid) Database error - returns 0.0</li>
+ *   <li>P5: (Invalid) No connection available - propagates for a 503</li>
  * </ul>
  *
  * <h3>18. isUsernameExists(String, UUID)</h3>
@@ -218,7 +224,6 @@ public class MockApiServiceTests {
   @Mock
   private JdbcTemplate jdbcTemplate;
 
-  @InjectMocks
   private MockApiService service;
 
   private User user;
@@ -233,6 +238,7 @@ public class MockApiServiceTests {
   @BeforeEach
   public void setUp() {
     MockitoAnnotations.openMocks(this);
+    service = new MockApiService(new JdbcLedgerRepository(jdbcTemplate));
     user = new User();
     userId = UUID.randomUUID();
     user.setUserId(userId);
@@ -287,9 +293,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void getUser_userExists_returnsUser() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
 
     Optional<User> result = service.getUser(userId);
 
@@ -304,9 +310,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void getUser_userDoesNotExist_returnsEmptyOptional() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(null);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.empty());
 
     Optional<User> result = service.getUser(userId);
 
@@ -319,14 +325,15 @@ public class MockApiServiceTests {
    * <p>Partition: P3 (Invalid) - Database error.
    */
   @Test
-  public void getUser_databaseError_returnsEmptyOptional() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
+  public void getUser_databaseError_propagates() {
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
         .thenThrow(new RuntimeException("DB error"));
 
-    Optional<User> result = service.getUser(userId);
+    RuntimeException error = assertThrows(RuntimeException.class,
+        () -> service.getUser(userId));
 
-    assertFalse(result.isPresent());
+    assertEquals("DB error", error.getMessage());
   }
 
   // ===========================================================================
@@ -521,9 +528,9 @@ public class MockApiServiceTests {
   @Test
   public void getTransaction_transactionExists_returnsOptionalWithTransaction() {
     Transaction tx = new Transaction(userId, 45.0, "FOOD", "Dinner");
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId)))
-        .thenReturn(tx);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(tx));
 
     Optional<Transaction> result = service.getTransaction(transactionId);
 
@@ -539,9 +546,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void getTransaction_transactionNotFound_returnsEmptyOptional() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId)))
-        .thenReturn(null);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.empty());
 
     Optional<Transaction> result = service.getTransaction(transactionId);
 
@@ -554,14 +561,15 @@ public class MockApiServiceTests {
    * <p>Partition: P3 (Invalid) - Database error.
    */
   @Test
-  public void getTransaction_databaseError_returnsEmptyOptional() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId)))
+  public void getTransaction_databaseError_propagates() {
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
         .thenThrow(new RuntimeException("Error"));
 
-    Optional<Transaction> result = service.getTransaction(transactionId);
+    RuntimeException error = assertThrows(RuntimeException.class,
+        () -> service.getTransaction(transactionId));
 
-    assertFalse(result.isPresent());
+    assertEquals("Error", error.getMessage());
   }
 
   // ===========================================================================
@@ -795,6 +803,23 @@ public class MockApiServiceTests {
     assertTrue(exception.getMessage().contains("Failed to create transaction"));
   }
 
+  /**
+   * Tests that addTransaction lets a connection timeout through, rather than
+   * reporting it as a failed insert.
+   *
+   * <p>Partition: P13 (Invalid) - No connection available.
+   */
+  @Test
+  public void addTransaction_noConnection_propagates() {
+    Transaction tx = new Transaction(UUID.randomUUID(), 10.0, "FOOD", "description");
+
+    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
+        any(), any(), any(), any()))
+        .thenThrow(new CannotGetJdbcConnectionException("Timed out waiting for a connection"));
+
+    assertThrows(CannotGetJdbcConnectionException.class, () -> service.addTransaction(tx));
+  }
+
   // ===========================================================================
   // getTransactionsByUser
   // ===========================================================================
@@ -853,6 +878,22 @@ public class MockApiServiceTests {
     assertTrue(exception.getMessage().contains("Failed to get transactions"));
   }
 
+  /**
+   * Tests that getTransactionsByUser lets a connection timeout through, rather
+   * than reporting it as a failed query.
+   *
+   * <p>Partition: P4 (Invalid) - No connection available.
+   */
+  @Test
+  public void getTransactionsByUser_noConnection_propagates() {
+    when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
+        eq(userId)))
+        .thenThrow(new CannotGetJdbcConnectionException("Timed out waiting for a connection"));
+
+    assertThrows(CannotGetJdbcConnectionException.class,
+        () -> service.getTransactionsByUser(userId));
+  }
+
   // ===========================================================================
   // updateTransaction
   // ===========================================================================
@@ -864,8 +905,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void updateTransaction_validUpdates_returnsUpdatedTransaction() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(transaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(transaction));
     when(jdbcTemplate.update(anyString(), any(), any(), any(), eq(transactionId))).thenReturn(1);
 
     Transaction updatedTransaction = new Transaction();
@@ -873,8 +915,9 @@ public class MockApiServiceTests {
     updatedTransaction.setAmount(7.0);
     updatedTransaction.setCategory("OTHER");
 
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(updatedTransaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(updatedTransaction));
 
     Map<String, Object> updates = Map.of(
         "description", "new description",
@@ -894,15 +937,17 @@ public class MockApiServiceTests {
    */
   @Test
   public void updateTransaction_amountAsNumber_updatesCorrectly() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(transaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(transaction));
     when(jdbcTemplate.update(anyString(), any(), any(), any(), eq(transactionId))).thenReturn(1);
 
     Transaction updatedTransaction = new Transaction();
     updatedTransaction.setAmount(7.0);
 
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(updatedTransaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(updatedTransaction));
 
     Map<String, Object> updates = Map.of("amount", 7);
 
@@ -919,8 +964,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void updateTransaction_transactionNotFound_throwsIllegalArgumentException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenThrow(new RuntimeException("Not found"));
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.empty());
 
     Map<String, Object> updates = Map.of("description", "test");
 
@@ -937,8 +983,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void updateTransaction_emptyUpdates_throwsIllegalArgumentException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(transaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(transaction));
 
     Map<String, Object> updates = Map.of();
 
@@ -955,8 +1002,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void updateTransaction_descriptionNotString_throwsIllegalArgumentException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(transaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(transaction));
 
     Map<String, Object> updates = Map.of("description", 123);
 
@@ -973,8 +1021,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void updateTransaction_blankDescription_throwsIllegalArgumentException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(transaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(transaction));
 
     Map<String, Object> updates = Map.of("description", "   ");
 
@@ -991,8 +1040,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void updateTransaction_amountInvalidType_throwsIllegalArgumentException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(transaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(transaction));
 
     Map<String, Object> updates = Map.of("amount", true);
 
@@ -1009,8 +1059,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void updateTransaction_amountInvalidString_throwsIllegalArgumentException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(transaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(transaction));
 
     Map<String, Object> updates = Map.of("amount", "not-a-number");
 
@@ -1027,8 +1078,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void updateTransaction_amountZero_throwsIllegalArgumentException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(transaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(transaction));
 
     Map<String, Object> updates = Map.of("amount", 0);
 
@@ -1045,8 +1097,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void updateTransaction_categoryNotString_throwsIllegalArgumentException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(transaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(transaction));
 
     Map<String, Object> updates = Map.of("category", 123);
 
@@ -1063,8 +1116,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void updateTransaction_blankCategory_throwsIllegalArgumentException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(transaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(transaction));
 
     Map<String, Object> updates = Map.of("category", "   ");
 
@@ -1081,8 +1135,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void updateTransaction_invalidCategoryValue_throwsIllegalArgumentException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(transaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(transaction));
 
     Map<String, Object> updates = Map.of("category", "INVALID_CATEGORY");
 
@@ -1099,8 +1154,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void updateTransaction_dbCategoryEnumError_throwsIllegalArgumentException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(transaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(transaction));
 
     DataAccessException dae = mock(DataAccessException.class);
     when(dae.getMessage()).thenReturn("transaction_category enum error");
@@ -1121,8 +1177,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void updateTransaction_zeroRowsAffected_throwsIllegalStateException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
-        eq(transactionId))).thenReturn(transaction);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(transaction));
     when(jdbcTemplate.update(anyString(), any(), any(), any(), eq(transactionId))).thenReturn(0);
 
     Map<String, Object> updates = Map.of("description", "new desc", "category", "OTHER");
@@ -1133,6 +1190,26 @@ public class MockApiServiceTests {
     assertTrue(exception.getMessage().contains("Failed to update transaction"));
   }
 
+  /**
+   * Tests that updateTransaction lets a connection timeout through, rather than
+   * reporting it as a failed update.
+   *
+   * <p>Partition: P15 (Invalid) - No connection available.
+   */
+  @Test
+  public void updateTransaction_noConnection_propagates() {
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<Transaction>>>any(), eq(transactionId)))
+        .thenReturn(Optional.of(transaction));
+    when(jdbcTemplate.update(anyString(), any(), any(), any(), eq(transactionId)))
+        .thenThrow(new CannotGetJdbcConnectionException("Timed out waiting for a connection"));
+
+    Map<String, Object> updates = Map.of("category", "FOOD");
+
+    assertThrows(CannotGetJdbcConnectionException.class,
+        () -> service.updateTransaction(transactionId, updates));
+  }
+
   // ===========================================================================
   // deleteTransaction
   // ===========================================================================
@@ -1195,9 +1272,9 @@ public class MockApiServiceTests {
         new Transaction(userId, 30.0, "FOOD", "desc1"),
         new Transaction(userId, 20.0, "SHOPPING", "desc2"));
 
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
     when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
         eq(userId)))
         .thenReturn(transactions);
@@ -1219,9 +1296,9 @@ public class MockApiServiceTests {
     user.setUsername("TestUser");
     user.setBudget(100.0);
 
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
     when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
         eq(userId)))
         .thenReturn(Collections.emptyList());
@@ -1238,9 +1315,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void getBudgetsTextBlock_userNotFound_returnsUserNotFound() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenThrow(new RuntimeException());
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.empty());
 
     String result = service.getBudgetsTextBlock(userId);
 
@@ -1262,9 +1339,9 @@ public class MockApiServiceTests {
     List<Transaction> transactions = List.of(
         new Transaction(userId, 95.0, "FOOD", "desc"));
 
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
     when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
         eq(userId)))
         .thenReturn(transactions);
@@ -1286,9 +1363,9 @@ public class MockApiServiceTests {
     List<Transaction> transactions = List.of(
         new Transaction(userId, 75.0, "FOOD", "desc"));
 
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
     when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
         eq(userId)))
         .thenReturn(transactions);
@@ -1309,9 +1386,9 @@ public class MockApiServiceTests {
     List<Transaction> transactions = List.of(
         new Transaction(userId, 50.0, "FOOD", "desc"));
 
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
     when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
         eq(userId)))
         .thenReturn(transactions);
@@ -1328,9 +1405,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void getBudgetWarningsText_userNotFound_returnsUserNotFound() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenThrow(new RuntimeException());
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.empty());
 
     String result = service.getBudgetWarningsText(userId);
 
@@ -1358,9 +1435,9 @@ public class MockApiServiceTests {
     Transaction t3 = new Transaction(userId, 200.0, "TRAVEL", "d3");
     t3.setDate(now.minusMonths(1));
 
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
     when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
         eq(userId)))
         .thenReturn(List.of(t1, t2, t3));
@@ -1384,9 +1461,9 @@ public class MockApiServiceTests {
     Transaction t1 = new Transaction(userId, 100.0, "FOOD", "d1");
     Transaction t2 = new Transaction(userId, 50.0, "SHOPPING", "d2");
 
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
     when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
         eq(userId)))
         .thenReturn(List.of(t1, t2));
@@ -1403,9 +1480,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void getMonthlySummary_userNotFound_returnsUserNotFound() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenThrow(new RuntimeException());
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.empty());
 
     String result = service.getMonthlySummary(userId);
 
@@ -1430,9 +1507,9 @@ public class MockApiServiceTests {
         new Transaction(userId, 30.0, "FOOD", "desc1"),
         new Transaction(userId, 20.0, "SHOPPING", "desc2"));
 
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
     when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
         eq(userId)))
         .thenReturn(transactions);
@@ -1459,9 +1536,9 @@ public class MockApiServiceTests {
     List<Transaction> transactions = List.of(
         new Transaction(userId, 75.0, "FOOD", "desc"));
 
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
     when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Transaction>>any(),
         eq(userId)))
         .thenReturn(transactions);
@@ -1480,9 +1557,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void getBudgetReport_userNotFound_returnsErrorMap() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenThrow(new RuntimeException());
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.empty());
 
     Map<String, Object> result = service.getBudgetReport(userId);
 
@@ -1500,9 +1577,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void setBudgets_budgetAsNumber_updatesSuccessfully() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
 
     Map<String, Object> updates = Map.of("budget", 200.0);
     service.setBudgets(userId, updates);
@@ -1517,9 +1594,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void setBudgets_budgetAsString_parsesAndUpdates() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
 
     Map<String, Object> updates = Map.of("budget", "150.50");
     service.setBudgets(userId, updates);
@@ -1534,9 +1611,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void setBudgets_zeroBudget_updatesSuccessfully() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
 
     Map<String, Object> updates = Map.of("budget", 0.0);
     service.setBudgets(userId, updates);
@@ -1551,9 +1628,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void setBudgets_userNotFound_throwsIllegalArgumentException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenThrow(new RuntimeException());
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.empty());
 
     Map<String, Object> updates = Map.of("budget", 100.0);
 
@@ -1570,9 +1647,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void setBudgets_invalidFormat_throwsIllegalArgumentException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
 
     Map<String, Object> updates = Map.of("budget", true);
 
@@ -1589,9 +1666,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void setBudgets_negativeBudget_throwsIllegalArgumentException() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
 
     Map<String, Object> updates = Map.of("budget", -100.0);
 
@@ -1608,9 +1685,9 @@ public class MockApiServiceTests {
    */
   @Test
   public void setBudgets_noBudgetKey_noUpdatePerformed() {
-    when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<User>>any(),
-        eq(userId)))
-        .thenReturn(user);
+    when(jdbcTemplate.query(anyString(),
+        ArgumentMatchers.<ResultSetExtractor<Optional<User>>>any(), eq(userId)))
+        .thenReturn(Optional.of(user));
 
     Map<String, Object> updates = Map.of("other", "value");
     service.setBudgets(userId, updates);
@@ -1749,6 +1826,22 @@ public class MockApiServiceTests {
     assertEquals(0.0, result);
   }
 
+  /**
+   * Tests that totalLast7Days lets a connection timeout through, rather than
+   * reporting no spending.
+   *
+   * <p>Partition: P5 (Invalid) - No connection available.
+   */
+  @Test
+  public void totalLast7Days_noConnection_propagates() {
+    LocalDate oneWeekAgo = LocalDate.now().minusDays(7);
+
+    when(jdbcTemplate.queryForObject(anyString(), eq(Double.class), eq(userId), eq(oneWeekAgo)))
+        .thenThrow(new CannotGetJdbcConnectionException("Timed out waiting for a connection"));
+
+    assertThrows(CannotGetJdbcConnectionException.class, () -> service.totalLast7Days(userId));
+  }
+
   // ===========================================================================
   // isUsernameExists
   // ===========================================================================
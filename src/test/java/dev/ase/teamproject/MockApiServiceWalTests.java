@@ -0,0 +1,40 @@
+package dev.ase.teamproject;
+
+import dev.ase.teamproject.repository.WalLedgerRepository;
+import dev.ase.teamproject.service.MockApiService;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs the shared MockApiService suite against the write-ahead-logged ledger store.
+ *
+ * <p>Each test gets a fresh {@link WalLedgerRepository} logging to a temporary
+ * directory, with {@code fsync} enabled so the group commit path is exercised.
+ */
+public class MockApiServiceWalTests extends MockApiServiceContractTests {
+
+  @TempDir
+  private Path directory;
+
+  private WalLedgerRepository repository;
+
+  @Override
+  protected MockApiService emptyService() {
+    try {
+      repository = new WalLedgerRepository(directory.resolve("ledger"), true);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return new MockApiService(repository);
+  }
+
+  /**
+   * Closes the log after each test.
+   */
+  @AfterEach
+  public void tearDown() throws IOException {
+    repository.close();
+  }
+}
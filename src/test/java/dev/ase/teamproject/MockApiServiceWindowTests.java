@@ -0,0 +1,25 @@
+package dev.ase.teamproject;
+
+import dev.ase.teamproject.repository.InMemoryLedgerRepository;
+import dev.ase.teamproject.service.MockApiService;
+import dev.ase.teamproject.service.SpendingIndex;
+import dev.ase.teamproject.service.SpendingPercentiles;
+import dev.ase.teamproject.service.WeeklySpendWindow;
+
+/**
+ * Runs the shared MockApiService suite with the in-memory spending aggregates
+ * (the weekly window, the date-range index and the percentile totals) enabled.
+ *
+ * <p>The service is backed by a fresh {@link InMemoryLedgerRepository} and the
+ * aggregates have a long TTL, so spending read after the first load comes from
+ * the aggregates the service keeps up to date rather than from the store.
+ */
+public class MockApiServiceWindowTests extends MockApiServiceContractTests {
+
+  @Override
+  protected MockApiService emptyService() {
+    InMemoryLedgerRepository repository = new InMemoryLedgerRepository();
+    return new MockApiService(repository, new WeeklySpendWindow(3600, 1000),
+        new SpendingIndex(3600, 1000), new SpendingPercentiles(repository, 12, 0, 3600, 5000));
+  }
+}
@@ -0,0 +1,159 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.ase.teamproject.filter.RateLimitFilter;
+import dev.ase.teamproject.filter.TokenBuckets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for the RateLimitFilter and TokenBuckets classes.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>bucket</b>: tokens left (passed), empty (429 with Retry-After),
+ *       refilled over time (passed again), idle (dropped)</li>
+ *   <li><b>route group</b>: transactions, analytics, default - limited separately</li>
+ *   <li><b>client key</b>: remote address (X-Forwarded-For ignored), user ID in
+ *       the path (user mode)</li>
+ *   <li><b>configuration</b>: valid, unknown key mode (rejected)</li>
+ * </ul>
+ */
+public class RateLimitFilterTests {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  /**
+   * Tests that a bucket allows its burst, then refills at its rate.
+   */
+  @Test
+  public void tryAcquire_burstThenRefill() {
+    TokenBuckets buckets = new TokenBuckets(2, 3, 1000, 60 * SECOND);
+    long now = 0;
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0, buckets.tryAcquire("a", now));
+    }
+    long wait = buckets.tryAcquire("a", now);
+    assertEquals(SECOND / 2, wait);
+    assertEquals(0, buckets.tryAcquire("b", now));
+    assertEquals(0, buckets.tryAcquire("a", now + wait));
+    assertTrue(buckets.tryAcquire("a", now + wait) > 0);
+  }
+
+  /**
+   * Tests that buckets are bounded and idle ones are dropped.
+   */
+  @Test
+  public void tryAcquire_boundedAndIdleEvicted() {
+    TokenBuckets buckets = new TokenBuckets(1, 1, TokenBuckets.STRIPES, SECOND);
+    for (int i = 0; i < 10_000; i++) {
+      buckets.tryAcquire("client" + i, 0);
+    }
+    assertTrue(buckets.size() <= TokenBuckets.STRIPES);
+
+    TokenBuckets idle = new TokenBuckets(1, 1, 100_000, SECOND);
+    idle.tryAcquire("old", 0);
+    for (int i = 0; i < 1000; i++) {
+      idle.tryAcquire("new" + i, 2 * SECOND);
+    }
+    assertEquals(1000, idle.size());
+  }
+
+  /**
+   * Tests that over-limit requests get 429 with Retry-After and stop the chain.
+   */
+  @Test
+  public void doFilter_overLimit_returns429() throws Exception {
+    RateLimitFilter filter = filter("ip");
+    String path = "/users/" + UUID.randomUUID() + "/transactions";
+
+    assertEquals(200, call(filter, path, "10.0.0.1").getStatus());
+    assertEquals(200, call(filter, path, "10.0.0.1").getStatus());
+    MockHttpServletResponse limited = call(filter, path, "10.0.0.1");
+
+    assertEquals(429, limited.getStatus());
+    assertEquals("1", limited.getHeader("Retry-After"));
+    assertTrue(limited.getContentAsString().contains("Too many requests"));
+    assertEquals(200, call(filter, path, "10.0.0.2").getStatus());
+  }
+
+  /**
+   * Tests that each route group has its own limit.
+   */
+  @Test
+  public void doFilter_routeGroupsLimitedSeparately() throws Exception {
+    RateLimitFilter filter = filter("ip");
+    String user = "/users/" + UUID.randomUUID();
+
+    assertEquals(200, call(filter, user + "/budget-report", "10.0.0.1").getStatus());
+    assertEquals(429, call(filter, "/dashboard/budget-reports", "10.0.0.1").getStatus());
+    assertEquals(200, call(filter, user + "/transactions", "10.0.0.1").getStatus());
+    assertEquals(200, call(filter, user, "10.0.0.1").getStatus());
+
+    MockHttpServletRequest budgetUpdate = request(user + "/budget", "10.0.0.1");
+    budgetUpdate.setMethod("PUT");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(budgetUpdate, response, new MockFilterChain());
+    assertEquals(200, response.getStatus());
+  }
+
+  /**
+   * Tests that clients are keyed by their address, whatever X-Forwarded-For they
+   * send, or by user.
+   */
+  @Test
+  public void doFilter_clientKeys() throws Exception {
+    RateLimitFilter byIp = filter("ip");
+    for (int i = 0; i < 3; i++) {
+      MockHttpServletRequest spoofed = request("/index", "10.0.0.9");
+      spoofed.addHeader("X-Forwarded-For", "203.0.113." + i);
+      byIp.doFilter(spoofed, new MockHttpServletResponse(), new MockFilterChain());
+    }
+    assertEquals(429, call(byIp, "/index", "10.0.0.9").getStatus());
+    assertEquals(200, call(byIp, "/index", "10.0.0.10").getStatus());
+
+    RateLimitFilter byUser = filter("user");
+    String first = "/users/" + UUID.randomUUID() + "/budget";
+    String second = "/users/" + UUID.randomUUID() + "/budget";
+    assertEquals(200, call(byUser, first, "10.0.0.1").getStatus());
+    assertEquals(429, call(byUser, first, "10.0.0.2").getStatus());
+    assertEquals(200, call(byUser, second, "10.0.0.1").getStatus());
+  }
+
+  /**
+   * Tests that an unknown key mode is rejected.
+   */
+  @Test
+  public void constructor_unknownKey_throwsIllegalArgumentException() {
+    assertThrows(IllegalArgumentException.class, () -> filter("session"));
+  }
+
+  /**
+   * Builds a filter allowing 2 transaction, 1 analytics and 3 other requests per
+   * client before limiting, refilling one token a second.
+   */
+  private static RateLimitFilter filter(final String key) {
+    return new RateLimitFilter(1, 2, 1, 1, 1, 3, key, 1000, 600);
+  }
+
+  private static MockHttpServletRequest request(final String path, final String address) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+    request.setRemoteAddr(address);
+    return request;
+  }
+
+  private static MockHttpServletResponse call(final RateLimitFilter filter, final String path,
+                                              final String address) throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request(path, address), response, new MockFilterChain());
+    return response;
+  }
+}
@@ -0,0 +1,138 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.repository.R2dbcLedgerRepository;
+import dev.ase.teamproject.service.ReactiveApiService;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Unit tests for the ReactiveApiService class.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>addUser</b>: valid, missing field, duplicate email (400 message)</li>
+ *   <li><b>addTransaction</b>: valid, non-positive amount, unknown category</li>
+ *   <li><b>weeklySummary</b>: transactions inside the window are totalled per day</li>
+ *   <li><b>getSpendingBetween</b>: existing user, missing user, inverted range</li>
+ * </ul>
+ */
+public class ReactiveApiServiceTests {
+
+  private R2dbcLedgerRepository repository;
+  private ReactiveApiService service;
+  private UUID userId;
+  private User user;
+
+  /**
+   * Creates the service over a mocked repository.
+   */
+  @BeforeEach
+  public void setUp() {
+    repository = mock(R2dbcLedgerRepository.class);
+    service = new ReactiveApiService(repository);
+    userId = UUID.randomUUID();
+    user = new User("alice", "alice@example.com", 500.0);
+    user.setUserId(userId);
+  }
+
+  /**
+   * Tests that users are validated before insert and duplicates are reported by field.
+   */
+  @Test
+  public void addUser_validatesAndMapsDuplicates() {
+    StepVerifier.create(service.addUser(new User(null, "a@example.com", 1.0)))
+        .expectErrorMessage("Username field is required")
+        .verify();
+    verify(repository, never()).insertUser(any());
+
+    when(repository.insertUser(user)).thenReturn(Mono.error(new DataIntegrityViolationException(
+        "insert", new SQLException("duplicate key value violates \"users_email_key\""))));
+    StepVerifier.create(service.addUser(user))
+        .expectErrorMessage("Email already exists: alice@example.com")
+        .verify();
+  }
+
+  /**
+   * Tests that transactions are validated like the servlet service layer.
+   */
+  @Test
+  public void addTransaction_validates() {
+    StepVerifier.create(service.addTransaction(new Transaction(userId, 0.0, "FOOD", "Lunch")))
+        .expectErrorMessage("Amount must be greater than 0")
+        .verify();
+    StepVerifier.create(service.addTransaction(new Transaction(userId, 5.0, "TOYS", "Lego")))
+        .expectError(IllegalArgumentException.class)
+        .verify();
+
+    Transaction valid = new Transaction(userId, 5.0, "FOOD", "Lunch");
+    when(repository.insertTransaction(valid)).thenReturn(Mono.just(valid));
+    StepVerifier.create(service.addTransaction(valid)).expectNext(valid).verifyComplete();
+  }
+
+  /**
+   * Tests that the weekly summary totals the fetched transactions per day.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void weeklySummary_totalsPerDay() {
+    LocalDate today = LocalDate.now();
+    Transaction lunch = new Transaction(userId, 12.5, "FOOD", "Lunch");
+    lunch.setDate(today);
+    Transaction shoes = new Transaction(userId, 40.0, "SHOPPING", "Shoes");
+    shoes.setDate(today.minusDays(2));
+    when(repository.findTransactionsSince(any(), any())).thenReturn(Flux.just(lunch, shoes));
+
+    Map<String, Object> summary = service.weeklySummary(user).block();
+    assertEquals("alice", summary.get("username"));
+    assertEquals(52.5, summary.get("weeklyTotal"));
+    assertEquals(2, summary.get("transactionCount"));
+    Map<LocalDate, Double> daily = (Map<LocalDate, Double>) summary.get("dailyTotals");
+    assertEquals(12.5, daily.get(today));
+    assertEquals(40.0, daily.get(today.minusDays(2)));
+    assertEquals(0.0, daily.get(today.minusDays(1)));
+  }
+
+  /**
+   * Tests the spending summary for an existing user, a missing one and an inverted range.
+   */
+  @Test
+  public void getSpendingBetween_summarizesOrReports() {
+    LocalDate from = LocalDate.of(2025, 1, 1);
+    LocalDate to = LocalDate.of(2025, 1, 31);
+    when(repository.findUser(userId)).thenReturn(Mono.just(user));
+    when(repository.sumByCategory(userId, from, to)).thenReturn(Flux.fromIterable(List.of(
+        new R2dbcLedgerRepository.CategoryTotal("FOOD", 30.25),
+        new R2dbcLedgerRepository.CategoryTotal("TRANSPORTATION", 9.75))));
+
+    Map<String, Object> summary = service.getSpendingBetween(userId, from, to).block();
+    assertEquals(40.0, summary.get("totalSpent"));
+    assertEquals(Map.of("FOOD", 30.25, "TRANSPORTATION", 9.75), summary.get("categories"));
+
+    UUID missing = UUID.randomUUID();
+    when(repository.findUser(missing)).thenReturn(Mono.empty());
+    assertEquals(Map.of("error", "User not found"),
+        service.getSpendingBetween(missing, from, to).block());
+
+    StepVerifier.create(service.getSpendingBetween(userId, to, from))
+        .expectError(IllegalArgumentException.class)
+        .verify();
+  }
+}
@@ -0,0 +1,45 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.ase.teamproject.repository.SqlMetrics;
+import dev.ase.teamproject.service.ReactiveApiService;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Tests that the application context of the reactive variant starts.
+ *
+ * <p>The reactive variant has no JDBC {@link DataSource}, so the beans built on
+ * one, such as the SQL metrics, must stay out of its context. Its R2DBC pool
+ * connects lazily, so no database is needed.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>profile</b>: reactive (context starts, no JDBC beans)</li>
+ * </ul>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = "spring.r2dbc.url=r2dbc:postgresql://localhost:1/unused")
+@ActiveProfiles("reactive")
+public class ReactiveContextTests {
+
+  @Autowired
+  private ApplicationContext context;
+
+  /**
+   * Tests that the reactive context starts without a data source or the beans
+   * that need one.
+   */
+  @Test
+  public void reactiveProfile_startsWithoutJdbcBeans() {
+    assertTrue(context.getBeanNamesForType(ReactiveApiService.class).length > 0);
+    assertFalse(context.getBeanNamesForType(DataSource.class).length > 0);
+    assertFalse(context.getBeanNamesForType(SqlMetrics.class).length > 0);
+  }
+}
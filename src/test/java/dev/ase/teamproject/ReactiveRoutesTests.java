@@ -0,0 +1,169 @@
+package dev.ase.teamproject;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import dev.ase.teamproject.controller.ReactiveRouteHandler;
+import dev.ase.teamproject.controller.ReactiveRoutes;
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.service.ReactiveApiService;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for the ReactiveRoutes and ReactiveRouteHandler classes.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>user</b>: exists (200), missing (404), malformed ID (400)</li>
+ *   <li><b>listing format</b>: JSON array (default), NDJSON (Accept header)</li>
+ *   <li><b>create</b>: valid (201), rejected by the service (400)</li>
+ *   <li><b>transaction</b>: owned by the user (200), owned by another user (404)</li>
+ *   <li><b>query dates</b>: valid, missing or malformed (400)</li>
+ *   <li><b>database</b>: reachable, unreachable (503 with Retry-After)</li>
+ * </ul>
+ */
+public class ReactiveRoutesTests {
+
+  private ReactiveApiService service;
+  private WebTestClient client;
+  private UUID userId;
+  private User user;
+
+  /**
+   * Binds a client to the routes over a mocked service.
+   */
+  @BeforeEach
+  public void setUp() {
+    service = mock(ReactiveApiService.class);
+    client = WebTestClient.bindToRouterFunction(
+        new ReactiveRoutes().reactiveRouterFunction(new ReactiveRouteHandler(service))).build();
+    userId = UUID.randomUUID();
+    user = new User("alice", "alice@example.com", 500.0);
+    user.setUserId(userId);
+  }
+
+  /**
+   * Tests that an existing user is returned and a missing one is a 404.
+   */
+  @Test
+  public void getUser_existingAndMissing() {
+    when(service.getUser(userId)).thenReturn(Mono.just(user));
+    UUID missing = UUID.randomUUID();
+    when(service.getUser(missing)).thenReturn(Mono.empty());
+
+    client.get().uri("/users/{id}", userId).exchange()
+        .expectStatus().isOk()
+        .expectBody().jsonPath("$.username").isEqualTo("alice");
+    client.get().uri("/users/{id}", missing).exchange()
+        .expectStatus().isNotFound()
+        .expectBody().jsonPath("$.error").isEqualTo("User " + missing + " not found");
+  }
+
+  /**
+   * Tests that a malformed path variable is a 400 and never reaches the service.
+   */
+  @Test
+  public void getUser_malformedIdIsBadRequest() {
+    client.get().uri("/users/not-a-uuid").exchange()
+        .expectStatus().isBadRequest()
+        .expectBody().jsonPath("$.error").exists();
+    verify(service, never()).getUser(any());
+  }
+
+  /**
+   * Tests that a user's transactions are a JSON array by default and NDJSON on request.
+   */
+  @Test
+  public void getUserTransactions_jsonOrNdjson() {
+    Transaction first = new Transaction(userId, 10.0, "FOOD", "Lunch");
+    Transaction second = new Transaction(userId, 20.0, "SHOPPING", "Shoes");
+    when(service.getUser(userId)).thenReturn(Mono.just(user));
+    when(service.getTransactionsByUser(userId)).thenReturn(Flux.just(first, second));
+
+    client.get().uri("/users/{id}/transactions", userId).exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentType(MediaType.APPLICATION_JSON)
+        .expectBody().jsonPath("$.length()").isEqualTo(2);
+    client.get().uri("/users/{id}/transactions", userId)
+        .accept(MediaType.APPLICATION_NDJSON).exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(Transaction.class).hasSize(2);
+  }
+
+  /**
+   * Tests that a created user is a 201 and a rejected one is a 400.
+   */
+  @Test
+  public void createUser_createdOrRejected() {
+    when(service.addUser(any())).thenReturn(Mono.just(user));
+    client.post().uri("/users").contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"username\":\"alice\",\"email\":\"alice@example.com\",\"budget\":500}")
+        .exchange()
+        .expectStatus().isCreated()
+        .expectBody().jsonPath("$.userId").isEqualTo(userId.toString());
+
+    when(service.addUser(any())).thenReturn(
+        Mono.error(new IllegalArgumentException("Email already exists: alice@example.com")));
+    client.post().uri("/users").contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"username\":\"alice\",\"email\":\"alice@example.com\",\"budget\":500}")
+        .exchange()
+        .expectStatus().isBadRequest()
+        .expectBody().jsonPath("$.error").isEqualTo("Email already exists: alice@example.com");
+  }
+
+  /**
+   * Tests that another user's transaction is a 404.
+   */
+  @Test
+  public void getTransaction_ownedByAnotherUserIsNotFound() {
+    UUID transactionId = UUID.randomUUID();
+    Transaction transaction = new Transaction(UUID.randomUUID(), 10.0, "FOOD", "Lunch");
+    transaction.setTransactionId(transactionId);
+    when(service.getUser(userId)).thenReturn(Mono.just(user));
+    when(service.getTransaction(transactionId)).thenReturn(Mono.just(transaction));
+
+    client.get().uri("/users/{id}/transactions/{tid}", userId, transactionId).exchange()
+        .expectStatus().isNotFound()
+        .expectBody().jsonPath("$.error")
+        .isEqualTo("Transaction " + transactionId + " not found for user " + userId);
+  }
+
+  /**
+   * Tests that missing or malformed dates are a 400.
+   */
+  @Test
+  public void spendingBetween_invalidDatesAreBadRequest() {
+    client.get().uri("/users/{id}/spending?from=2025-01-01", userId).exchange()
+        .expectStatus().isBadRequest()
+        .expectBody().jsonPath("$.error").isEqualTo("'to' is required");
+    client.get().uri("/users/{id}/spending?from=January&to=2025-01-31", userId).exchange()
+        .expectStatus().isBadRequest()
+        .expectBody().jsonPath("$.error").isEqualTo("'from' must be an ISO date");
+  }
+
+  /**
+   * Tests that an unreachable database is a 503 asking the client to retry.
+   */
+  @Test
+  public void unreachableDatabaseIsServiceUnavailable() {
+    when(service.getUser(userId)).thenReturn(
+        Mono.error(new DataAccessResourceFailureException("connection refused")));
+
+    client.get().uri("/users/{id}", userId).exchange()
+        .expectStatus().isEqualTo(503)
+        .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1");
+  }
+}
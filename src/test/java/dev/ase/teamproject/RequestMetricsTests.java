@@ -0,0 +1,182 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.ase.teamproject.controller.MetricsController;
+import dev.ase.teamproject.filter.LoggerFilter;
+import dev.ase.teamproject.filter.RequestMetrics;
+import dev.ase.teamproject.filter.RouteGroup;
+import dev.ase.teamproject.repository.InMemoryLedgerRepository;
+import dev.ase.teamproject.service.MockApiService;
+import dev.ase.teamproject.util.AsyncLog;
+import dev.ase.teamproject.util.LatencyHistogram;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Unit tests for the LatencyHistogram and RequestMetrics classes and the
+ * request metrics of the LoggerFilter and MetricsController.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>duration</b>: below the linear range, within a power of two, at a
+ *       bound, past the largest tracked value, negative</li>
+ *   <li><b>endpoint</b>: new route, new method or status of a known route,
+ *       known endpoint, no matched route</li>
+ *   <li><b>callers</b>: one thread, many threads recording at once</li>
+ *   <li><b>request</b>: in flight, finished</li>
+ * </ul>
+ */
+public class RequestMetricsTests {
+
+  /**
+   * Tests that durations are counted under the bounds they fall below, to
+   * within a bucket's width.
+   */
+  @Test
+  public void cumulativeCounts_countsUnderEachBound() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-5);
+    histogram.record(7);
+    histogram.record(990_000);
+    histogram.record(1_000_000);
+    histogram.record(1_100_000);
+    histogram.record(50_000_000);
+    histogram.record(Long.MAX_VALUE);
+
+    long[] counts = histogram.cumulativeCounts(new long[] {10, 1_000_000, 1_200_000,
+        100_000_000});
+    assertArrayEquals(new long[] {2, 3, 5, 6, 7}, counts);
+    assertEquals(990_000 + 1_000_000 + 1_100_000 + 50_000_000 + (1L << 36) - 1 + 7,
+        histogram.sumNanos());
+  }
+
+  /**
+   * Tests that bucket bounds stay within about 3% of the recorded duration
+   * across the tracked range.
+   */
+  @Test
+  public void cumulativeCounts_boundedError() {
+    for (long value = 100; value < 60_000_000_000L; value = value * 7 / 5) {
+      LatencyHistogram histogram = new LatencyHistogram();
+      histogram.record(value);
+      long[] counts = histogram.cumulativeCounts(
+          new long[] {value - 1 - value / 30, (long) (value * 1.04)});
+      assertEquals(0, counts[0], "counted too low: " + value);
+      assertEquals(1, counts[1], "counted too high: " + value);
+    }
+  }
+
+  /**
+   * Tests that concurrent recordings into shared endpoints are all counted.
+   */
+  @Test
+  public void finished_concurrentCallers_countsEveryRequest() throws Exception {
+    RequestMetrics metrics = new RequestMetrics();
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> callers = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        int status = 200 + t % 2;
+        callers.add(pool.submit(() -> {
+          for (int i = 0; i < 10_000; i++) {
+            metrics.started(RouteGroup.DEFAULT);
+            metrics.finished(RouteGroup.DEFAULT, "GET", "/users/{userId}", status, i);
+          }
+        }));
+      }
+      for (Future<?> caller : callers) {
+        caller.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    List<RequestMetrics.Endpoint> endpoints = metrics.endpoints();
+    assertEquals(2, endpoints.size());
+    for (RequestMetrics.Endpoint endpoint : endpoints) {
+      assertEquals(20_000, endpoint.histogram().cumulativeCounts(new long[0])[0]);
+    }
+    assertEquals(0, metrics.inFlight(RouteGroup.DEFAULT));
+  }
+
+  /**
+   * Tests that the filter records requests under their route template and
+   * status, counts those in flight, and that the metrics endpoint shows them.
+   */
+  @Test
+  public void loggerFilter_recordsRouteTemplates() throws Exception {
+    RequestMetrics metrics = new RequestMetrics();
+    MetricsController controller = new MetricsController(
+        new MockApiService(new InMemoryLedgerRepository()), null, null, null, metrics, null);
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    try (AsyncLog log = new AsyncLog(new ByteArrayOutputStream(), false, 64, 1)) {
+      LoggerFilter filter = new LoggerFilter(log, metrics, null);
+      for (int i = 0; i < 3; i++) {
+        call(filter, "GET", "/users/" + UUID.randomUUID() + "/budget-report",
+            "/users/{userId}/budget-report", 200);
+      }
+      call(filter, "GET", "/users/" + UUID.randomUUID() + "/budget-report",
+          "/users/{userId}/budget-report", 404);
+      call(filter, "GET", "/users/" + UUID.randomUUID() + "/transactions", null, 503);
+
+      CountDownLatch running = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      final Future<?> held = pool.submit(() -> {
+        filter.doFilter(new MockHttpServletRequest("POST", "/users/x/transactions"),
+            new MockHttpServletResponse(), (req, res) -> {
+              running.countDown();
+              try {
+                release.await(5, TimeUnit.SECONDS);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+        return null;
+      });
+      assertTrue(running.await(5, TimeUnit.SECONDS));
+      assertEquals(1, metrics.inFlight(RouteGroup.TRANSACTIONS));
+      assertTrue(controller.metrics().contains(
+          "ledger_http_requests_in_flight{group=\"transactions\"} 1\n"));
+      release.countDown();
+      held.get(5, TimeUnit.SECONDS);
+    } finally {
+      pool.shutdownNow();
+    }
+
+    String text = controller.metrics();
+    String labels = "method=\"GET\",route=\"/users/{userId}/budget-report\",status=\"200\"";
+    assertTrue(text.contains("# TYPE ledger_http_request_duration_seconds histogram\n"));
+    assertTrue(text.contains("ledger_http_request_duration_seconds_bucket{" + labels
+        + ",le=\"+Inf\"} 3\n"), text);
+    assertTrue(text.contains("ledger_http_request_duration_seconds_count{" + labels + "} 3\n"));
+    assertTrue(text.contains("ledger_http_request_duration_seconds_count{method=\"GET\","
+        + "route=\"/users/{userId}/budget-report\",status=\"404\"} 1\n"));
+    assertTrue(text.contains("ledger_http_request_duration_seconds_count{method=\"GET\","
+        + "route=\"unmatched\",status=\"503\"} 1\n"));
+    assertTrue(text.contains("ledger_http_requests_in_flight{group=\"transactions\"} 0\n"));
+  }
+
+  private static void call(final LoggerFilter filter, final String method, final String path,
+                           final String route, final int status) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+      if (route != null) {
+        req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, route);
+      }
+      ((MockHttpServletResponse) res).setStatus(status);
+    });
+  }
+}
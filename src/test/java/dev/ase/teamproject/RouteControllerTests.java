@@ -14,16 +14,21 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import dev.ase.teamproject.controller.HtmlPage;
 import dev.ase.teamproject.controller.RouteController;
 import dev.ase.teamproject.model.Transaction;
 import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.service.BudgetDashboard;
 import dev.ase.teamproject.service.MockApiService;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -34,10 +39,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 
 /**
  * Unit tests for the {@link RouteController} class.
@@ -67,7 +75,7 @@ import org.springframework.http.ResponseEntity;
  * <ul>
  *   <li>P1: (Valid) User exists - returns 200 OK with user</li>
  *   <li>P2: (Valid/Edge) User with minimal fields - returns 200 OK</li>
- *   <li>P3: (Invalid) User not found - throws NoSuchElementException</li>
+ *   <li>P3: (Invalid) User not found - returns 404</li>
  *   <li>P4: (Edge) Logger disabled - behavior unchanged</li>
  * </ul>
  *
@@ -82,6 +90,7 @@ import org.springframework.http.ResponseEntity;
  *   <li>P7: (Invalid) Generic data integrity violation - throws IllegalArgumentException</li>
  *   <li>P8: (Invalid) Service throws exception - throws IllegalStateException</li>
  *   <li>P9: (Edge) Logger disabled - behavior unchanged</li>
+ *   <li>P10: (Invalid) No connection available - propagates for a 503</li>
  * </ul>
  *
  * <h3>5. POST /users/form (HTML)</h3>
@@ -99,7 +108,7 @@ import org.springframework.http.ResponseEntity;
  *   <li>P1: (Valid) User exists, all fields updated - returns 200 OK</li>
  *   <li>P2: (Valid/Boundary) Zero budget - returns 200 OK</li>
  *   <li>P3: (Valid/Edge) Null/empty fields use existing values</li>
- *   <li>P4: (Invalid) User not found - throws NoSuchElementException</li>
+ *   <li>P4: (Invalid) User not found - returns 404</li>
  *   <li>P5: (Invalid) Duplicate username - throws IllegalArgumentException</li>
  *   <li>P6: (Invalid) Duplicate email - throws IllegalArgumentException</li>
  *   <li>P7: (Edge) Logger disabled - behavior unchanged</li>
@@ -130,7 +139,7 @@ import org.springframework.http.ResponseEntity;
  * <h3>10. DELETE /users/{userId}</h3>
  * <ul>
  *   <li>P1: (Valid) User exists - returns 200 OK with confirmation</li>
- *   <li>P2: (Invalid) User not found/delete fails - throws NoSuchElementException</li>
+ *   <li>P2: (Invalid) User not found/delete fails - returns 404</li>
  *   <li>P3: (Edge) Logger disabled - behavior unchanged</li>
  * </ul>
  *
@@ -148,21 +157,22 @@ import org.springframework.http.ResponseEntity;
  *   <li>P3: (Invalid) User not found - returns 404 NOT_FOUND</li>
  *   <li>P4: (Invalid) Service throws exception - returns 500 INTERNAL_SERVER_ERROR</li>
  *   <li>P5: (Edge) Logger disabled - behavior unchanged</li>
+ *   <li>P6: (Invalid) No connection available - propagates for a 503</li>
  * </ul>
  *
  * <h3>13. GET /users/{userId}/transactions/{transactionId}</h3>
  * <ul>
  *   <li>P1: (Valid) User and transaction exist, belongs to user - returns 200 OK</li>
- *   <li>P2: (Invalid) User not found - throws NoSuchElementException</li>
- *   <li>P3: (Invalid) Transaction not found - throws NoSuchElementException</li>
- *   <li>P4: (Invalid) Transaction belongs to different user - throws NoSuchElementException</li>
+ *   <li>P2: (Invalid) User not found - returns 404</li>
+ *   <li>P3: (Invalid) Transaction not found - returns 404</li>
+ *   <li>P4: (Invalid) Transaction belongs to different user - returns 404</li>
  *   <li>P5: (Edge) Logger disabled - behavior unchanged</li>
  * </ul>
  *
  * <h3>14. POST /users/{userId}/transactions (JSON)</h3>
  * <ul>
  *   <li>P1: (Valid) Valid transaction - returns 201 CREATED</li>
- *   <li>P2: (Invalid) User not found - throws NoSuchElementException</li>
+ *   <li>P2: (Invalid) User not found - returns 404</li>
  *   <li>P3: (Invalid) Service throws exception - propagates exception</li>
  *   <li>P4: (Edge) Logger disabled - behavior unchanged</li>
  * </ul>
@@ -173,14 +183,15 @@ import org.springframework.http.ResponseEntity;
  *   <li>P2: (Invalid) User not found - returns 404 NOT_FOUND</li>
  *   <li>P3: (Invalid) Service throws exception - returns 500 INTERNAL_SERVER_ERROR</li>
  *   <li>P4: (Edge) Logger disabled - behavior unchanged</li>
+ *   <li>P5: (Invalid) No connection available - propagates for a 503</li>
  * </ul>
  *
  * <h3>16. PUT /users/{userId}/transactions/{transactionId} (JSON)</h3>
  * <ul>
  *   <li>P1: (Valid) Valid update - returns 200 OK with updated transaction</li>
- *   <li>P2: (Invalid) User not found - throws NoSuchElementException</li>
- *   <li>P3: (Invalid) Transaction not found - throws NoSuchElementException</li>
- *   <li>P4: (Invalid) Transaction belongs to different user - throws NoSuchElementException</li>
+ *   <li>P2: (Invalid) User not found - returns 404</li>
+ *   <li>P3: (Invalid) Transaction not found - returns 404</li>
+ *   <li>P4: (Invalid) Transaction belongs to different user - returns 404</li>
  *   <li>P5: (Invalid) Update returns empty - throws NoSuchElementException</li>
  *   <li>P6: (Invalid) Service throws exception - propagates exception</li>
  *   <li>P7: (Edge) Logger disabled - behavior unchanged</li>
@@ -197,10 +208,10 @@ import org.springframework.http.ResponseEntity;
  * <h3>18. DELETE /users/{userId}/transactions/{transactionId}</h3>
  * <ul>
  *   <li>P1: (Valid) Valid deletion - returns 200 OK with confirmation</li>
- *   <li>P2: (Invalid) User not found - throws NoSuchElementException</li>
- *   <li>P3: (Invalid) Transaction not found - throws NoSuchElementException</li>
- *   <li>P4: (Invalid) Transaction belongs to different user - throws NoSuchElementException</li>
- *   <li>P5: (Invalid) Delete returns false - throws NoSuchElementException</li>
+ *   <li>P2: (Invalid) User not found - returns 404</li>
+ *   <li>P3: (Invalid) Transaction not found - returns 404</li>
+ *   <li>P4: (Invalid) Transaction belongs to different user - returns 404</li>
+ *   <li>P5: (Invalid) Delete returns false - returns 404</li>
  *   <li>P6: (Edge) Logger disabled - behavior unchanged</li>
  * </ul>
  *
@@ -223,7 +234,7 @@ import org.springframework.http.ResponseEntity;
  * <h3>21. PUT /users/{userId}/budget (JSON)</h3>
  * <ul>
  *   <li>P1: (Valid) Valid budget update - returns 200 OK with report</li>
- *   <li>P2: (Invalid) User not found - throws NoSuchElementException</li>
+ *   <li>P2: (Invalid) User not found - returns 404</li>
  *   <li>P3: (Edge) Logger disabled - behavior unchanged</li>
  * </ul>
  *
@@ -239,8 +250,9 @@ import org.springframework.http.ResponseEntity;
  * <ul>
  *   <li>P1: (Valid) User with transactions - returns summary map</li>
  *   <li>P2: (Valid/Boundary) User with no transactions - returns empty summary</li>
- *   <li>P3: (Invalid) User not found - throws NoSuchElementException</li>
+ *   <li>P3: (Invalid) User not found - returns 404</li>
  *   <li>P4: (Edge) Logger disabled - behavior unchanged</li>
+ *   <li>P5: (Invalid) No connection available - propagates for a 503</li>
  * </ul>
  *
  * <h3>24. GET /users/{userId}/monthly-summary (JSON)</h3>
@@ -248,7 +260,7 @@ import org.springframework.http.ResponseEntity;
  *   <li>P1: (Valid) User exists - returns summary map</li>
  *   <li>P2: (Valid/Edge) Service returns null summary - map has no "summary" key</li>
  *   <li>P3: (Valid/Edge) Service returns empty summary - map has empty string</li>
- *   <li>P4: (Invalid) User not found - throws NoSuchElementException</li>
+ *   <li>P4: (Invalid) User not found - returns 404</li>
  *   <li>P5: (Edge) Logger disabled - behavior unchanged</li>
  * </ul>
  *
@@ -256,14 +268,45 @@ import org.springframework.http.ResponseEntity;
  * <ul>
  *   <li>P1: (Valid) User exists - returns 200 OK with report</li>
  *   <li>P2: (Valid/Edge) Empty report - returns 200 OK with empty map</li>
- *   <li>P3: (Invalid) User not found - throws NoSuchElementException</li>
+ *   <li>P3: (Invalid) User not found - returns 404</li>
+ *   <li>P4: (Edge) Logger disabled - behavior unchanged</li>
+ * </ul>
+ *
+ * <h3>26. GET /users/{userId}/spending (JSON)</h3>
+ * <ul>
+ *   <li>P1: (Valid) User exists - returns 200 OK with the service's summary</li>
+ *   <li>P2: (Invalid) User not found - returns 404</li>
+ *   <li>P3: (Invalid) Service rejects the dates - IllegalArgumentException propagates</li>
+ *   <li>P4: (Edge) Logger disabled - behavior unchanged</li>
+ * </ul>
+ *
+ * <h3>27. GET /users/{userId}/percentiles (JSON)</h3>
+ * <ul>
+ *   <li>P1: (Valid) User exists - returns 200 OK with the service's ranking</li>
+ *   <li>P2: (Invalid) User not found - returns 404</li>
+ *   <li>P3: (Invalid) Service rejects the month count - IllegalArgumentException propagates</li>
  *   <li>P4: (Edge) Logger disabled - behavior unchanged</li>
  * </ul>
  *
- * <h3>26. Exception Handlers</h3>
+ * <h3>28. GET /users?ids= and POST /transactions/lookup (JSON)</h3>
+ * <ul>
+ *   <li>P1: (Valid) All found - keyed by id, nothing missing</li>
+ *   <li>P2: (Valid) Some unknown - reported once under "missing", not thrown</li>
+ *   <li>P3: (Invalid) Service rejects the ids - IllegalArgumentException propagates</li>
+ * </ul>
+ *
+ * <h3>29. POST /dashboard/budget-reports (JSON)</h3>
+ * <ul>
+ *   <li>P1: (Valid) Returns the dashboard's result for the ids</li>
+ *   <li>P2: (Invalid) No dashboard configured - throws IllegalStateException</li>
+ * </ul>
+ *
+ * <h3>30. Exception Handlers</h3>
  * <ul>
  *   <li>handleNotFound: NoSuchElementException -> 404 NOT_FOUND with error message</li>
  *   <li>handleBadRequest: IllegalArgumentException -> 400 BAD_REQUEST with error message</li>
+ *   <li>handleUnavailable: DataAccessResourceFailureException -> 503 SERVICE_UNAVAILABLE
+ *       with Retry-After</li>
  * </ul>
  */
 @ExtendWith(MockitoExtension.class)
@@ -275,6 +318,12 @@ public class RouteControllerTests {
   @Mock
   private MockApiService mockApiService;
 
+  /**
+   * A mock implementation of the dashboard service.
+   */
+  @Mock
+  private BudgetDashboard budgetDashboard;
+
   /**
    * The instance of the controller under test, with mocks injected.
    */
@@ -310,6 +359,13 @@ public class RouteControllerTests {
     return original;
   }
 
+  /**
+   * Returns the error message of a JSON error response.
+   */
+  private static String errorOf(ResponseEntity<?> response) {
+    return (String) ((Map<?, ?>) response.getBody()).get("error");
+  }
+
   // ===========================================================================
   // Tests for index (GET / or /index)
   // ===========================================================================
@@ -326,13 +382,14 @@ public class RouteControllerTests {
     users.add(new User("Bob", "bob@example.com", 300.0));
     when(mockApiService.viewAllUsers()).thenReturn(users);
 
-    ResponseEntity<String> response = routeController.index();
+    ResponseEntity<HtmlPage> response = routeController.index();
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
     assertEquals(MediaType.TEXT_HTML, response.getHeaders().getContentType());
-    assertTrue(response.getBody().contains("Alice"));
-    assertTrue(response.getBody().contains("Bob"));
-    assertTrue(response.getBody().contains("Welcome to the Personal Finance Tracker"));
+    String html = response.getBody().asString();
+    assertTrue(html.contains("Alice"));
+    assertTrue(html.contains("Bob"));
+    assertTrue(html.contains("Welcome to the Personal Finance Tracker"));
   }
 
   /**
@@ -344,10 +401,10 @@ public class RouteControllerTests {
   public void index_noUsers_returnsNoUsersMessage() {
     when(mockApiService.viewAllUsers()).thenReturn(new ArrayList<>());
 
-    ResponseEntity<String> response = routeController.index();
+    ResponseEntity<HtmlPage> response = routeController.index();
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertTrue(response.getBody().contains("No users found."));
+    assertTrue(response.getBody().asString().contains("No users found."));
   }
 
   /**
@@ -374,7 +431,7 @@ public class RouteControllerTests {
     Level original = setLogLevel(Level.OFF);
     try {
       when(mockApiService.viewAllUsers()).thenReturn(List.of());
-      ResponseEntity<String> response = routeController.index();
+      ResponseEntity<HtmlPage> response = routeController.index();
       assertEquals(HttpStatus.OK, response.getStatusCode());
     } finally {
       setLogLevel(original);
@@ -435,7 +492,7 @@ public class RouteControllerTests {
     User user = new User("Alice", "alice@example.com", 1200.0);
     when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
 
-    ResponseEntity<User> response = routeController.getUser(userId);
+    ResponseEntity<?> response = routeController.getUser(userId);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
     assertEquals(user, response.getBody());
@@ -452,10 +509,10 @@ public class RouteControllerTests {
     User user = new User("X", "", 0.0);
     when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
 
-    ResponseEntity<User> response = routeController.getUser(userId);
+    ResponseEntity<?> response = routeController.getUser(userId);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals("X", response.getBody().getUsername());
+    assertEquals("X", ((User) response.getBody()).getUsername());
   }
 
   /**
@@ -464,15 +521,14 @@ public class RouteControllerTests {
    * <p>Partition: P3 (Invalid) - User not found.
    */
   @Test
-  public void getUser_nonexistentUser_throwsNoSuchElementException() {
+  public void getUser_nonexistentUser_returns404() {
     UUID userId = UUID.randomUUID();
     when(mockApiService.getUser(userId)).thenReturn(Optional.empty());
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.getUser(userId));
+    ResponseEntity<?> response = routeController.getUser(userId);
 
-    assertTrue(thrown.getMessage().contains("User " + userId + " not found"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("User " + userId + " not found"));
   }
 
   /**
@@ -487,7 +543,7 @@ public class RouteControllerTests {
       UUID userId = UUID.randomUUID();
       User user = new User("Alice", "alice@example.com", 1200.0);
       when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
-      ResponseEntity<User> response = routeController.getUser(userId);
+      ResponseEntity<?> response = routeController.getUser(userId);
       assertEquals(HttpStatus.OK, response.getStatusCode());
     } finally {
       setLogLevel(original);
@@ -500,12 +556,12 @@ public class RouteControllerTests {
    * <p>Partition: P4 (Edge) - Logger disabled, not found.
    */
   @Test
-  public void getUser_loggerOff_nonexistentUser_throwsNoSuchElementException() {
+  public void getUser_loggerOff_nonexistentUser_returns404() {
     Level original = setLogLevel(Level.OFF);
     try {
       UUID userId = UUID.randomUUID();
       when(mockApiService.getUser(userId)).thenReturn(Optional.empty());
-      assertThrows(NoSuchElementException.class, () -> routeController.getUser(userId));
+      assertEquals(HttpStatus.NOT_FOUND, routeController.getUser(userId).getStatusCode());
     } finally {
       setLogLevel(original);
     }
@@ -656,6 +712,21 @@ public class RouteControllerTests {
     assertEquals("Failed to create user", thrown.getMessage());
   }
 
+  /**
+   * Tests that POST /users lets a connection timeout through to the 503 handler.
+   *
+   * <p>Partition: P10 (Invalid) - No connection available.
+   */
+  @Test
+  public void createUserJson_noConnection_propagates() {
+    User user = new User("Charlie", "charlie@example.com", 800.0);
+    when(mockApiService.addUser(user))
+        .thenThrow(new CannotGetJdbcConnectionException("Timed out waiting for a connection"));
+
+    assertThrows(CannotGetJdbcConnectionException.class,
+        () -> routeController.createUserJson(user));
+  }
+
   /**
    * Tests POST /users with logger disabled.
    *
@@ -818,7 +889,7 @@ public class RouteControllerTests {
     when(mockApiService.deleteUser(userId)).thenReturn(true);
     when(mockApiService.addUser(any(User.class))).thenReturn(updated);
 
-    ResponseEntity<User> response = routeController.updateUserJson(userId, updated);
+    ResponseEntity<?> response = routeController.updateUserJson(userId, updated);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
   }
@@ -838,7 +909,7 @@ public class RouteControllerTests {
     when(mockApiService.deleteUser(userId)).thenReturn(true);
     when(mockApiService.addUser(any(User.class))).thenReturn(updated);
 
-    ResponseEntity<User> response = routeController.updateUserJson(userId, updated);
+    ResponseEntity<?> response = routeController.updateUserJson(userId, updated);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
   }
@@ -858,10 +929,10 @@ public class RouteControllerTests {
     when(mockApiService.deleteUser(userId)).thenReturn(true);
     when(mockApiService.addUser(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
 
-    ResponseEntity<User> response = routeController.updateUserJson(userId, updates);
+    ResponseEntity<?> response = routeController.updateUserJson(userId, updates);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals("Alice", response.getBody().getUsername());
+    assertEquals("Alice", ((User) response.getBody()).getUsername());
   }
 
   /**
@@ -870,16 +941,15 @@ public class RouteControllerTests {
    * <p>Partition: P4 (Invalid) - User not found.
    */
   @Test
-  public void updateUserJson_userNotFound_throwsNoSuchElementException() {
+  public void updateUserJson_userNotFound_returns404() {
     UUID userId = UUID.randomUUID();
     User updates = new User("Eve", "eve@example.com", 900.0);
     when(mockApiService.getUser(userId)).thenReturn(Optional.empty());
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.updateUserJson(userId, updates));
+    ResponseEntity<?> response = routeController.updateUserJson(userId, updates);
 
-    assertTrue(thrown.getMessage().contains("User " + userId + " not found"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("User " + userId + " not found"));
   }
 
   /**
@@ -939,7 +1009,7 @@ public class RouteControllerTests {
       User updated = new User("Alice", "new@example.com", 1200.0);
       when(mockApiService.getUser(userId)).thenReturn(Optional.of(existing));
       when(mockApiService.addUser(any(User.class))).thenReturn(updated);
-      ResponseEntity<User> response = routeController.updateUserJson(userId, updated);
+      ResponseEntity<?> response = routeController.updateUserJson(userId, updated);
       assertEquals(HttpStatus.OK, response.getStatusCode());
     } finally {
       setLogLevel(original);
@@ -1167,15 +1237,14 @@ public class RouteControllerTests {
    * <p>Partition: P2 (Invalid) - Delete fails.
    */
   @Test
-  public void deleteUser_deleteFails_throwsNoSuchElementException() {
+  public void deleteUser_deleteFails_returns404() {
     UUID userId = UUID.randomUUID();
     when(mockApiService.deleteUser(userId)).thenReturn(false);
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.deleteUser(userId));
+    ResponseEntity<?> response = routeController.deleteUser(userId);
 
-    assertTrue(thrown.getMessage().contains("User " + userId + " not found"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("User " + userId + " not found"));
   }
 
   /**
@@ -1329,6 +1398,25 @@ public class RouteControllerTests {
     assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
   }
 
+  /**
+   * Tests that GET /users/{userId}/transactions lets a connection timeout through
+   * to the 503 handler.
+   *
+   * <p>Partition: P6 (Invalid) - No connection available.
+   */
+  @Test
+  public void getUserTransactions_noConnection_propagates() {
+    UUID userId = UUID.randomUUID();
+    User user = new User("Alice", "alice@example.com", 1000.0);
+
+    when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
+    when(mockApiService.getTransactionsByUser(userId))
+        .thenThrow(new CannotGetJdbcConnectionException("Timed out waiting for a connection"));
+
+    assertThrows(CannotGetJdbcConnectionException.class,
+        () -> routeController.getUserTransactions(userId));
+  }
+
   /**
    * Tests GET /users/{userId}/transactions with logger disabled.
    *
@@ -1369,7 +1457,7 @@ public class RouteControllerTests {
     when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
     when(mockApiService.getTransaction(txId)).thenReturn(Optional.of(tx));
 
-    ResponseEntity<Transaction> response = routeController.getTransaction(userId, txId);
+    ResponseEntity<?> response = routeController.getTransaction(userId, txId);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
     assertEquals(tx, response.getBody());
@@ -1381,17 +1469,16 @@ public class RouteControllerTests {
    * <p>Partition: P2 (Invalid) - User not found.
    */
   @Test
-  public void getTransaction_userNotFound_throwsNoSuchElementException() {
+  public void getTransaction_userNotFound_returns404() {
     UUID userId = UUID.randomUUID();
     UUID txId = UUID.randomUUID();
 
     when(mockApiService.getUser(userId)).thenReturn(Optional.empty());
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.getTransaction(userId, txId));
+    ResponseEntity<?> response = routeController.getTransaction(userId, txId);
 
-    assertTrue(thrown.getMessage().contains("User " + userId + " not found"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("User " + userId + " not found"));
   }
 
   /**
@@ -1400,7 +1487,7 @@ public class RouteControllerTests {
    * <p>Partition: P3 (Invalid) - Transaction not found.
    */
   @Test
-  public void getTransaction_transactionNotFound_throwsNoSuchElementException() {
+  public void getTransaction_transactionNotFound_returns404() {
     UUID userId = UUID.randomUUID();
     UUID txId = UUID.randomUUID();
     User user = new User("Alice", "alice@example.com", 1000.0);
@@ -1408,11 +1495,10 @@ public class RouteControllerTests {
     when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
     when(mockApiService.getTransaction(txId)).thenReturn(Optional.empty());
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.getTransaction(userId, txId));
+    ResponseEntity<?> response = routeController.getTransaction(userId, txId);
 
-    assertTrue(thrown.getMessage().contains("Transaction " + txId + " not found"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("Transaction " + txId + " not found"));
   }
 
   /**
@@ -1421,7 +1507,7 @@ public class RouteControllerTests {
    * <p>Partition: P4 (Invalid) - Transaction belongs to different user.
    */
   @Test
-  public void getTransaction_transactionBelongsToDifferentUser_throwsNoSuchElementException() {
+  public void getTransaction_transactionBelongsToDifferentUser_returns404() {
     UUID userId = UUID.randomUUID();
     UUID otherUserId = UUID.randomUUID();
     UUID txId = UUID.randomUUID();
@@ -1432,11 +1518,10 @@ public class RouteControllerTests {
     when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
     when(mockApiService.getTransaction(txId)).thenReturn(Optional.of(tx));
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.getTransaction(userId, txId));
+    ResponseEntity<?> response = routeController.getTransaction(userId, txId);
 
-    assertTrue(thrown.getMessage().contains("Transaction " + txId + " not found for user"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("Transaction " + txId + " not found for user"));
   }
 
   /**
@@ -1455,7 +1540,7 @@ public class RouteControllerTests {
       tx.setTransactionId(txId);
       when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
       when(mockApiService.getTransaction(txId)).thenReturn(Optional.of(tx));
-      ResponseEntity<Transaction> response = routeController.getTransaction(userId, txId);
+      ResponseEntity<?> response = routeController.getTransaction(userId, txId);
       assertEquals(HttpStatus.OK, response.getStatusCode());
     } finally {
       setLogLevel(original);
@@ -1482,10 +1567,10 @@ public class RouteControllerTests {
     when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
     when(mockApiService.addTransaction(any(Transaction.class))).thenReturn(tx);
 
-    ResponseEntity<Transaction> response = routeController.createTransactionJson(userId, tx);
+    ResponseEntity<?> response = routeController.createTransactionJson(userId, tx);
 
     assertEquals(HttpStatus.CREATED, response.getStatusCode());
-    assertEquals(txId, response.getBody().getTransactionId());
+    assertEquals(txId, ((Transaction) response.getBody()).getTransactionId());
   }
 
   /**
@@ -1494,17 +1579,16 @@ public class RouteControllerTests {
    * <p>Partition: P2 (Invalid) - User not found.
    */
   @Test
-  public void createTransactionJson_userNotFound_throwsNoSuchElementException() {
+  public void createTransactionJson_userNotFound_returns404() {
     UUID userId = UUID.randomUUID();
     Transaction tx = new Transaction(userId, 50.0, "FOOD", "Lunch");
 
     when(mockApiService.getUser(userId)).thenReturn(Optional.empty());
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.createTransactionJson(userId, tx));
+    ResponseEntity<?> response = routeController.createTransactionJson(userId, tx);
 
-    assertTrue(thrown.getMessage().contains("User " + userId + " not found"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("User " + userId + " not found"));
   }
 
   /**
@@ -1543,7 +1627,7 @@ public class RouteControllerTests {
       Transaction tx = new Transaction(userId, 50.0, "FOOD", "Lunch");
       when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
       when(mockApiService.addTransaction(any(Transaction.class))).thenReturn(tx);
-      ResponseEntity<Transaction> response = routeController.createTransactionJson(userId, tx);
+      ResponseEntity<?> response = routeController.createTransactionJson(userId, tx);
       assertEquals(HttpStatus.CREATED, response.getStatusCode());
     } finally {
       setLogLevel(original);
@@ -1612,6 +1696,25 @@ public class RouteControllerTests {
     assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
   }
 
+  /**
+   * Tests that POST .../transactions/form lets a connection timeout through to the
+   * 503 handler.
+   *
+   * <p>Partition: P5 (Invalid) - No connection available.
+   */
+  @Test
+  public void createTransactionFromFormHtml_noConnection_propagates() {
+    UUID userId = UUID.randomUUID();
+    User user = new User("Alice", "alice@example.com", 1000.0);
+
+    when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
+    when(mockApiService.addTransaction(any(Transaction.class)))
+        .thenThrow(new CannotGetJdbcConnectionException("Timed out waiting for a connection"));
+
+    assertThrows(CannotGetJdbcConnectionException.class,
+        () -> routeController.createTransactionFromFormHtml(userId, "Lunch", 50.0, "FOOD"));
+  }
+
   /**
    * Tests POST .../transactions/form with logger disabled.
    *
@@ -1659,11 +1762,11 @@ public class RouteControllerTests {
     when(mockApiService.getTransaction(txId)).thenReturn(Optional.of(existing));
     when(mockApiService.updateTransaction(txId, updates)).thenReturn(Optional.of(updated));
 
-    ResponseEntity<Transaction> response =
+    ResponseEntity<?> response =
         routeController.updateTransactionJson(userId, txId, updates);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals(120.0, response.getBody().getAmount());
+    assertEquals(120.0, ((Transaction) response.getBody()).getAmount());
   }
 
   /**
@@ -1672,18 +1775,17 @@ public class RouteControllerTests {
    * <p>Partition: P2 (Invalid) - User not found.
    */
   @Test
-  public void updateTransactionJson_userNotFound_throwsNoSuchElementException() {
+  public void updateTransactionJson_userNotFound_returns404() {
     UUID userId = UUID.randomUUID();
     UUID txId = UUID.randomUUID();
     Map<String, Object> updates = Map.of("amount", 100.0);
 
     when(mockApiService.getUser(userId)).thenReturn(Optional.empty());
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.updateTransactionJson(userId, txId, updates));
+    ResponseEntity<?> response = routeController.updateTransactionJson(userId, txId, updates);
 
-    assertTrue(thrown.getMessage().contains("User " + userId + " not found"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("User " + userId + " not found"));
   }
 
   /**
@@ -1692,7 +1794,7 @@ public class RouteControllerTests {
    * <p>Partition: P3 (Invalid) - Transaction not found.
    */
   @Test
-  public void updateTransactionJson_transactionNotFound_throwsNoSuchElementException() {
+  public void updateTransactionJson_transactionNotFound_returns404() {
     UUID userId = UUID.randomUUID();
     UUID txId = UUID.randomUUID();
     User user = new User("Alice", "alice@example.com", 1000.0);
@@ -1701,11 +1803,10 @@ public class RouteControllerTests {
     when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
     when(mockApiService.getTransaction(txId)).thenReturn(Optional.empty());
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.updateTransactionJson(userId, txId, updates));
+    ResponseEntity<?> response = routeController.updateTransactionJson(userId, txId, updates);
 
-    assertTrue(thrown.getMessage().contains("Transaction " + txId + " not found"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("Transaction " + txId + " not found"));
   }
 
   /**
@@ -1715,7 +1816,7 @@ public class RouteControllerTests {
    */
   @Test
   public void
-      updateTransactionJson_transactionBelongsToDifferentUser_throwsNoSuchElementException() {
+      updateTransactionJson_transactionBelongsToDifferentUser_returns404() {
     UUID userId = UUID.randomUUID();
     UUID otherUserId = UUID.randomUUID();
     UUID txId = UUID.randomUUID();
@@ -1727,11 +1828,10 @@ public class RouteControllerTests {
     when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
     when(mockApiService.getTransaction(txId)).thenReturn(Optional.of(tx));
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.updateTransactionJson(userId, txId, updates));
+    ResponseEntity<?> response = routeController.updateTransactionJson(userId, txId, updates);
 
-    assertTrue(thrown.getMessage().contains("Transaction " + txId + " not found for user"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("Transaction " + txId + " not found for user"));
   }
 
   /**
@@ -1802,7 +1902,7 @@ public class RouteControllerTests {
       when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
       when(mockApiService.getTransaction(txId)).thenReturn(Optional.of(existing));
       when(mockApiService.updateTransaction(txId, updates)).thenReturn(Optional.of(updated));
-      ResponseEntity<Transaction> response =
+      ResponseEntity<?> response =
           routeController.updateTransactionJson(userId, txId, updates);
       assertEquals(HttpStatus.OK, response.getStatusCode());
     } finally {
@@ -1919,17 +2019,16 @@ public class RouteControllerTests {
    * <p>Partition: P2 (Invalid) - User not found.
    */
   @Test
-  public void deleteTransaction_userNotFound_throwsNoSuchElementException() {
+  public void deleteTransaction_userNotFound_returns404() {
     UUID userId = UUID.randomUUID();
     UUID txId = UUID.randomUUID();
 
     when(mockApiService.getUser(userId)).thenReturn(Optional.empty());
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.deleteTransaction(userId, txId));
+    ResponseEntity<?> response = routeController.deleteTransaction(userId, txId);
 
-    assertTrue(thrown.getMessage().contains("User " + userId + " not found"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("User " + userId + " not found"));
   }
 
   /**
@@ -1938,7 +2037,7 @@ public class RouteControllerTests {
    * <p>Partition: P4 (Invalid) - Transaction belongs to different user.
    */
   @Test
-  public void deleteTransaction_transactionBelongsToDifferentUser_throwsNoSuchElementException() {
+  public void deleteTransaction_transactionBelongsToDifferentUser_returns404() {
     UUID userId = UUID.randomUUID();
     UUID otherUserId = UUID.randomUUID();
     UUID txId = UUID.randomUUID();
@@ -1949,11 +2048,10 @@ public class RouteControllerTests {
     when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
     when(mockApiService.getTransaction(txId)).thenReturn(Optional.of(tx));
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.deleteTransaction(userId, txId));
+    ResponseEntity<?> response = routeController.deleteTransaction(userId, txId);
 
-    assertTrue(thrown.getMessage().contains("Transaction " + txId + " not found for user"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("Transaction " + txId + " not found for user"));
   }
 
   /**
@@ -1962,7 +2060,7 @@ public class RouteControllerTests {
    * <p>Partition: P5 (Invalid) - Delete returns false.
    */
   @Test
-  public void deleteTransaction_deleteFails_throwsNoSuchElementException() {
+  public void deleteTransaction_deleteFails_returns404() {
     UUID userId = UUID.randomUUID();
     UUID txId = UUID.randomUUID();
     User user = new User("Alice", "alice@example.com", 1000.0);
@@ -1973,11 +2071,10 @@ public class RouteControllerTests {
     when(mockApiService.getTransaction(txId)).thenReturn(Optional.of(tx));
     when(mockApiService.deleteTransaction(txId)).thenReturn(false);
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.deleteTransaction(userId, txId));
+    ResponseEntity<?> response = routeController.deleteTransaction(userId, txId);
 
-    assertTrue(thrown.getMessage().contains("Transaction " + txId + " not found"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("Transaction " + txId + " not found"));
   }
 
   /**
@@ -2214,17 +2311,16 @@ public class RouteControllerTests {
    * <p>Partition: P2 (Invalid) - User not found.
    */
   @Test
-  public void updateBudgetJson_userNotFound_throwsNoSuchElementException() {
+  public void updateBudgetJson_userNotFound_returns404() {
     UUID userId = UUID.randomUUID();
     Map<String, Object> budgetUpdate = Map.of("budget", 1500.0);
 
     when(mockApiService.getUser(userId)).thenReturn(Optional.empty());
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.updateBudgetJson(userId, budgetUpdate));
+    ResponseEntity<?> response = routeController.updateBudgetJson(userId, budgetUpdate);
 
-    assertTrue(thrown.getMessage().contains("User " + userId + " not found"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("User " + userId + " not found"));
   }
 
   /**
@@ -2347,12 +2443,15 @@ public class RouteControllerTests {
     when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
     when(mockApiService.weeklySummary(userId)).thenReturn(transactions);
     when(mockApiService.totalLast7Days(userId)).thenReturn(50.0);
+    Map<LocalDate, Double> daily = Map.of(LocalDate.now(), 50.0);
+    when(mockApiService.dailySpendLast7Days(userId)).thenReturn(daily);
 
-    Map<String, Object> summary = routeController.weeklySummary(userId);
+    Map<String, Object> summary = routeController.weeklySummary(userId).getBody();
 
     assertEquals("Alice", summary.get("username"));
     assertEquals(50.0, summary.get("weeklyTotal"));
     assertEquals(1, summary.get("transactionCount"));
+    assertEquals(daily, summary.get("dailyTotals"));
   }
 
   /**
@@ -2369,7 +2468,7 @@ public class RouteControllerTests {
     when(mockApiService.weeklySummary(userId)).thenReturn(new ArrayList<>());
     when(mockApiService.totalLast7Days(userId)).thenReturn(0.0);
 
-    Map<String, Object> summary = routeController.weeklySummary(userId);
+    Map<String, Object> summary = routeController.weeklySummary(userId).getBody();
 
     assertEquals(0.0, summary.get("weeklyTotal"));
     assertEquals(0, summary.get("transactionCount"));
@@ -2381,16 +2480,34 @@ public class RouteControllerTests {
    * <p>Partition: P3 (Invalid) - User not found.
    */
   @Test
-  public void weeklySummary_userNotFound_throwsNoSuchElementException() {
+  public void weeklySummary_userNotFound_returns404() {
     UUID userId = UUID.randomUUID();
 
     when(mockApiService.getUser(userId)).thenReturn(Optional.empty());
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.weeklySummary(userId));
+    ResponseEntity<?> response = routeController.weeklySummary(userId);
 
-    assertTrue(thrown.getMessage().contains("User " + userId + " not found"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("User " + userId + " not found"));
+  }
+
+  /**
+   * Tests that GET /users/{userId}/weekly-summary fails with the store rather than
+   * reporting no spending.
+   *
+   * <p>Partition: P5 (Invalid) - No connection available.
+   */
+  @Test
+  public void weeklySummary_noConnection_propagates() {
+    UUID userId = UUID.randomUUID();
+    User user = new User("Alice", "alice@example.com", 1000.0);
+
+    when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
+    when(mockApiService.totalLast7Days(userId))
+        .thenThrow(new CannotGetJdbcConnectionException("Timed out waiting for a connection"));
+
+    assertThrows(CannotGetJdbcConnectionException.class,
+        () -> routeController.weeklySummary(userId));
   }
 
   /**
@@ -2407,7 +2524,7 @@ public class RouteControllerTests {
       when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
       when(mockApiService.weeklySummary(userId)).thenReturn(new ArrayList<>());
       when(mockApiService.totalLast7Days(userId)).thenReturn(0.0);
-      Map<String, Object> summary = routeController.weeklySummary(userId);
+      Map<String, Object> summary = routeController.weeklySummary(userId).getBody();
       assertNotNull(summary);
     } finally {
       setLogLevel(original);
@@ -2432,7 +2549,7 @@ public class RouteControllerTests {
     when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
     when(mockApiService.getMonthlySummary(userId)).thenReturn(mockSummary);
 
-    Map<String, Object> response = routeController.monthlySummary(userId);
+    Map<String, Object> response = routeController.monthlySummary(userId).getBody();
 
     assertEquals(mockSummary, response.get("summary"));
   }
@@ -2450,7 +2567,7 @@ public class RouteControllerTests {
     when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
     when(mockApiService.getMonthlySummary(userId)).thenReturn(null);
 
-    Map<String, Object> response = routeController.monthlySummary(userId);
+    Map<String, Object> response = routeController.monthlySummary(userId).getBody();
 
     assertNull(response.get("summary"));
   }
@@ -2468,7 +2585,7 @@ public class RouteControllerTests {
     when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
     when(mockApiService.getMonthlySummary(userId)).thenReturn("");
 
-    Map<String, Object> response = routeController.monthlySummary(userId);
+    Map<String, Object> response = routeController.monthlySummary(userId).getBody();
 
     assertEquals("", response.get("summary"));
   }
@@ -2479,16 +2596,15 @@ public class RouteControllerTests {
    * <p>Partition: P4 (Invalid) - User not found.
    */
   @Test
-  public void monthlySummary_userNotFound_throwsNoSuchElementException() {
+  public void monthlySummary_userNotFound_returns404() {
     UUID userId = UUID.randomUUID();
 
     when(mockApiService.getUser(userId)).thenReturn(Optional.empty());
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.monthlySummary(userId));
+    ResponseEntity<?> response = routeController.monthlySummary(userId);
 
-    assertTrue(thrown.getMessage().contains("User " + userId + " not found"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("User " + userId + " not found"));
   }
 
   /**
@@ -2504,7 +2620,7 @@ public class RouteControllerTests {
       User user = new User("Alice", "alice@example.com", 1000.0);
       when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
       when(mockApiService.getMonthlySummary(userId)).thenReturn("Summary");
-      Map<String, Object> response = routeController.monthlySummary(userId);
+      Map<String, Object> response = routeController.monthlySummary(userId).getBody();
       assertNotNull(response);
     } finally {
       setLogLevel(original);
@@ -2561,16 +2677,15 @@ public class RouteControllerTests {
    * <p>Partition: P3 (Invalid) - User not found.
    */
   @Test
-  public void budgetReport_userNotFound_throwsNoSuchElementException() {
+  public void budgetReport_userNotFound_returns404() {
     UUID userId = UUID.randomUUID();
 
     when(mockApiService.getUser(userId)).thenReturn(Optional.empty());
 
-    NoSuchElementException thrown = assertThrows(
-        NoSuchElementException.class,
-        () -> routeController.budgetReport(userId));
+    ResponseEntity<?> response = routeController.budgetReport(userId);
 
-    assertTrue(thrown.getMessage().contains("User " + userId + " not found"));
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("User " + userId + " not found"));
   }
 
   /**
@@ -2594,6 +2709,269 @@ public class RouteControllerTests {
     }
   }
 
+  // ===========================================================================
+  // Tests for spendingBetween (GET /users/{userId}/spending)
+  // ===========================================================================
+
+  /**
+   * Tests GET /users/{userId}/spending for an existing user.
+   *
+   * <p>Partition: P1 (Valid) - User exists.
+   */
+  @Test
+  public void spendingBetween_validUser_returnsSummaryWith200() {
+    UUID userId = UUID.randomUUID();
+    User user = new User("Alice", "alice@example.com", 1000.0);
+    LocalDate from = LocalDate.of(2025, 1, 1);
+    LocalDate to = LocalDate.of(2025, 1, 31);
+    Map<String, Object> summary = Map.of("totalSpent", 42.0);
+
+    when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
+    when(mockApiService.getSpendingBetween(userId, from, to)).thenReturn(summary);
+
+    ResponseEntity<Map<String, Object>> response =
+        routeController.spendingBetween(userId, from, to);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(summary, response.getBody());
+  }
+
+  /**
+   * Tests GET /users/{userId}/spending when user not found.
+   *
+   * <p>Partition: P2 (Invalid) - User not found.
+   */
+  @Test
+  public void spendingBetween_userNotFound_returns404() {
+    UUID userId = UUID.randomUUID();
+    LocalDate day = LocalDate.of(2025, 1, 1);
+
+    when(mockApiService.getUser(userId)).thenReturn(Optional.empty());
+
+    ResponseEntity<?> response = routeController.spendingBetween(userId, day, day);
+
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("User " + userId + " not found"));
+    verify(mockApiService, never()).getSpendingBetween(any(), any(), any());
+  }
+
+  /**
+   * Tests GET /users/{userId}/spending when the service rejects the dates.
+   *
+   * <p>Partition: P3 (Invalid) - Reversed dates.
+   */
+  @Test
+  public void spendingBetween_reversedDates_throwsIllegalArgumentException() {
+    UUID userId = UUID.randomUUID();
+    User user = new User("Alice", "alice@example.com", 1000.0);
+    LocalDate from = LocalDate.of(2025, 2, 1);
+    LocalDate to = LocalDate.of(2025, 1, 1);
+
+    when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
+    when(mockApiService.getSpendingBetween(userId, from, to))
+        .thenThrow(new IllegalArgumentException("'from' must be a date on or before 'to'"));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> routeController.spendingBetween(userId, from, to));
+  }
+
+  /**
+   * Tests GET /users/{userId}/spending with logger disabled.
+   *
+   * <p>Partition: P4 (Edge) - Logger disabled.
+   */
+  @Test
+  public void spendingBetween_loggerOff_validUser_returnsSummaryWith200() {
+    Level original = setLogLevel(Level.OFF);
+    try {
+      UUID userId = UUID.randomUUID();
+      User user = new User("Alice", "alice@example.com", 1000.0);
+      LocalDate day = LocalDate.of(2025, 1, 1);
+      when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
+      when(mockApiService.getSpendingBetween(userId, day, day)).thenReturn(Map.of());
+      ResponseEntity<Map<String, Object>> response =
+          routeController.spendingBetween(userId, day, day);
+      assertEquals(HttpStatus.OK, response.getStatusCode());
+    } finally {
+      setLogLevel(original);
+    }
+  }
+
+  // ===========================================================================
+  // Tests for spendingPercentiles (GET /users/{userId}/percentiles)
+  // ===========================================================================
+
+  /**
+   * Tests GET /users/{userId}/percentiles for an existing user.
+   *
+   * <p>Partition: P1 (Valid) - User exists.
+   */
+  @Test
+  public void spendingPercentiles_validUser_returnsRankingWith200() {
+    UUID userId = UUID.randomUUID();
+    User user = new User("Alice", "alice@example.com", 1000.0);
+    Map<String, Object> ranking = Map.of("months", 3);
+
+    when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
+    when(mockApiService.getSpendingPercentiles(userId, 3)).thenReturn(ranking);
+
+    ResponseEntity<Map<String, Object>> response =
+        routeController.spendingPercentiles(userId, 3);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(ranking, response.getBody());
+  }
+
+  /**
+   * Tests GET /users/{userId}/percentiles when user not found.
+   *
+   * <p>Partition: P2 (Invalid) - User not found.
+   */
+  @Test
+  public void spendingPercentiles_userNotFound_returns404() {
+    UUID userId = UUID.randomUUID();
+
+    when(mockApiService.getUser(userId)).thenReturn(Optional.empty());
+
+    ResponseEntity<?> response = routeController.spendingPercentiles(userId, 1);
+
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertTrue(errorOf(response).contains("User " + userId + " not found"));
+    verify(mockApiService, never()).getSpendingPercentiles(any(), eq(1));
+  }
+
+  /**
+   * Tests GET /users/{userId}/percentiles with an out-of-range month count.
+   *
+   * <p>Partition: P3 (Invalid) - Month count out of range.
+   */
+  @Test
+  public void spendingPercentiles_invalidMonths_throwsIllegalArgumentException() {
+    UUID userId = UUID.randomUUID();
+    User user = new User("Alice", "alice@example.com", 1000.0);
+
+    when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
+    when(mockApiService.getSpendingPercentiles(userId, 0))
+        .thenThrow(new IllegalArgumentException("months must be between 1 and 12"));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> routeController.spendingPercentiles(userId, 0));
+  }
+
+  /**
+   * Tests GET /users/{userId}/percentiles with logger disabled.
+   *
+   * <p>Partition: P4 (Edge) - Logger disabled.
+   */
+  @Test
+  public void spendingPercentiles_loggerOff_validUser_returnsRankingWith200() {
+    Level original = setLogLevel(Level.OFF);
+    try {
+      UUID userId = UUID.randomUUID();
+      User user = new User("Alice", "alice@example.com", 1000.0);
+      when(mockApiService.getUser(userId)).thenReturn(Optional.of(user));
+      when(mockApiService.getSpendingPercentiles(userId, 1)).thenReturn(Map.of());
+      ResponseEntity<Map<String, Object>> response =
+          routeController.spendingPercentiles(userId, 1);
+      assertEquals(HttpStatus.OK, response.getStatusCode());
+    } finally {
+      setLogLevel(original);
+    }
+  }
+
+  // ===========================================================================
+  // Tests for getUsers and lookupTransactions (batch lookups)
+  // ===========================================================================
+
+  /**
+   * Tests GET /users?ids= when every user exists.
+   *
+   * <p>Partition: P1 (Valid) - All found.
+   */
+  @Test
+  public void getUsers_allFound_keyedByIdWithNothingMissing() {
+    User alice = new User("Alice", "alice@example.com", 100.0);
+    alice.setUserId(UUID.randomUUID());
+    User bob = new User("Bob", "bob@example.com", 200.0);
+    bob.setUserId(UUID.randomUUID());
+    List<UUID> ids = List.of(alice.getUserId(), bob.getUserId());
+    Map<UUID, User> found = new LinkedHashMap<>();
+    found.put(alice.getUserId(), alice);
+    found.put(bob.getUserId(), bob);
+    when(mockApiService.getUsers(ids)).thenReturn(found);
+
+    Map<String, Object> result = routeController.getUsers(ids);
+
+    assertEquals(found, result.get("users"));
+    assertEquals(Set.of(), result.get("missing"));
+  }
+
+  /**
+   * Tests POST /transactions/lookup with unknown and repeated ids.
+   *
+   * <p>Partition: P2 (Valid) - Some unknown.
+   */
+  @Test
+  public void lookupTransactions_unknownIds_reportedOnceAsMissing() {
+    Transaction known = new Transaction(UUID.randomUUID(), 10.0, "FOOD", "Lunch");
+    known.setTransactionId(UUID.randomUUID());
+    UUID unknown = UUID.randomUUID();
+    List<UUID> ids = List.of(unknown, known.getTransactionId(), unknown);
+    when(mockApiService.getTransactions(ids))
+        .thenReturn(Map.of(known.getTransactionId(), known));
+
+    Map<String, Object> result =
+        routeController.lookupTransactions(new RouteController.IdLookup(ids));
+
+    assertEquals(Map.of(known.getTransactionId(), known), result.get("transactions"));
+    assertEquals(Set.of(unknown), result.get("missing"));
+  }
+
+  /**
+   * Tests POST /transactions/lookup when the service rejects the ids.
+   *
+   * <p>Partition: P3 (Invalid) - IllegalArgumentException propagates.
+   */
+  @Test
+  public void lookupTransactions_rejectedIds_throwsIllegalArgumentException() {
+    when(mockApiService.getTransactions(null))
+        .thenThrow(new IllegalArgumentException("ids are required"));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> routeController.lookupTransactions(new RouteController.IdLookup(null)));
+  }
+
+  // ===========================================================================
+  // Tests for budgetDashboard (POST /dashboard/budget-reports)
+  // ===========================================================================
+
+  /**
+   * Tests POST /dashboard/budget-reports returns the dashboard's result.
+   *
+   * <p>Partition: P1 (Valid) - Dashboard configured.
+   */
+  @Test
+  public void budgetDashboard_validIds_returnsDashboardResult() {
+    List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+    Map<String, Object> result = Map.of("reports", Map.of(), "complete", true);
+    when(budgetDashboard.reports(ids)).thenReturn(result);
+
+    assertEquals(result, routeController.budgetDashboard(new RouteController.IdLookup(ids)));
+  }
+
+  /**
+   * Tests POST /dashboard/budget-reports without a dashboard.
+   *
+   * <p>Partition: P2 (Invalid) - No dashboard configured.
+   */
+  @Test
+  public void budgetDashboard_notConfigured_throwsIllegalStateException() {
+    RouteController controller = new RouteController(mockApiService);
+
+    assertThrows(IllegalStateException.class, () -> controller.budgetDashboard(
+        new RouteController.IdLookup(List.of(UUID.randomUUID()))));
+  }
+
   // ===========================================================================
   // Tests for Exception Handlers
   // ===========================================================================
@@ -2627,4 +3005,21 @@ public class RouteControllerTests {
     assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     assertEquals("Invalid budget amount", response.getBody().get("error"));
   }
-}
\ No newline at end of file
+
+  /**
+   * Tests the exception handler for a database that cannot take more work.
+   *
+   * <p>Partition: handleUnavailable maps to 503 SERVICE_UNAVAILABLE.
+   */
+  @Test
+  public void handleUnavailable_returns503WithRetryAfter() {
+    DataAccessResourceFailureException ex =
+        new DataAccessResourceFailureException("Timed out waiting for a database connection");
+
+    ResponseEntity<Map<String, String>> response = routeController.handleUnavailable(ex);
+
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    assertNotNull(response.getBody().get("error"));
+  }
+}
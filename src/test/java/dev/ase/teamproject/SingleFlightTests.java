@@ -0,0 +1,149 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.ase.teamproject.controller.MetricsController;
+import dev.ase.teamproject.repository.InMemoryLedgerRepository;
+import dev.ase.teamproject.service.MockApiService;
+import dev.ase.teamproject.util.SingleFlight;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the SingleFlight class and its metrics.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>callers</b>: overlapping on one key (one computation, shared result),
+ *       on different keys (one computation each), sequential (no sharing)</li>
+ *   <li><b>computation</b>: returns (value shared), throws (exception shared,
+ *       key released)</li>
+ *   <li><b>metrics</b>: calls and shared calls exposed per operation</li>
+ * </ul>
+ */
+public class SingleFlightTests {
+
+  private final ExecutorService pool = Executors.newFixedThreadPool(8);
+  private final SingleFlight<String, Object> flight = new SingleFlight<>("test");
+
+  /**
+   * Stops the caller threads.
+   */
+  @AfterEach
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * Tests that overlapping callers for one key share a single computation.
+   */
+  @Test
+  public void run_overlappingCallers_shareOneComputation() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger computations = new AtomicInteger();
+    Object value = new Object();
+    List<Future<Object>> results = new ArrayList<>();
+    results.add(pool.submit(() -> flight.run("user", () -> {
+      computations.incrementAndGet();
+      started.countDown();
+      await(release);
+      return value;
+    })));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    for (int i = 0; i < 5; i++) {
+      results.add(pool.submit(() -> flight.run("user", () -> {
+        computations.incrementAndGet();
+        return new Object();
+      })));
+    }
+    while (flight.shared() < 5) {
+      Thread.onSpinWait();
+    }
+    release.countDown();
+
+    for (Future<Object> result : results) {
+      assertSame(value, result.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, computations.get());
+    assertEquals(6, flight.calls());
+    assertEquals(5, flight.shared());
+  }
+
+  /**
+   * Tests that different keys and sequential calls each compute their own value.
+   */
+  @Test
+  public void run_differentKeysOrSequential_computeSeparately() {
+    AtomicInteger computations = new AtomicInteger();
+
+    flight.run("a", computations::incrementAndGet);
+    flight.run("b", computations::incrementAndGet);
+    Object again = flight.run("a", computations::incrementAndGet);
+
+    assertEquals(3, again);
+    assertEquals(0, flight.shared());
+  }
+
+  /**
+   * Tests that an exception reaches every waiting caller and releases the key.
+   */
+  @Test
+  public void run_computationThrows_sharedAndKeyReleased() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    final Future<Object> leader = pool.submit(() -> flight.run("user", () -> {
+      started.countDown();
+      await(release);
+      throw new IllegalStateException("boom");
+    }));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    final Future<Object> follower = pool.submit(() -> flight.run("user", Object::new));
+    while (flight.shared() < 1) {
+      Thread.onSpinWait();
+    }
+    release.countDown();
+
+    for (Future<Object> result : List.of(leader, follower)) {
+      Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+    assertEquals("ok", flight.run("user", () -> "ok"));
+  }
+
+  /**
+   * Tests that the metrics endpoint reports the service's coalescing counters.
+   */
+  @Test
+  public void metrics_reportsCallsAndSharedPerOperation() {
+    MockApiService service = new MockApiService(new InMemoryLedgerRepository());
+    service.getBudgetReport(UUID.randomUUID());
+
+    String text = new MetricsController(service, null, null, null, null, null).metrics();
+
+    assertTrue(text.contains("# TYPE ledger_singleflight_calls_total counter\n"));
+    assertTrue(text.contains("ledger_singleflight_calls_total{operation=\"budget_report\"} 1\n"));
+    assertTrue(text.contains(
+        "ledger_singleflight_shared_total{operation=\"monthly_summary\"} 0\n"));
+  }
+
+  private static void await(final CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
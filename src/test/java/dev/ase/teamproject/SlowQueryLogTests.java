@@ -0,0 +1,265 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import dev.ase.teamproject.config.SqlMetricsConfig;
+import dev.ase.teamproject.controller.SlowQueryController;
+import dev.ase.teamproject.repository.AdaptiveLimit;
+import dev.ase.teamproject.repository.GatedDataSource;
+import dev.ase.teamproject.repository.JdbcLedgerRepository;
+import dev.ase.teamproject.repository.LimitedDataSource;
+import dev.ase.teamproject.repository.SlowQueryLog;
+import dev.ase.teamproject.repository.SqlMetrics;
+import dev.ase.teamproject.repository.TimedDataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Unit tests for the SlowQueryLog and SlowQueryController classes, the slow
+ * statements passed on by the TimedDataSource and the log built by the
+ * SqlMetricsConfig.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>duration</b>: under the threshold (not kept), over it (kept)</li>
+ *   <li><b>sampling</b>: sampled (plan captured in a rolled-back transaction),
+ *       not sampled, sampled while the explainer is busy</li>
+ *   <li><b>statement</b>: a SELECT (explained), a delete (never run again)</li>
+ *   <li><b>data source</b>: plain, under a full adaptive limit and gate (plan
+ *       still captured on the pool)</li>
+ *   <li><b>endpoint</b>: debugging off (not served), on (served)</li>
+ *   <li><b>parameters</b>: scalar values, an array, none</li>
+ *   <li><b>plan</b>: captured, EXPLAIN fails</li>
+ *   <li><b>buffer</b>: fewer entries than its capacity, more (oldest dropped)</li>
+ * </ul>
+ */
+public class SlowQueryLogTests {
+
+  private final DataSource target = mock(DataSource.class);
+  private final Connection connection = mock(Connection.class);
+  private final PreparedStatement prepared = mock(PreparedStatement.class);
+  private final ResultSet results = mock(ResultSet.class);
+  private final DataSource explainSource = mock(DataSource.class);
+  private final Connection explainConnection = mock(Connection.class);
+  private final PreparedStatement explain = mock(PreparedStatement.class);
+  private final ResultSet plan = mock(ResultSet.class);
+  private SlowQueryLog log;
+
+  /**
+   * Sets up a data source whose statements return no rows, and one whose
+   * EXPLAIN returns a two-line plan.
+   */
+  @BeforeEach
+  public void setUp() throws SQLException {
+    when(target.getConnection()).thenReturn(connection);
+    when(connection.prepareStatement(anyString())).thenReturn(prepared);
+    when(prepared.executeQuery()).thenReturn(results);
+    when(explainSource.getConnection()).thenReturn(explainConnection);
+    when(explainConnection.getAutoCommit()).thenReturn(true);
+    when(explainConnection.prepareStatement(anyString())).thenReturn(explain);
+    when(explain.executeQuery()).thenReturn(plan);
+    when(plan.next()).thenReturn(true, true, false);
+    when(plan.getString(1)).thenReturn("Index Scan using transactions_user_id_idx",
+        "Buffers: shared hit=4");
+  }
+
+  /**
+   * Stops the explainer thread.
+   */
+  @AfterEach
+  public void tearDown() {
+    if (log != null) {
+      log.close();
+    }
+  }
+
+  /**
+   * Tests that a slow statement is kept with its parameter types and that its
+   * plan is captured with the same parameters in a rolled-back transaction.
+   */
+  @Test
+  public void slowStatement_sampled_planCaptured() throws Exception {
+    log = new SlowQueryLog(explainSource, 0, 1, 8);
+    UUID userId = UUID.randomUUID();
+    LocalDate since = LocalDate.of(2026, 1, 1);
+    repository().findTransactionsSince(userId, since);
+
+    SlowQueryLog.Entry entry = awaitPlan(log.entries().get(0));
+    assertEquals("findTransactionsSince", entry.getQuery());
+    assertEquals("[UUID, LocalDate]", entry.getParameters());
+    assertEquals(0, entry.getRows());
+    assertTrue(entry.getSql().startsWith("SELECT * FROM transactions WHERE user_id = ?"));
+    assertEquals("Index Scan using transactions_user_id_idx\nBuffers: shared hit=4\n",
+        entry.getPlan());
+    verify(explainConnection).prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + entry.getSql());
+    verify(explain).setObject(1, userId);
+    verify(explain).setObject(2, since);
+    verify(explainConnection).setAutoCommit(false);
+    verify(explainConnection).rollback();
+    verify(explainConnection).setAutoCommit(true);
+    verify(explainConnection).close();
+  }
+
+  /**
+   * Tests that an array parameter is described by its size and recreated on
+   * the explaining connection.
+   */
+  @Test
+  public void slowStatement_arrayParameter_recreated() throws Exception {
+    log = new SlowQueryLog(explainSource, 0, 1, 8);
+    List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+    Array array = mock(Array.class);
+    when(connection.createArrayOf(eq("uuid"), any())).thenReturn(array);
+    when(prepared.getConnection()).thenReturn(connection);
+    when(array.getBaseTypeName()).thenReturn("uuid");
+    when(array.getArray()).thenReturn(ids.toArray());
+    repository().findUsers(ids);
+
+    SlowQueryLog.Entry entry = awaitPlan(log.entries().get(0));
+    assertEquals("[uuid[3]]", entry.getParameters());
+    verify(explainConnection).createArrayOf("uuid", ids.toArray());
+  }
+
+  /**
+   * Tests that fast statements are not kept and that unsampled ones are kept
+   * without running EXPLAIN.
+   */
+  @Test
+  public void thresholdAndSampling() throws Exception {
+    log = new SlowQueryLog(explainSource, 60_000, 1, 8);
+    repository().findTransactionsByUser(UUID.randomUUID());
+    assertTrue(log.entries().isEmpty());
+
+    log.close();
+    log = new SlowQueryLog(explainSource, 0, 0, 8);
+    repository().findTransactionsByUser(UUID.randomUUID());
+    assertEquals(SlowQueryLog.NOT_SAMPLED, log.entries().get(0).getPlan());
+    verify(explainSource, never()).getConnection();
+  }
+
+  /**
+   * Tests that a failing EXPLAIN is reported in place of the plan.
+   */
+  @Test
+  public void explainFails_reported() throws Exception {
+    log = new SlowQueryLog(explainSource, 0, 1, 8);
+    when(explain.executeQuery()).thenThrow(new SQLException("permission denied"));
+    repository().findTransactionsByUser(UUID.randomUUID());
+    assertEquals("(EXPLAIN failed: permission denied)",
+        awaitPlan(log.entries().get(0)).getPlan());
+    verify(explainConnection).rollback();
+  }
+
+  /**
+   * Tests that statements sampled while the explainer is busy get no plan, and
+   * that only the latest entries are kept, newest first.
+   */
+  @Test
+  public void busyExplainer_skipsAndRingBounded() throws Exception {
+    log = new SlowQueryLog(explainSource, 0, 1, 3);
+    CountDownLatch explaining = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(explain.executeQuery()).thenAnswer(invocation -> {
+      explaining.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return plan;
+    });
+    JdbcLedgerRepository repository = repository();
+    repository.findTransactionsByUser(UUID.randomUUID());
+    assertTrue(explaining.await(5, TimeUnit.SECONDS));
+    repository.findUser(UUID.randomUUID());
+    repository.findTransactionsSince(UUID.randomUUID(), LocalDate.now());
+    repository.findTransaction(UUID.randomUUID());
+
+    List<SlowQueryLog.Entry> entries = log.entries();
+    assertEquals(List.of("findTransaction", "findTransactionsSince", "findUser"),
+        entries.stream().map(SlowQueryLog.Entry::getQuery).toList());
+    assertEquals(SlowQueryLog.BUSY, entries.get(0).getPlan());
+    assertEquals(SlowQueryLog.BUSY, entries.get(1).getPlan());
+    release.countDown();
+    awaitPlan(entries.get(2));
+    assertEquals(1, new SlowQueryController(log).slowQueries("findTransaction").size());
+    assertEquals(3, new SlowQueryController(log).slowQueries(null).size());
+  }
+
+  /**
+   * Tests that a statement other than a SELECT is never run again to capture
+   * its plan.
+   */
+  @Test
+  public void slowStatement_notSelect_notExplained() throws Exception {
+    log = new SlowQueryLog(explainSource, 0, 1, 8);
+    repository().deleteTransaction(UUID.randomUUID());
+
+    assertEquals("deleteTransaction", log.entries().get(0).getQuery());
+    assertEquals(SlowQueryLog.NOT_SELECT, log.entries().get(0).getPlan());
+    verify(explainSource, never()).getConnection();
+  }
+
+  /**
+   * Tests that the configured log captures plans on the pool itself, so a full
+   * adaptive limit and gate do not hold them back.
+   */
+  @Test
+  public void configuredLog_explainsOutsideLimit() throws Exception {
+    DataSource limited = new LimitedDataSource(new GatedDataSource(explainSource, 1, 0, 0),
+        new AdaptiveLimit(1, 1, 1, 1000));
+    try (Connection held = limited.getConnection()) {
+      log = new SqlMetricsConfig().slowQueryLog(limited, 0, 1, 8);
+      repository().findTransactionsByUser(UUID.randomUUID());
+
+      assertEquals("Index Scan using transactions_user_id_idx\nBuffers: shared hit=4\n",
+          awaitPlan(log.entries().get(0)).getPlan());
+    }
+  }
+
+  /**
+   * Tests that the slow statements are served only when debugging is enabled.
+   */
+  @Test
+  public void slowQueryController_onlyWithDebug() {
+    ApplicationContextRunner runner = new ApplicationContextRunner()
+        .withBean(DataSource.class, () -> explainSource)
+        .withUserConfiguration(SqlMetricsConfig.class, SlowQueryController.class);
+    runner.run(context ->
+        assertEquals(0, context.getBeanNamesForType(SlowQueryController.class).length));
+    runner.withPropertyValues("ledger.jdbc.slow-query.debug.enabled=true").run(context ->
+        assertEquals(1, context.getBeanNamesForType(SlowQueryController.class).length));
+  }
+
+  private JdbcLedgerRepository repository() {
+    return new JdbcLedgerRepository(new JdbcTemplate(
+        new TimedDataSource(target, new SqlMetrics(false), log)));
+  }
+
+  private static SlowQueryLog.Entry awaitPlan(final SlowQueryLog.Entry entry)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (SlowQueryLog.PENDING.equals(entry.getPlan()) && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    return entry;
+  }
+}
@@ -0,0 +1,147 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.TransactionCategory;
+import dev.ase.teamproject.service.SpendingIndex;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the SpendingIndex class.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>range</b>: covers indexed days, falls between them, lies before the
+ *       first or after the last, single day, empty (from after to)</li>
+ *   <li><b>write date</b>: an indexed day (updated in place), after the last day
+ *       (appended), before an indexed day (tree rebuilt)</li>
+ *   <li><b>amount</b>: positive (counted), zero or negative (ignored)</li>
+ * </ul>
+ */
+public class SpendingIndexTests {
+
+  private static final LocalDate DAY = LocalDate.of(2026, 1, 15);
+
+  private final UUID userId = UUID.randomUUID();
+  private final List<Transaction> rows = new ArrayList<>();
+  private final AtomicInteger loads = new AtomicInteger();
+  private final Function<UUID, List<Transaction>> loader = id -> {
+    loads.incrementAndGet();
+    return new ArrayList<>(rows);
+  };
+
+  private SpendingIndex index;
+
+  /**
+   * Creates an index whose entries do not expire during a test.
+   */
+  @BeforeEach
+  public void setUp() {
+    index = new SpendingIndex(3600, 100);
+  }
+
+  /**
+   * Tests totals and per-category sums for ranges around the indexed days.
+   */
+  @Test
+  public void rangeCents_variousRanges_sumsDaysInRange() {
+    rows.add(transaction(DAY, "FOOD", 10.0));
+    rows.add(transaction(DAY.plusDays(3), "TRAVEL", 20.0));
+    rows.add(transaction(DAY.plusDays(3), "FOOD", 1.25));
+    rows.add(transaction(DAY.plusDays(10), "OTHER", 5.0));
+
+    long[] all = index.rangeCents(userId, DAY.minusDays(5), DAY.plusDays(20), loader);
+    assertEquals(3625, all[SpendingIndex.TOTAL]);
+    assertEquals(1125, all[TransactionCategory.FOOD.ordinal()]);
+    assertEquals(2000, all[TransactionCategory.TRAVEL.ordinal()]);
+
+    assertEquals(2125, index.rangeCents(userId, DAY.plusDays(1), DAY.plusDays(3), loader)[
+        SpendingIndex.TOTAL]);
+    assertEquals(0, index.rangeCents(userId, DAY.plusDays(4), DAY.plusDays(9), loader)[
+        SpendingIndex.TOTAL]);
+    assertEquals(0, index.rangeCents(userId, DAY.minusDays(9), DAY.minusDays(1), loader)[
+        SpendingIndex.TOTAL]);
+    assertEquals(0, index.rangeCents(userId, DAY.plusDays(3), DAY, loader)[
+        SpendingIndex.TOTAL]);
+    assertEquals(1, loads.get());
+  }
+
+  /**
+   * Tests writes on an indexed day, after the last day and before the first day.
+   */
+  @Test
+  public void write_warmIndex_updatesIncrementally() {
+    rows.add(transaction(DAY, "FOOD", 10.0));
+    rows.add(transaction(DAY.plusDays(2), "FOOD", 10.0));
+    index.rangeCents(userId, DAY, DAY, loader);
+
+    index.write(userId, () -> true,
+        (buckets, ignored) -> buckets.add(DAY, TransactionCategory.SHOPPING, 3.0));
+    index.write(userId, () -> true,
+        (buckets, ignored) -> buckets.add(DAY.plusDays(5), TransactionCategory.FOOD, 7.0));
+    index.write(userId, () -> true,
+        (buckets, ignored) -> buckets.add(DAY.minusDays(5), TransactionCategory.FOOD, 2.0));
+    index.write(userId, () -> true,
+        (buckets, ignored) -> buckets.remove(DAY.plusDays(2), TransactionCategory.FOOD, 10.0));
+    index.write(userId, () -> true,
+        (buckets, ignored) -> buckets.add(DAY.plusDays(1), TransactionCategory.FOOD, -4.0));
+
+    long[] all = index.rangeCents(userId, DAY.minusDays(10), DAY.plusDays(10), loader);
+    assertEquals(2200, all[SpendingIndex.TOTAL]);
+    assertEquals(300, all[TransactionCategory.SHOPPING.ordinal()]);
+    assertEquals(200, index.rangeCents(userId, DAY.minusDays(5), DAY.minusDays(5), loader)[
+        SpendingIndex.TOTAL]);
+    assertEquals(700, index.rangeCents(userId, DAY.plusDays(1), DAY.plusDays(5), loader)[
+        SpendingIndex.TOTAL]);
+    assertEquals(1, loads.get());
+  }
+
+  /**
+   * Tests that the index agrees with a linear scan over random rows and ranges,
+   * including days inserted out of order after loading.
+   */
+  @Test
+  public void rangeCents_randomRows_matchesScan() {
+    Random random = new Random(42);
+    String[] categories = TransactionCategory.NAMES.split(", ");
+    for (int i = 0; i < 300; i++) {
+      rows.add(transaction(DAY.plusDays(random.nextInt(200)),
+          categories[random.nextInt(categories.length)], 1 + random.nextInt(10000) / 100.0));
+    }
+    index.rangeCents(userId, DAY, DAY, loader);
+    for (int i = 0; i < 100; i++) {
+      Transaction extra = transaction(DAY.plusDays(random.nextInt(260) - 30),
+          categories[random.nextInt(categories.length)], 1 + random.nextInt(500) / 100.0);
+      rows.add(extra);
+      index.write(userId, () -> true, (buckets, ignored) ->
+          buckets.add(extra.getDate(), extra.categoryType(), extra.getAmount()));
+    }
+
+    for (int i = 0; i < 200; i++) {
+      LocalDate from = DAY.plusDays(random.nextInt(300) - 50);
+      LocalDate to = from.plusDays(random.nextInt(120));
+      assertArrayEquals(SpendingIndex.rangeCents(rows, from, to),
+          index.rangeCents(userId, from, to, loader));
+    }
+    assertEquals(1, loads.get());
+  }
+
+  private Transaction transaction(final LocalDate date, final String category,
+                                  final double amount) {
+    Transaction transaction = new Transaction(userId, amount, category, "test");
+    transaction.setTimestamp(LocalDateTime.of(date, LocalTime.NOON));
+    return transaction;
+  }
+}
@@ -0,0 +1,190 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.TransactionCategory;
+import dev.ase.teamproject.repository.LedgerRepository;
+import dev.ase.teamproject.service.SpendingPercentiles;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.DoubleSupplier;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * Unit tests for the SpendingPercentiles class.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>month</b>: not read yet (503 until its read finishes), read (ranked
+ *       from memory)</li>
+ *   <li><b>writes</b>: known amounts (totals adjusted without reading the store
+ *       again), unknown effect (the user's month read again), in progress while
+ *       the month is read (the user's month read again, the change not counted
+ *       twice)</li>
+ * </ul>
+ */
+public class SpendingPercentilesTests {
+
+  private static final UUID LOW = UUID.randomUUID();
+  private static final UUID MIDDLE = UUID.randomUUID();
+  private static final UUID HIGH = UUID.randomUUID();
+
+  private final LedgerRepository repository = mock(LedgerRepository.class);
+  private final YearMonth month = YearMonth.now();
+
+  /**
+   * Tests that a month whose read has not finished is refused as unavailable,
+   * and ranked once the read is done.
+   */
+  @Test
+  public void coldMonth_slowRead_throwsUntilRead() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      release.await();
+      feed(invocation.getArgument(2));
+      return null;
+    }).when(repository).forEachCategoryTotal(any(), any(), any());
+    SpendingPercentiles percentiles = new SpendingPercentiles(repository, 12, 0, 3600, 50);
+
+    assertThrows(DataAccessResourceFailureException.class,
+        () -> percentiles.ranks(month, 1, spend(25)));
+
+    release.countDown();
+    assertEquals(2.0 / 3, eventually(() -> rankOf(percentiles, 25), 2.0 / 3), 1e-12);
+    verify(repository, times(1)).forEachCategoryTotal(any(), any(), any());
+  }
+
+  /**
+   * Tests that added and removed amounts move a user's rank without reading the
+   * month from the store again.
+   */
+  @Test
+  public void writes_adjustTotals_withoutRescan() throws Exception {
+    doAnswer(invocation -> {
+      feed(invocation.getArgument(2));
+      return null;
+    }).when(repository).forEachCategoryTotal(any(), any(), any());
+    SpendingPercentiles percentiles = new SpendingPercentiles(repository, 12, 0, 3600, 5000);
+    assertEquals(2.0 / 3, rankOf(percentiles, 25), 1e-12);
+
+    percentiles.forUser(LOW).add(month.atDay(1), TransactionCategory.FOOD, 100.0);
+    assertEquals(1.0 / 3, eventually(() -> rankOf(percentiles, 25), 1.0 / 3), 1e-12);
+
+    percentiles.forUser(LOW).remove(month.atDay(1), TransactionCategory.FOOD, 100.0);
+    assertEquals(2.0 / 3, eventually(() -> rankOf(percentiles, 25), 2.0 / 3), 1e-12);
+    verify(repository, times(1)).forEachCategoryTotal(any(), any(), any());
+  }
+
+  /**
+   * Tests that a discarded month has the user's totals read again from the
+   * user's own transactions.
+   */
+  @Test
+  public void discard_rereadsUsersMonth() throws Exception {
+    doAnswer(invocation -> {
+      feed(invocation.getArgument(2));
+      return null;
+    }).when(repository).forEachCategoryTotal(any(), any(), any());
+    Transaction transaction = new Transaction(LOW, 5.0, "FOOD", "Lunch");
+    transaction.setDate(month.atDay(1));
+    when(repository.findTransactionsSince(eq(LOW), eq(month.atDay(1))))
+        .thenReturn(List.of(transaction));
+    SpendingPercentiles percentiles = new SpendingPercentiles(repository, 12, 0, 3600, 5000);
+    assertEquals(0.0, rankOf(percentiles, 7.5));
+
+    percentiles.forUser(LOW).discard(month.atDay(1));
+
+    assertEquals(1.0 / 3, eventually(() -> rankOf(percentiles, 7.5), 1.0 / 3), 1e-12);
+    verify(repository, times(1)).forEachCategoryTotal(any(), any(), any());
+  }
+
+  /**
+   * Tests that a write in progress while its month is read, and already seen by
+   * that read, is not applied again when it completes.
+   */
+  @Test
+  public void writeDuringRead_notCountedTwice() throws Exception {
+    doAnswer(invocation -> {
+      feed(invocation.getArgument(2));
+      return null;
+    }).when(repository).forEachCategoryTotal(any(), any(), any());
+    Transaction transaction = new Transaction(LOW, 10.0, "FOOD", "Lunch");
+    transaction.setDate(month.atDay(1));
+    when(repository.findTransactionsSince(eq(LOW), eq(month.atDay(1))))
+        .thenReturn(List.of(transaction));
+    SpendingPercentiles percentiles = new SpendingPercentiles(repository, 12, 0, 3600, 5000);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    // The store already holds LOW's 10.0 after removing 100.0 when the month is read
+    Thread writer = new Thread(() -> percentiles.write(LOW, () -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return true;
+    }, (buckets, deleted) -> buckets.remove(month.atDay(1), TransactionCategory.FOOD, 100.0)));
+    writer.start();
+    started.await();
+
+    assertEquals(2.0 / 3, rankOf(percentiles, 25), 1e-12);
+    release.countDown();
+    writer.join();
+
+    verify(repository, timeout(2000).atLeast(2)).findTransactionsSince(eq(LOW), any());
+    assertEquals(2.0 / 3, rankOf(percentiles, 25), 1e-12);
+    verify(repository, times(1)).forEachCategoryTotal(any(), any(), any());
+  }
+
+  private static void feed(final LedgerRepository.CategoryTotalConsumer consumer) {
+    consumer.accept(LOW, TransactionCategory.FOOD, 10.0);
+    consumer.accept(MIDDLE, TransactionCategory.FOOD, 20.0);
+    consumer.accept(HIGH, TransactionCategory.FOOD, 30.0);
+  }
+
+  private double rankOf(final SpendingPercentiles percentiles, final double food) {
+    return percentiles.ranks(month, 1, spend(food))[TransactionCategory.FOOD.ordinal()];
+  }
+
+  private static double[] spend(final double food) {
+    double[] spend = new double[TransactionCategory.COUNT];
+    spend[TransactionCategory.FOOD.ordinal()] = food;
+    return spend;
+  }
+
+  /**
+   * Polls a value until it reaches the expected one, as the sorted totals are rebuilt
+   * in the background, and returns the last value seen.
+   */
+  private static double eventually(final DoubleSupplier value, final double expected)
+      throws InterruptedException {
+    double seen = Double.NaN;
+    for (int attempt = 0; attempt < 200; attempt++) {
+      try {
+        seen = value.getAsDouble();
+      } catch (DataAccessResourceFailureException e) {
+        seen = Double.NaN;
+      }
+      if (Math.abs(seen - expected) < 1e-12) {
+        return seen;
+      }
+      Thread.sleep(10);
+    }
+    return seen;
+  }
+}
@@ -0,0 +1,178 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import dev.ase.teamproject.controller.MetricsController;
+import dev.ase.teamproject.controller.SqlSummaryAdvice;
+import dev.ase.teamproject.repository.InMemoryLedgerRepository;
+import dev.ase.teamproject.repository.JdbcLedgerRepository;
+import dev.ase.teamproject.repository.SqlMetrics;
+import dev.ase.teamproject.repository.TimedDataSource;
+import dev.ase.teamproject.service.MockApiService;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Unit tests for the SqlMetrics, TimedDataSource and SqlSummaryAdvice classes.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>statement</b>: prepared query, plain query, update, failing query</li>
+ *   <li><b>rows</b>: read from a result set, changed by an update, none</li>
+ *   <li><b>query name</b>: the repository method that ran the statement</li>
+ *   <li><b>summary</b>: enabled on a request thread (header set), disabled,
+ *       enabled off a request thread (nothing kept)</li>
+ * </ul>
+ */
+public class SqlMetricsTests {
+
+  private final DataSource target = mock(DataSource.class);
+  private final Connection connection = mock(Connection.class);
+  private final PreparedStatement prepared = mock(PreparedStatement.class);
+  private final Statement plain = mock(Statement.class);
+  private final ResultSet results = mock(ResultSet.class);
+
+  /**
+   * Sets up a data source whose statements return two rows.
+   */
+  @BeforeEach
+  public void setUp() throws SQLException {
+    when(target.getConnection()).thenReturn(connection);
+    when(connection.prepareStatement(anyString())).thenReturn(prepared);
+    when(connection.createStatement()).thenReturn(plain);
+    when(prepared.executeQuery()).thenReturn(results);
+    when(plain.executeQuery(anyString())).thenReturn(results);
+    when(results.next()).thenReturn(true, true, false, true, true, false);
+  }
+
+  /**
+   * Clears the request bound by the summary tests.
+   */
+  @AfterEach
+  public void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  /**
+   * Tests that statements are recorded under the repository method that ran
+   * them, with the rows they read or changed, and that connections are closed.
+   */
+  @Test
+  public void statements_recordedPerQuery() throws SQLException {
+    SqlMetrics metrics = new SqlMetrics(false);
+    JdbcLedgerRepository repository =
+        new JdbcLedgerRepository(new JdbcTemplate(new TimedDataSource(target, metrics, null)));
+    when(prepared.executeUpdate()).thenReturn(1);
+
+    assertEquals(2, repository.findTransactionsByUser(UUID.randomUUID()).size());
+    assertEquals(2, repository.findAllUsers().size());
+    assertTrue(repository.deleteUser(UUID.randomUUID()));
+    assertTrue(repository.deleteUser(UUID.randomUUID()));
+
+    Map<String, SqlMetrics.Query> queries = metrics.queries().stream()
+        .collect(Collectors.toMap(SqlMetrics.Query::getName, query -> query));
+    assertEquals(List.of("deleteUser", "findAllUsers", "findTransactionsByUser"),
+        metrics.queries().stream().map(SqlMetrics.Query::getName).toList());
+    assertEquals(2, queries.get("findTransactionsByUser").getRows());
+    assertEquals(2, queries.get("findAllUsers").getRows());
+    assertEquals(2, queries.get("deleteUser").getRows());
+    assertEquals(2, count(queries.get("deleteUser")));
+    assertEquals(4, metrics.acquireWait().cumulativeCounts(new long[0])[0]);
+    verify(prepared, times(3)).close();
+    verify(connection, times(4)).close();
+
+    String text = new MetricsController(new MockApiService(new InMemoryLedgerRepository()),
+        null, null, null, null, metrics).metrics();
+    assertTrue(text.contains("ledger_db_query_duration_seconds_count{query=\"deleteUser\"} 2\n"));
+    assertTrue(text.contains("ledger_db_query_rows_total{query=\"findAllUsers\"} 2\n"));
+    assertTrue(text.contains("ledger_db_connection_acquire_seconds_bucket{le=\"+Inf\"} 4\n"));
+    assertTrue(text.contains("ledger_db_connection_acquire_seconds_count 4\n"));
+  }
+
+  /**
+   * Tests that a failing statement is still timed, with no rows.
+   */
+  @Test
+  public void failingStatement_recordedWithoutRows() throws SQLException {
+    SqlMetrics metrics = new SqlMetrics(false);
+    JdbcLedgerRepository repository =
+        new JdbcLedgerRepository(new JdbcTemplate(new TimedDataSource(target, metrics, null)));
+    when(prepared.executeQuery()).thenThrow(new SQLException("timeout"));
+
+    assertThrows(RuntimeException.class, () -> repository.findUser(UUID.randomUUID()));
+    SqlMetrics.Query query = metrics.queries().get(0);
+    assertEquals("findUser", query.getName());
+    assertEquals(1, count(query));
+    assertEquals(0, query.getRows());
+  }
+
+  /**
+   * Tests that with summaries enabled a request's statements are added up and
+   * the advice puts them in the response header.
+   */
+  @Test
+  public void summary_onRequest_addedToHeader() throws IOException {
+    SqlMetrics metrics = new SqlMetrics(true);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users");
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    JdbcLedgerRepository repository =
+        new JdbcLedgerRepository(new JdbcTemplate(new TimedDataSource(target, metrics, null)));
+
+    repository.findAllUsers();
+    repository.findTransactionsByUser(UUID.randomUUID());
+    assertEquals(2, metrics.summary().orElseThrow().getStatements());
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+    new SqlSummaryAdvice(metrics).beforeBodyWrite("body", null, null, null,
+        new ServletServerHttpRequest(request), serverResponse);
+    serverResponse.flush();
+    assertTrue(response.getHeader(SqlSummaryAdvice.HEADER).matches(
+        "statements=2; time=[0-9.]+ms; rows=4; acquire=[0-9.]+ms"),
+        response.getHeader(SqlSummaryAdvice.HEADER));
+  }
+
+  /**
+   * Tests that nothing is added up when summaries are disabled or there is no
+   * request.
+   */
+  @Test
+  public void summary_disabledOrNoRequest_empty() {
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+    assertFalse(new SqlMetrics(false).summary().isPresent());
+    RequestContextHolder.resetRequestAttributes();
+    assertFalse(new SqlMetrics(true).summary().isPresent());
+  }
+
+  private static long count(final SqlMetrics.Query query) {
+    return query.getLatency().cumulativeCounts(new long[0])[0];
+  }
+}
@@ -0,0 +1,185 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.ase.teamproject.config.TracingConfig;
+import dev.ase.teamproject.controller.TraceController;
+import dev.ase.teamproject.filter.LoggerFilter;
+import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.repository.InMemoryLedgerRepository;
+import dev.ase.teamproject.repository.LedgerRepository;
+import dev.ase.teamproject.service.MockApiService;
+import dev.ase.teamproject.util.AsyncLog;
+import dev.ase.teamproject.util.Tracer;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for the Tracer, TracingConfig and TraceController classes and
+ * the tracing done by the LoggerFilter.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>sampling</b>: sampled, not sampled, forced with the header (only
+ *       with debugging enabled)</li>
+ *   <li><b>spans</b>: nested, recorded after the fact, beyond the limit,
+ *       outside a trace</li>
+ *   <li><b>buffer</b>: fewer traces than its capacity, more (oldest dropped)</li>
+ *   <li><b>query</b>: all, by identifier, by minimum duration</li>
+ *   <li><b>endpoint</b>: debugging disabled (absent, the default), enabled</li>
+ * </ul>
+ */
+public class TracerTests {
+
+  /**
+   * Tests that nested and recorded spans keep their order and depth.
+   */
+  @Test
+  public void spans_nestedInOrder() {
+    Tracer tracer = new Tracer(1, true, 4, 16);
+    final Tracer.Trace trace = tracer.start(42, "GET", "/users/x", false);
+    assertTrue(Tracer.isTracing());
+    try (Tracer.Span outer = Tracer.span("outer")) {
+      try (Tracer.Span inner = Tracer.span("inner")) {
+        long start = System.nanoTime();
+        Tracer.record("statement", start, System.nanoTime());
+      }
+    }
+    Tracer.span("last").close();
+    tracer.finish(trace, 200);
+    assertFalse(Tracer.isTracing());
+
+    List<Tracer.Span> spans = trace.getSpans();
+    assertEquals(List.of("outer", "inner", "statement", "last"),
+        spans.stream().map(Tracer.Span::getName).toList());
+    assertEquals(List.of(0, 1, 2, 0), spans.stream().map(Tracer.Span::getDepth).toList());
+    assertEquals("000000000000002a", trace.getTraceId());
+    assertEquals(200, trace.getStatus());
+    assertTrue(spans.stream().allMatch(span -> span.getDurationMicros() >= 0));
+  }
+
+  /**
+   * Tests that unsampled requests and threads without a trace record nothing,
+   * and that a forced request is traced.
+   */
+  @Test
+  public void start_sampling() {
+    Tracer tracer = new Tracer(0, true, 4, 16);
+    assertNull(tracer.start(1, "GET", "/", false));
+    assertFalse(Tracer.isTracing());
+    Tracer.span("ignored").close();
+    Tracer.record("ignored", 0, 1);
+    Tracer.Trace forced = tracer.start(2, "GET", "/", true);
+    assertNotNull(forced);
+    tracer.finish(forced, 200);
+    tracer.finish(null, 200);
+    assertEquals(1, tracer.recent(10).size());
+  }
+
+  /**
+   * Tests that the traces are only served with debugging enabled.
+   */
+  @Test
+  public void traceController_onlyWithDebug() {
+    ApplicationContextRunner runner = new ApplicationContextRunner()
+        .withPropertyValues("ledger.trace.enabled=true")
+        .withUserConfiguration(TracingConfig.class, TraceController.class);
+    runner.run(context ->
+        assertEquals(0, context.getBeanNamesForType(TraceController.class).length));
+    runner.withPropertyValues("ledger.trace.debug.enabled=true").run(context ->
+        assertEquals(1, context.getBeanNamesForType(TraceController.class).length));
+  }
+
+  /**
+   * Tests that a request cannot force its trace unless debugging is enabled.
+   */
+  @Test
+  public void start_forceWithoutDebug_ignored() {
+    Tracer tracer = new Tracer(0, false, 4, 16);
+    assertNull(tracer.start(1, "GET", "/", true));
+    assertFalse(Tracer.isTracing());
+    assertTrue(tracer.recent(10).isEmpty());
+  }
+
+  /**
+   * Tests that the buffer keeps only the latest traces and that spans past
+   * the limit are counted.
+   */
+  @Test
+  public void recent_boundedNewestFirst() {
+    Tracer tracer = new Tracer(1, true, 3, 2);
+    for (int i = 1; i <= 5; i++) {
+      Tracer.Trace trace = tracer.start(i, "GET", "/" + i, false);
+      for (int s = 0; s < 3; s++) {
+        Tracer.span("span").close();
+      }
+      tracer.finish(trace, 200);
+    }
+    List<Tracer.Trace> recent = tracer.recent(10);
+    assertEquals(List.of("/5", "/4", "/3"),
+        recent.stream().map(Tracer.Trace::getUri).collect(Collectors.toList()));
+    assertEquals(2, recent.get(0).getSpans().size());
+    assertEquals(1, recent.get(0).getDroppedSpans());
+    assertEquals(1, new TraceController(tracer).traces(50, Tracer.hex(4), 0).size());
+    assertEquals(2, new TraceController(tracer).traces(2, null, 0).size());
+    assertEquals(0, new TraceController(tracer).traces(50, null, 60_000).size());
+  }
+
+  /**
+   * Tests that a request traced through the filter has spans for the service
+   * and repository calls, that its trace identifier is in the response and on
+   * its log line, and that an untraced request still gets an identifier.
+   */
+  @Test
+  public void loggerFilter_tracesServiceAndRepository() throws Exception {
+    BeanPostProcessor proxies = TracingConfig.tracingProxies();
+    InMemoryLedgerRepository store = new InMemoryLedgerRepository();
+    LedgerRepository repository = (LedgerRepository)
+        proxies.postProcessAfterInitialization(store, "repository");
+    MockApiService service = (MockApiService)
+        proxies.postProcessAfterInitialization(new MockApiService(repository), "service");
+    User user = new User();
+    user.setUsername("traced");
+    user.setEmail("traced@example.com");
+    UUID userId = service.addUser(user).getUserId();
+
+    Tracer tracer = new Tracer(0, true, 8, 64);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MockHttpServletResponse traced = new MockHttpServletResponse();
+    MockHttpServletResponse untraced = new MockHttpServletResponse();
+    try (AsyncLog log = new AsyncLog(out, false, 16, 1)) {
+      LoggerFilter filter = new LoggerFilter(log, null, tracer);
+      MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/" + userId);
+      request.addHeader(LoggerFilter.TRACE_HEADER, "true");
+      filter.doFilter(request, traced, (req, res) -> service.getBudgetReport(userId));
+      filter.doFilter(new MockHttpServletRequest("GET", "/users"), untraced,
+          (req, res) -> service.viewAllUsers());
+    }
+
+    List<Tracer.Trace> traces = tracer.recent(10);
+    assertEquals(1, traces.size());
+    Tracer.Trace trace = traces.get(0);
+    assertEquals(traced.getHeader(LoggerFilter.TRACE_ID_HEADER), trace.getTraceId());
+    List<String> names = trace.getSpans().stream().map(Tracer.Span::getName).toList();
+    assertEquals("MockApiService.getBudgetReport", names.get(0));
+    assertTrue(names.contains("LedgerRepository.findUser"), names.toString());
+    assertTrue(trace.getSpans().stream().skip(1).allMatch(span -> span.getDepth() >= 1));
+
+    assertNotNull(untraced.getHeader(LoggerFilter.TRACE_ID_HEADER));
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertTrue(lines[0].endsWith(" | trace=" + trace.getTraceId()), lines[0]);
+    assertTrue(lines[1].endsWith(" | trace=" + untraced.getHeader(LoggerFilter.TRACE_ID_HEADER)));
+  }
+}
@@ -0,0 +1,82 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.TransactionCategory;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the TransactionCategory enum and its use in Transaction.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>name</b>:
+ *     <ul>
+ *       <li>Valid: Exact upper-case name of a category</li>
+ *       <li>Valid (parse only): Name in another case</li>
+ *       <li>Invalid: Unknown name, empty string, null</li>
+ *     </ul>
+ *   </li>
+ *   <li><b>ordinal</b>: matches the order of the {@code transaction_category} type</li>
+ * </ul>
+ */
+public class TransactionCategoryUnitTests {
+
+  /**
+   * Tests that the ordinals follow the database enum declaration order.
+   */
+  @Test
+  public void ordinals_matchDatabaseTypeOrder() {
+    String[] databaseOrder = {"FOOD", "TRANSPORTATION", "ENTERTAINMENT", "UTILITIES",
+        "SHOPPING", "HEALTHCARE", "TRAVEL", "EDUCATION", "OTHER"};
+
+    assertEquals(databaseOrder.length, TransactionCategory.COUNT);
+    assertEquals(TransactionCategory.values().length, TransactionCategory.COUNT);
+    for (int i = 0; i < databaseOrder.length; i++) {
+      assertEquals(databaseOrder[i], TransactionCategory.of(i).name());
+      assertEquals(TransactionCategory.of(i), TransactionCategory.fromName(databaseOrder[i]));
+    }
+    assertEquals(String.join(", ", databaseOrder), TransactionCategory.NAMES);
+  }
+
+  /**
+   * Tests that fromName is case-sensitive like the database type.
+   */
+  @Test
+  public void fromName_otherCaseOrUnknown_returnsNull() {
+    assertNull(TransactionCategory.fromName("food"));
+    assertNull(TransactionCategory.fromName("GROCERIES"));
+    assertNull(TransactionCategory.fromName(""));
+    assertNull(TransactionCategory.fromName(null));
+  }
+
+  /**
+   * Tests that parse ignores case but still rejects unknown names.
+   */
+  @Test
+  public void parse_anyCase_resolvesKnownNames() {
+    assertEquals(TransactionCategory.FOOD, TransactionCategory.parse("food"));
+    assertEquals(TransactionCategory.HEALTHCARE, TransactionCategory.parse("HealthCare"));
+    assertEquals(TransactionCategory.OTHER, TransactionCategory.parse("OTHER"));
+    assertNull(TransactionCategory.parse("not a category"));
+    assertNull(TransactionCategory.parse(null));
+  }
+
+  /**
+   * Tests that a Transaction resolves its category type from the constructor and setter.
+   */
+  @Test
+  public void transaction_categoryType_followsCategoryString() {
+    Transaction transaction = new Transaction(null, 1.0, "TRAVEL", "Train");
+    assertEquals(TransactionCategory.TRAVEL, transaction.categoryType());
+
+    transaction.setCategory("EDUCATION");
+    assertEquals(TransactionCategory.EDUCATION, transaction.categoryType());
+
+    transaction.setCategory("Custom");
+    assertEquals("Custom", transaction.getCategory());
+    assertNull(transaction.categoryType());
+  }
+}
@@ -0,0 +1,173 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.ase.teamproject.util.UuidMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the UuidMap class.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>key</b>: absent, present, removed, keys that collide in their home slot</li>
+ *   <li><b>conditional writes</b>: putIfAbsent, computeIfAbsent and remove(key, value)
+ *       with and without a matching entry</li>
+ *   <li><b>size</b>: within the initial capacity, growing through many resizes</li>
+ *   <li><b>access</b>: single thread, concurrent writers and readers</li>
+ * </ul>
+ */
+public class UuidMapTests {
+
+  /**
+   * Tests the basic operations on present and absent keys.
+   */
+  @Test
+  public void putGetRemove_singleKey() {
+    UuidMap<String> map = new UuidMap<>();
+    UUID key = UUID.randomUUID();
+
+    assertNull(map.get(key));
+    assertNull(map.put(key, "a"));
+    assertEquals("a", map.get(key));
+    assertEquals("a", map.get(key.getMostSignificantBits(), key.getLeastSignificantBits()));
+    assertEquals("a", map.put(key, "b"));
+    assertEquals(1, map.size());
+    assertTrue(map.containsKey(key));
+    assertEquals("b", map.remove(key));
+    assertNull(map.remove(key));
+    assertFalse(map.containsKey(key));
+    assertEquals(0, map.size());
+  }
+
+  /**
+   * Tests the conditional writes.
+   */
+  @Test
+  public void conditionalWrites_onlyApplyWhenExpected() {
+    UuidMap<String> map = new UuidMap<>();
+    UUID key = UUID.randomUUID();
+    String first = new String("first");
+
+    assertNull(map.putIfAbsent(key, first));
+    assertSame(first, map.putIfAbsent(key, "second"));
+    assertSame(first, map.computeIfAbsent(key, id -> "third"));
+    assertFalse(map.remove(key, new String("first")));
+    assertTrue(map.remove(key, first));
+    assertNull(map.computeIfAbsent(key, id -> null));
+    assertEquals(0, map.size());
+    assertEquals(key.toString(), map.computeIfAbsent(key, UUID::toString));
+  }
+
+  /**
+   * Tests that keys sharing a home slot are all found, and still found after
+   * removing others from the middle of their probe run.
+   */
+  @Test
+  public void collidingKeys_surviveRemovalsFromTheirRun() {
+    UuidMap<Integer> map = new UuidMap<>();
+    // Keys differing only in the top bits of the most significant half
+    List<UUID> keys = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      keys.add(new UUID((long) i << 60, 42L));
+      map.put(keys.get(i), i);
+    }
+
+    map.remove(keys.get(1));
+    map.remove(keys.get(3));
+
+    for (int i = 0; i < 6; i++) {
+      assertEquals(i == 1 || i == 3 ? null : i, map.get(keys.get(i)));
+    }
+    assertEquals(4, map.size());
+  }
+
+  /**
+   * Tests a long random sequence of writes against a HashMap, through many resizes.
+   */
+  @Test
+  public void randomOperations_matchHashMap() {
+    Random random = new Random(11);
+    UuidMap<Integer> map = new UuidMap<>();
+    Map<UUID, Integer> expected = new HashMap<>();
+    List<UUID> keys = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      keys.add(new UUID(random.nextLong(), random.nextLong()));
+    }
+
+    for (int step = 0; step < 200_000; step++) {
+      UUID key = keys.get(random.nextInt(keys.size()));
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key), map.remove(key));
+      } else {
+        assertEquals(expected.put(key, step), map.put(key, step));
+      }
+    }
+
+    assertEquals(expected.size(), map.size());
+    assertEquals(expected.size(), map.values().size());
+    for (UUID key : keys) {
+      assertEquals(expected.get(key), map.get(key));
+    }
+    map.removeIf(value -> value % 2 == 0);
+    expected.values().removeIf(value -> value % 2 == 0);
+    assertEquals(expected.size(), map.size());
+    for (UUID key : keys) {
+      assertEquals(expected.get(key), map.get(key));
+    }
+  }
+
+  /**
+   * Tests that readers always see a written key while other threads fill and
+   * empty the map.
+   */
+  @Test
+  public void concurrentWriters_readersSeeStableKeys() throws Exception {
+    UuidMap<Integer> map = new UuidMap<>();
+    List<UUID> stable = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      stable.add(UUID.randomUUID());
+      map.put(stable.get(i), i);
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 2; t++) {
+        futures.add(pool.submit(() -> {
+          for (int i = 0; i < 50_000; i++) {
+            UUID key = UUID.randomUUID();
+            map.put(key, -1);
+            map.remove(key);
+          }
+        }));
+        futures.add(pool.submit(() -> {
+          for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < stable.size(); i++) {
+              assertEquals(i, map.get(stable.get(i)));
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    assertEquals(stable.size(), map.size());
+  }
+}
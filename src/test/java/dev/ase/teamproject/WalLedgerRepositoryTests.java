@@ -0,0 +1,320 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.User;
+import dev.ase.teamproject.repository.WalLedgerRepository;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the {@link WalLedgerRepository} class.
+ *
+ * <p>Service-level behavior is covered by {@code MockApiServiceWalTests}; these
+ * tests close and reopen the store to check that the log rebuilds it.
+ *
+ * <h2>Equivalence Partitions</h2>
+ * <ul>
+ *   <li>P1: (Valid) Every acknowledged mutation survives a restart</li>
+ *   <li>P2: (Valid) Generated IDs, timestamps and ordering survive a restart</li>
+ *   <li>P3: (Invalid/Boundary) A torn record at the end of the log is discarded</li>
+ *   <li>P4: (Valid) Concurrent writers sharing group commits are all recovered</li>
+ *   <li>P5: (Valid/Boundary) Opening a missing log starts an empty store</li>
+ *   <li>P6: (Valid) A snapshot plus the log after it restores the full state</li>
+ *   <li>P7: (Valid) Writes made while a snapshot is taken are not lost</li>
+ *   <li>P8: (Invalid) A corrupt snapshot is rejected rather than silently ignored</li>
+ * </ul>
+ */
+public class WalLedgerRepositoryTests {
+
+  @TempDir
+  private Path directory;
+
+  private Path storeDir() {
+    return directory.resolve("ledger");
+  }
+
+  private List<Path> filesMatching(final String glob) throws IOException {
+    final List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(storeDir(), glob)) {
+      stream.forEach(files::add);
+    }
+    return files;
+  }
+
+  /**
+   * Tests that inserts, updates and deletes are all replayed.
+   *
+   * <p>Partition: P1 (Valid).
+   */
+  @Test
+  public void reopen_afterMutations_restoresState() throws IOException {
+    final UUID keptUser;
+    final UUID deletedUser;
+    final UUID updatedTx;
+    final UUID deletedTx;
+    try (WalLedgerRepository store = new WalLedgerRepository(storeDir(), true)) {
+      keptUser = store.insertUser(new User("alice", "alice@example.com", 100.0)).getUserId();
+      deletedUser = store.insertUser(new User("bob", "bob@example.com", 50.0)).getUserId();
+      store.insertTransaction(new Transaction(deletedUser, 3.0, "FOOD", "gone with bob"));
+      updatedTx = store.insertTransaction(
+          new Transaction(keptUser, 10.0, "FOOD", "lunch")).getTransactionId();
+      deletedTx = store.insertTransaction(
+          new Transaction(keptUser, 20.0, "TRAVEL", "bus")).getTransactionId();
+
+      store.updateBudget(keptUser, 250.0);
+      store.updateTransaction(updatedTx, new Transaction(keptUser, 12.5, "SHOPPING", "gift"));
+      store.deleteTransaction(deletedTx);
+      store.deleteUser(deletedUser);
+    }
+
+    try (WalLedgerRepository store = new WalLedgerRepository(storeDir(), true)) {
+      assertEquals(1, store.findAllUsers().size());
+      assertEquals(250.0, store.findUser(keptUser).get().getBudget());
+      assertFalse(store.findUser(deletedUser).isPresent());
+      assertFalse(store.findTransaction(deletedTx).isPresent());
+      assertEquals(1, store.findAllTransactions().size());
+
+      final Transaction updated = store.findTransaction(updatedTx).get();
+      assertEquals(12.5, updated.getAmount());
+      assertEquals("SHOPPING", updated.getCategory());
+      assertEquals("gift", updated.getDescription());
+
+      // Unique keys of the deleted user are free again, those of the kept user are not
+      assertFalse(store.existsByUsername("bob", null));
+      assertTrue(store.existsByEmail("alice@example.com", null));
+    }
+  }
+
+  /**
+   * Tests that IDs, timestamps and most-recent-first order are preserved.
+   *
+   * <p>Partition: P2 (Valid).
+   */
+  @Test
+  public void reopen_transactions_keepIdsTimestampsAndOrder() throws IOException {
+    final List<Transaction> before;
+    final UUID userId;
+    try (WalLedgerRepository store = new WalLedgerRepository(storeDir(), false)) {
+      userId = store.insertUser(new User("alice", "alice@example.com", 100.0)).getUserId();
+      for (int i = 0; i < 10; i++) {
+        store.insertTransaction(new Transaction(userId, i + 0.25, "OTHER", "tx" + i));
+      }
+      before = store.findTransactionsByUser(userId);
+    }
+
+    try (WalLedgerRepository store = new WalLedgerRepository(storeDir(), false)) {
+      final List<Transaction> after = store.findTransactionsByUser(userId);
+      assertEquals(before.size(), after.size());
+      for (int i = 0; i < before.size(); i++) {
+        assertEquals(before.get(i).getTransactionId(), after.get(i).getTransactionId());
+        assertEquals(before.get(i).getTimestamp(), after.get(i).getTimestamp());
+        assertEquals(before.get(i).getDate(), after.get(i).getDate());
+        assertEquals(before.get(i).getAmount(), after.get(i).getAmount());
+      }
+
+      // New timestamps continue after the replayed ones
+      final Transaction next = store.insertTransaction(
+          new Transaction(userId, 1.0, "OTHER", "next"));
+      assertTrue(next.getTimestamp().isAfter(before.get(0).getTimestamp()));
+    }
+  }
+
+  /**
+   * Tests that a partially written final record is dropped and appends continue.
+   *
+   * <p>Partition: P3 (Invalid/Boundary).
+   */
+  @Test
+  public void reopen_tornTail_truncatesAndContinues() throws IOException {
+    final UUID userId;
+    try (WalLedgerRepository store = new WalLedgerRepository(storeDir(), true)) {
+      userId = store.insertUser(new User("alice", "alice@example.com", 100.0)).getUserId();
+      store.insertTransaction(new Transaction(userId, 5.0, "FOOD", "kept"));
+    }
+    final Path segment = filesMatching("*.log").get(0);
+    final long intact = Files.size(segment);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2, 3}));
+    }
+
+    try (WalLedgerRepository store = new WalLedgerRepository(storeDir(), true)) {
+      assertEquals(intact, Files.size(segment));
+      assertEquals(1, store.findTransactionsByUser(userId).size());
+      store.insertTransaction(new Transaction(userId, 6.0, "FOOD", "after crash"));
+    }
+
+    try (WalLedgerRepository store = new WalLedgerRepository(storeDir(), true)) {
+      assertEquals(11.0, store.sumSpentSince(userId, LocalDate.now()));
+    }
+  }
+
+  /**
+   * Tests that concurrent writers are all durable and recovered.
+   *
+   * <p>Partition: P4 (Valid).
+   */
+  @Test
+  public void reopen_concurrentWriters_allRecovered() throws Exception {
+    final List<UUID> users = new ArrayList<>();
+    try (WalLedgerRepository store = new WalLedgerRepository(storeDir(), true)) {
+      for (int i = 0; i < 8; i++) {
+        users.add(store.insertUser(
+            new User("user" + i, "user" + i + "@example.com", 10.0)).getUserId());
+      }
+      final ExecutorService pool = Executors.newFixedThreadPool(8);
+      try {
+        final List<Future<?>> futures = new ArrayList<>();
+        for (final UUID id : users) {
+          futures.add(pool.submit(() -> {
+            for (int j = 0; j < 50; j++) {
+              store.insertTransaction(new Transaction(id, 2.0, "OTHER", "t" + j));
+            }
+          }));
+        }
+        for (final Future<?> future : futures) {
+          future.get();
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+
+    try (WalLedgerRepository store = new WalLedgerRepository(storeDir(), true)) {
+      assertEquals(400, store.findAllTransactions().size());
+      for (final UUID id : users) {
+        assertEquals(100.0, store.sumSpentSince(id, LocalDate.now()));
+      }
+    }
+  }
+
+  /**
+   * Tests that a missing log file and directory give an empty store.
+   *
+   * <p>Partition: P5 (Valid/Boundary).
+   */
+  @Test
+  public void open_missingLog_startsEmpty() throws IOException {
+    final Path nested = directory.resolve("a").resolve("b").resolve("ledger");
+    try (WalLedgerRepository store = new WalLedgerRepository(nested, true)) {
+      assertTrue(store.findAllUsers().isEmpty());
+      assertTrue(Files.exists(nested));
+    }
+  }
+
+  /**
+   * Tests that a checkpoint replaces the covered log and that reopening loads the
+   * snapshot and replays only the later records.
+   *
+   * <p>Partition: P6 (Valid).
+   */
+  @Test
+  public void reopen_afterCheckpoint_loadsSnapshotAndTail() throws IOException {
+    final UUID userId;
+    final UUID updatedTx;
+    try (WalLedgerRepository store = new WalLedgerRepository(storeDir(), true)) {
+      userId = store.insertUser(new User("alice", "alice@example.com", 100.0)).getUserId();
+      updatedTx = store.insertTransaction(
+          new Transaction(userId, 10.0, "FOOD", "lunch")).getTransactionId();
+      store.insertTransaction(new Transaction(userId, 20.0, "TRAVEL", "train"));
+
+      store.checkpoint();
+      assertEquals(1, filesMatching("*.log").size());
+      assertTrue(Files.exists(storeDir().resolve("snapshot.bin")));
+
+      store.updateTransaction(updatedTx, new Transaction(userId, 15.0, "FOOD", "dinner"));
+      store.insertTransaction(new Transaction(userId, 5.0, "OTHER", "after snapshot"));
+      store.updateBudget(userId, 300.0);
+    }
+
+    try (WalLedgerRepository store = new WalLedgerRepository(storeDir(), true)) {
+      assertEquals(300.0, store.findUser(userId).get().getBudget());
+      assertEquals(3, store.findTransactionsByUser(userId).size());
+      assertEquals("dinner", store.findTransaction(updatedTx).get().getDescription());
+      assertEquals(40.0, store.sumSpentSince(userId, LocalDate.now()));
+      assertTrue(store.getRecoveryMillis() >= 0);
+    }
+  }
+
+  /**
+   * Tests that writes racing with background snapshots are all recovered.
+   *
+   * <p>Partition: P7 (Valid).
+   */
+  @Test
+  public void reopen_writesDuringSnapshots_allRecovered() throws Exception {
+    final List<UUID> users = new ArrayList<>();
+    // A tiny threshold makes nearly every commit schedule a snapshot
+    try (WalLedgerRepository store = new WalLedgerRepository(storeDir(), false, 512)) {
+      for (int i = 0; i < 4; i++) {
+        users.add(store.insertUser(
+            new User("user" + i, "user" + i + "@example.com", 10.0)).getUserId());
+      }
+      final ExecutorService pool = Executors.newFixedThreadPool(4);
+      try {
+        final List<Future<?>> futures = new ArrayList<>();
+        for (final UUID id : users) {
+          futures.add(pool.submit(() -> {
+            for (int j = 0; j < 200; j++) {
+              final Transaction saved = store.insertTransaction(
+                  new Transaction(id, 1.0, "OTHER", "t" + j));
+              if (j % 2 == 0) {
+                store.deleteTransaction(saved.getTransactionId());
+              }
+            }
+            return null;
+          }));
+        }
+        for (final Future<?> future : futures) {
+          future.get();
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+
+    try (WalLedgerRepository store = new WalLedgerRepository(storeDir(), false, 512)) {
+      assertEquals(4, store.findAllUsers().size());
+      for (final UUID id : users) {
+        assertEquals(100, store.findTransactionsByUser(id).size());
+      }
+    }
+  }
+
+  /**
+   * Tests that a snapshot failing its checksum stops the store from opening.
+   *
+   * <p>Partition: P8 (Invalid).
+   */
+  @Test
+  public void open_corruptSnapshot_throws() throws IOException {
+    try (WalLedgerRepository store = new WalLedgerRepository(storeDir(), true)) {
+      store.insertUser(new User("alice", "alice@example.com", 100.0));
+      store.checkpoint();
+    }
+    final Path snapshot = storeDir().resolve("snapshot.bin");
+    final byte[] bytes = Files.readAllBytes(snapshot);
+    bytes[20] ^= 0x7F;
+    Files.write(snapshot, bytes);
+
+    assertThrows(IOException.class, () -> new WalLedgerRepository(storeDir(), true));
+  }
+}
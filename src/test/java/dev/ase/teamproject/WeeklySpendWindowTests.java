@@ -0,0 +1,231 @@
+package dev.ase.teamproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import dev.ase.teamproject.model.Transaction;
+import dev.ase.teamproject.model.TransactionCategory;
+import dev.ase.teamproject.service.WeeklySpendWindow;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the WeeklySpendWindow class.
+ *
+ * <h2>Equivalence Partitions Defined:</h2>
+ * <ul>
+ *   <li><b>transaction date</b>:
+ *     <ul>
+ *       <li>Valid: Today or up to seven days before - counted on its day</li>
+ *       <li>Boundary: Eight days before or older - not counted</li>
+ *     </ul>
+ *   </li>
+ *   <li><b>amount</b>: positive (counted), zero or negative (ignored)</li>
+ *   <li><b>buckets</b>: cold (loaded on read), warm (served from memory),
+ *       expired (reloaded)</li>
+ *   <li><b>write</b>: succeeds (applied), fails or has unknown previous
+ *       values (buckets discarded), in progress during a load (load not
+ *       installed)</li>
+ *   <li><b>size</b>: below the maximum, at it (least recently used evicted)</li>
+ * </ul>
+ */
+public class WeeklySpendWindowTests {
+
+  private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+  private final UUID userId = UUID.randomUUID();
+  private final List<Transaction> rows = new ArrayList<>();
+  private final AtomicInteger loads = new AtomicInteger();
+  private final BiFunction<UUID, LocalDate, List<Transaction>> loader = (id, since) -> {
+    loads.incrementAndGet();
+    final List<Transaction> result = new ArrayList<>();
+    for (final Transaction transaction : rows) {
+      if (!transaction.getDate().isBefore(since)) {
+        result.add(transaction);
+      }
+    }
+    return result;
+  };
+
+  private WeeklySpendWindow window;
+
+  /**
+   * Creates a window whose buckets do not expire during a test.
+   */
+  @BeforeEach
+  public void setUp() {
+    window = new WeeklySpendWindow(3600, 100);
+  }
+
+  /**
+   * Tests that the first read loads the days of the window and ignores older
+   * transactions and refunds.
+   */
+  @Test
+  public void dailyCents_coldUser_loadsWindowFromStore() {
+    rows.add(transaction(TODAY, 10.0));
+    rows.add(transaction(TODAY.minusDays(7), 2.5));
+    rows.add(transaction(TODAY.minusDays(8), 100.0));
+    rows.add(transaction(TODAY.minusDays(1), -4.0));
+
+    long[] cents = window.dailyCents(userId, TODAY, loader);
+
+    assertArrayEquals(new long[] {250, 0, 0, 0, 0, 0, 0, 1000}, cents);
+    assertEquals(1, loads.get());
+  }
+
+  /**
+   * Tests that once warm, writes update the buckets without another load.
+   */
+  @Test
+  public void write_warmUser_appliesChangeWithoutReload() {
+    rows.add(transaction(TODAY, 10.0));
+    window.dailyCents(userId, TODAY, loader);
+
+    window.write(userId, () -> true,
+        (buckets, ignored) -> buckets.add(TODAY, TransactionCategory.FOOD, 5.0));
+    window.write(userId, () -> true,
+        (buckets, ignored) -> buckets.remove(TODAY.minusDays(2), TransactionCategory.FOOD, 1.0));
+
+    long[] cents = window.dailyCents(userId, TODAY, loader);
+    assertEquals(1500, cents[7]);
+    assertEquals(-100, cents[5]);
+    assertEquals(1, loads.get());
+  }
+
+  /**
+   * Tests that buckets roll forward with the date: days that leave the window
+   * read as zero and their slots are reused for new days.
+   */
+  @Test
+  public void dailyCents_nextDay_dropsOldestDay() {
+    rows.add(transaction(TODAY.minusDays(7), 3.0));
+    rows.add(transaction(TODAY, 1.0));
+    window.dailyCents(userId, TODAY, loader);
+
+    LocalDate tomorrow = TODAY.plusDays(1);
+    window.write(userId, () -> true,
+        (buckets, ignored) -> buckets.add(tomorrow, TransactionCategory.FOOD, 2.0));
+    // Late write for a day whose slot now holds a newer day
+    window.write(userId, () -> true,
+        (buckets, ignored) -> buckets.add(TODAY.minusDays(7), TransactionCategory.FOOD, 9.0));
+
+    assertArrayEquals(new long[] {0, 0, 0, 0, 0, 0, 100, 200},
+        window.dailyCents(userId, tomorrow, loader));
+    assertEquals(1, loads.get());
+  }
+
+  /**
+   * Tests that expired buckets are reloaded from the store.
+   */
+  @Test
+  public void dailyCents_expired_reloads() {
+    window = new WeeklySpendWindow(0, 100);
+    window.dailyCents(userId, TODAY, loader);
+    rows.add(transaction(TODAY, 6.0));
+
+    assertEquals(600, window.dailyCents(userId, TODAY, loader)[7]);
+    assertEquals(2, loads.get());
+  }
+
+  /**
+   * Tests that a failed write discards the buckets so the next read reloads them.
+   */
+  @Test
+  public void write_fails_nextReadReloads() {
+    window.dailyCents(userId, TODAY, loader);
+
+    assertThrows(IllegalStateException.class, () -> window.write(userId, () -> {
+      rows.add(transaction(TODAY, 8.0));
+      throw new IllegalStateException("connection lost after commit");
+    }, (buckets, ignored) -> buckets.add(TODAY, TransactionCategory.FOOD, 8.0)));
+
+    assertEquals(800, window.dailyCents(userId, TODAY, loader)[7]);
+    assertEquals(2, loads.get());
+  }
+
+  /**
+   * Tests that rows read while a write is in progress are not installed, since
+   * they may or may not include that write.
+   */
+  @Test
+  public void load_writeInProgress_notInstalled() {
+    window.write(userId, () -> {
+      rows.add(transaction(TODAY, 4.0));
+      // A reader loads while the write has not yet reported back
+      assertEquals(400, window.dailyCents(userId, TODAY, loader)[7]);
+      return true;
+    }, (buckets, ignored) -> buckets.add(TODAY, TransactionCategory.FOOD, 4.0));
+
+    assertEquals(400, window.dailyCents(userId, TODAY, loader)[7]);
+    assertEquals(2, loads.get());
+  }
+
+  /**
+   * Tests that a forgotten user is loaded again on the next read.
+   */
+  @Test
+  public void forget_warmUser_nextReadReloads() {
+    window.dailyCents(userId, TODAY, loader);
+    window.forget(userId);
+
+    window.dailyCents(userId, TODAY, loader);
+    assertEquals(2, loads.get());
+  }
+
+  /**
+   * Tests that a write whose previous values are unknown discards the buckets,
+   * so the next read reloads them.
+   */
+  @Test
+  public void write_discards_nextReadReloads() {
+    window.dailyCents(userId, TODAY, loader);
+    rows.add(transaction(TODAY, 3.0));
+
+    window.write(userId, () -> true, (buckets, ignored) -> buckets.discard(TODAY));
+
+    assertEquals(300, window.dailyCents(userId, TODAY, loader)[7]);
+    assertEquals(2, loads.get());
+  }
+
+  /**
+   * Tests that a full window makes room by evicting its least recently used
+   * users, and keeps the others warm.
+   */
+  @Test
+  public void dailyCents_full_evictsLeastRecentlyUsed() {
+    window = new WeeklySpendWindow(3600, 8);
+    List<UUID> users = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      users.add(UUID.randomUUID());
+      window.dailyCents(users.get(i), TODAY, loader);
+    }
+    for (int i = 7; i > 0; i--) {
+      window.dailyCents(users.get(i), TODAY, loader);
+    }
+
+    window.dailyCents(UUID.randomUUID(), TODAY, loader);
+    assertEquals(9, loads.get());
+    for (int i = 1; i < 8; i++) {
+      window.dailyCents(users.get(i), TODAY, loader);
+    }
+    assertEquals(9, loads.get());
+    window.dailyCents(users.get(0), TODAY, loader);
+    assertEquals(10, loads.get());
+  }
+
+  private Transaction transaction(final LocalDate date, final double amount) {
+    Transaction transaction = new Transaction(userId, amount, "FOOD", "test");
+    transaction.setTimestamp(LocalDateTime.of(date, LocalTime.NOON));
+    return transaction;
+  }
+}